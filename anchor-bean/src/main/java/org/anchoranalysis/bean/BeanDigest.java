@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * anchor-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.bean;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.anchoranalysis.bean.exception.BeanStrangeException;
+
+/**
+ * Calculates a digest of a bean's class and the values of all its bean-fields, recursively.
+ *
+ * <p>Two beans have an identical digest when they have the same class, and their bean-fields have
+ * identical values, including any child beans. It can therefore identify when a configuration has
+ * changed between executions.
+ *
+ * <p>A field value that is neither a bean nor a collection is described by its {@link
+ * Object#toString}, so a value without a meaningful {@link Object#toString} produces a digest
+ * that differs between executions.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BeanDigest {
+
+    /** The algorithm used to calculate the digest. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** Separates the tokens that are combined to form the digest, so they cannot be confused. */
+    private static final byte SEPARATOR = 0;
+
+    /**
+     * Calculates the digest of a bean.
+     *
+     * @param bean the bean to calculate a digest for.
+     * @return the digest, as a lower-case hexadecimal string.
+     */
+    public static String digest(AnchorBean<?> bean) {
+        MessageDigest digest = createDigest();
+        update(digest, bean);
+        StringBuilder builder = new StringBuilder();
+        for (byte value : digest.digest()) {
+            builder.append(String.format("%02x", value));
+        }
+        return builder.toString();
+    }
+
+    /** Adds a value to the digest, recursively visiting beans and collections. */
+    private static void update(MessageDigest digest, Object value) {
+        if (value instanceof AnchorBean<?> beanCast) {
+            updateToken(digest, beanCast.getClass().getName());
+            for (Field field : beanCast.fields()) {
+                updateToken(digest, field.getName());
+                update(digest, valueOf(field, beanCast));
+            }
+            updateToken(digest, ")");
+        } else if (value instanceof Collection<?> collectionCast) {
+            updateToken(digest, "[" + collectionCast.size());
+            for (Object element : collectionCast) {
+                update(digest, element);
+            }
+        } else {
+            updateToken(digest, String.valueOf(value));
+        }
+    }
+
+    private static void updateToken(MessageDigest digest, String token) {
+        digest.update(token.getBytes(StandardCharsets.UTF_8));
+        digest.update(SEPARATOR);
+    }
+
+    private static Object valueOf(Field field, AnchorBean<?> bean) {
+        try {
+            return field.get(bean);
+        } catch (IllegalAccessException e) {
+            throw new BeanStrangeException(
+                    String.format("Cannot access field %s to calculate a digest", field.getName()),
+                    e);
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeanStrangeException(ALGORITHM + " is unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*-
+ * #%L
+ * anchor-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.anchoranalysis.bean.xml.mock.MockBeanSimple;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BeanDigest}.
+ *
+ * @author Owen Feehan
+ */
+class BeanDigestTest {
+
+    /** Beans with identical field values have an identical digest. */
+    @Test
+    void testIdentical() {
+        assertEquals(digestFor("hello"), digestFor("hello"));
+    }
+
+    /** Beans with different field values have a different digest. */
+    @Test
+    void testDifferent() {
+        assertNotEquals(digestFor("hello"), digestFor("world"));
+        assertNotEquals(digestFor("hello"), digestFor(null));
+    }
+
+    private static String digestFor(String message) {
+        MockBeanSimple bean = new MockBeanSimple();
+        bean.setMessage(message);
+        return BeanDigest.digest(bean);
+    }
+}
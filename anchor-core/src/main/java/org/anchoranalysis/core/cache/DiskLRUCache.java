@@ -0,0 +1,234 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.core.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import org.anchoranalysis.core.functional.checked.CheckedConsumer;
+import org.anchoranalysis.core.functional.checked.CheckedFunction;
+
+/**
+ * A cache that stores entries as files in a directory, discarding the least recently used entries
+ * when the total size of all entries exceeds a limit.
+ *
+ * <p>Entries persist across executions. On creation, any existing entries in the directory are
+ * indexed, ordered by their last-modified time, which is updated whenever an entry is used.
+ *
+ * <p>Each entry is written to a temporary file, which is then atomically moved into place, so an
+ * entry is either complete or absent.
+ *
+ * <p>It's thread-safe, but should not be used concurrently by more than one process.
+ *
+ * @author Owen Feehan
+ */
+public class DiskLRUCache {
+
+    /** The extension of the file for each entry. */
+    private static final String EXTENSION = ".entry";
+
+    /** The extension of a file while it is being written, before it becomes an entry. */
+    private static final String EXTENSION_TEMPORARY = ".tmp";
+
+    /** The directory in which entries are stored. */
+    private final Path directory;
+
+    /** The maximum total size in bytes of all entries. */
+    private final long maxBytes;
+
+    /** The size of each entry, by key, in order of least-recent to most-recent use. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The total size in bytes of all entries. */
+    private long totalBytes = 0;
+
+    /**
+     * Creates for a directory, indexing any existing entries.
+     *
+     * <p>Any incomplete temporary files, left by an interruption, are deleted.
+     *
+     * @param directory the directory in which entries are stored, which is created if it does not
+     *     exist.
+     * @param maxBytes the maximum total size in bytes of all entries.
+     * @throws IOException if the directory cannot be created or listed.
+     */
+    public DiskLRUCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        File[] files = directory.toFile().listFiles();
+        if (files == null) {
+            throw new IOException("Cannot list the files in the cache directory: " + directory);
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(EXTENSION)) {
+                addEntry(name.substring(0, name.length() - EXTENSION.length()), file.length());
+            } else if (name.endsWith(EXTENSION_TEMPORARY)) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Reads an entry, if it exists, marking it as the most recently used.
+     *
+     * <p>An entry that cannot be read is discarded, and is treated as absent.
+     *
+     * @param <T> the type of value read from the entry.
+     * @param key the key identifying the entry, which must be a valid file-name.
+     * @param reader reads the value from the entry's contents.
+     * @return the value read, or {@link Optional#empty} if no entry exists for {@code key}.
+     */
+    public <T> Optional<T> read(
+            String key, CheckedFunction<DataInputStream, T, IOException> reader) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return Optional.empty();
+            }
+        }
+
+        Path path = pathFor(key);
+        try (DataInputStream stream =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            T value = reader.apply(stream);
+            path.toFile().setLastModified(System.currentTimeMillis()); // NOSONAR
+            return Optional.of(value);
+        } catch (NoSuchFileException e) {
+            remove(key);
+            return Optional.empty();
+        } catch (IOException e) {
+            remove(key);
+            deleteQuietly(path);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes an entry, replacing any existing entry with the same key.
+     *
+     * <p>Least recently used entries are then discarded, until the total size is within the
+     * limit. An entry that alone exceeds the limit is not stored.
+     *
+     * @param key the key identifying the entry, which must be a valid file-name.
+     * @param writer writes the entry's contents.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void write(String key, CheckedConsumer<DataOutputStream, IOException> writer)
+            throws IOException {
+        Path path = pathFor(key);
+        Path temporary = Files.createTempFile(directory, "new-" + key, EXTENSION_TEMPORARY);
+        try {
+            try (DataOutputStream stream =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                writer.accept(stream);
+            }
+            long size = Files.size(temporary);
+            if (size > maxBytes) {
+                return;
+            }
+            synchronized (this) {
+                Files.move(
+                        temporary,
+                        path,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                removeEntry(key);
+                addEntry(key, size);
+                evict();
+            }
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    /**
+     * The total size of all entries.
+     *
+     * @return the total size in bytes.
+     */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /** Removes the least recently used entries, until the total size is within the limit. */
+    private synchronized void evict() {
+        Iterator<Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            deleteQuietly(pathFor(eldest.getKey()));
+        }
+    }
+
+    private synchronized void remove(String key) {
+        removeEntry(key);
+    }
+
+    private void addEntry(String key, long size) {
+        entries.put(key, size);
+        totalBytes += size;
+    }
+
+    private void removeEntry(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private Path pathFor(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Ignored, as a file that remains is only wasted space
+        }
+    }
+}
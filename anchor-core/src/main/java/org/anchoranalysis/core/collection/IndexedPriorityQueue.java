@@ -0,0 +1,286 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.core.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A binary-heap priority-queue, that additionally indexes the position of each element in the
+ * heap.
+ *
+ * <p>Unlike {@link PriorityQueue} this allows arbitrary elements to be removed, or to have their
+ * priority updated, in {@code O(log n)} time, rather than requiring a linear search.
+ *
+ * <p>Elements are indexed by <b>identity</b> (as in an {@link IdentityHashMap}), not by {@link
+ * Object#equals}. Any particular instance may only exist once in the queue at a time.
+ *
+ * <p>Like {@link PriorityQueue}, the <i>head</i> of the queue is the <b>least</b> element as
+ * determined by the ordering.
+ *
+ * <p>This structure is not inherently thread-safe.
+ *
+ * @author Owen Feehan
+ * @param <T> element-type
+ */
+public class IndexedPriorityQueue<T> {
+
+    /** The elements, arranged as a binary heap. */
+    private final List<T> heap;
+
+    /** The current position of each element in {@code heap}. */
+    private final Map<T, Integer> positions;
+
+    /** Imposes the ordering on elements. */
+    private final Comparator<? super T> comparator;
+
+    /**
+     * Creates an empty queue, with a particular ordering.
+     *
+     * @param comparator the ordering to impose on elements.
+     */
+    public IndexedPriorityQueue(Comparator<? super T> comparator) {
+        this.heap = new ArrayList<>();
+        this.positions = new IdentityHashMap<>();
+        this.comparator = comparator;
+    }
+
+    /**
+     * Creates a queue populated with elements, with a particular ordering.
+     *
+     * <p>The heap is constructed in linear time.
+     *
+     * @param elements the elements to initially populate the queue with.
+     * @param comparator the ordering to impose on elements.
+     * @throws IllegalArgumentException if the same instance occurs more than once in {@code
+     *     elements}.
+     */
+    public IndexedPriorityQueue(Collection<T> elements, Comparator<? super T> comparator) {
+        this.heap = new ArrayList<>(elements);
+        this.positions = new IdentityHashMap<>(elements.size());
+        this.comparator = comparator;
+        for (int i = 0; i < heap.size(); i++) {
+            if (positions.put(heap.get(i), i) != null) {
+                throw new IllegalArgumentException(
+                        "The same element instance occurs more than once.");
+            }
+        }
+        for (int i = (heap.size() / 2) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Creates a queue populated with elements, using their natural ordering.
+     *
+     * @param <S> element-type, which must be {@link Comparable}.
+     * @param elements the elements to initially populate the queue with.
+     * @return a newly created queue, containing {@code elements}.
+     */
+    public static <S extends Comparable<? super S>> IndexedPriorityQueue<S> naturalOrder(
+            Collection<S> elements) {
+        return new IndexedPriorityQueue<>(elements, Comparator.naturalOrder());
+    }
+
+    /**
+     * Adds an element to the queue.
+     *
+     * @param element the element to add.
+     * @throws IllegalArgumentException if the instance already exists in the queue.
+     */
+    public void add(T element) {
+        int index = heap.size();
+        if (positions.putIfAbsent(element, index) != null) {
+            throw new IllegalArgumentException("The element already exists in the queue.");
+        }
+        heap.add(element);
+        siftUp(index);
+    }
+
+    /**
+     * The head of the queue, without removing it.
+     *
+     * @return the least element, or null, if the queue is empty.
+     */
+    public T peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    /**
+     * The head of the queue, removing it from the queue.
+     *
+     * @return the least element, or null, if the queue is empty.
+     */
+    public T poll() {
+        if (heap.isEmpty()) {
+            return null;
+        }
+        return removeAt(0);
+    }
+
+    /**
+     * Removes a particular element from the queue.
+     *
+     * @param element the element to remove, compared by identity.
+     * @return true if the element existed, and was removed, false if it did not exist.
+     */
+    public boolean remove(T element) {
+        Integer index = positions.get(element);
+        if (index == null) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Restores the ordering of the queue, after the priority of an element has changed.
+     *
+     * <p>This should be called whenever a change to an element affects its ordering, while it
+     * exists in the queue.
+     *
+     * @param element the element whose priority has changed, compared by identity.
+     * @return true if the element exists in the queue, false otherwise (and nothing occurs).
+     */
+    public boolean update(T element) {
+        Integer index = positions.get(element);
+        if (index == null) {
+            return false;
+        }
+        if (!siftUp(index)) {
+            siftDown(index);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a particular element exists in the queue.
+     *
+     * @param element the element to search for, compared by identity.
+     * @return true iff the element exists in the queue.
+     */
+    public boolean contains(T element) {
+        return positions.containsKey(element);
+    }
+
+    /**
+     * The number of elements in the queue.
+     *
+     * @return the number of elements.
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Whether the queue is empty.
+     *
+     * @return true iff no elements exist in the queue.
+     */
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /** Removes the element at a particular index in the heap, restoring the heap property. */
+    private T removeAt(int index) {
+        T removed = heap.get(index);
+        positions.remove(removed);
+
+        int lastIndex = heap.size() - 1;
+        T last = heap.remove(lastIndex);
+        if (index != lastIndex) {
+            place(last, index);
+            if (!siftUp(index)) {
+                siftDown(index);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Moves the element at {@code index} towards the root, until the heap property is satisfied.
+     *
+     * @return true if the element was moved, false otherwise.
+     */
+    private boolean siftUp(int index) {
+        T element = heap.get(index);
+        int current = index;
+        while (current > 0) {
+            int parent = (current - 1) / 2;
+            T parentElement = heap.get(parent);
+            if (comparator.compare(element, parentElement) >= 0) {
+                break;
+            }
+            place(parentElement, current);
+            current = parent;
+        }
+        if (current != index) {
+            place(element, current);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Moves the element at {@code index} towards the leaves, until the heap property is satisfied.
+     */
+    private void siftDown(int index) {
+        T element = heap.get(index);
+        int size = heap.size();
+        int current = index;
+        while (true) {
+            int child = (2 * current) + 1;
+            if (child >= size) {
+                break;
+            }
+            int right = child + 1;
+            if (right < size && comparator.compare(heap.get(right), heap.get(child)) < 0) {
+                child = right;
+            }
+            T childElement = heap.get(child);
+            if (comparator.compare(element, childElement) <= 0) {
+                break;
+            }
+            place(childElement, current);
+            current = child;
+        }
+        if (current != index) {
+            place(element, current);
+        }
+    }
+
+    /** Places an element at a particular index in the heap, and records its position. */
+    private void place(T element, int index) {
+        heap.set(index, element);
+        positions.put(element, index);
+    }
+}
@@ -54,7 +54,10 @@ public enum NonImageFileFormat implements FileFormat {
     SERIALIZED_XML("ser.xml"),
 
     /** Binary serialization format from Java native serialization. */
-    SERIALIZED_BINARY("ser");
+    SERIALIZED_BINARY("ser"),
+
+    /** Apache Parquet, a columnar binary format for tabular data. */
+    PARQUET("parquet");
 
     /** The extension associated with a particular format. */
     private final String extension;
@@ -41,6 +41,29 @@ import org.anchoranalysis.core.functional.checked.CheckedFunction;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class FunctionalListParallel {
 
+    /**
+     * Maps a collection to a list with each element derived from a corresponding element in the
+     * original collection, tolerating exceptions in the mapping function.
+     *
+     * @param <S> parameter-type for function
+     * @param <T> return-type for function
+     * @param <E> an exception that may be thrown by an {@code mapFunction}
+     * @param collection the collection to be mapped.
+     * @param throwableClass class type of exception that may be thrown by {@code mapFunction}.
+     * @param mapFunction function to do the mapping.
+     * @return a list with the same size and same order, but using derived elements that are a
+     *     result of the mapping.
+     * @throws E if it is thrown by any call to {@code mapFunction}
+     */
+    public static <S, T, E extends Exception> List<T> mapToList(
+            Collection<S> collection,
+            Class<? extends Exception> throwableClass,
+            CheckedFunction<S, T, E> mapFunction)
+            throws E {
+        Stream<S> stream = collection.stream().parallel();
+        return FunctionalList.mapToList(stream, throwableClass, mapFunction);
+    }
+
     /**
      * Maps a collection to a list with each element in the original collection maybe producing an
      * element in the output.
@@ -0,0 +1,412 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.core.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+import org.anchoranalysis.core.exception.OperationFailedException;
+
+/**
+ * A compact undirected graph, whose vertices are identified by consecutive non-negative integers.
+ *
+ * <p>Each vertex stores the vertices it is adjacent to, and an optional integer weight for each
+ * edge, in primitive arrays. This avoids any boxing, hashing or object-allocation per edge, unlike
+ * {@link GraphWithPayload} and {@link GraphWithoutPayload}.
+ *
+ * <p>It is intended for algorithms that only need integer vertices (e.g. the index of an element
+ * in a list), where the caller maintains any mapping from a vertex to a corresponding element.
+ *
+ * <p>Removed vertices retain their identifier, which is never reused.
+ *
+ * <p>This structure is not inherently thread-safe.
+ *
+ * @author Owen Feehan
+ */
+public class IndexedGraph {
+
+    /** The initial capacity of the adjacency-list for a vertex, when its first edge is added. */
+    private static final int INITIAL_ADJACENT_CAPACITY = 4;
+
+    /** The vertices adjacent to each vertex, with only the first {@code degree} valid. */
+    private int[][] adjacent;
+
+    /** The weight of each edge, corresponding to the entries in {@code adjacent}. */
+    private int[][] weights;
+
+    /** The number of valid entries in {@code adjacent} and {@code weights} for each vertex. */
+    private int[] degree;
+
+    /** Which vertex identifiers have been removed. */
+    private final BitSet removed = new BitSet();
+
+    /** The total number of vertex identifiers that have been assigned, including removed ones. */
+    private int numberIdentifiers;
+
+    /** The number of vertices currently in the graph, excluding removed ones. */
+    private int numberVertices;
+
+    /** The number of edges currently in the graph. */
+    private int numberEdges = 0;
+
+    /**
+     * Creates with a particular number of vertices, and no edges.
+     *
+     * @param numberVertices the number of vertices, identified by {@code 0} (inclusive) to {@code
+     *     numberVertices} (exclusive).
+     */
+    public IndexedGraph(int numberVertices) {
+        int capacity = Math.max(numberVertices, 1);
+        this.adjacent = new int[capacity][];
+        this.weights = new int[capacity][];
+        this.degree = new int[capacity];
+        this.numberIdentifiers = numberVertices;
+        this.numberVertices = numberVertices;
+    }
+
+    /**
+     * Adds a new vertex, with no edges.
+     *
+     * @return the identifier of the newly-added vertex.
+     */
+    public int addVertex() {
+        if (numberIdentifiers == degree.length) {
+            int capacity = degree.length * 2;
+            adjacent = Arrays.copyOf(adjacent, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+        }
+        numberVertices++;
+        return numberIdentifiers++;
+    }
+
+    /**
+     * Does the graph contain a particular vertex?
+     *
+     * @param vertex the vertex to check if it is contained.
+     * @return true iff the graph contains the vertex.
+     */
+    public boolean containsVertex(int vertex) {
+        return vertex >= 0 && vertex < numberIdentifiers && !removed.get(vertex);
+    }
+
+    /**
+     * Removes a vertex and any edges connected to it.
+     *
+     * @param vertex the vertex to remove.
+     * @throws OperationFailedException if the vertex doesn't exist in the graph.
+     */
+    public void removeVertex(int vertex) throws OperationFailedException {
+        if (!containsVertex(vertex)) {
+            throw new OperationFailedException(
+                    String.format(
+                            "A vertex cannot be removed, because it does not exist in the graph: %d",
+                            vertex));
+        }
+
+        for (int other : adjacentVertices(vertex)) {
+            if (other != vertex) {
+                removeFromAdjacent(other, vertex);
+            }
+        }
+        numberEdges -= degree[vertex];
+
+        adjacent[vertex] = null;
+        weights[vertex] = null;
+        degree[vertex] = 0;
+        removed.set(vertex);
+        numberVertices--;
+    }
+
+    /**
+     * Adds an edge between two vertices, with a weight of zero.
+     *
+     * <p>If the edge already exists, its weight is replaced.
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins.
+     * @throws IllegalArgumentException if either vertex doesn't exist in the graph.
+     */
+    public void addEdge(int vertex1, int vertex2) {
+        addEdge(vertex1, vertex2, 0);
+    }
+
+    /**
+     * Adds an edge between two vertices, with a particular weight.
+     *
+     * <p>If the edge already exists, its weight is replaced.
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins.
+     * @param weight the weight of the edge.
+     * @throws IllegalArgumentException if either vertex doesn't exist in the graph.
+     */
+    public void addEdge(int vertex1, int vertex2, int weight) {
+        checkVerticesExist(vertex1, vertex2);
+        int existing = indexInAdjacent(vertex1, vertex2);
+        if (existing != -1) {
+            weights[vertex1][existing] = weight;
+            weights[vertex2][indexInAdjacent(vertex2, vertex1)] = weight;
+        } else {
+            appendToAdjacent(vertex1, vertex2, weight);
+            if (vertex1 != vertex2) {
+                appendToAdjacent(vertex2, vertex1, weight);
+            }
+            numberEdges++;
+        }
+    }
+
+    /**
+     * Adds an edge between two vertices, with a particular weight, <b>without checking</b> if it
+     * already exists.
+     *
+     * <p>This is more efficient than {@link #addEdge(int, int, int)}, but the caller must
+     * guarantee that the edge does not already exist, e.g. by adding edges only from a
+     * lower-identifier vertex to a higher-identifier vertex.
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins, which must differ from {@code vertex1}.
+     * @param weight the weight of the edge.
+     * @throws IllegalArgumentException if either vertex doesn't exist in the graph.
+     */
+    public void addEdgeUnchecked(int vertex1, int vertex2, int weight) {
+        checkVerticesExist(vertex1, vertex2);
+        appendToAdjacent(vertex1, vertex2, weight);
+        appendToAdjacent(vertex2, vertex1, weight);
+        numberEdges++;
+    }
+
+    /**
+     * Removes an edge between two vertices, if it exists.
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins.
+     */
+    public void removeEdge(int vertex1, int vertex2) {
+        if (removeFromAdjacent(vertex1, vertex2)) {
+            if (vertex1 != vertex2) {
+                removeFromAdjacent(vertex2, vertex1);
+            }
+            numberEdges--;
+        }
+    }
+
+    /**
+     * Does the graph contain a particular edge?
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins.
+     * @return true iff an edge exists between {@code vertex1} and {@code vertex2}.
+     */
+    public boolean containsEdge(int vertex1, int vertex2) {
+        return indexInAdjacent(vertex1, vertex2) != -1;
+    }
+
+    /**
+     * The weight of the edge between two vertices.
+     *
+     * @param vertex1 the first vertex the edge joins.
+     * @param vertex2 the second vertex the edge joins.
+     * @return the weight of the edge, or {@link OptionalInt#empty} if no edge exists.
+     */
+    public OptionalInt edgeWeight(int vertex1, int vertex2) {
+        int index = indexInAdjacent(vertex1, vertex2);
+        if (index != -1) {
+            return OptionalInt.of(weights[vertex1][index]);
+        } else {
+            return OptionalInt.empty();
+        }
+    }
+
+    /**
+     * The number of edges connected to a vertex.
+     *
+     * @param vertex the vertex.
+     * @return the number of edges.
+     */
+    public int degree(int vertex) {
+        return degree[vertex];
+    }
+
+    /**
+     * The vertices that are connected to a particular vertex by an edge.
+     *
+     * @param vertex the vertex to find adjacent vertices for.
+     * @return a newly-created array of all vertices, to which an edge exists from {@code vertex}.
+     */
+    public int[] adjacentVertices(int vertex) {
+        if (degree[vertex] == 0) {
+            return new int[0];
+        }
+        return Arrays.copyOf(adjacent[vertex], degree[vertex]);
+    }
+
+    /**
+     * Like {@link #adjacentVertices} but returns an {@link IntStream} instead of an array.
+     *
+     * @param vertex the vertex to find adjacent vertices for.
+     * @return all vertices to which an edge exists from {@code vertex}.
+     */
+    public IntStream adjacentVerticesStream(int vertex) {
+        return IntStream.of(adjacentVertices(vertex));
+    }
+
+    /**
+     * Merges two existing vertices together into a newly-added vertex.
+     *
+     * <p>The two existing vertices are removed, and any edges to them are connected instead to the
+     * newly-added vertex. If both vertices have an edge to the same vertex, the weight of the edge
+     * from {@code vertex2} is retained.
+     *
+     * @param vertex1 the first vertex to merge.
+     * @param vertex2 the second vertex to merge.
+     * @return the identifier of the newly-added vertex that replaces {@code vertex1} and {@code
+     *     vertex2}.
+     * @throws OperationFailedException if either vertex doesn't exist in the graph.
+     */
+    public int mergeVertices(int vertex1, int vertex2) throws OperationFailedException {
+        // Checked before any change, so the graph is unaltered if either is missing
+        if (!containsVertex(vertex1) || !containsVertex(vertex2)) {
+            throw new OperationFailedException(
+                    String.format(
+                            "Vertices cannot be merged, as at least one does not exist in the graph: %d and %d",
+                            vertex1, vertex2));
+        }
+
+        int[] adjacent1 = adjacentVertices(vertex1);
+        int[] weights1 = weightsFor(vertex1);
+        int[] adjacent2 = adjacentVertices(vertex2);
+        int[] weights2 = weightsFor(vertex2);
+
+        removeVertex(vertex1);
+        removeVertex(vertex2);
+
+        int merged = addVertex();
+        addEdgesExcept(merged, adjacent1, weights1, vertex2);
+        addEdgesExcept(merged, adjacent2, weights2, vertex1);
+        return merged;
+    }
+
+    /**
+     * The number of vertices in the graph.
+     *
+     * @return the number of vertices, excluding any removed vertices.
+     */
+    public int numberVertices() {
+        return numberVertices;
+    }
+
+    /**
+     * The number of edges in the graph.
+     *
+     * @return the number of edges.
+     */
+    public int numberEdges() {
+        return numberEdges;
+    }
+
+    /**
+     * All vertices in the graph.
+     *
+     * @return a stream of the identifiers of all vertices, in ascending order, excluding any
+     *     removed vertices.
+     */
+    public IntStream vertices() {
+        return IntStream.range(0, numberIdentifiers).filter(vertex -> !removed.get(vertex));
+    }
+
+    /** Adds edges from {@code vertex} to each of {@code others}, except {@code exclude}. */
+    private void addEdgesExcept(int vertex, int[] others, int[] otherWeights, int exclude) {
+        for (int i = 0; i < others.length; i++) {
+            if (others[i] != exclude) {
+                addEdge(vertex, others[i], otherWeights[i]);
+            }
+        }
+    }
+
+    /** Throws an exception unless both vertices exist in the graph. */
+    private void checkVerticesExist(int vertex1, int vertex2) {
+        if (!containsVertex(vertex1) || !containsVertex(vertex2)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "An edge cannot be added, as at least one vertex does not exist in the graph: %d and %d",
+                            vertex1, vertex2));
+        }
+    }
+
+    /** A newly-created array of the weights of the edges connected to a vertex. */
+    private int[] weightsFor(int vertex) {
+        if (degree[vertex] == 0) {
+            return new int[0];
+        }
+        return Arrays.copyOf(weights[vertex], degree[vertex]);
+    }
+
+    /** The index of {@code other} in the adjacency-list of {@code vertex}, or -1 if absent. */
+    private int indexInAdjacent(int vertex, int other) {
+        int[] list = adjacent[vertex];
+        for (int i = 0; i < degree[vertex]; i++) {
+            if (list[i] == other) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Appends to the adjacency-list of {@code vertex}, growing it as needed. */
+    private void appendToAdjacent(int vertex, int other, int weight) {
+        if (adjacent[vertex] == null) {
+            adjacent[vertex] = new int[INITIAL_ADJACENT_CAPACITY];
+            weights[vertex] = new int[INITIAL_ADJACENT_CAPACITY];
+        } else if (degree[vertex] == adjacent[vertex].length) {
+            int capacity = adjacent[vertex].length * 2;
+            adjacent[vertex] = Arrays.copyOf(adjacent[vertex], capacity);
+            weights[vertex] = Arrays.copyOf(weights[vertex], capacity);
+        }
+        adjacent[vertex][degree[vertex]] = other;
+        weights[vertex][degree[vertex]] = weight;
+        degree[vertex]++;
+    }
+
+    /**
+     * Removes {@code other} from the adjacency-list of {@code vertex}, preserving the order of the
+     * remaining entries.
+     *
+     * @return true if {@code other} was found and removed, false otherwise.
+     */
+    private boolean removeFromAdjacent(int vertex, int other) {
+        int index = indexInAdjacent(vertex, other);
+        if (index == -1) {
+            return false;
+        }
+        int numberAfter = degree[vertex] - index - 1;
+        System.arraycopy(adjacent[vertex], index + 1, adjacent[vertex], index, numberAfter);
+        System.arraycopy(weights[vertex], index + 1, weights[vertex], index, numberAfter);
+        degree[vertex]--;
+        return true;
+    }
+}
@@ -57,6 +57,9 @@ public class LazyEvaluationStore<T> implements NamedProviderStore<T> {
 
     private HashMap<String, CachedSupplier<T, OperationFailedException>> map = new HashMap<>();
 
+    /** If present, notified whenever an element is retrieved. */
+    private Optional<RetrievalListener> listener = Optional.empty();
+
     @Override
     public T getException(String key) throws NamedProviderGetException {
         return getOptional(key)
@@ -66,10 +69,13 @@ public class LazyEvaluationStore<T> implements NamedProviderStore<T> {
 
     @Override
     public Optional<T> getOptional(String key) throws NamedProviderGetException {
+        listener.ifPresent(retrieval -> retrieval.beforeRetrieval(key));
         try {
             return OptionalUtilities.map(Optional.ofNullable(map.get(key)), CachedSupplier::get);
         } catch (Exception e) {
             throw new NamedProviderGetException(key, e);
+        } finally {
+            listener.ifPresent(retrieval -> retrieval.afterRetrieval(key));
         }
     }
 
@@ -83,4 +89,14 @@ public class LazyEvaluationStore<T> implements NamedProviderStore<T> {
     public void add(String identifier, StoreSupplier<T> supplier) throws OperationFailedException {
         map.put(identifier, StoreSupplier.cacheResettable(supplier));
     }
+
+    /**
+     * Assigns a listener to be notified whenever an element is retrieved, replacing any existing
+     * listener.
+     *
+     * @param listener the listener.
+     */
+    public void assignListener(RetrievalListener listener) {
+        this.listener = Optional.of(listener);
+    }
 }
@@ -0,0 +1,52 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.core.identifier.provider.store;
+
+/**
+ * Notified whenever an element is retrieved from a {@link LazyEvaluationStore}.
+ *
+ * <p>Any evaluation of the element, as it is retrieved for the first time, occurs between the two
+ * notifications.
+ *
+ * @author Owen Feehan
+ */
+public interface RetrievalListener {
+
+    /**
+     * Called before an element is retrieved.
+     *
+     * @param identifier the identifier of the element, which may not exist in the store.
+     */
+    void beforeRetrieval(String identifier);
+
+    /**
+     * Called after an element is retrieved, or fails to be retrieved.
+     *
+     * @param identifier the identifier of the element, which may not exist in the store.
+     */
+    void afterRetrieval(String identifier);
+}
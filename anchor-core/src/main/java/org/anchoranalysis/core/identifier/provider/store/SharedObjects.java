@@ -28,6 +28,8 @@ package org.anchoranalysis.core.identifier.provider.store;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.anchoranalysis.core.log.CommonContext;
@@ -50,7 +52,10 @@ public class SharedObjects {
     // END REQUIRED ARGUMENTS
 
     /** A set of NamedItemStores, partitioned by Class<?> */
-    private Map<Class<?>, NamedProviderStore<?>> setStores = new HashMap<>();
+    private Map<Class<?>, LazyEvaluationStore<?>> setStores = new HashMap<>();
+
+    /** If present, creates a listener for each store, identified by its key. */
+    private Optional<Function<Class<?>, RetrievalListener>> listenerForStore = Optional.empty();
 
     /**
      * Gets an existing store, or creates a new one
@@ -61,8 +66,24 @@ public class SharedObjects {
      */
     @SuppressWarnings("unchecked")
     public <T> NamedProviderStore<T> getOrCreate(Class<?> key) {
-        return (NamedProviderStore<T>)
-                setStores.computeIfAbsent(
-                        key, cls -> new LazyEvaluationStore<>(cls.getSimpleName()));
+        return (NamedProviderStore<T>) setStores.computeIfAbsent(key, this::createStore);
+    }
+
+    /**
+     * Listens to any retrieval of an element from any store, whether it already exists, or is
+     * created later.
+     *
+     * @param listenerForStore creates a listener for the store with a particular key.
+     */
+    public void listenForRetrievals(Function<Class<?>, RetrievalListener> listenerForStore) {
+        this.listenerForStore = Optional.of(listenerForStore);
+        setStores.forEach((key, store) -> store.assignListener(listenerForStore.apply(key)));
+    }
+
+    /** Creates a new store, with a listener if one is enabled. */
+    private LazyEvaluationStore<?> createStore(Class<?> key) {
+        LazyEvaluationStore<?> store = new LazyEvaluationStore<>(key.getSimpleName());
+        listenerForStore.ifPresent(listener -> store.assignListener(listener.apply(key)));
+        return store;
     }
 }
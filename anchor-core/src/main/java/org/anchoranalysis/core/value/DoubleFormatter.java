@@ -0,0 +1,216 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.core.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats {@code double} values as text, identically to {@link TypedValue}, but appending to a
+ * {@link StringBuilder} without creating a {@link DecimalFormat} for each value.
+ *
+ * <p>With a fixed number of decimal places, most values are formatted directly from a scaled
+ * integer. The few values where this could round differently to {@link DecimalFormat} (ties,
+ * very large magnitudes, infinities, negative values that round to zero, or locales with unusual
+ * digits) are instead formatted by a {@link DecimalFormat}, created once per instance.
+ *
+ * <p>An instance is not thread-safe.
+ *
+ * @author Owen Feehan
+ */
+public class DoubleFormatter {
+
+    /** Indicates that values are visually shortened, rather than a fixed number of decimals. */
+    public static final int VISUALLY_SHORTENED = -1;
+
+    /** The default maximum number of fraction digits of a {@link DecimalFormat}. */
+    private static final int DEFAULT_MAXIMUM_FRACTION_DIGITS = 3;
+
+    /** The most fraction digits whose scale can be represented exactly as a {@code long}. */
+    private static final int MAX_FAST_FRACTION_DIGITS = 15;
+
+    /** Scaled values at or above this are not formatted directly. */
+    private static final double MAX_SCALED = 1e15;
+
+    /** A bound on the relative error introduced when scaling a value. */
+    private static final double RELATIVE_ERROR_SCALING = Math.ulp(1.0) * 2;
+
+    private static final String NAN = "NaN";
+
+    /** The minimum number of fraction digits, or {@link #VISUALLY_SHORTENED}. */
+    private final int minimumFractionDigits;
+
+    /** The maximum number of fraction digits. */
+    private final int maximumFractionDigits;
+
+    /** Ten to the power of {@code maximumFractionDigits}. */
+    private final long scale;
+
+    /** Whether values may be formatted directly, rather than via {@code fallback}. */
+    private final boolean directPermitted;
+
+    /** The decimal separator for the default locale. */
+    private final char decimalSeparator;
+
+    /** Formats values that cannot be formatted directly, created when first needed. */
+    private DecimalFormat fallback;
+
+    /** Digits of the fractional part, in reverse order. */
+    private final char[] fractionDigits = new char[MAX_FAST_FRACTION_DIGITS];
+
+    /**
+     * Creates to format with a particular number of decimal places.
+     *
+     * @param numberDecimalPlaces the number of decimal places, with the same meaning as in {@link
+     *     TypedValue#TypedValue(double, int)}, or {@link #VISUALLY_SHORTENED} to format as in
+     *     {@link TypedValue#TypedValue(double)}.
+     */
+    public DoubleFormatter(int numberDecimalPlaces) {
+        this.minimumFractionDigits = numberDecimalPlaces;
+        this.maximumFractionDigits =
+                Math.max(Math.max(numberDecimalPlaces, 0), DEFAULT_MAXIMUM_FRACTION_DIGITS);
+        this.scale = maximumFractionDigits <= MAX_FAST_FRACTION_DIGITS ? powerOfTen() : 0;
+
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance();
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.directPermitted =
+                scale != 0 && symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-';
+    }
+
+    /**
+     * Formats a value, returning a newly created {@link String}.
+     *
+     * @param value the value to format.
+     * @return the formatted value.
+     */
+    public String format(double value) {
+        StringBuilder builder = new StringBuilder();
+        append(value, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Formats a value, appending it to a {@link StringBuilder}.
+     *
+     * @param value the value to format.
+     * @param builder the builder to append to.
+     */
+    public void append(double value, StringBuilder builder) {
+        if (Double.isNaN(value)) {
+            builder.append(NAN);
+        } else if (minimumFractionDigits == VISUALLY_SHORTENED) {
+            appendVisuallyShortened(value, builder);
+        } else if (!directPermitted || !appendDirectly(value, builder)) {
+            builder.append(fallback().format(value));
+        }
+    }
+
+    private void appendVisuallyShortened(double value, StringBuilder builder) {
+        int valueInt = (int) value;
+        if (value != valueInt) {
+            builder.append(value);
+        } else if (directPermitted && !isNegativeZero(value)) {
+            builder.append(valueInt);
+        } else {
+            builder.append(fallback().format(value));
+        }
+    }
+
+    /**
+     * Formats a value directly from a scaled integer, if this is guaranteed to produce identical
+     * output to {@link DecimalFormat}.
+     *
+     * @return true if the value was appended, false if it could not be formatted directly.
+     */
+    private boolean appendDirectly(double value, StringBuilder builder) {
+        double scaled = Math.abs(value) * scale;
+        if (!(scaled < MAX_SCALED)) {
+            return false;
+        }
+
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= scaled * RELATIVE_ERROR_SCALING) {
+            // Too close to a tie, to be certain of rounding in the same direction.
+            return false;
+        }
+
+        long digits = (long) floor + (fraction > 0.5 ? 1 : 0);
+        if (digits == 0 && (value < 0 || isNegativeZero(value))) {
+            // A negative sign is retained for zero, in a locale-specific way.
+            return false;
+        }
+
+        if (value < 0) {
+            builder.append('-');
+        }
+        builder.append(digits / scale);
+        appendFraction(digits % scale, builder);
+        return true;
+    }
+
+    /** Appends the fractional part, removing trailing zeros beyond the minimum. */
+    private void appendFraction(long fractionPart, StringBuilder builder) {
+        int numberDigits = maximumFractionDigits;
+        long remaining = fractionPart;
+        while (numberDigits > minimumFractionDigits && remaining % 10 == 0) {
+            remaining /= 10;
+            numberDigits--;
+        }
+
+        if (numberDigits > 0) {
+            for (int index = 0; index < numberDigits; index++) {
+                fractionDigits[index] = (char) ('0' + (remaining % 10));
+                remaining /= 10;
+            }
+            builder.append(decimalSeparator);
+            for (int index = numberDigits - 1; index >= 0; index--) {
+                builder.append(fractionDigits[index]);
+            }
+        }
+    }
+
+    private DecimalFormat fallback() {
+        if (fallback == null) {
+            fallback = new DecimalFormat();
+            fallback.setMinimumFractionDigits(Math.max(minimumFractionDigits, 0));
+            fallback.setGroupingUsed(false);
+        }
+        return fallback;
+    }
+
+    private long powerOfTen() {
+        long power = 1;
+        for (int index = 0; index < maximumFractionDigits; index++) {
+            power *= 10;
+        }
+        return power;
+    }
+
+    private static boolean isNegativeZero(double value) {
+        return value == 0.0 && Double.doubleToRawLongBits(value) != 0;
+    }
+}
@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link DiskLRUCache}.
+ *
+ * @author Owen Feehan
+ */
+class DiskLRUCacheTest {
+
+    private static final String KEY1 = "apple";
+    private static final String KEY2 = "orange";
+    private static final String KEY3 = "pear";
+
+    /** The size of each entry, so that only two entries fit within the limit. */
+    private static final int ENTRY_BYTES = 100;
+
+    @TempDir Path directory;
+
+    /** Writes entries, and checks that the least recently used is evicted. */
+    @Test
+    void testEviction() throws IOException {
+        DiskLRUCache cache = new DiskLRUCache(directory, ENTRY_BYTES * 2);
+        write(cache, KEY1, 1);
+        write(cache, KEY2, 2);
+        assertEquals(Optional.of(1), read(cache, KEY1), "KEY1 is still there with two entries");
+
+        write(cache, KEY3, 3);
+        assertEquals(Optional.of(1), read(cache, KEY1), "KEY1 remains as it was recently used");
+        assertFalse(read(cache, KEY2).isPresent(), "KEY2 is removed as least recently used");
+        assertEquals(ENTRY_BYTES * 2, cache.totalBytes());
+    }
+
+    /** Entries persist, when the cache is created again for the same directory. */
+    @Test
+    void testPersistence() throws IOException {
+        write(new DiskLRUCache(directory, ENTRY_BYTES * 2), KEY1, 7);
+
+        DiskLRUCache reopened = new DiskLRUCache(directory, ENTRY_BYTES * 2);
+        assertEquals(Optional.of(7), read(reopened, KEY1));
+        assertTrue(reopened.totalBytes() > 0);
+    }
+
+    /** Writes an entry, whose first integer is {@code value}, padded to {@link #ENTRY_BYTES}. */
+    private static void write(DiskLRUCache cache, String key, int value) throws IOException {
+        cache.write(
+                key,
+                stream -> {
+                    stream.writeInt(value);
+                    stream.write(new byte[ENTRY_BYTES - 4]);
+                });
+    }
+
+    private static Optional<Integer> read(DiskLRUCache cache, String key) {
+        return cache.read(key, DataInputStream::readInt);
+    }
+}
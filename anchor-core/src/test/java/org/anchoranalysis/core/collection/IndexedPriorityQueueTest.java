@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.core.collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IndexedPriorityQueue}.
+ *
+ * @author Owen Feehan
+ */
+class IndexedPriorityQueueTest {
+
+    /** Elements are polled in ascending order. */
+    @Test
+    void testPollOrder() {
+        IndexedPriorityQueue<Integer> queue =
+                IndexedPriorityQueue.naturalOrder(Arrays.asList(5, 3, 9, 1, 7));
+        queue.add(4);
+        assertPolledInOrder(queue, 1, 3, 4, 5, 7, 9);
+        assertNull(queue.poll());
+    }
+
+    /** Arbitrary elements can be removed, after which they no longer exist in the queue. */
+    @Test
+    void testRemove() {
+        List<Integer> elements = Arrays.asList(5, 3, 9, 1, 7);
+        IndexedPriorityQueue<Integer> queue = IndexedPriorityQueue.naturalOrder(elements);
+
+        assertTrue(queue.remove(elements.get(2)));
+        assertTrue(queue.remove(elements.get(3)));
+        assertFalse(queue.contains(elements.get(3)));
+        assertFalse(queue.remove(elements.get(3)));
+
+        assertEquals(3, queue.size());
+        assertPolledInOrder(queue, 3, 5, 7);
+        assertTrue(queue.isEmpty());
+    }
+
+    /** When the priority of an element changes, the ordering is restored. */
+    @Test
+    void testUpdate() {
+        int[] low = {2};
+        int[] high = {8};
+        int[] middle = {5};
+        IndexedPriorityQueue<int[]> queue =
+                new IndexedPriorityQueue<>(
+                        Arrays.asList(low, high, middle),
+                        Comparator.comparingInt((int[] value) -> value[0]));
+
+        high[0] = 1;
+        assertTrue(queue.update(high));
+        assertSame(high, queue.peek());
+
+        high[0] = 10;
+        assertTrue(queue.update(high));
+        assertSame(low, queue.poll());
+        assertSame(middle, queue.poll());
+        assertSame(high, queue.poll());
+    }
+
+    private static void assertPolledInOrder(
+            IndexedPriorityQueue<Integer> queue, int... expectedOrder) {
+        for (int expected : expectedOrder) {
+            assertEquals(expected, queue.poll().intValue());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.core.graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.OptionalInt;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link IndexedGraph}.
+ *
+ * @author Owen Feehan
+ */
+class IndexedGraphTest {
+
+    /** A path {@code 0 - 1 - 2 - 3}, with edge-weights 10, 20, 30, and an isolated vertex 4. */
+    private IndexedGraph graph;
+
+    @BeforeEach
+    void setup() {
+        graph = new IndexedGraph(5);
+        graph.addEdge(0, 1, 10);
+        graph.addEdge(1, 2, 20);
+        graph.addEdgeUnchecked(2, 3, 30);
+    }
+
+    /** Edges are undirected, and adding an existing edge only replaces its weight. */
+    @Test
+    void testAddEdge() {
+        assertEquals(3, graph.numberEdges());
+        assertTrue(graph.containsEdge(1, 0));
+        assertFalse(graph.containsEdge(0, 2));
+
+        graph.addEdge(1, 0, 15);
+        assertEquals(3, graph.numberEdges());
+        assertEquals(OptionalInt.of(15), graph.edgeWeight(0, 1));
+        assertEquals(OptionalInt.empty(), graph.edgeWeight(0, 3));
+    }
+
+    /** An edge cannot be added to a vertex that was removed, or never existed. */
+    @Test
+    void testAddEdgeMissingVertex() throws OperationFailedException {
+        graph.removeVertex(4);
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdgeUnchecked(5, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(-1, 0, 1));
+        assertEquals(3, graph.numberEdges());
+    }
+
+    /** The neighbors of a vertex, in the order the edges were added. */
+    @Test
+    void testAdjacent() {
+        assertArrayEquals(new int[] {0, 2}, graph.adjacentVertices(1));
+        assertEquals(2, graph.degree(2));
+        assertArrayEquals(new int[] {}, graph.adjacentVertices(4));
+    }
+
+    /** Removing a vertex also removes its edges, and its identifier is not reused. */
+    @Test
+    void testRemoveVertex() throws OperationFailedException {
+        graph.removeVertex(1);
+        assertFalse(graph.containsVertex(1));
+        assertEquals(4, graph.numberVertices());
+        assertEquals(1, graph.numberEdges());
+        assertArrayEquals(new int[] {}, graph.adjacentVertices(0));
+        assertArrayEquals(new int[] {0, 2, 3, 4}, graph.vertices().toArray());
+
+        assertEquals(5, graph.addVertex());
+        assertThrows(OperationFailedException.class, () -> graph.removeVertex(1));
+    }
+
+    /** Removing an edge, including one that doesn't exist. */
+    @Test
+    void testRemoveEdge() {
+        graph.removeEdge(2, 1);
+        graph.removeEdge(0, 4);
+        assertEquals(2, graph.numberEdges());
+        assertFalse(graph.containsEdge(1, 2));
+    }
+
+    /** Merging two vertices connects their edges to a new vertex, without the edge between them. */
+    @Test
+    void testMerge() throws OperationFailedException {
+        int merged = graph.mergeVertices(1, 2);
+        assertEquals(5, merged);
+        assertFalse(graph.containsVertex(1));
+        assertFalse(graph.containsVertex(2));
+        assertEquals(4, graph.numberVertices());
+        assertEquals(2, graph.numberEdges());
+        assertArrayEquals(new int[] {0, 3}, graph.adjacentVertices(merged));
+        assertEquals(OptionalInt.of(10), graph.edgeWeight(merged, 0));
+        assertEquals(OptionalInt.of(30), graph.edgeWeight(3, merged));
+
+        // The graph is unaltered, when merging with a vertex that doesn't exist
+        assertThrows(OperationFailedException.class, () -> graph.mergeVertices(3, 1));
+        assertTrue(graph.containsVertex(3));
+        assertEquals(2, graph.numberEdges());
+    }
+}
@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * anchor-core
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.core.value;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link DoubleFormatter} formats identically to {@link TypedValue}.
+ *
+ * @author Owen Feehan
+ */
+class DoubleFormatterTest {
+
+    private static final int NUMBER_RANDOM_VALUES = 10000;
+
+    private static final double[] SPECIAL_VALUES = {
+        0.0,
+        -0.0,
+        1e-12,
+        -1e-12,
+        0.5,
+        -0.5,
+        2.5,
+        0.0005,
+        7,
+        -3,
+        123456789.123456789,
+        1e20,
+        Double.NaN,
+        Double.POSITIVE_INFINITY,
+        Double.NEGATIVE_INFINITY,
+        Double.MAX_VALUE,
+        Double.MIN_VALUE
+    };
+
+    /** With a fixed number of decimal places. */
+    @Test
+    void testFixedDecimalPlaces() {
+        for (int numberDecimalPlaces : new int[] {0, 1, 3, 10, 16}) {
+            DoubleFormatter formatter = new DoubleFormatter(numberDecimalPlaces);
+            for (double value : valuesToTest()) {
+                assertEquals(
+                        new TypedValue(value, numberDecimalPlaces).getValue(),
+                        formatter.format(value),
+                        () -> "Formatting " + value);
+            }
+        }
+    }
+
+    /** With visually-shortened decimal places. */
+    @Test
+    void testVisuallyShortened() {
+        DoubleFormatter formatter = new DoubleFormatter(DoubleFormatter.VISUALLY_SHORTENED);
+        for (double value : valuesToTest()) {
+            assertEquals(
+                    new TypedValue(value).getValue(),
+                    formatter.format(value),
+                    () -> "Formatting " + value);
+        }
+    }
+
+    /** Special values, followed by random values of varying magnitudes. */
+    private static double[] valuesToTest() {
+        double[] values = new double[SPECIAL_VALUES.length + NUMBER_RANDOM_VALUES];
+        System.arraycopy(SPECIAL_VALUES, 0, values, 0, SPECIAL_VALUES.length);
+
+        Random random = new Random(0);
+        for (int index = SPECIAL_VALUES.length; index < values.length; index++) {
+            if (index % 2 == 0) {
+                values[index] = random.nextGaussian() * Math.pow(10, random.nextInt(30) - 15);
+            } else {
+                // Values with few decimal places, which are more likely to be ties.
+                values[index] = (random.nextInt(20001) - 10000) / Math.pow(10, random.nextInt(6));
+            }
+        }
+        return values;
+    }
+}
@@ -25,8 +25,11 @@
  */
 package org.anchoranalysis.experiment.arguments;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Optional;
 import lombok.Getter;
+import org.anchoranalysis.core.cache.DiskLRUCache;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.index.range.IndexRangeNegative;
 import org.anchoranalysis.core.index.range.IndexRangeNegativeFactory;
@@ -57,6 +60,14 @@ public class TaskArguments {
      */
     @Getter private Optional<IndexRangeNegative> groupIndexRange = Optional.empty();
 
+    /**
+     * If set, caches the entities created by providers for each input, so that a later execution
+     * can load rather than recalculate them.
+     *
+     * <p>This is disabled by default.
+     */
+    @Getter private Optional<DiskLRUCache> providerCache = Optional.empty();
+
     /** Creates with no initial size. */
     public TaskArguments() {
         this.size = Optional.empty();
@@ -136,6 +147,34 @@ public class TaskArguments {
         }
     }
 
+    /**
+     * Enables caching of the entities created by providers, in a directory that persists across
+     * executions.
+     *
+     * @param directory the directory in which the cache is stored, which is created if it does
+     *     not exist.
+     * @param maxMegabytes the maximum total size of the cache in megabytes, after which the least
+     *     recently used entries are discarded.
+     * @throws ExperimentExecutionException if {@code maxMegabytes} is not positive, or the
+     *     directory cannot be created or read.
+     */
+    public void assignProviderCache(Path directory, long maxMegabytes)
+            throws ExperimentExecutionException {
+        if (maxMegabytes <= 0) {
+            throw new ExperimentExecutionException(
+                    String.format(
+                            "The maximum size of the provider-cache must be positive. %d MB is"
+                                    + " invalid.",
+                            maxMegabytes));
+        }
+        try {
+            this.providerCache =
+                    Optional.of(new DiskLRUCache(directory, maxMegabytes * 1024 * 1024));
+        } catch (IOException e) {
+            throw new ExperimentExecutionException(e);
+        }
+    }
+
     private static ExperimentExecutionException positiveNumberProcessorsException(
             String numberProcessors) {
         return new ExperimentExecutionException(
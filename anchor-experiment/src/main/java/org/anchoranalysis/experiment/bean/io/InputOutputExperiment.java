@@ -28,12 +28,14 @@ package org.anchoranalysis.experiment.bean.io;
 
 import com.owenfeehan.pathpatternfinder.PathPatternFinder;
 import com.owenfeehan.pathpatternfinder.Pattern;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import lombok.Getter;
 import lombok.Setter;
+import org.anchoranalysis.bean.BeanDigest;
 import org.anchoranalysis.bean.annotation.BeanField;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.functional.FunctionalList;
@@ -50,6 +52,7 @@ import org.anchoranalysis.experiment.bean.task.Task;
 import org.anchoranalysis.experiment.io.ReplaceInputManager;
 import org.anchoranalysis.experiment.io.ReplaceOutputManager;
 import org.anchoranalysis.experiment.io.ReplaceTask;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
 import org.anchoranalysis.experiment.task.ParametersExperiment;
 import org.anchoranalysis.experiment.task.TaskStatistics;
 import org.anchoranalysis.io.input.InputFromManager;
@@ -80,6 +83,9 @@ import org.apache.commons.io.IOCase;
  * </tbody>
  * </table>
  *
+ * <p>When {@code resume} is true, a {@link CompletionManifest} is additionally written to the
+ * output directory.
+ *
  * @author Owen Feehan
  * @param <T> input-object type
  * @param <S> shared-state for job
@@ -120,6 +126,19 @@ public class InputOutputExperiment<T extends InputFromManager, S> extends Output
      */
     @BeanField @Getter @Setter private String messageNoInputs = "No inputs exist. Nothing to do.";
 
+    /**
+     * When true, the experiment can be resumed after an interruption, skipping inputs whose jobs
+     * already completed.
+     *
+     * <p>Each job that completes successfully is recorded in a {@link CompletionManifest} in the
+     * output directory. Any existing output directory is reused, and inputs recorded in its
+     * manifest are not processed again, unless their file or the task's configuration has changed.
+     *
+     * <p>The results of the skipped jobs are restored into the task's shared-state, before any
+     * remaining job executes. Tasks that cannot restore previously completed jobs fail.
+     */
+    @BeanField @Getter @Setter private boolean resume = false;
+
     // END BEAN PROPERTIES
 
     @Override
@@ -174,7 +193,7 @@ public class InputOutputExperiment<T extends InputFromManager, S> extends Output
             checkCompabilityInputs(inputs.inputs());
 
             if (!inputs.isEmpty()) {
-                return Optional.of(executeExperimentWithInputs(inputs, parameters));
+                return Optional.of(executeExperimentMaybeResuming(inputs, parameters));
             } else {
                 parameters.getLoggerExperiment().log(messageNoInputs);
                 parameters.getLoggerExperiment().logEmptyLine();
@@ -194,20 +213,77 @@ public class InputOutputExperiment<T extends InputFromManager, S> extends Output
         return taskDefaultOutputs;
     }
 
-    private TaskStatistics executeExperimentWithInputs(
+    @Override
+    protected boolean reuseExistingOutputDirectory() {
+        return resume;
+    }
+
+    /**
+     * Executes the jobs, omitting any that previously completed when {@code resume} is true.
+     *
+     * <p>The task is executed, even if every job previously completed, so that the results of the
+     * skipped jobs are restored, and any aggregate outputs are written again.
+     *
+     * @return statistics of the executed jobs.
+     */
+    private TaskStatistics executeExperimentMaybeResuming(
             InputsWithDirectory<T> inputs, ParametersExperiment parameters)
             throws ExperimentExecutionException {
+        if (!resume) {
+            return executeExperimentWithInputs(inputs, inputs.inputs(), parameters);
+        }
+
+        try (CompletionManifest manifest =
+                new CompletionManifest(
+                        parameters.getOutputter().getOutputDirectory(),
+                        BeanDigest.digest(taskProcessor.getTask()))) {
+            List<T> remaining = manifest.removeCompleted(inputs.inputs());
+
+            int numberSkipped = manifest.getSkippedIdentifiers().size();
+            if (numberSkipped > 0) {
+                parameters
+                        .getLoggerExperiment()
+                        .logFormatted(
+                                "Skipping %d %s that previously completed.",
+                                numberSkipped,
+                                LanguageUtilities.pluralizeMaybe(numberSkipped, "input"));
+            }
+
+            if (remaining.isEmpty()) {
+                parameters.getLoggerExperiment().log("All inputs previously completed.");
+            }
+
+            parameters.setCompletionManifest(Optional.of(manifest));
+            try {
+                return executeExperimentWithInputs(inputs, remaining, parameters);
+            } finally {
+                parameters.setCompletionManifest(Optional.empty());
+            }
+        } catch (OperationFailedException | IOException e) {
+            throw new ExperimentExecutionException(
+                    "An error occurred with the manifest of completed jobs", e);
+        }
+    }
+
+    /**
+     * Executes a job for each input in {@code toProcess}.
+     *
+     * <p>All of {@code inputs} is considered when identifying non-input files.
+     */
+    private TaskStatistics executeExperimentWithInputs(
+            InputsWithDirectory<T> inputs, List<T> toProcess, ParametersExperiment parameters)
+            throws ExperimentExecutionException {
         parameters.setLoggerTaskCreator(logTask);
 
         if (parameters.isDetailedLogging()) {
-            describeInputs(parameters.getLoggerExperiment(), inputs.inputs());
+            describeInputs(parameters.getLoggerExperiment(), toProcess);
         }
 
         Optional<Collection<NamedFile>> nonInputs = CopyNonInputs.prepare(inputs, parameters);
 
         TaskStatistics statistics =
                 taskProcessor.executeLogStatistics(
-                        parameters.getOutputter(), inputs.inputs(), parameters);
+                        parameters.getOutputter(), toProcess, parameters);
 
         if (nonInputs.isPresent()) {
             CopyNonInputs.copy(nonInputs.get(), parameters);
@@ -52,6 +52,7 @@ import org.anchoranalysis.experiment.time.ExecutionTimeRecorderFactory;
 import org.anchoranalysis.io.generator.text.StringGenerator;
 import org.anchoranalysis.io.output.bean.OutputManager;
 import org.anchoranalysis.io.output.enabled.multi.MultiLevelOutputEnabled;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
 import org.anchoranalysis.io.output.outputter.BindFailedException;
 import org.anchoranalysis.io.output.outputter.OutputWriteContext;
 import org.anchoranalysis.io.output.outputter.OutputterChecked;
@@ -146,6 +147,18 @@ public abstract class OutputExperiment extends Experiment {
      */
     protected abstract MultiLevelOutputEnabled defaultOutputs();
 
+    /**
+     * Whether an existing output directory, and its contents, is reused.
+     *
+     * <p>Otherwise, the existing directory is deleted, or an error occurs, as determined by the
+     * {@link OutputManager}.
+     *
+     * @return true if an existing output directory is reused, false otherwise.
+     */
+    protected boolean reuseExistingOutputDirectory() {
+        return false;
+    }
+
     private void doExperimentWithParameters(ParametersExperiment parameters)
             throws ExperimentExecutionException {
         try {
@@ -156,11 +169,22 @@ public abstract class OutputExperiment extends Experiment {
             Optional<TaskStatistics> taskStatistics = executeExperimentWithParameters(parameters);
             tidyUpAfterExecution(parameters, stopWatchExperiment, taskStatistics);
         } finally {
+            closeContainer(parameters);
+
             // An experiment is considered always successful
             parameters.getLoggerExperiment().close(true, false);
         }
     }
 
+    /** Completes any container, into which outputs were written, reporting any error. */
+    private static void closeContainer(ParametersExperiment parameters) {
+        try {
+            parameters.getOutputter().getChecked().closeContainer();
+        } catch (OutputWriteFailedException e) {
+            parameters.getContext().getErrorReporter().recordError(OutputExperiment.class, e);
+        }
+    }
+
     private ParametersExperiment createParameters(ExecutionArguments arguments)
             throws CreateException {
 
@@ -198,6 +222,7 @@ public abstract class OutputExperiment extends Experiment {
                                     writeContext,
                                     arguments.derivePathPrefixerContext(),
                                     arguments.input().getCallUponDirectoryCreation(),
+                                    reuseExistingOutputDirectory(),
                                     Optional.empty());
 
             Preconditions.checkArgument(rootOutputter.getSettings().hasBeenInitialized());
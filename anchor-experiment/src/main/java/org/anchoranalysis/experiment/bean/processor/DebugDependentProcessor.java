@@ -107,16 +107,14 @@ public class DebugDependentProcessor<T extends InputFromManager, S> extends JobP
 
     private SequentialProcessor<T, S> createSequentialProcessor() {
         SequentialProcessor<T, S> processor = new SequentialProcessor<>();
-        processor.setTask(getTask());
-        processor.setSuppressExceptions(isSuppressExceptions());
+        copyCommonPropertiesTo(processor);
         return processor;
     }
 
     private ParallelProcessor<T, S> creareParallelProcessor(TaskArguments arguments) {
         ParallelProcessor<T, S> processor = new ParallelProcessor<>();
         processor.setMaxNumberProcessors(maxNumberProcessors(arguments));
-        processor.setTask(getTask());
-        processor.setSuppressExceptions(isSuppressExceptions());
+        copyCommonPropertiesTo(processor);
         processor.setKeepProcessorsFree(keepProcessorsFree);
         return processor;
     }
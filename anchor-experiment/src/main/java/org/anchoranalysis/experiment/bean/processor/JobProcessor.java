@@ -27,17 +27,23 @@
 package org.anchoranalysis.experiment.bean.processor;
 
 import java.util.List;
+import java.util.Optional;
 import lombok.Getter;
 import lombok.Setter;
 import org.anchoranalysis.bean.AnchorBean;
 import org.anchoranalysis.bean.annotation.BeanField;
 import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.OptionalFactory;
 import org.anchoranalysis.core.log.Divider;
+import org.anchoranalysis.core.log.Logger;
 import org.anchoranalysis.experiment.ExperimentExecutionException;
 import org.anchoranalysis.experiment.bean.task.Task;
 import org.anchoranalysis.experiment.io.ReplaceTask;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
 import org.anchoranalysis.experiment.task.ParametersExperiment;
 import org.anchoranalysis.experiment.task.TaskStatistics;
+import org.anchoranalysis.experiment.task.processor.InputPrefetcher;
+import org.anchoranalysis.inference.concurrency.ConcurrencyPlan;
 import org.anchoranalysis.io.input.InputFromManager;
 import org.anchoranalysis.io.output.outputter.Outputter;
 
@@ -68,6 +74,20 @@ public abstract class JobProcessor<T extends InputFromManager, S>
      */
     @BeanField @Getter @Setter private boolean suppressExceptions = true;
 
+    /**
+     * How many inputs to read in advance on a background thread, ahead of the inputs being
+     * processed.
+     *
+     * <p>This allows the reading of inputs to overlap with processing. 0 disables.
+     */
+    @BeanField @Getter @Setter private int prefetchInputs = 0;
+
+    /**
+     * The maximum number of megabytes of memory that may be occupied by inputs that have been read
+     * in advance, but whose processing has not yet begun.
+     */
+    @BeanField @Getter @Setter private int prefetchMaxMegabytes = 1024;
+
     // END BEAN PROPERTIES
 
     /**
@@ -157,6 +177,93 @@ public abstract class JobProcessor<T extends InputFromManager, S>
             Outputter rootOutputter, List<T> inputs, ParametersExperiment parametersExperiment)
             throws ExperimentExecutionException;
 
+    /**
+     * Creates the shared-state for the task, restoring into it any jobs that are skipped, as they
+     * completed in an earlier execution.
+     *
+     * @param rootOutputter an outputter, bound to the base (root) output directory into which
+     *     outputted files are written.
+     * @param concurrencyPlan available numbers of processors that can execute jobs.
+     * @param inputs the inputs to apply {@code task} on, which exclude any skipped jobs.
+     * @param parametersExperiment parameters that exist pertaining to the experiment that is
+     *     underway.
+     * @return the shared-state.
+     * @throws ExperimentExecutionException if the shared-state cannot be created, or the skipped
+     *     jobs cannot be restored.
+     */
+    protected S createSharedState(
+            Outputter rootOutputter,
+            ConcurrencyPlan concurrencyPlan,
+            List<T> inputs,
+            ParametersExperiment parametersExperiment)
+            throws ExperimentExecutionException {
+        S sharedState =
+                task.beforeAnyJobIsExecuted(
+                        rootOutputter, concurrencyPlan, inputs, parametersExperiment);
+        Optional<CompletionManifest> manifest = parametersExperiment.getCompletionManifest();
+        if (manifest.isPresent() && !manifest.get().getSkippedIdentifiers().isEmpty()) {
+            task.restoreSkippedJobs(sharedState, manifest.get());
+        }
+        return sharedState;
+    }
+
+    /**
+     * Records that the job for an input completed successfully, in any {@link CompletionManifest}.
+     *
+     * <p>A failure to record is reported, but otherwise ignored, as it only means the job is
+     * repeated if the experiment is resumed.
+     *
+     * @param input the input whose job completed successfully.
+     * @param parametersExperiment parameters that exist pertaining to the experiment that is
+     *     underway.
+     */
+    protected void recordCompleted(T input, ParametersExperiment parametersExperiment) {
+        Optional<CompletionManifest> manifest = parametersExperiment.getCompletionManifest();
+        if (manifest.isPresent()) {
+            try {
+                manifest.get().recordCompleted(input);
+            } catch (OperationFailedException e) {
+                parametersExperiment
+                        .getContext()
+                        .getErrorReporter()
+                        .recordError(JobProcessor.class, e);
+            }
+        }
+    }
+
+    /**
+     * Creates a {@link InputPrefetcher} to read {@code inputs} in advance, if enabled.
+     *
+     * @param inputs the inputs, in the order they are expected to be processed.
+     * @param parametersExperiment parameters that exist pertaining to the experiment that is
+     *     underway.
+     * @return the prefetcher, which has already begun reading, or {@link Optional#empty} if
+     *     prefetching is disabled.
+     */
+    protected Optional<InputPrefetcher<T>> createPrefetcher(
+            List<T> inputs, ParametersExperiment parametersExperiment) {
+        return OptionalFactory.create(
+                prefetchInputs > 0,
+                () ->
+                        new InputPrefetcher<>(
+                                inputs,
+                                prefetchInputs,
+                                prefetchMaxMegabytes,
+                                new Logger(parametersExperiment.getLoggerExperiment())));
+    }
+
+    /**
+     * Copies the properties of this processor that are common to all processors, to another.
+     *
+     * @param processor the processor to copy to.
+     */
+    protected void copyCommonPropertiesTo(JobProcessor<T, S> processor) {
+        processor.setTask(task);
+        processor.setSuppressExceptions(suppressExceptions);
+        processor.setPrefetchInputs(prefetchInputs);
+        processor.setPrefetchMaxMegabytes(prefetchMaxMegabytes);
+    }
+
     private static void logStatistics(
             TaskStatistics stats, ParametersExperiment parametersExperiment) {
         StatisticsLogger statisticsLogger =
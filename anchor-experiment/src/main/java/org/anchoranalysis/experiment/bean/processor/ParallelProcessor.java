@@ -29,6 +29,7 @@ package org.anchoranalysis.experiment.bean.processor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import lombok.Getter;
@@ -38,10 +39,12 @@ import org.anchoranalysis.bean.annotation.BeanField;
 import org.anchoranalysis.bean.exception.BeanMisconfiguredException;
 import org.anchoranalysis.core.value.LanguageUtilities;
 import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.JobExecutionException;
 import org.anchoranalysis.experiment.task.ParametersExperiment;
 import org.anchoranalysis.experiment.task.ParametersUnbound;
 import org.anchoranalysis.experiment.task.TaskStatistics;
 import org.anchoranalysis.experiment.task.processor.CallableJob;
+import org.anchoranalysis.experiment.task.processor.InputPrefetcher;
 import org.anchoranalysis.experiment.task.processor.ConcurrentJobMonitor;
 import org.anchoranalysis.experiment.task.processor.JobDescription;
 import org.anchoranalysis.experiment.task.processor.JobStartStopLogger;
@@ -116,29 +119,38 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
             throws ExperimentExecutionException {
         int numberInputs = inputs.size();
 
-        ProcessorChecker.checkAtLeastOneInput(inputs);
+        ProcessorChecker.checkAtLeastOneInput(inputs, parametersExperiment);
 
         ConcurrencyPlan concurrencyPlan = createConcurrencyPlan(parametersExperiment);
 
         S sharedState =
-                getTask()
-                        .beforeAnyJobIsExecuted(
-                                rootOutputter, concurrencyPlan, inputs, parametersExperiment);
+                createSharedState(rootOutputter, concurrencyPlan, inputs, parametersExperiment);
 
         ExecutorService executorService =
                 Executors.newFixedThreadPool(concurrencyPlan.numberCPUs());
 
         ConcurrentJobMonitor monitor = new ConcurrentJobMonitor(inputs.size());
 
-        submitAllJobs(inputs, parametersExperiment, executorService, sharedState, monitor);
-
-        // This will make the executor accept no new threads
-        // and finish all existing threads in the queue
-        executorService.shutdown();
-
-        // Wait until all threads are finish
-        while (!executorService.isTerminated())
-            ;
+        Optional<InputPrefetcher<T>> prefetcher = createPrefetcher(inputs, parametersExperiment);
+        try {
+            submitAllJobs(
+                    inputs,
+                    parametersExperiment,
+                    executorService,
+                    sharedState,
+                    prefetcher,
+                    monitor);
+
+            // This will make the executor accept no new threads
+            // and finish all existing threads in the queue
+            executorService.shutdown();
+
+            // Wait until all threads are finish
+            while (!executorService.isTerminated())
+                ;
+        } finally {
+            prefetcher.ifPresent(InputPrefetcher::close);
+        }
 
         logWhenIrregularlyEnded(monitor, parametersExperiment, numberInputs);
 
@@ -153,6 +165,7 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
      * @param parametersExperiment the experiment parameters
      * @param executorService the executor service to submit jobs to
      * @param sharedState the shared state between jobs
+     * @param prefetcher reads inputs in advance, if enabled
      * @param monitor the monitor for concurrent jobs
      */
     private void submitAllJobs(
@@ -160,6 +173,7 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
             ParametersExperiment parametersExperiment,
             ExecutorService executorService,
             S sharedState,
+            Optional<InputPrefetcher<T>> prefetcher,
             ConcurrentJobMonitor monitor) {
         int count = 1;
         List<T> inputsModifiable = new ArrayList<>(inputs);
@@ -169,7 +183,13 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
             T input = iterator.next();
             try {
                 submitJob(
-                        executorService, input, count, sharedState, parametersExperiment, monitor);
+                        executorService,
+                        input,
+                        count,
+                        sharedState,
+                        parametersExperiment,
+                        prefetcher,
+                        monitor);
                 count++;
             } finally {
                 iterator.remove();
@@ -185,6 +205,7 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
      * @param index the index of the job
      * @param sharedState the shared state between jobs
      * @param parametersExperiment the experiment parameters
+     * @param prefetcher reads inputs in advance, if enabled
      * @param monitor the monitor for concurrent jobs
      */
     private void submitJob(
@@ -193,6 +214,7 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
             int index,
             S sharedState,
             ParametersExperiment parametersExperiment,
+            Optional<InputPrefetcher<T>> prefetcher,
             ConcurrentJobMonitor monitor) {
 
         JobDescription description = new JobDescription(input.identifier(), index);
@@ -205,14 +227,24 @@ public class ParallelProcessor<T extends InputFromManager, S> extends JobProcess
         JobStateMonitor state = new JobStateMonitor();
         JobStartStopLogger loggerJob = createJobLogger(parametersExperiment, monitor);
 
-        executorService.submit(
+        CallableJob<T, S> job =
                 new CallableJob<>(
                         getTask(),
                         parametersUnbound,
                         defaultInstances,
                         state,
                         description,
-                        loggerJob));
+                        loggerJob);
+
+        executorService.submit(
+                () -> {
+                    prefetcher.ifPresent(fetcher -> fetcher.awaitPrefetched(input));
+                    Optional<JobExecutionException> exception = job.call();
+                    if (state.isCompletedSuccessfully()) {
+                        recordCompleted(input, parametersExperiment);
+                    }
+                    return exception;
+                });
 
         monitor.add(new SubmittedJob(description, state));
     }
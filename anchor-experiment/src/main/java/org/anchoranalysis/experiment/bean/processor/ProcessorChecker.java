@@ -29,6 +29,8 @@ import java.util.List;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
+import org.anchoranalysis.experiment.task.ParametersExperiment;
 
 /** Common checks for classes that inherit from {@link JobProcessor}. */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -37,13 +39,22 @@ class ProcessorChecker {
     /**
      * Checks that at least one input exists for a task, otherwise throwing an exception.
      *
+     * <p>Jobs that are skipped, as they completed in an earlier execution, are also counted, as
+     * their results are restored.
+     *
      * @param <T> type in {@code inputs}
      * @param inputs the inputs for the task
-     * @throws ExperimentExecutionException if {@code inputs} has no items
+     * @param parameters the parameters of the experiment, with any {@link CompletionManifest}.
+     * @throws ExperimentExecutionException if {@code inputs} has no items, and no jobs are skipped
      */
-    public static <T> void checkAtLeastOneInput(List<T> inputs)
+    public static <T> void checkAtLeastOneInput(List<T> inputs, ParametersExperiment parameters)
             throws ExperimentExecutionException {
-        if (inputs.isEmpty()) {
+        boolean anySkipped =
+                parameters
+                        .getCompletionManifest()
+                        .filter(manifest -> !manifest.getSkippedIdentifiers().isEmpty())
+                        .isPresent();
+        if (inputs.isEmpty() && !anySkipped) {
             throw new ExperimentExecutionException("This task has no inputs. Nothing to do.");
         }
     }
@@ -37,6 +37,7 @@ import org.anchoranalysis.experiment.task.ErrorReporterForTask;
 import org.anchoranalysis.experiment.task.ParametersExperiment;
 import org.anchoranalysis.experiment.task.ParametersUnbound;
 import org.anchoranalysis.experiment.task.TaskStatistics;
+import org.anchoranalysis.experiment.task.processor.InputPrefetcher;
 import org.anchoranalysis.experiment.task.processor.MonitoredSequentialExecutor;
 import org.anchoranalysis.inference.concurrency.ConcurrencyPlan;
 import org.anchoranalysis.io.input.InputFromManager;
@@ -47,6 +48,9 @@ import org.anchoranalysis.io.output.outputter.Outputter;
  *
  * <p>This is the simplest form of a {@link JobProcessor}.
  *
+ * <p>Optionally, inputs may be read in advance on a background thread, so that reading overlaps
+ * with processing.
+ *
  * @author Owen Feehan
  * @param <T> input-object type
  * @param <S> shared-object type
@@ -58,21 +62,26 @@ public class SequentialProcessor<T extends InputFromManager, S> extends JobProce
             Outputter rootOutputter, List<T> inputs, ParametersExperiment parametersExperiment)
             throws ExperimentExecutionException {
 
-        ProcessorChecker.checkAtLeastOneInput(inputs);
+        ProcessorChecker.checkAtLeastOneInput(inputs, parametersExperiment);
 
         ConcurrencyPlan concurrencyPlan = ConcurrencyPlan.singleCPUProcessor();
 
         S sharedState =
-                getTask()
-                        .beforeAnyJobIsExecuted(
-                                rootOutputter, concurrencyPlan, inputs, parametersExperiment);
+                createSharedState(rootOutputter, concurrencyPlan, inputs, parametersExperiment);
 
-        TaskStatistics statistics =
-                executeAllJobs(
-                        inputs,
-                        sharedState,
-                        parametersExperiment,
-                        ProcessorUtilities.loggerForMonitor(parametersExperiment));
+        Optional<InputPrefetcher<T>> prefetcher = createPrefetcher(inputs, parametersExperiment);
+        TaskStatistics statistics;
+        try {
+            statistics =
+                    executeAllJobs(
+                            inputs,
+                            sharedState,
+                            parametersExperiment,
+                            prefetcher,
+                            ProcessorUtilities.loggerForMonitor(parametersExperiment));
+        } finally {
+            prefetcher.ifPresent(InputPrefetcher::close);
+        }
 
         getTask().afterAllJobsAreExecuted(sharedState, parametersExperiment.getContext());
 
@@ -83,11 +92,15 @@ public class SequentialProcessor<T extends InputFromManager, S> extends JobProce
             List<T> inputs,
             S sharedState,
             ParametersExperiment parametersExperiment,
+            Optional<InputPrefetcher<T>> prefetcher,
             Optional<MessageLogger> loggerMonitor) {
 
         MonitoredSequentialExecutor<T> executor =
                 new MonitoredSequentialExecutor<>(
-                        object -> executeJobAndLog(object, sharedState, parametersExperiment),
+                        object -> {
+                            prefetcher.ifPresent(fetcher -> fetcher.awaitPrefetched(object));
+                            return executeJobAndLog(object, sharedState, parametersExperiment);
+                        },
                         T::identifier,
                         loggerMonitor,
                         false);
@@ -105,7 +118,11 @@ public class SequentialProcessor<T extends InputFromManager, S> extends JobProce
             ParametersUnbound<T, S> parametersUnbound =
                     new ParametersUnbound<>(
                             parametersExperiment, input, sharedState, isSuppressExceptions());
-            return getTask().executeJob(parametersUnbound);
+            boolean successful = getTask().executeJob(parametersUnbound);
+            if (successful) {
+                recordCompleted(input, parametersExperiment);
+            }
+            return successful;
 
         } catch (JobExecutionException e) {
             errorReporter.recordError(SequentialProcessor.class, e);
@@ -36,6 +36,7 @@ import org.anchoranalysis.experiment.ExperimentExecutionException;
 import org.anchoranalysis.experiment.JobExecutionException;
 import org.anchoranalysis.experiment.bean.io.InputOutputExperiment;
 import org.anchoranalysis.experiment.log.StatefulMessageLogger;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
 import org.anchoranalysis.experiment.task.ErrorReporterForTask;
 import org.anchoranalysis.experiment.task.InputBound;
 import org.anchoranalysis.experiment.task.InputOutputContextStateful;
@@ -110,6 +111,34 @@ public abstract class Task<T extends InputFromManager, S> extends AnchorBean<Tas
             ParametersExperiment parameters)
             throws ExperimentExecutionException;
 
+    /**
+     * Restores, into the shared-state, the contribution of any jobs that are skipped, as they
+     * completed in an earlier execution of an experiment that is being resumed.
+     *
+     * <p>Called <i>once</i>, after {@link #beforeAnyJobIsExecuted} and before any call to {@link
+     * #executeJob}, but only if at least one job is skipped.
+     *
+     * <p>A task whose jobs contribute to the shared-state, e.g. to produce aggregated outputs,
+     * should store each job's contribution in {@link CompletionManifest#storedResultsDirectory},
+     * and restore it here. The manifest is available from {@link
+     * ParametersExperiment#getCompletionManifest} when the shared-state is created.
+     *
+     * <p>By default, an exception is thrown, so that a task never silently omits the skipped jobs
+     * from its aggregated outputs.
+     *
+     * @param sharedState the shared-state, as returned by {@link #beforeAnyJobIsExecuted}.
+     * @param manifest the manifest of completed jobs, identifying those that are skipped.
+     * @throws ExperimentExecutionException if the skipped jobs cannot be restored, or if the task
+     *     does not support being resumed.
+     */
+    public void restoreSkippedJobs(S sharedState, CompletionManifest manifest)
+            throws ExperimentExecutionException {
+        throw new ExperimentExecutionException(
+                String.format(
+                        "%s cannot be resumed, as it cannot restore jobs that previously completed. Disable resume, or use a new output directory.",
+                        getBeanName()));
+    }
+
     /**
      * Runs the task on one particular input (a job).
      *
@@ -122,9 +151,12 @@ public abstract class Task<T extends InputFromManager, S> extends AnchorBean<Tas
 
         // Bind an outputter for the task
         // The outputter is initially created any log and this is attached later.
+        // Its writes are tracked separately, so any asynchronous writes can be awaited at job end.
         OutputterChecked outputterTask =
                 TaskOutputterFactory.createOutputterForTask(
-                        parametersUnbound.getInput(), parametersUnbound.getParametersExperiment());
+                                parametersUnbound.getInput(),
+                                parametersUnbound.getParametersExperiment())
+                        .trackWritesSeparately();
         Preconditions.checkArgument(outputterTask.getSettings().hasBeenInitialized());
 
         // Create bound parameters
@@ -262,6 +294,14 @@ public abstract class Task<T extends InputFromManager, S> extends AnchorBean<Tas
             processExceptionAfterRecordingError(loggerJob, suppressExceptions, e);
         } finally {
 
+            // Any asynchronous writes must complete before the job ends, and the job has only
+            // succeeded if they all succeed
+            OutputterChecked outputter = parameters.getOutputter().getChecked();
+            if (!outputter.awaitWrites(parameters.getLogger().errorReporter())) {
+                successfullyFinished = false;
+            }
+            outputter.mergeRecordedOutputs();
+
             stopWatchFile.stop();
 
             if (parameters.isDetailedLogging()) {
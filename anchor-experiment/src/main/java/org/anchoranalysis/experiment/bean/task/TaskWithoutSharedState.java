@@ -28,6 +28,7 @@ package org.anchoranalysis.experiment.bean.task;
 
 import java.util.List;
 import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
 import org.anchoranalysis.experiment.task.NoSharedState;
 import org.anchoranalysis.experiment.task.ParametersExperiment;
 import org.anchoranalysis.inference.concurrency.ConcurrencyPlan;
@@ -64,6 +65,12 @@ public abstract class TaskWithoutSharedState<T extends InputFromManager>
         return NoSharedState.INSTANCE;
     }
 
+    @Override
+    public final void restoreSkippedJobs(NoSharedState sharedState, CompletionManifest manifest)
+            throws ExperimentExecutionException {
+        // NOTHING TO RESTORE, as jobs never contribute to a shared-state
+    }
+
     @Override
     public final void afterAllJobsAreExecuted(NoSharedState sharedState, InputOutputContext context)
             throws ExperimentExecutionException {
@@ -28,6 +28,7 @@ package org.anchoranalysis.experiment.io;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.anchoranalysis.core.cache.DiskLRUCache;
 import org.anchoranalysis.core.log.CommonContext;
 import org.anchoranalysis.core.log.Logger;
 import org.anchoranalysis.image.core.dimensions.size.suggestion.ImageSizeSuggestion;
@@ -48,6 +49,12 @@ public class InitializationContext {
     /** A suggested input on how to resize an image, if one is provided. */
     @Getter private final Optional<ImageSizeSuggestion> suggestedSize;
 
+    /**
+     * Caches the entities created by providers, so a later execution can load rather than
+     * recalculate them, if enabled.
+     */
+    @Getter private final Optional<DiskLRUCache> providerCache;
+
     /**
      * Create with an {@link InputOutputContext}.
      *
@@ -57,6 +64,17 @@ public class InitializationContext {
         this(inputOutputContext, Optional.empty());
     }
 
+    /**
+     * Create with an {@link InputOutputContext} and a suggested size, without caching.
+     *
+     * @param inputOutputContext the input-output context.
+     * @param suggestedSize a suggested input on how to resize an image, if one is provided.
+     */
+    public InitializationContext(
+            InputOutputContext inputOutputContext, Optional<ImageSizeSuggestion> suggestedSize) {
+        this(inputOutputContext, suggestedSize, Optional.empty());
+    }
+
     /**
      * An outputter that writes to the particular output-directory.
      *
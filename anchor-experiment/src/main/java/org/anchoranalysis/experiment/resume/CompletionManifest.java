@@ -0,0 +1,214 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.experiment.resume;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.Getter;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.io.input.InputFromManager;
+
+/**
+ * A file in the output directory, with a line for each job that has completed successfully.
+ *
+ * <p>Each line records the input's identifier, the size and modification-time of its associated
+ * file, and a digest of the task's configuration. A line is appended, and flushed, as each job
+ * completes, so the manifest remains valid if the experiment is abruptly interrupted.
+ *
+ * <p>When the experiment is executed again, any input whose line matches exactly is skipped. If
+ * the input file or the configuration has changed, the input is processed again.
+ *
+ * <p>An incomplete or malformed line, as may occur from an interruption, is ignored.
+ *
+ * @author Owen Feehan
+ */
+public class CompletionManifest implements AutoCloseable {
+
+    /** The name of the manifest file, in the output directory. */
+    public static final String FILE_NAME = "completedJobs.tsv";
+
+    /**
+     * The name of a subdirectory of the output directory, in which tasks may store results from
+     * each job, to be restored when the job is skipped.
+     */
+    public static final String STORED_RESULTS_DIRECTORY = "completedJobsResults";
+
+    /** The output directory, in which the manifest is located. */
+    private final Path directory;
+
+    /** A digest of the task's configuration. */
+    private final String configurationDigest;
+
+    /** Jobs that completed in previous executions, with an unchanged configuration. */
+    private final Set<JobFingerprint> previouslyCompleted;
+
+    /** Appends lines to the manifest. */
+    private final BufferedWriter writer;
+
+    /**
+     * The identifiers of inputs that were removed by {@link #removeCompleted}, as they previously
+     * completed.
+     *
+     * <p>A task may use these to restore any results stored when the jobs completed.
+     */
+    @Getter private final List<String> skippedIdentifiers = new ArrayList<>();
+
+    /**
+     * Opens a manifest for appending, after reading any lines that already exist.
+     *
+     * @param directory the output directory, which is created if it does not exist.
+     * @param configurationDigest a digest of the task's configuration.
+     * @throws OperationFailedException if the manifest cannot be read or opened.
+     */
+    public CompletionManifest(Path directory, String configurationDigest)
+            throws OperationFailedException {
+        this.directory = directory;
+        this.configurationDigest = configurationDigest;
+        Path path = directory.resolve(FILE_NAME);
+        try {
+            Files.createDirectories(directory);
+            this.previouslyCompleted = readExisting(path, configurationDigest);
+            boolean incompleteLastLine = endsWithIncompleteLine(path);
+            this.writer =
+                    Files.newBufferedWriter(
+                            path,
+                            StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+            if (incompleteLastLine) {
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new OperationFailedException(
+                    String.format("Cannot open the manifest of completed jobs at %s", path), e);
+        }
+    }
+
+    /**
+     * Removes any inputs that completed in a previous execution, with an unchanged file and
+     * configuration.
+     *
+     * <p>The identifiers of any removed inputs are added to {@link #getSkippedIdentifiers}.
+     *
+     * @param <T> input-type.
+     * @param inputs the inputs, which are unchanged.
+     * @return a newly created list with only the inputs that have not previously completed.
+     */
+    public <T extends InputFromManager> List<T> removeCompleted(List<T> inputs) {
+        List<T> out = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            if (previouslyCompleted.contains(new JobFingerprint(input, configurationDigest))) {
+                skippedIdentifiers.add(input.identifier());
+            } else {
+                out.add(input);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Records that the job for a particular input has completed successfully.
+     *
+     * <p>An input whose identifier contains a tab or a line-break is never recorded.
+     *
+     * @param input the input.
+     * @throws OperationFailedException if the manifest cannot be written to.
+     */
+    public synchronized void recordCompleted(InputFromManager input)
+            throws OperationFailedException {
+        JobFingerprint fingerprint = new JobFingerprint(input, configurationDigest);
+        if (!fingerprint.isRecordable()) {
+            return;
+        }
+        try {
+            writer.write(fingerprint.toLine());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new OperationFailedException(
+                    String.format("Cannot record that job %s completed", input.identifier()), e);
+        }
+    }
+
+    /**
+     * The directory in which a task may store results from each job, to be restored when the job
+     * is later skipped.
+     *
+     * @return the path to the directory, which may not yet exist.
+     */
+    public Path storedResultsDirectory() {
+        return directory.resolve(STORED_RESULTS_DIRECTORY);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /** Reads any existing lines that match the current configuration. */
+    private static Set<JobFingerprint> readExisting(Path path, String configurationDigest)
+            throws IOException {
+        Set<JobFingerprint> out = new HashSet<>();
+        if (Files.exists(path)) {
+            // Decoded leniently, as an interruption may leave a partially written character
+            String contents = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            for (String line : contents.split("\\R")) {
+                JobFingerprint.fromLine(line)
+                        .filter(
+                                fingerprint ->
+                                        fingerprint
+                                                .getConfigurationDigest()
+                                                .equals(configurationDigest))
+                        .ifPresent(out::add);
+            }
+        }
+        return out;
+    }
+
+    /** Whether a file exists, and its final line lacks a line-break, from an interruption. */
+    private static boolean endsWithIncompleteLine(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            if (file.length() == 0) {
+                return false;
+            }
+            file.seek(file.length() - 1);
+            return file.read() != '\n';
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.experiment.resume;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.anchoranalysis.io.input.InputFromManager;
+
+/**
+ * Identifies a job, and the state of its input and configuration, when it completed.
+ *
+ * <p>If any element changes, the job is no longer considered completed.
+ *
+ * @author Owen Feehan
+ */
+@Value
+@AllArgsConstructor
+class JobFingerprint {
+
+    /** Separates the elements in a line of the manifest. */
+    private static final String SEPARATOR = "\t";
+
+    /** The value recorded for the size and modification-time, when an input has no file. */
+    private static final long NO_FILE = -1;
+
+    /** The unique identifier of the input. */
+    private final String identifier;
+
+    /** The size, in bytes, of the file associated with the input, or -1 if none exists. */
+    private final long size;
+
+    /** The last modification time of the file associated with the input, or -1 if none exists. */
+    private final long lastModified;
+
+    /** A digest of the task's configuration. */
+    private final String configurationDigest;
+
+    /**
+     * Creates for an input, describing the current state of its associated file.
+     *
+     * @param input the input.
+     * @param configurationDigest a digest of the task's configuration.
+     */
+    public JobFingerprint(InputFromManager input, String configurationDigest) {
+        this.identifier = input.identifier();
+        Optional<File> file = input.pathForBinding().map(Path::toFile).filter(File::isFile);
+        this.size = file.map(File::length).orElse(NO_FILE);
+        this.lastModified = file.map(File::lastModified).orElse(NO_FILE);
+        this.configurationDigest = configurationDigest;
+    }
+
+    /**
+     * Parses a line of the manifest.
+     *
+     * @param line the line, as created by {@link #toLine}.
+     * @return the fingerprint, or {@link Optional#empty} if the line is incomplete or malformed.
+     */
+    public static Optional<JobFingerprint> fromLine(String line) {
+        String[] elements = line.split(SEPARATOR, -1);
+        if (elements.length != 4) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(
+                    new JobFingerprint(
+                            elements[0],
+                            Long.parseLong(elements[1]),
+                            Long.parseLong(elements[2]),
+                            elements[3]));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Whether the fingerprint can be recorded as a line of the manifest.
+     *
+     * @return true if the identifier contains neither a separator nor a line-break.
+     */
+    public boolean isRecordable() {
+        return !identifier.contains(SEPARATOR)
+                && identifier.indexOf('\n') == -1
+                && identifier.indexOf('\r') == -1;
+    }
+
+    /**
+     * Describes the fingerprint as a line of the manifest.
+     *
+     * @return the line, without any line-break.
+     */
+    public String toLine() {
+        return String.join(
+                SEPARATOR,
+                identifier,
+                Long.toString(size),
+                Long.toString(lastModified),
+                configurationDigest);
+    }
+}
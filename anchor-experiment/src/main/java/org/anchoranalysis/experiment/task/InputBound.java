@@ -99,8 +99,8 @@ public class InputBound<T, S> {
      * @return a newly created {@link InitializationContext}.
      */
     public InitializationContext createInitializationContext() {
-        return new InitializationContext(
-                contextJob, contextExperiment.getExecutionArguments().task().getSize());
+        TaskArguments task = contextExperiment.getExecutionArguments().task();
+        return new InitializationContext(contextJob, task.getSize(), task.getProviderCache());
     }
 
     /**
@@ -32,9 +32,11 @@ import lombok.Setter;
 import org.anchoranalysis.core.time.ExecutionTimeRecorder;
 import org.anchoranalysis.core.time.RecordedExecutionTimes;
 import org.anchoranalysis.experiment.arguments.ExecutionArguments;
+import org.anchoranalysis.experiment.arguments.TaskArguments;
 import org.anchoranalysis.experiment.bean.log.LoggingDestination;
 import org.anchoranalysis.experiment.io.InitializationContext;
 import org.anchoranalysis.experiment.log.StatefulMessageLogger;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
 import org.anchoranalysis.io.output.bean.path.prefixer.PathPrefixer;
 import org.anchoranalysis.io.output.outputter.Outputter;
 import org.anchoranalysis.io.output.outputter.OutputterChecked;
@@ -68,6 +70,12 @@ public class ParametersExperiment {
     /** Allows execution-time for particular operations to be recorded. */
     @Getter private ExecutionTimeRecorder executionTimeRecorder;
 
+    /**
+     * When defined, records each job that completes successfully, so that the experiment can be
+     * resumed.
+     */
+    @Getter @Setter private Optional<CompletionManifest> completionManifest = Optional.empty();
+
     /**
      * Creates with initialization arguments.
      *
@@ -138,7 +146,8 @@ public class ParametersExperiment {
      * @return a newly created {@link InitializationContext}.
      */
     public InitializationContext deriveInitializationContext() {
-        return new InitializationContext(context, context.getExecutionArguments().task().getSize());
+        TaskArguments task = context.getExecutionArguments().task();
+        return new InitializationContext(context, task.getSize(), task.getProviderCache());
     }
 
     /**
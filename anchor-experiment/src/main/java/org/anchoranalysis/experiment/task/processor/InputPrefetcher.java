@@ -0,0 +1,221 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.experiment.task.processor;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.io.input.InputFromManager;
+
+/**
+ * Reads inputs in advance on a background thread, so that reading overlaps with the processing of
+ * earlier inputs.
+ *
+ * <p>Inputs are prefetched in the order they are supplied, via {@link
+ * InputFromManager#prefetch}, with at most a certain number prefetched ahead of those being
+ * processed.
+ *
+ * <p>No further prefetching begins, while the memory occupied by inputs that have been prefetched
+ * (but whose processing has not yet begun) exceeds a limit. As the memory occupied by an input
+ * is only known after it is prefetched, the limit may be exceeded by the inputs currently being
+ * prefetched.
+ *
+ * <p>{@link #awaitPrefetched} must be called immediately before each input is processed.
+ *
+ * <p>Inputs are always identified by identity, not by {@link Object#equals}.
+ *
+ * @author Owen Feehan
+ * @param <T> input-object type
+ */
+public class InputPrefetcher<T extends InputFromManager> implements AutoCloseable {
+
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    /** Inputs, in order, whose prefetching has not yet begun. */
+    private final Deque<T> pending;
+
+    /** Inputs whose prefetching has begun, but whose processing has not. */
+    private final Map<T, Future<Long>> prefetching = new IdentityHashMap<>();
+
+    /**
+     * Inputs in {@code pending} whose processing has already begun, so which should never be
+     * prefetched.
+     *
+     * <p>They are skipped when later reached in {@code pending}, rather than removed immediately,
+     * which would require searching {@code pending}.
+     */
+    private final Set<T> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The bytes occupied by each input that has been prefetched, but not yet processed. */
+    private final Map<T, Long> bytesForInput = new IdentityHashMap<>();
+
+    /**
+     * Inputs whose processing began, without waiting for their prefetching to complete.
+     *
+     * <p>The bytes they occupy are never added to {@code bytesPrefetched}, as no later call will
+     * subtract them.
+     */
+    private final Set<T> abandoned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** The maximum number of inputs to prefetch ahead of processing. */
+    private final int maxNumberAhead;
+
+    /** The maximum number of bytes to occupy with prefetched inputs. */
+    private final long maxBytes;
+
+    /** A logger for any non-fatal errors that occur while prefetching. */
+    private final Logger logger;
+
+    /** Executes the prefetching, on a single background thread. */
+    private final ExecutorService executor;
+
+    /** The number of bytes occupied by inputs that are prefetched, but not yet processed. */
+    private long bytesPrefetched = 0;
+
+    /**
+     * Creates and immediately begins prefetching the first inputs.
+     *
+     * @param inputs the inputs, in the order they are expected to be processed.
+     * @param maxNumberAhead the maximum number of inputs to prefetch ahead of processing.
+     * @param maxMegabytes the maximum number of megabytes to occupy with prefetched inputs.
+     * @param logger a logger for any non-fatal errors that occur while prefetching.
+     */
+    public InputPrefetcher(List<T> inputs, int maxNumberAhead, int maxMegabytes, Logger logger) {
+        this.pending = new ArrayDeque<>(inputs);
+        this.maxNumberAhead = maxNumberAhead;
+        this.maxBytes = maxMegabytes * BYTES_PER_MEGABYTE;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadExecutor(InputPrefetcher::createDaemonThread);
+        synchronized (this) {
+            prefetchMore();
+        }
+    }
+
+    /**
+     * Waits until any prefetching of {@code input} completes, and prefetches further inputs.
+     *
+     * <p>If prefetching of {@code input} has not yet begun, it never will, and {@code input} is
+     * read as normal during processing.
+     *
+     * <p>If the calling thread is interrupted while waiting, it stops waiting, and its interrupt
+     * flag remains set. The prefetching of {@code input} is then abandoned, but may continue to
+     * execute while {@code input} is processed (see {@link InputFromManager#prefetch}).
+     *
+     * @param input the input whose processing is about to begin.
+     */
+    public void awaitPrefetched(T input) {
+        Future<Long> future;
+        synchronized (this) {
+            future = prefetching.remove(input);
+            if (future == null) {
+                skipped.add(input);
+            }
+        }
+
+        if (future != null) {
+            waitFor(future);
+        }
+
+        synchronized (this) {
+            if (future != null) {
+                release(input, future);
+            }
+            prefetchMore();
+        }
+    }
+
+    /** Stops any further prefetching. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stops counting the bytes occupied by {@code input}, as its processing is beginning.
+     *
+     * <p>If its prefetching is still ongoing, its bytes are never counted.
+     */
+    private void release(T input, Future<Long> future) {
+        Long bytes = bytesForInput.remove(input);
+        if (bytes != null) {
+            bytesPrefetched -= bytes;
+        } else if (!future.isDone()) {
+            abandoned.add(input);
+        }
+    }
+
+    /** Begins prefetching further inputs, as far as the limits allow. */
+    private void prefetchMore() {
+        while (!pending.isEmpty()
+                && prefetching.size() < maxNumberAhead
+                && bytesPrefetched < maxBytes
+                && !executor.isShutdown()) {
+            T input = pending.poll();
+            if (!skipped.remove(input)) {
+                prefetching.put(input, executor.submit(() -> prefetch(input)));
+            }
+        }
+    }
+
+    /** Prefetches a single input, recording the bytes it occupies. */
+    private long prefetch(T input) {
+        long bytes = input.prefetch(logger);
+        synchronized (this) {
+            if (!abandoned.remove(input)) {
+                bytesForInput.put(input, bytes);
+                bytesPrefetched += bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /** Waits for a prefetch to complete, ignoring any failure. */
+    private static void waitFor(Future<Long> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+            // The input is read as normal during processing, reporting any error there.
+        }
+    }
+
+    private static Thread createDaemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "prefetch-inputs");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,184 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2025 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.experiment.bean.processor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.JobExecutionException;
+import org.anchoranalysis.experiment.bean.task.Task;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
+import org.anchoranalysis.experiment.task.InputBound;
+import org.anchoranalysis.experiment.task.InputTypesExpected;
+import org.anchoranalysis.experiment.task.ParametersExperiment;
+import org.anchoranalysis.experiment.task.ParametersUnbound;
+import org.anchoranalysis.feature.io.csv.metadata.RowLabels;
+import org.anchoranalysis.feature.io.results.LabelledResultsStore;
+import org.anchoranalysis.feature.io.results.LabelledResultsVector;
+import org.anchoranalysis.feature.results.ResultsVector;
+import org.anchoranalysis.inference.concurrency.ConcurrencyPlan;
+import org.anchoranalysis.io.input.InputFromManager;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.anchoranalysis.io.output.outputter.InputOutputContext;
+import org.anchoranalysis.io.output.outputter.Outputter;
+
+/**
+ * A task that calculates a result for each job, and writes them all together to a CSV file, after
+ * all jobs are executed.
+ *
+ * <p>The result for each job is stored with a {@link LabelledResultsStore}, so that it can be
+ * restored when the job is skipped, as the experiment is resumed.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+class AggregatingTask extends Task<InputFromManager, AggregatingTask.Aggregated> {
+
+    /** The shared-state, aggregating the results from all jobs. */
+    @AllArgsConstructor
+    static class Aggregated {
+
+        /** Where the result for each job is stored. */
+        private final LabelledResultsStore store;
+
+        /** The results from all jobs, including those restored. */
+        private final List<LabelledResultsVector> results =
+                Collections.synchronizedList(new ArrayList<>());
+    }
+
+    /** The path of the CSV file to write, with all results. */
+    private final Path csvPath;
+
+    /**
+     * The index of the first input whose job is interrupted, abruptly ending the experiment.
+     *
+     * <p>This simulates the process being killed.
+     */
+    private final int interruptAtIndex;
+
+    /**
+     * The result that is calculated for the input with a particular identifier.
+     *
+     * @param identifier the identifier of the input, as created by {@link MockInputFixture}.
+     * @return the result.
+     */
+    public static double resultFor(String identifier) {
+        return indexOf(identifier) * 1.5;
+    }
+
+    @Override
+    public boolean hasVeryQuickPerInputExecution() {
+        return true;
+    }
+
+    @Override
+    public Aggregated beforeAnyJobIsExecuted(
+            Outputter outputter,
+            ConcurrencyPlan concurrencyPlan,
+            List<InputFromManager> inputs,
+            ParametersExperiment parameters)
+            throws ExperimentExecutionException {
+        CompletionManifest manifest =
+                parameters
+                        .getCompletionManifest()
+                        .orElseThrow(
+                                () ->
+                                        new ExperimentExecutionException(
+                                                "A manifest of completed jobs must exist."));
+        return new Aggregated(new LabelledResultsStore(manifest.storedResultsDirectory()));
+    }
+
+    @Override
+    public void restoreSkippedJobs(Aggregated sharedState, CompletionManifest manifest)
+            throws ExperimentExecutionException {
+        try {
+            sharedState.store.restoreInto(
+                    manifest.getSkippedIdentifiers(), sharedState.results::add);
+        } catch (OperationFailedException e) {
+            throw new ExperimentExecutionException(e);
+        }
+    }
+
+    @Override
+    public boolean executeJob(ParametersUnbound<InputFromManager, Aggregated> parametersUnbound)
+            throws JobExecutionException {
+        String identifier = parametersUnbound.getInput().identifier();
+        if (indexOf(identifier) >= interruptAtIndex) {
+            throw new IllegalStateException("The experiment was interrupted.");
+        }
+
+        ResultsVector result = new ResultsVector(1);
+        result.set(0, resultFor(identifier));
+        LabelledResultsVector labelled =
+                new LabelledResultsVector(new RowLabels(identifier), result);
+
+        Aggregated sharedState = parametersUnbound.getSharedState();
+        try {
+            sharedState.store.write(identifier, List.of(labelled));
+        } catch (OutputWriteFailedException e) {
+            throw new JobExecutionException(e);
+        }
+        sharedState.results.add(labelled);
+        return true;
+    }
+
+    @Override
+    public void afterAllJobsAreExecuted(Aggregated sharedState, InputOutputContext context)
+            throws ExperimentExecutionException {
+        List<String> lines = new ArrayList<>();
+        for (LabelledResultsVector labelled : sharedState.results) {
+            String identifier = labelled.getLabels().getIdentifier().get()[0];
+            lines.add(identifier + "," + labelled.get(0));
+        }
+        try {
+            Files.write(csvPath, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ExperimentExecutionException(e);
+        }
+    }
+
+    @Override
+    public InputTypesExpected inputTypesExpected() {
+        return new InputTypesExpected(InputFromManager.class);
+    }
+
+    @Override
+    public void doJobOnInput(InputBound<InputFromManager, Aggregated> input) {
+        // Not called, as executeJob is overridden.
+    }
+
+    /** The index of an input, from its identifier as created by {@link MockInputFixture}. */
+    private static int indexOf(String identifier) {
+        return Integer.parseInt(identifier.substring(identifier.indexOf('_') + 1));
+    }
+}
@@ -25,6 +25,12 @@
  */
 package org.anchoranalysis.experiment.bean.processor;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
 import org.anchoranalysis.experiment.ExperimentExecutionException;
 import org.anchoranalysis.experiment.JobExecutionException;
 import org.anchoranalysis.io.input.InputFromManager;
@@ -42,6 +48,35 @@ abstract class ProcessorTestBase {
         ExecuteHelper.assertExecutionTime(processor, minExecutionTimeMillis());
     }
 
+    @SuppressWarnings("javadoc")
+    @Test
+    void testPrefetchInputs() throws ExperimentExecutionException, JobExecutionException {
+        List<InputFromManager> inputs = executeWithPrefetching();
+        // The first input is always prefetched, before its processing begins.
+        verify(inputs.get(0), times(1)).prefetch(any());
+        for (InputFromManager input : inputs) {
+            verify(input, atMost(1)).prefetch(any());
+        }
+    }
+
+    /**
+     * Executes inputs on the processor, while prefetching two inputs in advance.
+     *
+     * @return the inputs that were executed.
+     * @throws JobExecutionException if thrown during job execution.
+     * @throws ExperimentExecutionException if thrown during job execution.
+     */
+    protected List<InputFromManager> executeWithPrefetching()
+            throws ExperimentExecutionException, JobExecutionException {
+        JobProcessor<InputFromManager, Object> processor = createProcessor();
+        processor.setPrefetchInputs(2);
+
+        List<InputFromManager> inputs =
+                MockInputFixture.createInputs(ExecuteHelper.NUMBER_OF_INPUTS);
+        ExecuteHelper.executeInputsOnProcessor(processor, inputs);
+        return inputs;
+    }
+
     /**
      * Minimum expected execution time in milliseconds.
      *
@@ -0,0 +1,153 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2025 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.experiment.bean.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.log.StatefulMessageLogger;
+import org.anchoranalysis.experiment.resume.CompletionManifest;
+import org.anchoranalysis.experiment.task.ParametersExperiment;
+import org.anchoranalysis.io.input.InputFromManager;
+import org.anchoranalysis.io.output.outputter.Outputter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests resuming an experiment, with {@link SequentialProcessor} and a {@link CompletionManifest}.
+ *
+ * @author Owen Feehan
+ */
+class ResumeTest {
+
+    /** The index of the input at which the first execution is interrupted. */
+    private static final int INTERRUPT_AT_INDEX = 6;
+
+    /** A digest of the task's configuration, which is unchanged between executions. */
+    private static final String CONFIGURATION_DIGEST = "digest";
+
+    private static final String CSV_FILE_NAME = "aggregated.csv";
+
+    @TempDir Path directory;
+
+    private final List<InputFromManager> inputs =
+            MockInputFixture.createInputs(ExecuteHelper.NUMBER_OF_INPUTS);
+
+    /**
+     * An interrupted experiment, when resumed, writes the results of all jobs, including those
+     * that completed before the interruption.
+     */
+    @Test
+    void testResumeAfterInterruption()
+            throws ExperimentExecutionException, OperationFailedException, IOException {
+        Path csvPath = directory.resolve(CSV_FILE_NAME);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> execute(new AggregatingTask(csvPath, INTERRUPT_AT_INDEX), 0));
+        assertFalse(Files.exists(csvPath), "No aggregated results exist after the interruption.");
+
+        execute(
+                new AggregatingTask(csvPath, ExecuteHelper.NUMBER_OF_INPUTS),
+                INTERRUPT_AT_INDEX);
+        assertAllResults(csvPath);
+    }
+
+    /**
+     * An experiment whose jobs all previously completed, when resumed, writes the results of all
+     * jobs again.
+     */
+    @Test
+    void testResumeAfterAllCompleted()
+            throws ExperimentExecutionException, OperationFailedException, IOException {
+        Path csvPath = directory.resolve(CSV_FILE_NAME);
+
+        execute(new AggregatingTask(csvPath, ExecuteHelper.NUMBER_OF_INPUTS), 0);
+        Files.delete(csvPath);
+
+        execute(
+                new AggregatingTask(csvPath, ExecuteHelper.NUMBER_OF_INPUTS),
+                ExecuteHelper.NUMBER_OF_INPUTS);
+        assertAllResults(csvPath);
+    }
+
+    /**
+     * Executes the task on any inputs that did not previously complete.
+     *
+     * @param task the task to execute.
+     * @param expectedSkipped how many inputs are expected to be skipped, as they previously
+     *     completed.
+     */
+    private void execute(AggregatingTask task, int expectedSkipped)
+            throws ExperimentExecutionException, OperationFailedException, IOException {
+        try (CompletionManifest manifest =
+                new CompletionManifest(directory, CONFIGURATION_DIGEST)) {
+            List<InputFromManager> remaining = manifest.removeCompleted(inputs);
+            assertEquals(expectedSkipped, manifest.getSkippedIdentifiers().size());
+            assertEquals(inputs.size() - expectedSkipped, remaining.size());
+
+            SequentialProcessor<InputFromManager, AggregatingTask.Aggregated> processor =
+                    new SequentialProcessor<>();
+            processor.setTask(task);
+            processor.execute(
+                    mock(Outputter.class), remaining, createParametersExperiment(manifest));
+        }
+    }
+
+    /** Asserts that the CSV file contains a row, with the correct result, for every input. */
+    private void assertAllResults(Path csvPath) throws IOException {
+        Map<String, Double> results = new HashMap<>();
+        for (String line : Files.readAllLines(csvPath, StandardCharsets.UTF_8)) {
+            String[] elements = line.split(",");
+            results.put(elements[0], Double.parseDouble(elements[1]));
+        }
+        assertEquals(inputs.size(), results.size());
+        for (InputFromManager input : inputs) {
+            String identifier = input.identifier();
+            assertEquals(AggregatingTask.resultFor(identifier), results.get(identifier));
+        }
+    }
+
+    private static ParametersExperiment createParametersExperiment(CompletionManifest manifest) {
+        ParametersExperiment parameters = mock(ParametersExperiment.class);
+        when(parameters.getLoggerExperiment()).thenReturn(mock(StatefulMessageLogger.class));
+        when(parameters.getCompletionManifest()).thenReturn(Optional.of(manifest));
+        return parameters;
+    }
+}
@@ -25,11 +25,27 @@
  */
 package org.anchoranalysis.experiment.bean.processor;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.anchoranalysis.experiment.ExperimentExecutionException;
+import org.anchoranalysis.experiment.JobExecutionException;
 import org.anchoranalysis.io.input.InputFromManager;
+import org.junit.jupiter.api.Test;
 
 /** Tests the {@link SequentialProcessor} class. */
 class SequentialProcessorTest extends ProcessorTestBase {
 
+    /** As inputs are processed in order, every input should be prefetched exactly once. */
+    @Test
+    void testPrefetchEveryInput() throws ExperimentExecutionException, JobExecutionException {
+        List<InputFromManager> inputs = executeWithPrefetching();
+        for (InputFromManager input : inputs) {
+            verify(input).prefetch(any());
+        }
+    }
+
     @Override
     protected int minExecutionTimeMillis() {
         return ExecuteHelper.TASK_DELAY_MS * ExecuteHelper.NUMBER_OF_INPUTS;
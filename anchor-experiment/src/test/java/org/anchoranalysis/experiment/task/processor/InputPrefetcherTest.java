@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * anchor-experiment
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.experiment.task.processor;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.anchoranalysis.io.input.InputFromManager;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link InputPrefetcher}.
+ *
+ * <p>Each input occupies one megabyte when prefetched.
+ *
+ * @author Owen Feehan
+ */
+class InputPrefetcherTest {
+
+    private static final long BYTES_PER_INPUT = 1024L * 1024L;
+
+    /** How long to wait, to check that a prefetch does <b>not</b> occur. */
+    private static final long WAIT_MILLIS = 100;
+
+    /** How long to wait, at most, for a prefetch to occur. */
+    private static final int TIMEOUT_MILLIS = 5000;
+
+    private static final Logger LOGGER = new Logger(new NullMessageLogger());
+
+    /** No further prefetching begins, while the limit on prefetched bytes is reached. */
+    @Test
+    void testByteLimit() throws InterruptedException {
+        List<InputFromManager> inputs = createInputs(6);
+        try (InputPrefetcher<InputFromManager> prefetcher =
+                new InputPrefetcher<>(inputs, 2, 1, LOGGER)) {
+            // The first two inputs are prefetched, together exceeding the limit.
+            verify(inputs.get(1), timeout(TIMEOUT_MILLIS)).prefetch(any());
+            Thread.sleep(WAIT_MILLIS);
+
+            // Processing the first input, leaves the second still occupying the entire limit.
+            prefetcher.awaitPrefetched(inputs.get(0));
+            Thread.sleep(WAIT_MILLIS);
+            verify(inputs.get(2), never()).prefetch(any());
+
+            // Processing the second input frees the limit again.
+            prefetcher.awaitPrefetched(inputs.get(1));
+            verify(inputs.get(2), timeout(TIMEOUT_MILLIS)).prefetch(any());
+        }
+    }
+
+    /** An input processed before its prefetching begins, is never prefetched. */
+    @Test
+    void testSkipped() {
+        List<InputFromManager> inputs = createInputs(4);
+        try (InputPrefetcher<InputFromManager> prefetcher =
+                new InputPrefetcher<>(inputs, 1, 100, LOGGER)) {
+            prefetcher.awaitPrefetched(inputs.get(2));
+            prefetcher.awaitPrefetched(inputs.get(0));
+            prefetcher.awaitPrefetched(inputs.get(1));
+            prefetcher.awaitPrefetched(inputs.get(3));
+            verify(inputs.get(2), never()).prefetch(any());
+        }
+    }
+
+    /**
+     * An interrupt while waiting for a prefetch, leaves the interrupt flag set, and does not
+     * permanently occupy the limit on prefetched bytes.
+     */
+    @Test
+    void testInterrupted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<InputFromManager> inputs = createInputs(3);
+        when(inputs.get(0).prefetch(any()))
+                .thenAnswer(
+                        invocation -> {
+                            release.await();
+                            return BYTES_PER_INPUT;
+                        });
+
+        try (InputPrefetcher<InputFromManager> prefetcher =
+                new InputPrefetcher<>(inputs, 1, 1, LOGGER)) {
+            Thread.currentThread().interrupt();
+            prefetcher.awaitPrefetched(inputs.get(0));
+            assertTrue(Thread.interrupted());
+
+            release.countDown();
+            verify(inputs.get(1), timeout(TIMEOUT_MILLIS)).prefetch(any());
+            prefetcher.awaitPrefetched(inputs.get(1));
+            verify(inputs.get(2), timeout(TIMEOUT_MILLIS)).prefetch(any());
+        }
+    }
+
+    /** Creates mocked inputs, each occupying {@code BYTES_PER_INPUT} when prefetched. */
+    private static List<InputFromManager> createInputs(int numberInputs) {
+        List<InputFromManager> inputs = new ArrayList<>();
+        for (int i = 0; i < numberInputs; i++) {
+            InputFromManager input = mock(InputFromManager.class);
+            when(input.prefetch(any())).thenReturn(BYTES_PER_INPUT);
+            inputs.add(input);
+        }
+        return inputs;
+    }
+}
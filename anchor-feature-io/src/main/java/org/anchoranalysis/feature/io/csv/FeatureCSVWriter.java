@@ -26,21 +26,25 @@
 
 package org.anchoranalysis.feature.io.csv;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.anchoranalysis.core.value.DoubleFormatter;
 import org.anchoranalysis.core.value.TypedValue;
 import org.anchoranalysis.feature.io.csv.metadata.FeatureCSVMetadata;
-import org.anchoranalysis.feature.io.csv.metadata.RowLabels;
+import org.anchoranalysis.feature.io.results.FeatureOutputNames;
 import org.anchoranalysis.feature.io.results.LabelledResultsVector;
-import org.anchoranalysis.feature.results.ResultsVector;
 import org.anchoranalysis.io.generator.tabular.CSVWriter;
+import org.anchoranalysis.io.generator.tabular.parquet.ParquetWriter;
 import org.anchoranalysis.io.output.error.OutputWriteFailedException;
 import org.anchoranalysis.io.output.outputter.Outputter;
 
 /**
  * Writes the results of feature-calculations as a CSV file.
  *
+ * <p>The same table may also be written in the Parquet format, with typed columns, when the
+ * corresponding output (see {@link FeatureOutputNames#parquetOutputName}) is enabled.
+ *
  * @author Owen Feehan
  */
 public class FeatureCSVWriter {
@@ -54,7 +58,11 @@ public class FeatureCSVWriter {
     /** Underlying CSV writer, which if null, it means the writer is disabled */
     private final CSVWriter writer;
 
-    private final int numberDecimalPlaces;
+    /** Formats feature-values, separately for each thread that adds rows. */
+    private final ThreadLocal<DoubleFormatter> formatter;
+
+    /** Writes the same table in the Parquet format, if enabled. */
+    private final Optional<ParquetWriter> parquetWriter;
 
     /**
      * Creates for a {@link CSVWriter}.
@@ -64,8 +72,28 @@ public class FeatureCSVWriter {
      *     as possible without losing precision, otherwse with {@link #NUMBER_DECIMAL_PLACES}.
      */
     public FeatureCSVWriter(CSVWriter writer, boolean visuallyShortenedDecimals) {
+        this(writer, Optional.empty(), visuallyShortenedDecimals);
+    }
+
+    /**
+     * Creates for a {@link CSVWriter} and a {@link ParquetWriter}.
+     *
+     * @param writer underlying CSV writer, which if null, it means the writer is disabled.
+     * @param parquetWriter writes the same table in the Parquet format, if defined.
+     * @param visuallyShortenedDecimals when true {@code double} values are printed to be as short
+     *     as possible without losing precision, otherwse with {@link #NUMBER_DECIMAL_PLACES}.
+     */
+    public FeatureCSVWriter(
+            CSVWriter writer,
+            Optional<ParquetWriter> parquetWriter,
+            boolean visuallyShortenedDecimals) {
         this.writer = writer;
-        this.numberDecimalPlaces = visuallyShortenedDecimals ? -1 : NUMBER_DECIMAL_PLACES;
+        this.parquetWriter = parquetWriter;
+        int numberDecimalPlaces =
+                visuallyShortenedDecimals
+                        ? DoubleFormatter.VISUALLY_SHORTENED
+                        : NUMBER_DECIMAL_PLACES;
+        this.formatter = ThreadLocal.withInitial(() -> new DoubleFormatter(numberDecimalPlaces));
     }
 
     /**
@@ -76,43 +104,74 @@ public class FeatureCSVWriter {
      * @param visuallyShortenedDecimals when true {@code double} values are printed to be as short
      *     as possible without losing precision.
      * @return a write, if it is allowed.
-     * @throws OutputWriteFailedException if the CSV file cannot be created successfully.
+     * @throws OutputWriteFailedException if the CSV or Parquet file cannot be created
+     *     successfully.
      */
     public static Optional<FeatureCSVWriter> create(
             FeatureCSVMetadata metadata, Outputter outputter, boolean visuallyShortenedDecimals)
             throws OutputWriteFailedException {
 
+        Optional<ParquetWriter> parquetWriter =
+                ParquetWriter.createFromOutputter(
+                        FeatureOutputNames.parquetOutputName(metadata.getOutputName()),
+                        outputter.getChecked(),
+                        metadata.getHeaders());
+
         if (!outputter.outputsEnabled().isOutputEnabled(metadata.getOutputName())) {
-            return Optional.of(new FeatureCSVWriter(null, visuallyShortenedDecimals));
+            return Optional.of(
+                    new FeatureCSVWriter(null, parquetWriter, visuallyShortenedDecimals));
         }
 
         Optional<CSVWriter> writerOptional =
                 CSVWriter.createFromOutputter(metadata.getOutputName(), outputter.getChecked());
-        return writerOptional.map(
-                writer -> {
-                    writer.writeHeaders(metadata.getHeaders());
-                    return new FeatureCSVWriter(writer, visuallyShortenedDecimals);
-                });
+        if (!writerOptional.isPresent() && !parquetWriter.isPresent()) {
+            return Optional.empty();
+        }
+
+        writerOptional.ifPresent(writer -> writer.writeHeaders(metadata.getHeaders()));
+        return Optional.of(
+                new FeatureCSVWriter(
+                        writerOptional.orElse(null), parquetWriter, visuallyShortenedDecimals));
     }
 
     /**
      * Directly adds a row of feature-values.
      *
+     * <p>The row is added to the Parquet file first, so a row it rejects is not written to the CSV
+     * file either.
+     *
      * @param results results for the row, along with corresponding labels.
+     * @throws OutputWriteFailedException if the row cannot be written to the Parquet file.
      */
-    public void addRow(LabelledResultsVector results) {
-        if (writer == null) {
+    public void addRow(LabelledResultsVector results) throws OutputWriteFailedException {
+        if (writer == null && !parquetWriter.isPresent()) {
             return;
         }
-        addRow(buildCSVRow(results.getLabels(), results.getResults()));
+        List<String> labels = new ArrayList<>();
+        results.getLabels().addToLabels(labels);
+        double[] values = results.getResults().toArray();
+        if (parquetWriter.isPresent()) {
+            parquetWriter.get().writeRow(labels, values);
+        }
+        if (writer != null) {
+            writer.writeRow(labels, values, formatter.get());
+        }
     }
 
     /**
      * Directly adds a row in the form of typed-values.
      *
+     * <p>As with {@link #addRow(LabelledResultsVector)}, the row is added to the Parquet file
+     * first.
+     *
      * @param values a list of typed-values corresponding to a row in a CSV file.
+     * @throws OutputWriteFailedException if the row cannot be written to the Parquet file.
      */
-    public void addRow(List<TypedValue> values) {
+    public void addRow(List<TypedValue> values) throws OutputWriteFailedException {
+
+        if (parquetWriter.isPresent()) {
+            parquetWriter.get().writeRow(values);
+        }
 
         if (writer == null) {
             return;
@@ -125,27 +184,16 @@ public class FeatureCSVWriter {
      * Closes any open file-handles.
      *
      * <p>This operation should always be called <i>once</i> at the end of writing.
-     */
-    public void close() {
-        if (writer == null) {
-            return;
-        }
-
-        writer.close();
-    }
-
-    /**
-     * Build a row for the CSV output
      *
-     * @param identifier unique identifier for the row and/or the group it belongs to
-     * @param resultsFromFeatures results to include in row
-     * @return a list of typed-values as forms a row in a CSV file.
+     * @throws OutputWriteFailedException if the Parquet file cannot be completed successfully.
      */
-    private List<TypedValue> buildCSVRow(RowLabels identifier, ResultsVector resultsFromFeatures) {
+    public void close() throws OutputWriteFailedException {
+        if (writer != null) {
+            writer.close();
+        }
 
-        List<TypedValue> csvRow = new LinkedList<>();
-        identifier.addToRow(csvRow);
-        resultsFromFeatures.addTypedValuesTo(csvRow, numberDecimalPlaces);
-        return csvRow;
+        if (parquetWriter.isPresent()) {
+            parquetWriter.get().close();
+        }
     }
 }
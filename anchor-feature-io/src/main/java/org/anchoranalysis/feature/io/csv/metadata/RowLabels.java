@@ -43,7 +43,7 @@ import org.anchoranalysis.feature.io.name.MultiName;
 public class RowLabels {
 
     /** Unique identifier for the row taking all elements together (together a primary key). */
-    private final Optional<String[]> identifier;
+    @Getter private final Optional<String[]> identifier;
 
     /** An identifier for a higher-level group which the row belongs to (foreign key) */
     @Getter private final Optional<MultiName> group;
@@ -67,6 +67,16 @@ public class RowLabels {
         group.ifPresent(multiName -> addStringIterableToRow(multiName, csvRow));
     }
 
+    /**
+     * Adds the identifiers, as strings, to a row to be outputted in a features CSV.
+     *
+     * @param labels the labels for the row, which are appended to.
+     */
+    public void addToLabels(List<String> labels) {
+        identifier.ifPresent(array -> labels.addAll(Arrays.asList(array)));
+        group.ifPresent(multiName -> multiName.forEach(labels::add));
+    }
+
     private static void addStringArrayToRow(String[] array, List<TypedValue> csvRow) {
         Arrays.stream(array).forEach(str -> csvRow.add(new TypedValue(str)));
     }
@@ -74,8 +74,9 @@ public abstract class LabelledResultsCSVWriter {
      * <p>This should be called once for each set of results to be written.
      *
      * @param results the results.
+     * @throws OutputWriteFailedException if the results cannot be written.
      */
-    public abstract void add(LabelledResultsVector results);
+    public abstract void add(LabelledResultsVector results) throws OutputWriteFailedException;
 
     /**
      * Stops writing the CSV file.
@@ -64,7 +64,7 @@ class WriteEager extends LabelledResultsCSVWriter {
     }
 
     @Override
-    public void add(LabelledResultsVector results) {
+    public void add(LabelledResultsVector results) throws OutputWriteFailedException {
 
         maybeConsumeResults(results);
 
@@ -74,7 +74,9 @@ class WriteEager extends LabelledResultsCSVWriter {
     }
 
     @Override
-    public void end() {
-        singleWriter.ifPresent(FeatureCSVWriter::close);
+    public void end() throws OutputWriteFailedException {
+        if (singleWriter.isPresent()) {
+            singleWriter.get().close();
+        }
     }
 }
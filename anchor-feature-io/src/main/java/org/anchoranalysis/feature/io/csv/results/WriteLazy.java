@@ -89,7 +89,9 @@ abstract class WriteLazy extends LabelledResultsCSVWriter {
                 singleWriter.get().addRow(results); // NOSONAR
             }
         }
-        singleWriter.ifPresent(FeatureCSVWriter::close);
+        if (singleWriter.isPresent()) {
+            singleWriter.get().close();
+        }
 
         storedResults.clear();
     }
@@ -61,6 +61,12 @@ public class FeatureOutputNames {
      */
     public static final String OUTPUT_SUFFIX_AGGREGATED_GROUP = "AggregatedGroup";
 
+    /**
+     * Suffix appended to the output-name of a CSV file of features, to form an output-name for the
+     * same table in the <i>Parquet</i> format.
+     */
+    public static final String OUTPUT_SUFFIX_PARQUET = "Parquet";
+
     /** The CSV of non-aggregated feature-results. */
     @Getter private String csvFeaturesNonAggregated;
 
@@ -104,11 +110,15 @@ public class FeatureOutputNames {
      *     none do.
      */
     public boolean calculationResultsNeeded(MultiLevelOutputEnabled outputEnabled) {
-        if (outputEnabled.isOutputEnabled(csvFeaturesNonAggregated)) {
+        if (outputEnabled.isOutputEnabled(csvFeaturesNonAggregated)
+                || outputEnabled.isOutputEnabled(parquetOutputName(csvFeaturesNonAggregated))) {
             return true;
         }
 
-        if (outputPresentAndEnabled(csvFeaturesAggregated, outputEnabled)) {
+        if (outputPresentAndEnabled(csvFeaturesAggregated, outputEnabled)
+                || outputPresentAndEnabled(
+                        csvFeaturesAggregated.map(FeatureOutputNames::parquetOutputName),
+                        outputEnabled)) {
             return true;
         }
 
@@ -119,6 +129,16 @@ public class FeatureOutputNames {
         return outputPresentAndEnabled(xmlAggregatedGroup, outputEnabled);
     }
 
+    /**
+     * The output-name for writing a table in the <i>Parquet</i> format, alongside a CSV file.
+     *
+     * @param csvOutputName the output-name of the CSV file.
+     * @return the output-name for the corresponding Parquet file.
+     */
+    public static String parquetOutputName(String csvOutputName) {
+        return csvOutputName + OUTPUT_SUFFIX_PARQUET;
+    }
+
     /** If a particular output-name is present and enabled for output. */
     private static boolean outputPresentAndEnabled(
             Optional<String> outputName, MultiLevelOutputEnabled outputEnabled) {
@@ -0,0 +1,232 @@
+/*-
+ * #%L
+ * anchor-feature-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.feature.io.results;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.feature.io.csv.metadata.RowLabels;
+import org.anchoranalysis.feature.io.name.MultiName;
+import org.anchoranalysis.feature.io.name.MultiNameFactory;
+import org.anchoranalysis.feature.results.ResultsVector;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+
+/**
+ * Persists the {@link LabelledResultsVector}s calculated for each job in a directory, so they can
+ * be restored in a later execution.
+ *
+ * <p>This allows an experiment that is resumed, skipping jobs that previously completed, to still
+ * include their results in any aggregated outputs.
+ *
+ * <p>A binary file is written for each job, with a path derived from the job's identifier. Each
+ * file is written atomically, so a file is either complete or absent.
+ *
+ * <p>Any feature-calculation that failed is restored as an error, but without its original
+ * exception.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+public class LabelledResultsStore {
+
+    /** The extension of each file written to the directory. */
+    public static final String EXTENSION = ".results";
+
+    /** Identifies the format of the file, and its version. */
+    private static final int FORMAT_IDENTIFIER = 0x4C525631;
+
+    /** The directory in which files for each job are written. */
+    private final Path directory;
+
+    /**
+     * Writes the results for a job, replacing any previously written for the same job.
+     *
+     * @param jobIdentifier the unique identifier of the job.
+     * @param results the results calculated for the job.
+     * @throws OutputWriteFailedException if the file cannot be written.
+     */
+    public void write(String jobIdentifier, Collection<LabelledResultsVector> results)
+            throws OutputWriteFailedException {
+        Path path = pathFor(jobIdentifier);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream stream =
+                    new DataOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                stream.writeInt(FORMAT_IDENTIFIER);
+                stream.writeInt(results.size());
+                for (LabelledResultsVector vector : results) {
+                    writeLabels(vector.getLabels(), stream);
+                    writeResults(vector.getResults(), stream);
+                }
+            }
+            Files.move(
+                    temporary,
+                    path,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new OutputWriteFailedException(
+                    String.format(
+                            "Cannot write the stored results for job %s: %s",
+                            jobIdentifier, e.getMessage()));
+        }
+    }
+
+    /**
+     * Reads the results previously written for a job.
+     *
+     * @param jobIdentifier the unique identifier of the job.
+     * @return newly created results, in the same order as they were written.
+     * @throws OperationFailedException if no results exist for the job, or they cannot be read.
+     */
+    public List<LabelledResultsVector> read(String jobIdentifier)
+            throws OperationFailedException {
+        Path path = pathFor(jobIdentifier);
+        try (DataInputStream stream =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (stream.readInt() != FORMAT_IDENTIFIER) {
+                throw new OperationFailedException(
+                        String.format("The stored results at %s have an unknown format", path));
+            }
+            int numberVectors = stream.readInt();
+            List<LabelledResultsVector> out = new ArrayList<>(numberVectors);
+            for (int i = 0; i < numberVectors; i++) {
+                RowLabels labels = readLabels(stream);
+                out.add(new LabelledResultsVector(labels, readResults(stream)));
+            }
+            return out;
+        } catch (IOException e) {
+            throw new OperationFailedException(
+                    String.format("Cannot read the stored results for job %s", jobIdentifier), e);
+        }
+    }
+
+    /**
+     * Reads the results previously written for several jobs, passing each to a consumer.
+     *
+     * @param jobIdentifiers the unique identifiers of the jobs.
+     * @param consumer called with each result, job by job, in the order of {@code
+     *     jobIdentifiers}.
+     * @throws OperationFailedException if results cannot be read for any job.
+     */
+    public void restoreInto(
+            Collection<String> jobIdentifiers, Consumer<LabelledResultsVector> consumer)
+            throws OperationFailedException {
+        for (String jobIdentifier : jobIdentifiers) {
+            read(jobIdentifier).forEach(consumer);
+        }
+    }
+
+    /** The path of the file for a particular job. */
+    private Path pathFor(String jobIdentifier) {
+        return directory.resolve(jobIdentifier + EXTENSION);
+    }
+
+    private static void writeLabels(RowLabels labels, DataOutputStream stream)
+            throws IOException {
+        Optional<String[]> identifier = labels.getIdentifier();
+        stream.writeBoolean(identifier.isPresent());
+        if (identifier.isPresent()) {
+            stream.writeInt(identifier.get().length);
+            for (String element : identifier.get()) {
+                stream.writeUTF(element);
+            }
+        }
+
+        Optional<MultiName> group = labels.getGroup();
+        stream.writeBoolean(group.isPresent());
+        if (group.isPresent()) {
+            Optional<String> firstPart = group.get().firstPart();
+            stream.writeBoolean(firstPart.isPresent());
+            if (firstPart.isPresent()) {
+                stream.writeUTF(firstPart.get());
+            }
+            stream.writeUTF(group.get().secondPart());
+        }
+    }
+
+    private static RowLabels readLabels(DataInputStream stream) throws IOException {
+        Optional<String[]> identifier = Optional.empty();
+        if (stream.readBoolean()) {
+            String[] elements = new String[stream.readInt()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = stream.readUTF();
+            }
+            identifier = Optional.of(elements);
+        }
+
+        Optional<MultiName> group = Optional.empty();
+        if (stream.readBoolean()) {
+            Optional<String> firstPart =
+                    stream.readBoolean() ? Optional.of(stream.readUTF()) : Optional.empty();
+            group = Optional.of(MultiNameFactory.create(firstPart, stream.readUTF()));
+        }
+        return new RowLabels(identifier, group);
+    }
+
+    /** Writes each result, preceded by a flag indicating whether it is an error. */
+    private static void writeResults(ResultsVector results, DataOutputStream stream)
+            throws IOException {
+        stream.writeInt(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Optional<Double> result = results.getResult(i);
+            stream.writeBoolean(result.isPresent());
+            if (result.isPresent()) {
+                stream.writeDouble(result.get());
+            }
+        }
+    }
+
+    private static ResultsVector readResults(DataInputStream stream) throws IOException {
+        ResultsVector results = new ResultsVector(stream.readInt());
+        for (int i = 0; i < results.size(); i++) {
+            if (stream.readBoolean()) {
+                results.set(i, stream.readDouble());
+            } else {
+                results.setError(
+                        i,
+                        new OperationFailedException(
+                                "The calculation failed when the result was stored."));
+            }
+        }
+        return results;
+    }
+}
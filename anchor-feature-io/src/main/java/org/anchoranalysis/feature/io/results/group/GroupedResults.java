@@ -25,7 +25,9 @@
  */
 package org.anchoranalysis.feature.io.results.group;
 
+import java.util.Collection;
 import java.util.Optional;
+import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.feature.input.FeatureInputResults;
 import org.anchoranalysis.feature.io.csv.metadata.FeatureCSVMetadataForOutput;
 import org.anchoranalysis.feature.io.csv.results.FeatureCSVWriterFactory;
@@ -33,6 +35,7 @@ import org.anchoranalysis.feature.io.csv.results.LabelledResultsCSVWriter;
 import org.anchoranalysis.feature.io.csv.results.LabelledResultsCSVWriterFactory;
 import org.anchoranalysis.feature.io.results.FeatureOutputMetadata;
 import org.anchoranalysis.feature.io.results.LabelledResultsCollector;
+import org.anchoranalysis.feature.io.results.LabelledResultsStore;
 import org.anchoranalysis.feature.io.results.LabelledResultsVector;
 import org.anchoranalysis.feature.store.NamedFeatureStore;
 import org.anchoranalysis.io.output.error.OutputWriteFailedException;
@@ -69,6 +72,22 @@ public class GroupedResults {
         map.addResultsFor(results);
     }
 
+    /**
+     * Adds results that were stored for particular jobs in an earlier execution, but doesn't write
+     * yet.
+     *
+     * <p>This allows the results of jobs that are skipped, when an experiment is resumed, to be
+     * included in the outputs.
+     *
+     * @param store where the results were stored.
+     * @param jobIdentifiers the identifiers of the jobs whose results are added.
+     * @throws OperationFailedException if the stored results cannot be read for any job.
+     */
+    public void addResultsFrom(LabelledResultsStore store, Collection<String> jobIdentifiers)
+            throws OperationFailedException {
+        store.restoreInto(jobIdentifiers, this::addResultsFor);
+    }
+
     /**
      * Writes outputs for groups that have been previously added with {@link #addResultsFor}.
      *
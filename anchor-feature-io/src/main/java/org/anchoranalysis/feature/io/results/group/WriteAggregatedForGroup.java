@@ -109,8 +109,9 @@ class WriteAggregatedForGroup {
             }
 
             // Write the aggregated-features into the csv file
-            aggregateResults.ifPresent(
-                    writer -> writer.add(new LabelledResultsVector(groupName, aggregated)));
+            if (aggregateResults.isPresent()) {
+                aggregateResults.get().add(new LabelledResultsVector(groupName, aggregated));
+            }
         }
     }
 
@@ -0,0 +1,90 @@
+/*-
+ * #%L
+ * anchor-feature-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.feature.io.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.anchoranalysis.feature.io.csv.metadata.RowLabels;
+import org.anchoranalysis.feature.io.results.LabelledResultsVector;
+import org.anchoranalysis.feature.results.ResultsVector;
+import org.anchoranalysis.io.generator.tabular.CSVWriter;
+import org.anchoranalysis.io.generator.tabular.parquet.ParquetWriter;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link FeatureCSVWriter}.
+ *
+ * @author Owen Feehan
+ */
+class FeatureCSVWriterTest {
+
+    private static final List<String> HEADERS = Arrays.asList("id", "featureA");
+
+    @TempDir Path directory;
+
+    /** A row that the Parquet file rejects is not written to the CSV file either. */
+    @Test
+    void testRejectedRowNotInCSV() throws OutputWriteFailedException, IOException {
+        Path pathCSV = directory.resolve("features.csv");
+        FeatureCSVWriter writer =
+                new FeatureCSVWriter(
+                        CSVWriter.create(pathCSV),
+                        Optional.of(
+                                ParquetWriter.create(
+                                        directory.resolve("features.parquet"), HEADERS)),
+                        false);
+
+        writer.addRow(row("first", 1));
+        assertThrows(OutputWriteFailedException.class, () -> writer.addRow(row("second", 2)));
+        writer.addRow(row("third", 1));
+        writer.close();
+
+        List<String> lines = Files.readAllLines(pathCSV);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("\"first\""));
+        assertTrue(lines.get(1).startsWith("\"third\""));
+    }
+
+    /** A row with a single label, and a particular number of feature-values. */
+    private static LabelledResultsVector row(String identifier, int numberValues) {
+        ResultsVector results = new ResultsVector(numberValues);
+        for (int index = 0; index < numberValues; index++) {
+            results.set(index, index + 0.5);
+        }
+        return new LabelledResultsVector(new RowLabels(identifier), results);
+    }
+}
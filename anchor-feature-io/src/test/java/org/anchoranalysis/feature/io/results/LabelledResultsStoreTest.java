@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * anchor-feature-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.feature.io.results;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.feature.io.csv.metadata.RowLabels;
+import org.anchoranalysis.feature.io.name.CombinedName;
+import org.anchoranalysis.feature.io.name.MultiName;
+import org.anchoranalysis.feature.results.ResultsVector;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link LabelledResultsStore}.
+ *
+ * @author Owen Feehan
+ */
+class LabelledResultsStoreTest {
+
+    private static final double TOLERANCE = 1e-10;
+
+    private static final String JOB_IDENTIFIER = "someDirectory/job1";
+
+    @TempDir Path directory;
+
+    /** Results, including their labels and any errors, are identical after being restored. */
+    @Test
+    void testRoundTrip() throws OutputWriteFailedException, OperationFailedException {
+        LabelledResultsStore store = new LabelledResultsStore(directory);
+
+        ResultsVector results = new ResultsVector(3);
+        results.set(0, 1.5);
+        results.setError(1, new OperationFailedException("failed"));
+        results.set(2, -7.0);
+
+        MultiName group = new CombinedName("groupA", "object1");
+        store.write(
+                JOB_IDENTIFIER,
+                Arrays.asList(
+                        new LabelledResultsVector(
+                                new RowLabels(
+                                        Optional.of(new String[] {"a", "b"}), Optional.of(group)),
+                                results),
+                        new LabelledResultsVector(new ResultsVector(0))));
+
+        List<LabelledResultsVector> restored = new ArrayList<>();
+        store.restoreInto(Arrays.asList(JOB_IDENTIFIER), restored::add);
+
+        assertEquals(2, restored.size());
+        LabelledResultsVector first = restored.get(0);
+        assertArrayEquals(new String[] {"a", "b"}, first.getLabels().getIdentifier().get());
+        assertEquals(group, first.getLabels().getGroup().get());
+        assertEquals(1.5, first.get(0), TOLERANCE);
+        assertFalse(first.getResults().getResult(1).isPresent());
+        assertEquals(-7.0, first.get(2), TOLERANCE);
+
+        LabelledResultsVector second = restored.get(1);
+        assertFalse(second.getLabels().getIdentifier().isPresent());
+        assertFalse(second.getLabels().getGroup().isPresent());
+        assertEquals(0, second.size());
+    }
+
+    /** Reading results for a job that was never written is an error. */
+    @Test
+    void testMissing() {
+        LabelledResultsStore store = new LabelledResultsStore(directory);
+        assertThrows(OperationFailedException.class, () -> store.read("neverWritten"));
+    }
+}
@@ -182,6 +182,20 @@ public class ResultsVector {
         }
     }
 
+    /**
+     * Copies all results into a newly created array.
+     *
+     * @return an array with an element for each result, which is {@link Double#NaN} for any result
+     *     that is an error.
+     */
+    public double[] toArray() {
+        double[] out = new double[vector.length];
+        for (int index = 0; index < vector.length; index++) {
+            out[index] = get(index);
+        }
+        return out;
+    }
+
     /**
      * Adds {@link TypedValue} representations of the results to a {@link Collection}.
      *
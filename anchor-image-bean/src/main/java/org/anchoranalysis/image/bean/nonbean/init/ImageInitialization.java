@@ -47,6 +47,14 @@ import org.anchoranalysis.feature.bean.FeatureRelatedBean;
 import org.anchoranalysis.feature.bean.list.FeatureListProvider;
 import org.anchoranalysis.feature.initialization.FeatureRelatedInitialization;
 import org.anchoranalysis.image.bean.ImageBean;
+import org.anchoranalysis.image.bean.nonbean.init.cache.CachedProvision;
+import org.anchoranalysis.image.bean.nonbean.init.cache.ChannelSerializer;
+import org.anchoranalysis.image.bean.nonbean.init.cache.EntitySerializer;
+import org.anchoranalysis.image.bean.nonbean.init.cache.HistogramSerializer;
+import org.anchoranalysis.image.bean.nonbean.init.cache.MaskSerializer;
+import org.anchoranalysis.image.bean.nonbean.init.cache.ObjectCollectionSerializer;
+import org.anchoranalysis.image.bean.nonbean.init.cache.ProviderCache;
+import org.anchoranalysis.image.bean.nonbean.init.cache.StackSerializer;
 import org.anchoranalysis.image.bean.provider.ChannelProvider;
 import org.anchoranalysis.image.bean.provider.HistogramProvider;
 import org.anchoranalysis.image.bean.provider.MaskProvider;
@@ -106,6 +114,9 @@ public class ImageInitialization implements BeanInitialization {
 
     // END: Stores
 
+    /** If present, entities created by providers in {@link #populate} are cached here. */
+    private Optional<ProviderCache> providerCache = Optional.empty();
+
     /**
      * Create with shared-objects.
      *
@@ -270,6 +281,23 @@ public class ImageInitialization implements BeanInitialization {
         }
     }
 
+    /**
+     * Caches the entities created by providers, so a later execution can load rather than
+     * recalculate them.
+     *
+     * <p>This should be called before {@link #populate}, and affects only masks, channels,
+     * object-collections, histograms and stacks.
+     *
+     * <p>Retrievals from every store in {@link #getSharedObjects} are thereafter recorded, to
+     * identify the dependencies of each cached entity.
+     *
+     * @param cache the cache to use, whose entries should be specific to the current input.
+     */
+    public void assignProviderCache(ProviderCache cache) {
+        this.providerCache = Optional.of(cache);
+        sharedObjects.listenForRetrievals(cache::listenerFor);
+    }
+
     /**
      * Adds diverse entities from a {@link Define} into the corresponding name-collections.
      *
@@ -289,11 +317,30 @@ public class ImageInitialization implements BeanInitialization {
                 new PopulateStoreFromDefine<>(define, propertyInitializer, logger);
 
         populate.copyInitialize(BinarySegmentation.class, binarySegmentations);
-        populate.copyProviderInitialize(MaskProvider.class, masks);
-        populate.copyProviderInitialize(ChannelProvider.class, channels);
-        populate.copyProviderInitialize(ObjectCollectionProvider.class, objects);
-        populate.copyProviderInitialize(HistogramProvider.class, histograms);
-        populate.copyProviderInitialize(StackProvider.class, stacks);
+        populate.copyProviderInitialize(
+                MaskProvider.class,
+                masks,
+                provision(Mask.class, new MaskSerializer(), define, logger));
+        populate.copyProviderInitialize(
+                ChannelProvider.class,
+                channels,
+                provision(Channel.class, new ChannelSerializer(), define, logger));
+        populate.copyProviderInitialize(
+                ObjectCollectionProvider.class,
+                objects,
+                provision(
+                        ObjectCollection.class,
+                        new ObjectCollectionSerializer(),
+                        define,
+                        logger));
+        populate.copyProviderInitialize(
+                HistogramProvider.class,
+                histograms,
+                provision(Histogram.class, new HistogramSerializer(), define, logger));
+        populate.copyProviderInitialize(
+                StackProvider.class,
+                stacks,
+                provision(Stack.class, new StackSerializer(), define, logger));
     }
 
     /**
@@ -321,6 +368,12 @@ public class ImageInitialization implements BeanInitialization {
         }
     }
 
+    /** Caching for a particular type of entity, if a {@link ProviderCache} is assigned. */
+    private <T> Optional<CachedProvision<T>> provision(
+            Class<?> storeKey, EntitySerializer<T> serializer, Define define, Logger logger) {
+        return providerCache.map(cache -> cache.provision(storeKey, serializer, define, logger));
+    }
+
     private void addToObjects(String identifier, StoreSupplier<ObjectCollection> objects)
             throws OperationFailedException {
         objects().add(identifier, objects);
@@ -26,6 +26,7 @@
 
 package org.anchoranalysis.image.bean.nonbean.init;
 
+import java.util.Optional;
 import lombok.AllArgsConstructor;
 import org.anchoranalysis.bean.AnchorBean;
 import org.anchoranalysis.bean.Provider;
@@ -37,6 +38,7 @@ import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.functional.checked.CheckedFunction;
 import org.anchoranalysis.core.identifier.provider.store.NamedProviderStore;
 import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.image.bean.nonbean.init.cache.CachedProvision;
 
 /**
  * Helps populates a {@link NamedProviderStore} from the contents of a {@link Define}.
@@ -111,6 +113,30 @@ public class PopulateStoreFromDefine<V extends BeanInitialization> {
     public <S extends InitializableBean<?, V> & Provider<T>, T> void copyProviderInitialize(
             Class<?> defineClass, NamedProviderStore<T> destination)
             throws OperationFailedException {
+        copyProviderInitialize(defineClass, destination, Optional.empty());
+    }
+
+    /**
+     * Like {@link #copyProviderInitialize(Class, NamedProviderStore)} but each object is loaded
+     * from a cache, when possible, rather than initializing its provider.
+     *
+     * <p>Any object that is absent from the cache is created as usual, and then added to the
+     * cache.
+     *
+     * @param <S> type of provider-objects
+     * @param <T> type of objects created by the provider
+     * @param defineClass class to identify objects in {@code define}.
+     * @param destination where to copy to.
+     * @param cache the cache to load objects from, and to add created objects to. If empty, no
+     *     caching occurs.
+     * @throws OperationFailedException if a copied identifier already exists, or otherwise the add
+     *     operation fails.
+     */
+    public <S extends InitializableBean<?, V> & Provider<T>, T> void copyProviderInitialize(
+            Class<?> defineClass,
+            NamedProviderStore<T> destination,
+            Optional<CachedProvision<T>> cache)
+            throws OperationFailedException {
 
         InitializingBridge<S, T, V> bridge =
                 new InitializingBridge<>(
@@ -119,7 +145,14 @@ public class PopulateStoreFromDefine<V extends BeanInitialization> {
                         source -> source.get() // NOSONAR Initializes and then gets what's provided
                         );
 
-        StoreAdderHelper.addPreserveName(define, defineClass, destination, bridge);
+        if (cache.isPresent()) {
+            CachedProvision<T> provision = cache.get();
+            CheckedFunction<S, T, OperationFailedException> cachedBridge =
+                    source -> provision.provide(source, bridge);
+            StoreAdderHelper.addPreserveName(define, defineClass, destination, cachedBridge);
+        } else {
+            StoreAdderHelper.addPreserveName(define, defineClass, destination, bridge);
+        }
     }
 
     /** Maps a string to itself, but exposed as a {@link CheckedFunction}. */
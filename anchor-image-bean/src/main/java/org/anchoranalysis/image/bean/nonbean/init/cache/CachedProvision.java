@@ -0,0 +1,118 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.IOException;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.bean.AnchorBean;
+import org.anchoranalysis.core.cache.DiskLRUCache;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.checked.CheckedFunction;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.image.bean.nonbean.init.cache.DependencyRecorder.Recorded;
+
+/**
+ * Provides an entity from a cache, if it exists, and otherwise calculates and caches it.
+ *
+ * <p>When an entity is calculated, its dependencies are recorded and cached alongside it, so that
+ * it can later be identified in the cache before it is calculated. See {@link ProviderDigest}.
+ *
+ * <p>A failure to read or write the cache is never fatal. A corrupt entry is recalculated, and a
+ * failure to write is recorded as a warning.
+ *
+ * @author Owen Feehan
+ * @param <T> the type of entity.
+ */
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class CachedProvision<T> {
+
+    /** Where the entities are stored. */
+    private final DiskLRUCache cache;
+
+    /** The key of the store in which the entities are placed. */
+    private final Class<?> storeKey;
+
+    /** Derives the keys of entities, and their dependencies. */
+    private final ProviderDigest providerDigest;
+
+    /** Records the dependencies of an entity as it is calculated. */
+    private final DependencyRecorder recorder;
+
+    /** How to write and read an entity. */
+    private final EntitySerializer<T> serializer;
+
+    /** Where warnings are recorded. */
+    private final Logger logger;
+
+    /**
+     * Provides the entity for {@code source}, from the cache if possible.
+     *
+     * @param <S> the type of the bean that provides the entity.
+     * @param source the bean that provides the entity, which identifies the entry in the cache.
+     * @param compute calculates the entity, when it is absent from the cache.
+     * @return the entity.
+     * @throws OperationFailedException if the entity is absent from the cache, and cannot be
+     *     calculated.
+     */
+    public <S extends AnchorBean<?>> T provide(
+            S source, CheckedFunction<S, T, OperationFailedException> compute)
+            throws OperationFailedException {
+        String dependenciesKey = providerDigest.dependenciesKey(storeKey, source);
+
+        Optional<String> key = providerDigest.entityKey(dependenciesKey);
+        if (key.isPresent()) {
+            Optional<T> cached = cache.read(key.get(), serializer::read);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        Recorded<T> recorded = recorder.record(() -> compute.apply(source));
+        T entity = recorded.getEntity();
+
+        Optional<String> keyRecorded =
+                providerDigest.entityKey(dependenciesKey, recorded.getDependencies());
+        if (keyRecorded.isPresent()) {
+            try {
+                cache.write(
+                        dependenciesKey,
+                        stream ->
+                                ProviderDigest.writeDependencies(
+                                        recorded.getDependencies(), stream));
+                cache.write(keyRecorded.get(), stream -> serializer.write(entity, stream));
+            } catch (IOException e) {
+                logger.errorReporter()
+                        .recordWarningFormatted(
+                                "Cannot cache a %s: %s",
+                                entity.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        return entity;
+    }
+}
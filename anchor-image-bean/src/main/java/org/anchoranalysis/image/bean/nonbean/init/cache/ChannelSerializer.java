@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.anchoranalysis.image.core.channel.Channel;
+
+/**
+ * Serializes a {@link Channel}, including its voxels and resolution.
+ *
+ * <p>Only channels with unsigned 8-bit, unsigned 16-bit, unsigned 32-bit or float voxels are
+ * supported.
+ *
+ * @author Owen Feehan
+ */
+public class ChannelSerializer implements EntitySerializer<Channel> {
+
+    @Override
+    public void write(Channel entity, DataOutputStream stream) throws IOException {
+        SerializerHelper.writeChannel(entity, stream);
+    }
+
+    @Override
+    public Channel read(DataInputStream stream) throws IOException {
+        return SerializerHelper.readChannel(stream);
+    }
+}
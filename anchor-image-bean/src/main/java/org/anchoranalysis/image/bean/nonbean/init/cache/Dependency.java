@@ -0,0 +1,81 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import lombok.Value;
+import org.anchoranalysis.core.identifier.provider.store.SharedObjects;
+
+/**
+ * An element, in a particular store of {@link SharedObjects}, that was retrieved while an entity
+ * was being calculated.
+ *
+ * @author Owen Feehan
+ */
+@Value
+class Dependency implements Comparable<Dependency> {
+
+    /** Orders by store, and then by identifier. */
+    private static final Comparator<Dependency> ORDER =
+            Comparator.comparing(Dependency::getStore).thenComparing(Dependency::getIdentifier);
+
+    /** The fully-qualified name of the class that is the key of the store. */
+    private final String store;
+
+    /** The identifier of the element in the store. */
+    private final String identifier;
+
+    /**
+     * Reads a dependency, as previously written by {@link #write}.
+     *
+     * @param stream the stream to read from.
+     * @return a newly created dependency.
+     * @throws IOException if the dependency cannot be read.
+     */
+    public static Dependency read(DataInputStream stream) throws IOException {
+        return new Dependency(stream.readUTF(), stream.readUTF());
+    }
+
+    /**
+     * Writes the dependency.
+     *
+     * @param stream the stream to write to.
+     * @throws IOException if the dependency cannot be written.
+     */
+    public void write(DataOutputStream stream) throws IOException {
+        stream.writeUTF(store);
+        stream.writeUTF(identifier);
+    }
+
+    @Override
+    public int compareTo(Dependency other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -0,0 +1,162 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import lombok.Value;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.checked.CheckedSupplier;
+import org.anchoranalysis.core.identifier.provider.store.RetrievalListener;
+import org.anchoranalysis.core.identifier.provider.store.SharedObjects;
+
+/**
+ * Records the dependencies of an entity as it is calculated, by listening to every retrieval from
+ * the stores of {@link SharedObjects}.
+ *
+ * <p>An element from a store whose entities are cached is recorded only by itself, as its own
+ * dependencies are considered when identifying it in the cache.
+ *
+ * <p>An element from any other store is recorded together with its own dependencies, as they were
+ * recorded when it was first evaluated, e.g. a segmentation that references another segmentation.
+ *
+ * <p>All entities for a particular input should be calculated in the same thread.
+ *
+ * @author Owen Feehan
+ */
+class DependencyRecorder {
+
+    /**
+     * An entity, and the dependencies that were recorded as it was calculated.
+     *
+     * @param <T> the type of entity.
+     */
+    @Value
+    public static class Recorded<T> {
+
+        /** The entity. */
+        private final T entity;
+
+        /** The dependencies, in a consistent order. */
+        private final SortedSet<Dependency> dependencies;
+    }
+
+    /** The fully-qualified names of the keys of stores whose entities are cached. */
+    private final Set<String> cachedStores = new HashSet<>();
+
+    /** The dependencies for each calculation or evaluation that is underway, most recent first. */
+    private final Deque<Set<Dependency>> underway = new ArrayDeque<>();
+
+    /** The dependencies of elements from stores that are not cached, when first evaluated. */
+    private final Map<Dependency, Set<Dependency>> dependenciesOfUncached = new HashMap<>();
+
+    /**
+     * Indicates that the entities in a particular store are cached.
+     *
+     * @param storeKey the key of the store in {@link SharedObjects}.
+     */
+    public void addCachedStore(Class<?> storeKey) {
+        cachedStores.add(storeKey.getName());
+    }
+
+    /**
+     * Whether the entities in a particular store are cached.
+     *
+     * @param store the fully-qualified name of the key of the store in {@link SharedObjects}.
+     * @return true if {@link #addCachedStore} was called for the store.
+     */
+    public boolean isCachedStore(String store) {
+        return cachedStores.contains(store);
+    }
+
+    /**
+     * Creates a listener for retrievals from a particular store.
+     *
+     * @param storeKey the key of the store in {@link SharedObjects}.
+     * @return a newly created listener.
+     */
+    public RetrievalListener listenerFor(Class<?> storeKey) {
+        return new RetrievalListener() {
+
+            @Override
+            public void beforeRetrieval(String identifier) {
+                DependencyRecorder.this.beforeRetrieval(
+                        new Dependency(storeKey.getName(), identifier));
+            }
+
+            @Override
+            public void afterRetrieval(String identifier) {
+                DependencyRecorder.this.afterRetrieval(
+                        new Dependency(storeKey.getName(), identifier));
+            }
+        };
+    }
+
+    /**
+     * Calculates an entity, while recording its dependencies.
+     *
+     * @param <T> the type of entity.
+     * @param calculate calculates the entity.
+     * @return the entity, and its dependencies.
+     * @throws OperationFailedException if the entity cannot be calculated.
+     */
+    public <T> Recorded<T> record(CheckedSupplier<T, OperationFailedException> calculate)
+            throws OperationFailedException {
+        underway.push(new HashSet<>());
+        try {
+            T entity = calculate.get();
+            return new Recorded<>(entity, new TreeSet<>(underway.peek()));
+        } finally {
+            underway.pop();
+        }
+    }
+
+    private void beforeRetrieval(Dependency dependency) {
+        if (!underway.isEmpty()) {
+            underway.peek().add(dependency);
+        }
+        underway.push(new HashSet<>());
+    }
+
+    private void afterRetrieval(Dependency dependency) {
+        Set<Dependency> evaluated = underway.pop();
+        if (!isCachedStore(dependency.getStore())) {
+            Set<Dependency> dependencies =
+                    dependenciesOfUncached.computeIfAbsent(dependency, key -> new HashSet<>());
+            dependencies.addAll(evaluated);
+            if (!underway.isEmpty()) {
+                underway.peek().addAll(dependencies);
+            }
+        }
+    }
+}
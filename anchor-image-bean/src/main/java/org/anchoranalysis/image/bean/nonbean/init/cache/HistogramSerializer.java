@@ -0,0 +1,66 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.anchoranalysis.math.histogram.Histogram;
+
+/**
+ * Serializes a {@link Histogram}, as its range of values and the count for each value.
+ *
+ * @author Owen Feehan
+ */
+public class HistogramSerializer implements EntitySerializer<Histogram> {
+
+    @Override
+    public void write(Histogram entity, DataOutputStream stream) throws IOException {
+        int minValue = entity.getMaxValue() - entity.size() + 1;
+        stream.writeInt(minValue);
+        stream.writeInt(entity.getMaxValue());
+
+        int[] counts = new int[entity.size()];
+        entity.iterateValues((bin, count) -> counts[bin - minValue] = count);
+        for (int count : counts) {
+            stream.writeInt(count);
+        }
+    }
+
+    @Override
+    public Histogram read(DataInputStream stream) throws IOException {
+        int minValue = stream.readInt();
+        Histogram histogram = new Histogram(minValue, stream.readInt());
+        for (int index = 0; index < histogram.size(); index++) {
+            int count = stream.readInt();
+            if (count != 0) {
+                histogram.incrementValueBy(minValue + index, count);
+            }
+        }
+        return histogram;
+    }
+}
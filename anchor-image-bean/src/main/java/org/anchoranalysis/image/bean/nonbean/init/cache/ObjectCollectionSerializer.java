@@ -0,0 +1,79 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import org.anchoranalysis.image.voxel.Voxels;
+import org.anchoranalysis.image.voxel.binary.values.BinaryValuesInt;
+import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedByteBuffer;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
+
+/**
+ * Serializes an {@link ObjectCollection}, as the bounding-box, binary-values and voxels of each
+ * object in turn.
+ *
+ * @author Owen Feehan
+ */
+public class ObjectCollectionSerializer implements EntitySerializer<ObjectCollection> {
+
+    @Override
+    public void write(ObjectCollection entity, DataOutputStream stream) throws IOException {
+        stream.writeInt(entity.size());
+        for (ObjectMask object : entity) {
+            ReadableTuple3i corner = object.boundingBox().cornerMin();
+            stream.writeInt(corner.x());
+            stream.writeInt(corner.y());
+            stream.writeInt(corner.z());
+            SerializerHelper.writeExtent(object.extent(), stream);
+            SerializerHelper.writeBinaryValues(object.binaryValues(), stream);
+            SerializerHelper.writeVoxels(object.voxels(), stream);
+        }
+    }
+
+    @Override
+    public ObjectCollection read(DataInputStream stream) throws IOException {
+        int size = stream.readInt();
+        ArrayList<ObjectMask> objects = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            Point3i corner = new Point3i(stream.readInt(), stream.readInt(), stream.readInt());
+            Extent extent = SerializerHelper.readExtent(stream);
+            BinaryValuesInt binaryValues = SerializerHelper.readBinaryValues(stream);
+            Voxels<UnsignedByteBuffer> voxels = SerializerHelper.readVoxels(extent, stream);
+            objects.add(
+                    new ObjectMask(BoundingBox.createReuse(corner, extent), voxels, binaryValues));
+        }
+        return new ObjectCollection(objects);
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.bean.define.Define;
+import org.anchoranalysis.core.cache.DiskLRUCache;
+import org.anchoranalysis.core.identifier.provider.store.RetrievalListener;
+import org.anchoranalysis.core.identifier.provider.store.SharedObjects;
+import org.anchoranalysis.core.log.Logger;
+
+/**
+ * Caches the entities created by providers for a particular input, so that a later execution with
+ * identical input and identical provider configuration can load rather than recalculate them.
+ *
+ * <p>Each entry is identified by a digest of the input's content, a digest of the provider's
+ * configuration, and the identity of every entity or definition it retrieved from the stores in
+ * {@link SharedObjects} when it was calculated. Changing the input, the configuration, or anything
+ * it depends upon, therefore causes the entity to be recalculated.
+ *
+ * <p>The dependencies are recorded only if {@link #listenerFor} is notified of retrievals from
+ * every store in the {@link SharedObjects}.
+ *
+ * <p>Entries are stored in a {@link DiskLRUCache}, which may be shared between inputs.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+public class ProviderCache {
+
+    /** The size of the buffer used when reading files to calculate a digest. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Where the entities are stored. */
+    private final DiskLRUCache cache;
+
+    /** A digest of the content of the input, from which the entities are derived. */
+    private final String inputDigest;
+
+    /** Records the dependencies of an entity as it is calculated. */
+    private final DependencyRecorder recorder = new DependencyRecorder();
+
+    /**
+     * Calculates a digest of the content of one or more files, suitable as {@code inputDigest}.
+     *
+     * @param paths the files, in a consistent order.
+     * @param parameters a description of any other settings that influence the entities derived
+     *     from the files, such as a suggested image-size.
+     * @return the digest, as a lower-case hexadecimal string.
+     * @throws IOException if a file cannot be read.
+     */
+    public static String digestFiles(List<Path> paths, String parameters) throws IOException {
+        MessageDigest digest = ProviderDigest.createDigest();
+        ProviderDigest.update(digest, parameters);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Path path : paths) {
+            ProviderDigest.update(digest, path.getFileName().toString());
+            try (InputStream stream = new DigestInputStream(Files.newInputStream(path), digest)) {
+                while (stream.read(buffer) != -1) {
+                    // The digest is updated as the stream is read
+                }
+            }
+        }
+        return ProviderDigest.toHex(digest.digest());
+    }
+
+    /**
+     * Creates a listener for retrievals from a particular store, so that dependencies are
+     * recorded.
+     *
+     * @param storeKey the key of the store in {@link SharedObjects}.
+     * @return a newly created listener.
+     */
+    public RetrievalListener listenerFor(Class<?> storeKey) {
+        return recorder.listenerFor(storeKey);
+    }
+
+    /**
+     * Creates a means of caching entities of a particular type, provided by definitions in {@code
+     * define}.
+     *
+     * @param <T> the type of entity.
+     * @param storeKey the key of the store in {@link SharedObjects} in which the entities are
+     *     placed.
+     * @param serializer how to write and read an entity.
+     * @param define the definitions that providers may reference.
+     * @param logger where warnings are recorded, if an entity cannot be cached.
+     * @return a newly created {@link CachedProvision}.
+     */
+    public <T> CachedProvision<T> provision(
+            Class<?> storeKey, EntitySerializer<T> serializer, Define define, Logger logger) {
+        recorder.addCachedStore(storeKey);
+        return new CachedProvision<>(
+                cache,
+                storeKey,
+                new ProviderDigest(cache, inputDigest, define, recorder),
+                recorder,
+                serializer,
+                logger);
+    }
+}
@@ -0,0 +1,308 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.anchoranalysis.bean.AnchorBean;
+import org.anchoranalysis.bean.BeanDigest;
+import org.anchoranalysis.bean.NamedBean;
+import org.anchoranalysis.bean.define.Define;
+import org.anchoranalysis.bean.exception.BeanStrangeException;
+import org.anchoranalysis.core.cache.DiskLRUCache;
+import org.anchoranalysis.core.value.Dictionary;
+import org.anchoranalysis.feature.bean.list.FeatureList;
+import org.anchoranalysis.feature.bean.list.FeatureListProvider;
+import org.anchoranalysis.image.bean.provider.ChannelProvider;
+import org.anchoranalysis.image.bean.provider.HistogramProvider;
+import org.anchoranalysis.image.bean.provider.MaskProvider;
+import org.anchoranalysis.image.bean.provider.ObjectCollectionProvider;
+import org.anchoranalysis.image.bean.provider.stack.StackProvider;
+import org.anchoranalysis.image.bean.segment.binary.BinarySegmentation;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.mask.Mask;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.math.histogram.Histogram;
+
+/**
+ * Derives the keys that identify an entity, and its dependencies, in a {@link DiskLRUCache}.
+ *
+ * <p>The dependencies of an entity are the elements that were retrieved from stores as it was
+ * calculated, as recorded by a {@link DependencyRecorder}. They are stored under a key derived
+ * from the input, the store, and the configuration of the provider. The entity is stored under a
+ * key that additionally describes each dependency:
+ *
+ * <ul>
+ *   <li>by the key of its entity, if it is also cached.
+ *   <li>by a digest of its definition, if it is otherwise defined in the {@link Define}.
+ *   <li>by only its identifier, if it is not defined, as it is then derived from the input, like
+ *       the input's stack.
+ * </ul>
+ *
+ * <p>No key exists for an entity with a dependency in an unknown store, or with a dependency whose
+ * own key is unknown, so such an entity is never cached.
+ *
+ * <p>Features are referenced by name from the shared-features, rather than from a store. A digest
+ * of all feature-lists in the {@link Define} is therefore included in every key.
+ *
+ * @author Owen Feehan
+ */
+class ProviderDigest {
+
+    /** The grouping-root in a {@link Define}, indexed by the name of the key of each store. */
+    private static final Map<String, Class<?>> DEFINED_STORES =
+            Map.of(
+                    Stack.class.getName(),
+                    StackProvider.class,
+                    Channel.class.getName(),
+                    ChannelProvider.class,
+                    Mask.class.getName(),
+                    MaskProvider.class,
+                    ObjectCollection.class.getName(),
+                    ObjectCollectionProvider.class,
+                    Histogram.class.getName(),
+                    HistogramProvider.class,
+                    BinarySegmentation.class.getName(),
+                    BinarySegmentation.class,
+                    FeatureList.class.getName(),
+                    FeatureListProvider.class);
+
+    /** The names of the keys of stores that are never populated from a {@link Define}. */
+    private static final Set<String> UNDEFINED_STORES =
+            Set.of(Dictionary.class.getName(), String.class.getName());
+
+    /** The algorithm used to calculate the digest. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** Where the entities, and their dependencies, are stored. */
+    private final DiskLRUCache cache;
+
+    /** A digest of the content of the input, from which the entities are derived. */
+    private final String inputDigest;
+
+    /** The definitions that an entity may depend upon. */
+    private final Define define;
+
+    /** Identifies which stores have cached entities. */
+    private final DependencyRecorder recorder;
+
+    /** A digest of all feature-lists in {@code define}. */
+    private final String featuresDigest;
+
+    /**
+     * Creates for a particular input and {@link Define}.
+     *
+     * @param cache where the entities, and their dependencies, are stored.
+     * @param inputDigest a digest of the content of the input.
+     * @param define the definitions that an entity may depend upon.
+     * @param recorder identifies which stores have cached entities.
+     */
+    public ProviderDigest(
+            DiskLRUCache cache, String inputDigest, Define define, DependencyRecorder recorder) {
+        this.cache = cache;
+        this.inputDigest = inputDigest;
+        this.define = define;
+        this.recorder = recorder;
+        this.featuresDigest = digestFeatures(define);
+    }
+
+    /**
+     * The key under which the dependencies of a provider's entity are stored.
+     *
+     * @param storeKey the key of the store in which the entity is placed.
+     * @param provider the provider of the entity.
+     * @return the key.
+     */
+    public String dependenciesKey(Class<?> storeKey, AnchorBean<?> provider) {
+        return dependenciesKey(storeKey.getName(), provider);
+    }
+
+    /**
+     * The key of an entity, from the dependencies that were previously stored for it.
+     *
+     * @param dependenciesKey the key under which its dependencies are stored.
+     * @return the key, or {@link Optional#empty} if no dependencies are stored, or the key of any
+     *     dependency is unknown.
+     */
+    public Optional<String> entityKey(String dependenciesKey) {
+        return entityKeyStored(dependenciesKey, new HashSet<>());
+    }
+
+    /**
+     * The key of an entity, from its dependencies.
+     *
+     * @param dependenciesKey the key under which its dependencies are stored.
+     * @param dependencies the dependencies, in a consistent order.
+     * @return the key, or {@link Optional#empty} if the key of any dependency is unknown.
+     */
+    public Optional<String> entityKey(String dependenciesKey, Collection<Dependency> dependencies) {
+        return entityKey(dependenciesKey, dependencies, new HashSet<>());
+    }
+
+    /**
+     * Writes dependencies, so they can be read by {@link #entityKey(String)}.
+     *
+     * @param dependencies the dependencies, in a consistent order.
+     * @param stream the stream to write to.
+     * @throws IOException if the dependencies cannot be written.
+     */
+    public static void writeDependencies(
+            Collection<Dependency> dependencies, DataOutputStream stream) throws IOException {
+        stream.writeInt(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            dependency.write(stream);
+        }
+    }
+
+    /** Adds a token to the digest, followed by a separator so tokens cannot be confused. */
+    static void update(MessageDigest digest, String token) {
+        digest.update(token.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /** Describes bytes as a lower-case hexadecimal string. */
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte value : bytes) {
+            builder.append(String.format("%02x", value));
+        }
+        return builder.toString();
+    }
+
+    /** Creates a {@link MessageDigest} for {@value #ALGORITHM}. */
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeanStrangeException(ALGORITHM + " is unavailable", e);
+        }
+    }
+
+    private String dependenciesKey(String store, AnchorBean<?> provider) {
+        MessageDigest digest = createDigest();
+        update(digest, inputDigest);
+        update(digest, featuresDigest);
+        update(digest, store);
+        update(digest, BeanDigest.digest(provider));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Like {@link #entityKey(String)}, but fails for any key in {@code visiting}, which guards
+     * against a circular dependency.
+     */
+    private Optional<String> entityKeyStored(String dependenciesKey, Set<String> visiting) {
+        if (!visiting.add(dependenciesKey)) {
+            return Optional.empty();
+        }
+        try {
+            return cache.read(dependenciesKey, ProviderDigest::readDependencies)
+                    .flatMap(dependencies -> entityKey(dependenciesKey, dependencies, visiting));
+        } finally {
+            visiting.remove(dependenciesKey);
+        }
+    }
+
+    private Optional<String> entityKey(
+            String dependenciesKey, Collection<Dependency> dependencies, Set<String> visiting) {
+        MessageDigest digest = createDigest();
+        update(digest, dependenciesKey);
+        for (Dependency dependency : dependencies) {
+            Optional<String> described = describe(dependency, visiting);
+            if (described.isEmpty()) {
+                return Optional.empty();
+            }
+            update(digest, dependency.getStore());
+            update(digest, dependency.getIdentifier());
+            update(digest, described.get());
+        }
+        return Optional.of(toHex(digest.digest()));
+    }
+
+    /** Describes a dependency in the key of an entity, or empty if this is impossible. */
+    private Optional<String> describe(Dependency dependency, Set<String> visiting) {
+        if (UNDEFINED_STORES.contains(dependency.getStore())) {
+            return Optional.of("");
+        }
+
+        Class<?> groupingRoot = DEFINED_STORES.get(dependency.getStore());
+        if (groupingRoot == null) {
+            return Optional.empty();
+        }
+
+        Optional<AnchorBean<?>> definition = definition(groupingRoot, dependency.getIdentifier());
+        if (definition.isEmpty()) {
+            return Optional.of("");
+        } else if (recorder.isCachedStore(dependency.getStore())) {
+            return entityKeyStored(
+                    dependenciesKey(dependency.getStore(), definition.get()), visiting);
+        } else {
+            return Optional.of(BeanDigest.digest(definition.get()));
+        }
+    }
+
+    /** The definition with a particular name, in a particular group of {@link #define}. */
+    private Optional<AnchorBean<?>> definition(Class<?> groupingRoot, String name) {
+        List<NamedBean<AnchorBean<?>>> beans = define.listFor(groupingRoot);
+        return beans.stream()
+                .filter(bean -> bean.getName().equals(name))
+                .findFirst()
+                .map(NamedBean::getValue);
+    }
+
+    private static List<Dependency> readDependencies(DataInputStream stream) throws IOException {
+        int size = stream.readInt();
+        List<Dependency> dependencies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dependencies.add(Dependency.read(stream));
+        }
+        return dependencies;
+    }
+
+    /** A digest of all feature-lists in a {@link Define}, together with their names. */
+    private static String digestFeatures(Define define) {
+        MessageDigest digest = createDigest();
+        List<NamedBean<AnchorBean<?>>> beans = define.listFor(FeatureListProvider.class);
+        for (NamedBean<AnchorBean<?>> bean : beans) {
+            update(digest, bean.getName());
+            update(digest, BeanDigest.digest(bean.getValue()));
+        }
+        return toHex(digest.digest());
+    }
+}
@@ -0,0 +1,241 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.channel.factory.ChannelFactory;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.dimensions.Resolution;
+import org.anchoranalysis.image.voxel.Voxels;
+import org.anchoranalysis.image.voxel.VoxelsUntyped;
+import org.anchoranalysis.image.voxel.binary.values.BinaryValuesInt;
+import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedByteBuffer;
+import org.anchoranalysis.image.voxel.datatype.FloatVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedIntVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.image.voxel.factory.VoxelsFactory;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Reads and writes the elements that are shared by several entities.
+ *
+ * <p>Voxels are written a slice at a time, in bulk, in big-endian order.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class SerializerHelper {
+
+    /** Identifies each supported voxel data-type, by its position in the array. */
+    private static final VoxelDataType[] DATA_TYPES = {
+        UnsignedByteVoxelType.INSTANCE,
+        UnsignedShortVoxelType.INSTANCE,
+        UnsignedIntVoxelType.INSTANCE,
+        FloatVoxelType.INSTANCE
+    };
+
+    /** Writes a channel, including its data-type, size and resolution. */
+    public static void writeChannel(Channel channel, DataOutputStream stream)
+            throws IOException {
+        VoxelDataType dataType = channel.getVoxelDataType();
+        stream.writeByte(indexOf(dataType));
+        writeExtent(channel.extent(), stream);
+        writeResolution(channel.resolution(), stream);
+
+        VoxelsUntyped voxels = channel.voxels();
+        int area = channel.extent().areaXY();
+        for (int z = 0; z < channel.extent().z(); z++) {
+            ByteBuffer bytes = ByteBuffer.allocate(area * dataType.numberBytes());
+            if (dataType.equals(UnsignedByteVoxelType.INSTANCE)) {
+                bytes.put(cleared(voxels.asByte().sliceBuffer(z).getDelegate()));
+            } else if (dataType.equals(UnsignedShortVoxelType.INSTANCE)) {
+                bytes.asShortBuffer().put(cleared(voxels.asShort().sliceBuffer(z).getDelegate()));
+            } else if (dataType.equals(UnsignedIntVoxelType.INSTANCE)) {
+                bytes.asIntBuffer().put(cleared(voxels.asInt().sliceBuffer(z).getDelegate()));
+            } else {
+                bytes.asFloatBuffer().put(cleared(voxels.asFloat().sliceBuffer(z)));
+            }
+            stream.write(bytes.array());
+        }
+    }
+
+    /** Reads a channel, as written by {@link #writeChannel}. */
+    public static Channel readChannel(DataInputStream stream) throws IOException {
+        int index = stream.readByte();
+        if (index < 0 || index >= DATA_TYPES.length) {
+            throw new IOException("Unknown voxel data-type: " + index);
+        }
+        VoxelDataType dataType = DATA_TYPES[index];
+        Extent extent = readExtent(stream);
+        Optional<Resolution> resolution = readResolution(stream);
+
+        Channel channel =
+                ChannelFactory.instance()
+                        .create(
+                                new Dimensions(extent).duplicateChangeResolution(resolution),
+                                dataType);
+
+        VoxelsUntyped voxels = channel.voxels();
+        byte[] slice = new byte[extent.areaXY() * dataType.numberBytes()];
+        for (int z = 0; z < extent.z(); z++) {
+            stream.readFully(slice);
+            ByteBuffer bytes = ByteBuffer.wrap(slice);
+            if (dataType.equals(UnsignedByteVoxelType.INSTANCE)) {
+                cleared(voxels.asByte().sliceBuffer(z).getDelegate()).put(bytes);
+            } else if (dataType.equals(UnsignedShortVoxelType.INSTANCE)) {
+                cleared(voxels.asShort().sliceBuffer(z).getDelegate()).put(bytes.asShortBuffer());
+            } else if (dataType.equals(UnsignedIntVoxelType.INSTANCE)) {
+                cleared(voxels.asInt().sliceBuffer(z).getDelegate()).put(bytes.asIntBuffer());
+            } else {
+                cleared(voxels.asFloat().sliceBuffer(z)).put(bytes.asFloatBuffer());
+            }
+        }
+        return channel;
+    }
+
+    /** Writes the voxels of an object or mask, without their size. */
+    public static void writeVoxels(Voxels<UnsignedByteBuffer> voxels, DataOutputStream stream)
+            throws IOException {
+        byte[] slice = new byte[voxels.extent().areaXY()];
+        for (int z = 0; z < voxels.extent().z(); z++) {
+            cleared(voxels.sliceBuffer(z).getDelegate()).get(slice);
+            stream.write(slice);
+        }
+    }
+
+    /** Reads the voxels of an object or mask, as written by {@link #writeVoxels}. */
+    public static Voxels<UnsignedByteBuffer> readVoxels(Extent extent, DataInputStream stream)
+            throws IOException {
+        Voxels<UnsignedByteBuffer> voxels =
+                VoxelsFactory.getUnsignedByte().createInitialized(extent);
+        byte[] slice = new byte[extent.areaXY()];
+        for (int z = 0; z < extent.z(); z++) {
+            stream.readFully(slice);
+            cleared(voxels.sliceBuffer(z).getDelegate()).put(slice);
+        }
+        return voxels;
+    }
+
+    /** Writes the size of an entity in each dimension. */
+    public static void writeExtent(Extent extent, DataOutputStream stream) throws IOException {
+        stream.writeInt(extent.x());
+        stream.writeInt(extent.y());
+        stream.writeInt(extent.z());
+    }
+
+    /** Reads the size of an entity, as written by {@link #writeExtent}. */
+    public static Extent readExtent(DataInputStream stream) throws IOException {
+        return new Extent(stream.readInt(), stream.readInt(), stream.readInt());
+    }
+
+    /** Writes the intensity values for the <i>off</i> and <i>on</i> states. */
+    public static void writeBinaryValues(BinaryValuesInt binaryValues, DataOutputStream stream)
+            throws IOException {
+        stream.writeInt(binaryValues.getOff());
+        stream.writeInt(binaryValues.getOn());
+    }
+
+    /** Reads the binary-values, as written by {@link #writeBinaryValues}. */
+    public static BinaryValuesInt readBinaryValues(DataInputStream stream) throws IOException {
+        return new BinaryValuesInt(stream.readInt(), stream.readInt());
+    }
+
+    /** Writes the physical size of a voxel, if it is defined. */
+    public static void writeResolution(Optional<Resolution> resolution, DataOutputStream stream)
+            throws IOException {
+        stream.writeBoolean(resolution.isPresent());
+        if (resolution.isPresent()) {
+            stream.writeDouble(resolution.get().x());
+            stream.writeDouble(resolution.get().y());
+            stream.writeDouble(resolution.get().z());
+        }
+    }
+
+    /** Reads the physical size of a voxel, as written by {@link #writeResolution}. */
+    public static Optional<Resolution> readResolution(DataInputStream stream) throws IOException {
+        if (!stream.readBoolean()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(
+                    new Resolution(stream.readDouble(), stream.readDouble(), stream.readDouble()));
+        } catch (CreateException e) {
+            throw new IOException("The stored resolution is invalid", e);
+        }
+    }
+
+    /** The index of a data-type in {@link #DATA_TYPES}. */
+    private static int indexOf(VoxelDataType dataType) throws IOException {
+        for (int i = 0; i < DATA_TYPES.length; i++) {
+            if (DATA_TYPES[i].equals(dataType)) {
+                return i;
+            }
+        }
+        throw new IOException("Unsupported voxel data-type for caching: " + dataType);
+    }
+
+    /** A duplicate of the buffer, whose position is zero, so the original is unaffected. */
+    private static ByteBuffer cleared(ByteBuffer buffer) {
+        ByteBuffer out = buffer.duplicate();
+        out.clear();
+        return out;
+    }
+
+    /** Like {@link #cleared(ByteBuffer)} but for a {@link ShortBuffer}. */
+    private static ShortBuffer cleared(ShortBuffer buffer) {
+        ShortBuffer out = buffer.duplicate();
+        out.clear();
+        return out;
+    }
+
+    /** Like {@link #cleared(ByteBuffer)} but for a {@link IntBuffer}. */
+    private static IntBuffer cleared(IntBuffer buffer) {
+        IntBuffer out = buffer.duplicate();
+        out.clear();
+        return out;
+    }
+
+    /** Like {@link #cleared(ByteBuffer)} but for a {@link FloatBuffer}. */
+    private static FloatBuffer cleared(FloatBuffer buffer) {
+        FloatBuffer out = buffer.duplicate();
+        out.clear();
+        return out;
+    }
+}
@@ -0,0 +1,68 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.dimensions.IncorrectImageSizeException;
+import org.anchoranalysis.image.core.stack.Stack;
+
+/**
+ * Serializes a {@link Stack}, as each of its channels in turn.
+ *
+ * <p>Whether the stack is RGB or not is also preserved.
+ *
+ * @author Owen Feehan
+ */
+public class StackSerializer implements EntitySerializer<Stack> {
+
+    @Override
+    public void write(Stack entity, DataOutputStream stream) throws IOException {
+        stream.writeBoolean(entity.isRGB());
+        stream.writeInt(entity.getNumberChannels());
+        for (int index = 0; index < entity.getNumberChannels(); index++) {
+            SerializerHelper.writeChannel(entity.getChannel(index), stream);
+        }
+    }
+
+    @Override
+    public Stack read(DataInputStream stream) throws IOException {
+        boolean rgb = stream.readBoolean();
+        Channel[] channels = new Channel[stream.readInt()];
+        for (int index = 0; index < channels.length; index++) {
+            channels[index] = SerializerHelper.readChannel(stream);
+        }
+        try {
+            return new Stack(rgb, channels);
+        } catch (IncorrectImageSizeException | CreateException e) {
+            throw new IOException("The serialized channels do not form a valid stack", e);
+        }
+    }
+}
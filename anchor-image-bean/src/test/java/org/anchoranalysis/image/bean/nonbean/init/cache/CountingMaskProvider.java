@@ -0,0 +1,69 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.image.bean.provider.MaskProvider;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.mask.Mask;
+import org.anchoranalysis.image.voxel.binary.values.BinaryValuesInt;
+
+/**
+ * Creates an empty square {@link Mask}, counting how often it is calculated.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor
+public class CountingMaskProvider extends MaskProvider {
+
+    /** How many times a mask has been calculated, by any instance. */
+    public static final AtomicInteger CALCULATED = new AtomicInteger();
+
+    // START BEAN PROPERTIES
+    /** The width and height of the mask. */
+    @BeanField @Getter @Setter private int size = 5;
+    // END BEAN PROPERTIES
+
+    /**
+     * Creates with a particular size.
+     *
+     * @param size the width and height of the mask.
+     */
+    public CountingMaskProvider(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public Mask get() {
+        CALCULATED.incrementAndGet();
+        return new Mask(new Dimensions(size, size, 1), BinaryValuesInt.getDefault());
+    }
+}
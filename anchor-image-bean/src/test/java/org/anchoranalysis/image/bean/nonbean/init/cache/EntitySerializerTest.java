@@ -0,0 +1,97 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectCollectionFactory;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.math.histogram.Histogram;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that entities are identical after being written and read by an {@link EntitySerializer}.
+ *
+ * @author Owen Feehan
+ */
+class EntitySerializerTest {
+
+    /** A histogram with a non-zero minimum value. */
+    @Test
+    void testHistogram() throws IOException {
+        Histogram histogram = new Histogram(10, 20);
+        histogram.incrementValueBy(10, 3);
+        histogram.incrementValueBy(17, 5);
+
+        Histogram read = roundTrip(new HistogramSerializer(), histogram);
+        assertEquals(histogram.size(), read.size());
+        assertEquals(histogram.getMaxValue(), read.getMaxValue());
+        assertEquals(3, read.getCount(10));
+        assertEquals(5, read.getCount(17));
+        assertEquals(histogram.getTotalCount(), read.getTotalCount());
+    }
+
+    /** Two objects in different locations, with some voxels <i>on</i>. */
+    @Test
+    void testObjects() throws IOException {
+        ObjectMask first = createObject(new Point3i(1, 2, 3), new Extent(4, 5, 2));
+        ObjectMask second = createObject(new Point3i(10, 0, 0), new Extent(3, 3, 1));
+        ObjectCollection objects = ObjectCollectionFactory.of(first, second);
+
+        ObjectCollection read = roundTrip(new ObjectCollectionSerializer(), objects);
+        assertTrue(objects.equalsDeep(read));
+    }
+
+    /** Creates an object with its minimum corner and one other voxel <i>on</i>. */
+    private static ObjectMask createObject(Point3i corner, Extent extent) {
+        ObjectMask object = new ObjectMask(BoundingBox.createReuse(corner, extent));
+        object.assignOn().toVoxel(corner);
+        object.assignOn().toVoxel(new Point3i(object.boundingBox().calculateCornerMaxInclusive()));
+        return object;
+    }
+
+    private static <T> T roundTrip(EntitySerializer<T> serializer, T entity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream stream = new DataOutputStream(bytes)) {
+            serializer.write(entity, stream);
+        }
+        try (DataInputStream stream =
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return serializer.read(stream);
+        }
+    }
+}
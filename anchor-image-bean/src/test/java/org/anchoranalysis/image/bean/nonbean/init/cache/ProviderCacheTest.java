@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * anchor-image-bean
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.bean.nonbean.init.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.anchoranalysis.bean.NamedBean;
+import org.anchoranalysis.bean.define.Define;
+import org.anchoranalysis.bean.define.DefineAddException;
+import org.anchoranalysis.bean.initializable.property.BeanInitializer;
+import org.anchoranalysis.core.cache.DiskLRUCache;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.identifier.provider.NamedProviderGetException;
+import org.anchoranalysis.core.identifier.provider.store.SharedObjects;
+import org.anchoranalysis.core.log.CommonContext;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.image.bean.nonbean.init.ImageInitialization;
+import org.anchoranalysis.image.bean.provider.MaskProvider;
+import org.anchoranalysis.image.core.mask.Mask;
+import org.anchoranalysis.test.LoggerFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that {@link ProviderCache} loads an entity in a later execution, unless the entity or
+ * something it retrieves is changed.
+ *
+ * @author Owen Feehan
+ */
+class ProviderCacheTest {
+
+    /** A digest for the input, as if derived from its files. */
+    private static final String INPUT_DIGEST = "input";
+
+    /** The maximum size of the cache, large enough to never evict. */
+    private static final long MAX_BYTES = 100_000_000;
+
+    private static final Logger LOGGER = LoggerFixture.suppressedLogger();
+
+    @TempDir Path directory;
+
+    private DiskLRUCache cache;
+
+    @BeforeEach
+    void setup() throws IOException {
+        CountingMaskProvider.CALCULATED.set(0);
+        ReferencingMaskProvider.CALCULATED.set(0);
+        cache = new DiskLRUCache(directory.resolve("cache"), MAX_BYTES);
+    }
+
+    /** An identical second execution loads the mask, rather than calculating it. */
+    @Test
+    void testSecondExecutionHitsCache()
+            throws OperationFailedException, NamedProviderGetException, DefineAddException {
+        Mask first = provide(define(new CountingMaskProvider(5)), "base");
+        Mask second = provide(define(new CountingMaskProvider(5)), "base");
+
+        assertEquals(1, CountingMaskProvider.CALCULATED.get());
+        assertEquals(first.dimensions(), second.dimensions());
+    }
+
+    /** A change to the configuration of the mask itself causes it to be calculated again. */
+    @Test
+    void testChangedConfiguration()
+            throws OperationFailedException, NamedProviderGetException, DefineAddException {
+        provide(define(new CountingMaskProvider(5)), "base");
+        Mask changed = provide(define(new CountingMaskProvider(6)), "base");
+
+        assertEquals(2, CountingMaskProvider.CALCULATED.get());
+        assertEquals(6, changed.dimensions().x());
+    }
+
+    /** A change to a definition that the mask retrieves causes it to be calculated again. */
+    @Test
+    void testChangedDependency()
+            throws OperationFailedException, NamedProviderGetException, DefineAddException {
+        ReferencingMaskProvider derived = new ReferencingMaskProvider("base", "");
+
+        provide(define(new CountingMaskProvider(5), derived), "derived");
+        provide(define(new CountingMaskProvider(5), derived), "derived");
+        assertEquals(1, ReferencingMaskProvider.CALCULATED.get());
+
+        Mask changed = provide(define(new CountingMaskProvider(6), derived), "derived");
+        assertEquals(2, ReferencingMaskProvider.CALCULATED.get());
+        assertEquals(6, changed.dimensions().x());
+    }
+
+    /**
+     * A change to a definition whose name appears in the mask's configuration, but which is never
+     * retrieved, does not cause the mask to be calculated again.
+     */
+    @Test
+    void testChangedUnretrievedDefinition()
+            throws OperationFailedException, NamedProviderGetException, DefineAddException {
+        ReferencingMaskProvider derived = new ReferencingMaskProvider("base", "other");
+
+        Define define = define(new CountingMaskProvider(5), derived);
+        define.add(new NamedBean<>("other", new CountingMaskProvider(7)));
+        provide(define, "derived");
+
+        Define defineChanged = define(new CountingMaskProvider(5), derived);
+        defineChanged.add(new NamedBean<>("other", new CountingMaskProvider(8)));
+        provide(defineChanged, "derived");
+
+        assertEquals(1, ReferencingMaskProvider.CALCULATED.get());
+    }
+
+    /** The digest of an input's files differs when other parameters, like a suggested size, do. */
+    @Test
+    void testDigestIncludesParameters() throws IOException {
+        Path file = Files.writeString(directory.resolve("input.txt"), "content");
+        List<Path> paths = List.of(file);
+        assertEquals(
+                ProviderCache.digestFiles(paths, "small"),
+                ProviderCache.digestFiles(paths, "small"));
+        assertNotEquals(
+                ProviderCache.digestFiles(paths, "small"),
+                ProviderCache.digestFiles(paths, "large"));
+    }
+
+    /**
+     * Populates a newly created {@link ImageInitialization}, with a cache, and retrieves a mask, as
+     * if in a separate execution.
+     */
+    private Mask provide(Define define, String identifier)
+            throws OperationFailedException, NamedProviderGetException {
+        ImageInitialization initialization =
+                new ImageInitialization(new SharedObjects(new CommonContext(LOGGER, directory)));
+        initialization.assignProviderCache(new ProviderCache(cache, INPUT_DIGEST));
+
+        BeanInitializer<ImageInitialization> initializer =
+                new BeanInitializer<>(ImageInitialization.class);
+        initializer.setParam(initialization);
+        initialization.populate(initializer, define, LOGGER);
+        return initialization.masks().getException(identifier);
+    }
+
+    /** Defines {@code base}. */
+    private static Define define(MaskProvider base) throws DefineAddException {
+        Define define = new Define();
+        define.add(new NamedBean<>("base", base));
+        return define;
+    }
+
+    /** Defines {@code base} and {@code derived}. */
+    private static Define define(MaskProvider base, MaskProvider derived)
+            throws DefineAddException {
+        Define define = define(base);
+        define.add(new NamedBean<>("derived", derived));
+        return define;
+    }
+}
@@ -25,6 +25,7 @@
  */
 package org.anchoranalysis.image.inference;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.functional.checked.CheckedFunction;
@@ -58,4 +59,42 @@ public interface ImageInferenceModel<T> extends InferenceModel {
             List<String> outputIdentifiers,
             CheckedFunction<List<T>, S, OperationFailedException> convertOutput)
             throws OperationFailedException;
+
+    /**
+     * Performs inference on a batch of inputs, to create an output for each input.
+     *
+     * <p>All inputs must have an identical shape.
+     *
+     * <p>By default, inference is performed separately on each input, in turn. Implementations
+     * that can concatenate inputs into a single tensor should override this method, as batched
+     * inference is often considerably faster.
+     *
+     * <p>No implementation in this library overrides it, so batching across jobs (see {@code
+     * batchSize} in {@code SegmentStackIntoObjectsScaleDecode}) is disabled by default. With the
+     * default implementation, enabling it only adds latency, as each caller waits for its batch
+     * to fill.
+     *
+     * @param <S> the data-type each output is exposed as.
+     * @param inputs the inputs for inference.
+     * @param inputName the name associated with each element of {@code inputs} in the model.
+     * @param outputIdentifiers
+     * @param convertOutputs converts the output for the respective input (with identical index)
+     *     to type {@code <S>}.
+     * @return the converted output, for each respective input.
+     * @throws OperationFailedException if the inference cannot successfully complete.
+     */
+    default <S> List<S> performInferenceBatch(
+            List<T> inputs,
+            String inputName,
+            List<String> outputIdentifiers,
+            List<CheckedFunction<List<T>, S, OperationFailedException>> convertOutputs)
+            throws OperationFailedException {
+        List<S> out = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            out.add(
+                    performInference(
+                            inputs.get(i), inputName, outputIdentifiers, convertOutputs.get(i)));
+        }
+        return out;
+    }
 }
@@ -25,32 +25,50 @@
  */
 package org.anchoranalysis.image.inference.bean.reduce;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
+import org.anchoranalysis.core.collection.IndexedPriorityQueue;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.exception.friendly.AnchorImpossibleSituationException;
-import org.anchoranalysis.core.graph.GraphWithoutPayload;
+import org.anchoranalysis.core.graph.IndexedGraph;
 import org.anchoranalysis.image.inference.segment.LabelledWithConfidence;
 import org.anchoranalysis.image.voxel.object.IntersectingObjects;
 import org.anchoranalysis.image.voxel.object.ObjectMask;
 
 /**
- * Combines a {@link PriorityQueue} (ordering by highest confidence) and a graph-structure
+ * Combines a {@link IndexedPriorityQueue} (ordering by highest confidence) and a graph-structure
  * indicating which objects overlap with each other.
  *
  * <p>Any operation that changes one structure, will also update the other structure.
  *
+ * <p>As the queue is indexed, removing or merging vertices occurs in logarithmic time relative to
+ * the number of elements in the queue, rather than requiring a linear search.
+ *
+ * <p>The graph is a compact {@link IndexedGraph}, whose integer vertices are mapped to and from the
+ * corresponding objects.
+ *
  * @author Owen Feehan
  */
 public class ReduceObjectsGraph {
 
     /** The priority queue that always gives priority to the highest-confidence object. */
-    private final PriorityQueue<ObjectForReduction> queue;
+    private final IndexedPriorityQueue<ObjectForReduction> queue;
 
-    /** The graph with objects as vertices, and with an edge between any objects that intersect. */
-    private final GraphWithoutPayload<ObjectForReduction> graph;
+    /**
+     * The graph with (the indices of) objects as vertices, and with an edge between any objects
+     * that intersect.
+     */
+    private final IndexedGraph graph;
+
+    /** The object corresponding to each vertex in {@code graph}, indexed by vertex. */
+    private final List<ObjectForReduction> objectForVertex;
+
+    /** The vertex in {@code graph} corresponding to each object, compared by identity. */
+    private final Map<ObjectForReduction, Integer> vertexForObject;
 
     /**
      * Create with a list of elements.
@@ -61,9 +79,17 @@ public class ReduceObjectsGraph {
         List<ObjectForReduction> vertices = ObjectForReductionFactory.populateFromList(elements);
 
         /** Tracks which objects overlap with other objects, updated as merges/deletions occur. */
-        graph = new IntersectingObjects<>(vertices, ObjectForReduction::getElement).asGraph();
+        graph =
+                new IntersectingObjects<>(vertices, ObjectForReduction::getElement)
+                        .asGraphIndexed();
+
+        objectForVertex = new ArrayList<>(vertices);
+        vertexForObject = new IdentityHashMap<>(vertices.size());
+        for (int index = 0; index < vertices.size(); index++) {
+            vertexForObject.put(vertices.get(index), index);
+        }
 
-        queue = new PriorityQueue<>(vertices);
+        queue = IndexedPriorityQueue.naturalOrder(vertices);
     }
 
     /**
@@ -92,10 +118,12 @@ public class ReduceObjectsGraph {
     public ObjectForReduction poll() {
         ObjectForReduction element = queue.poll();
         try {
-            graph.removeVertex(element);
+            graph.removeVertex(vertexFor(element));
         } catch (OperationFailedException e) {
+            // Every element in the queue also exists in the graph
             throw new AnchorImpossibleSituationException();
         }
+        vertexForObject.remove(element);
         return element;
     }
 
@@ -106,7 +134,7 @@ public class ReduceObjectsGraph {
      * @return all vertices to which an outgoing edge exists from {@code vertex}.
      */
     public List<ObjectForReduction> adjacentVerticesOutgoing(ObjectForReduction vertex) {
-        return graph.adjacentVerticesOutgoing(vertex);
+        return adjacentVerticesOutgoingStream(vertex).toList();
     }
 
     /**
@@ -116,7 +144,11 @@ public class ReduceObjectsGraph {
      * @return all vertices to which an outgoing edge exists from {@code vertex}.
      */
     public Stream<ObjectForReduction> adjacentVerticesOutgoingStream(ObjectForReduction vertex) {
-        return graph.adjacentVerticesOutgoingStream(vertex);
+        Integer index = vertexForObject.get(vertex);
+        if (index == null) {
+            return Stream.empty();
+        }
+        return graph.adjacentVerticesStream(index).mapToObj(objectForVertex::get);
     }
 
     /**
@@ -129,7 +161,11 @@ public class ReduceObjectsGraph {
      * @param to the vertex the edge joins <i>to</i>.
      */
     public void removeEdge(ObjectForReduction from, ObjectForReduction to) {
-        graph.removeEdge(from, to);
+        Integer indexFrom = vertexForObject.get(from);
+        Integer indexTo = vertexForObject.get(to);
+        if (indexFrom != null && indexTo != null) {
+            graph.removeEdge(indexFrom, indexTo);
+        }
     }
 
     /**
@@ -139,10 +175,12 @@ public class ReduceObjectsGraph {
      * @throws OperationFailedException if the vertex doesn't exist in the graph.
      */
     public void removeVertex(ObjectForReduction vertex) throws OperationFailedException {
-        // This involves a linear search
+        int index = vertexFor(vertex);
+        vertexForObject.remove(vertex);
+
         queue.remove(vertex);
 
-        graph.removeVertex(vertex);
+        graph.removeVertex(index);
     }
 
     /**
@@ -156,14 +194,30 @@ public class ReduceObjectsGraph {
      * @param element1 the first element to merge.
      * @param element2 the second element to merge.
      * @param merged the merged element that replaces {@code element1} and {@code element2}.
+     * @throws OperationFailedException if either {@code element1} or {@code element2} doesn't exist
+     *     in the graph.
      */
     public void mergeVertices(
-            ObjectForReduction element1, ObjectForReduction element2, ObjectForReduction merged) {
-        graph.mergeVertices(element1, element2, merged);
+            ObjectForReduction element1, ObjectForReduction element2, ObjectForReduction merged)
+            throws OperationFailedException {
+        int mergedIndex = graph.mergeVertices(vertexFor(element1), vertexFor(element2));
+        vertexForObject.remove(element1);
+        vertexForObject.remove(element2);
+        objectForVertex.add(merged);
+        vertexForObject.put(merged, mergedIndex);
 
-        // This involves two linear searches
         queue.remove(element1);
         queue.remove(element2);
         queue.add(merged);
     }
+
+    /** The vertex in {@code graph} for an element, throwing an exception if it doesn't exist. */
+    private int vertexFor(ObjectForReduction element) throws OperationFailedException {
+        Integer index = vertexForObject.get(element);
+        if (index == null) {
+            throw new OperationFailedException(
+                    String.format("The element does not exist in the graph: %s", element));
+        }
+        return index;
+    }
 }
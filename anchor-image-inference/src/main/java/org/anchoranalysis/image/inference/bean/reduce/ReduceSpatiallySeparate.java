@@ -0,0 +1,193 @@
+/*-
+ * #%L
+ * anchor-image-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.image.inference.bean.reduce;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.FunctionalList;
+import org.anchoranalysis.core.functional.FunctionalListParallel;
+import org.anchoranalysis.core.time.ExecutionTimeRecorder;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.inference.bean.segment.reduce.ReduceElements;
+import org.anchoranalysis.image.inference.segment.LabelledWithConfidence;
+import org.anchoranalysis.image.inference.segment.ReductionOutcome;
+import org.anchoranalysis.image.voxel.object.IntersectingObjects;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Partitions elements into spatially separate <i>clusters</i>, and reduces each cluster
+ * independently, and optionally in parallel.
+ *
+ * <p>Any elements whose bounding-boxes intersect belong to the same cluster, as determined by
+ * {@link IntersectingObjects#spatiallySeparate}.
+ *
+ * <p>This produces an identical outcome to applying {@code reduce} on all elements together, so
+ * long as {@code reduce} only considers interactions between elements with intersecting
+ * bounding-boxes, as is the case with {@link ReduceElementsGreedy}.
+ *
+ * <p>Retained elements are reported in ascending order of their index in the input list, and
+ * newly-added elements in the order of the cluster's lowest index.
+ *
+ * <p>An {@link ExecutionTimeRecorder} tracks nested operations per thread, so when clusters are
+ * reduced in parallel, only the parallel section as a whole is recorded, and not the operations
+ * within each cluster.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReduceSpatiallySeparate extends ReduceElements<ObjectMask> {
+
+    // START BEAN FIELDS
+    /** The algorithm applied to reduce each cluster. */
+    @BeanField @Getter @Setter
+    private ReduceElements<ObjectMask> reduce = new RemoveOverlappingObjects();
+
+    /** If true, clusters are reduced in parallel. If false, sequentially. */
+    @BeanField @Getter @Setter private boolean parallel = true;
+
+    // END BEAN FIELDS
+
+    /**
+     * Creates with a particular algorithm to reduce each cluster.
+     *
+     * @param reduce the algorithm applied to reduce each cluster.
+     */
+    public ReduceSpatiallySeparate(ReduceElements<ObjectMask> reduce) {
+        this.reduce = reduce;
+    }
+
+    @Override
+    public ReductionOutcome<LabelledWithConfidence<ObjectMask>> reduce(
+            List<LabelledWithConfidence<ObjectMask>> elements,
+            Extent extent,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws OperationFailedException {
+
+        List<List<ObjectForReduction>> clusters = clustersFor(elements, executionTimeRecorder);
+
+        if (clusters.size() <= 1) {
+            // No benefit in partitioning, so reduce all elements together.
+            return reduce.reduce(elements, extent, executionTimeRecorder);
+        }
+
+        List<ReductionOutcome<LabelledWithConfidence<ObjectMask>>> outcomes =
+                reduceEachCluster(clusters, extent, executionTimeRecorder);
+        return combine(outcomes);
+    }
+
+    /**
+     * Derives the clusters, each as a list, sorted by index, and with clusters sorted by their
+     * lowest index.
+     */
+    private static List<List<ObjectForReduction>> clustersFor(
+            List<LabelledWithConfidence<ObjectMask>> elements,
+            ExecutionTimeRecorder executionTimeRecorder) {
+        IntersectingObjects<ObjectForReduction> intersecting =
+                new IntersectingObjects<>(
+                        ObjectForReductionFactory.populateFromList(elements),
+                        ObjectForReduction::getElement);
+
+        Set<Set<ObjectForReduction>> separate =
+                executionTimeRecorder.recordExecutionTime(
+                        "Partitioning into spatially-separate clusters",
+                        () -> intersecting.spatiallySeparate());
+
+        Comparator<ObjectForReduction> byIndex =
+                Comparator.comparingInt(ObjectForReduction::getIndex);
+
+        List<List<ObjectForReduction>> clusters = new ArrayList<>(separate.size());
+        for (Set<ObjectForReduction> cluster : separate) {
+            List<ObjectForReduction> list = new ArrayList<>(cluster);
+            list.sort(byIndex);
+            clusters.add(list);
+        }
+        clusters.sort(Comparator.comparingInt(cluster -> cluster.get(0).getIndex()));
+        return clusters;
+    }
+
+    /** Reduces each cluster, mapping indices to refer to the original input list. */
+    private List<ReductionOutcome<LabelledWithConfidence<ObjectMask>>> reduceEachCluster(
+            List<List<ObjectForReduction>> clusters,
+            Extent extent,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws OperationFailedException {
+        if (parallel) {
+            return executionTimeRecorder.recordExecutionTime(
+                    "Reducing spatially-separate clusters in parallel",
+                    () -> reduceEachClusterParallel(clusters, extent));
+        } else {
+            return FunctionalList.mapToList(
+                    clusters,
+                    OperationFailedException.class,
+                    cluster -> reduceCluster(cluster, extent, executionTimeRecorder));
+        }
+    }
+
+    /**
+     * Reduces each cluster in parallel, without recording execution-times, as the recorder is not
+     * used from other threads.
+     */
+    private List<ReductionOutcome<LabelledWithConfidence<ObjectMask>>> reduceEachClusterParallel(
+            List<List<ObjectForReduction>> clusters, Extent extent)
+            throws OperationFailedException {
+        return FunctionalListParallel.mapToList(
+                clusters,
+                OperationFailedException.class,
+                cluster -> reduceCluster(cluster, extent, ExecutionTimeRecorderIgnore.instance()));
+    }
+
+    /** Reduces a single cluster, mapping indices to refer to the original input list. */
+    private ReductionOutcome<LabelledWithConfidence<ObjectMask>> reduceCluster(
+            List<ObjectForReduction> cluster,
+            Extent extent,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws OperationFailedException {
+        List<LabelledWithConfidence<ObjectMask>> elements =
+                FunctionalList.mapToList(cluster, ObjectForReduction::getLabelled);
+        return reduce.reduce(elements, extent, executionTimeRecorder)
+                .map(index -> cluster.get(index).getIndex(), labelled -> labelled);
+    }
+
+    /** Combines the outcomes from each cluster into a single outcome. */
+    private static ReductionOutcome<LabelledWithConfidence<ObjectMask>> combine(
+            Collection<ReductionOutcome<LabelledWithConfidence<ObjectMask>>> outcomes) {
+        ReductionOutcome<LabelledWithConfidence<ObjectMask>> combined = new ReductionOutcome<>();
+        outcomes.forEach(combined::addAll);
+        combined.sortIndicesRetained();
+        return combined;
+    }
+}
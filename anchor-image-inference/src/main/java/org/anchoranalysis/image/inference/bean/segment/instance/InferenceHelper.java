@@ -25,13 +25,17 @@
  */
 package org.anchoranalysis.image.inference.bean.segment.instance;
 
+import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.checked.CheckedFunction;
 import org.anchoranalysis.image.inference.ImageInferenceContext;
 import org.anchoranalysis.image.inference.ImageInferenceModel;
 import org.anchoranalysis.image.inference.segment.LabelledWithConfidence;
 import org.anchoranalysis.image.inference.segment.MultiScaleObject;
+import org.anchoranalysis.inference.concurrency.BatchParameters;
 import org.anchoranalysis.inference.concurrency.ConcurrentModel;
 import org.anchoranalysis.inference.concurrency.ConcurrentModelException;
 import org.anchoranalysis.inference.concurrency.ConcurrentModelPool;
@@ -45,15 +49,37 @@ import org.anchoranalysis.inference.concurrency.ConcurrentModelPool;
 @RequiredArgsConstructor
 class InferenceHelper<T, S extends ImageInferenceModel<T>> {
 
+    /** An input tensor to be batched, together with what is needed to decode its output. */
+    @Value
+    private static class BatchInput<T, S extends ImageInferenceModel<T>> {
+
+        /** The tensor on which inference is performed. */
+        private T inputTensor;
+
+        /** The context of the inference. */
+        private ImageInferenceContext context;
+
+        /** The helper that submitted the input, and which decodes its output. */
+        private InferenceHelper<T, S> helper;
+    }
+
     /** Decodes inference output into segmented objects. */
     private final DecodeInstanceSegmentation<T> decode;
 
     /** The name of the input in the model. */
     private final String inputName;
 
+    /**
+     * How to batch the input tensor with those from other concurrent calls, before inference.
+     */
+    private final BatchParameters batching;
+
     /**
      * Performs inference, and decodes the outputted tensors into segmented-objects.
      *
+     * <p>If batching is enabled, {@code inputTensor} may be batched together with tensors of
+     * identical size, submitted concurrently by other callers.
+     *
      * @param inputTensor the tensor on which inferencei s performed.
      * @param modelPool the models used for CNN inference
      * @param context the context of the inference
@@ -64,7 +90,67 @@ class InferenceHelper<T, S extends ImageInferenceModel<T>> {
     public List<LabelledWithConfidence<MultiScaleObject>> queueInference(
             T inputTensor, ConcurrentModelPool<S> modelPool, ImageInferenceContext context)
             throws Throwable {
-        return modelPool.executeOrWait(model -> performInference(model, inputTensor, context));
+        if (batching.isEnabled()) {
+            return modelPool.executeOrWaitBatched(
+                    new BatchInput<>(inputTensor, context, this),
+                    batchKey(context),
+                    this::performInferenceBatch,
+                    batching);
+        } else {
+            return modelPool.executeOrWait(
+                    model -> performInference(model, inputTensor, context));
+        }
+    }
+
+    /**
+     * A key that is identical only for inputs that can be batched together.
+     *
+     * <p>This requires an identical input-name, output-names and input-size.
+     */
+    private List<Object> batchKey(ImageInferenceContext context) {
+        return List.of(
+                inputName,
+                decode.expectedOutputs(),
+                context.getDimensions().atModelScale().extent());
+    }
+
+    /** Performs inference on a batch of input tensors using {@code model}. */
+    private List<List<LabelledWithConfidence<MultiScaleObject>>> performInferenceBatch(
+            ConcurrentModel<S> model, List<BatchInput<T, S>> inputs)
+            throws ConcurrentModelException {
+        try {
+            List<T> tensors = new ArrayList<>(inputs.size());
+            List<InferenceExecutionTimeRecorder> recorders = new ArrayList<>(inputs.size());
+            List<
+                            CheckedFunction<
+                                    List<T>,
+                                    List<LabelledWithConfidence<MultiScaleObject>>,
+                                    OperationFailedException>>
+                    converters = new ArrayList<>(inputs.size());
+            for (BatchInput<T, S> input : inputs) {
+                InferenceExecutionTimeRecorder recorder =
+                        new InferenceExecutionTimeRecorder(
+                                input.getContext().getExecutionTimeRecorder(), model.isGpu());
+                recorder.recordStartInference();
+                tensors.add(input.getInputTensor());
+                recorders.add(recorder);
+                converters.add(
+                        outputs ->
+                                input.getHelper()
+                                        .decodeOutputs(outputs, recorder, input.getContext()));
+            }
+
+            try {
+                return model.getModel()
+                        .performInferenceBatch(
+                                tensors, inputName, decode.expectedOutputs(), converters);
+            } finally {
+                recorders.forEach(InferenceExecutionTimeRecorder::flush);
+            }
+
+        } catch (Exception e) {
+            throw new ConcurrentModelException(e);
+        }
     }
 
     /** Performs inference on an {@code image} using {@code model}. */
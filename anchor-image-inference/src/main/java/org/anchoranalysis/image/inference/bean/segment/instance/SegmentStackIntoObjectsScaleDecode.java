@@ -34,16 +34,21 @@ import lombok.Setter;
 import org.anchoranalysis.bean.annotation.AllowEmpty;
 import org.anchoranalysis.bean.annotation.BeanField;
 import org.anchoranalysis.bean.annotation.DefaultInstance;
+import org.anchoranalysis.bean.annotation.NonNegative;
 import org.anchoranalysis.bean.annotation.OptionalBean;
+import org.anchoranalysis.bean.annotation.Positive;
 import org.anchoranalysis.bean.primitive.DoubleList;
 import org.anchoranalysis.core.exception.InitializeException;
 import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.FunctionalList;
+import org.anchoranalysis.core.functional.FunctionalListParallel;
 import org.anchoranalysis.core.time.ExecutionTimeRecorder;
 import org.anchoranalysis.image.bean.displayer.StackDisplayer;
 import org.anchoranalysis.image.bean.interpolator.Interpolator;
 import org.anchoranalysis.image.bean.nonbean.segment.SegmentationFailedException;
 import org.anchoranalysis.image.bean.spatial.ScaleCalculator;
 import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
 import org.anchoranalysis.image.core.stack.Stack;
 import org.anchoranalysis.image.inference.ImageInferenceContext;
 import org.anchoranalysis.image.inference.ImageInferenceModel;
@@ -52,8 +57,13 @@ import org.anchoranalysis.image.inference.segment.LabelledWithConfidence;
 import org.anchoranalysis.image.inference.segment.MultiScaleObject;
 import org.anchoranalysis.image.inference.segment.SegmentedBackground;
 import org.anchoranalysis.image.inference.segment.SegmentedObjects;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
 import org.anchoranalysis.image.voxel.resizer.VoxelsResizerExecutionTime;
+import org.anchoranalysis.inference.concurrency.BatchParameters;
 import org.anchoranalysis.inference.concurrency.ConcurrentModelPool;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.scale.RelativeScaleCalculator;
 import org.anchoranalysis.spatial.scale.ScaleFactor;
 import org.apache.commons.collections.IteratorUtils;
 
@@ -102,6 +112,38 @@ public abstract class SegmentStackIntoObjectsScaleDecode<T, S extends ImageInfer
     /** How to convert an image to be displayed to the user. */
     @BeanField @Getter @Setter @DefaultInstance private StackDisplayer displayer;
 
+    /**
+     * The maximum number of input images, from concurrently executing jobs, that are combined into
+     * a single batch for inference.
+     *
+     * <p>Only input images of identical size (after scaling) are batched together. A value of 1
+     * disables batching.
+     *
+     * <p>This should only be increased for a model that overrides {@link
+     * ImageInferenceModel#performInferenceBatch} to perform inference on the batch as a single
+     * tensor. Otherwise, the inputs in a batch are still inferred separately, in turn.
+     */
+    @BeanField @Positive @Getter @Setter private int batchSize = 1;
+
+    /**
+     * The maximum time in milliseconds to wait for other inputs to fill a batch, before performing
+     * inference on a partially-filled batch.
+     *
+     * <p>This is ignored if {@code batchSize} is 1.
+     */
+    @BeanField @NonNegative @Getter @Setter private int batchWaitMillis = 20;
+
+    /**
+     * If set, the image (after scaling by {@code scaleInput}) is split into overlapping tiles, and
+     * inference is performed separately on each tile, in parallel.
+     *
+     * <p>This is useful for large images, where {@code scaleInput} should then describe a fixed
+     * scale, rather than scaling to the size expected by the model.
+     *
+     * <p>If not set, inference occurs once on the entire scaled image.
+     */
+    @BeanField @OptionalBean @Getter @Setter private Tiling tiling;
+
     // END BEAN PROPERTIES
 
     @Override
@@ -125,17 +167,18 @@ public abstract class SegmentStackIntoObjectsScaleDecode<T, S extends ImageInfer
                                             interpolator.voxelsResizer(),
                                             executionTimeRecorder));
 
+            SegmentedBackground background = new SegmentedBackground(stacksDual, displayer);
+
+            if (tiling != null) {
+                return segmentTiles(stacksDual, background, modelPool, executionTimeRecorder);
+            }
+
             T input =
                     executionTimeRecorder.recordExecutionTime(
                             "Deriving input for segmentation",
                             () -> deriveInputSubtractMeans(stacksDual.atModelScale()));
 
-            return segmentInput(
-                    input,
-                    new SegmentedBackground(stacksDual, displayer),
-                    scaleFactor,
-                    modelPool,
-                    executionTimeRecorder);
+            return segmentInput(input, background, scaleFactor, modelPool, executionTimeRecorder);
         } catch (OperationFailedException e) {
             throw new SegmentationFailedException(e);
         }
@@ -150,16 +193,126 @@ public abstract class SegmentStackIntoObjectsScaleDecode<T, S extends ImageInfer
             throws SegmentationFailedException {
         try {
             ImageInferenceContext context =
-                    createContext(background.getBackground(), scaleFactor, executionTimeRecorder);
+                    createContext(
+                            background.getBackground().map(Stack::dimensions),
+                            scaleFactor,
+                            classLabels(),
+                            executionTimeRecorder);
+
+            List<LabelledWithConfidence<MultiScaleObject>> objects =
+                    createHelper().queueInference(input, modelPool, context);
+
+            return new SegmentedObjects(objects, background, executionTimeRecorder);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SegmentationFailedException(e);
+        } catch (Throwable e) {
+            throw new SegmentationFailedException(e);
+        }
+    }
+
+    /**
+     * Performs inference separately on each tile of the model-scale image, and combines the
+     * results, merging duplicate objects in the overlapping regions.
+     */
+    private SegmentedObjects segmentTiles(
+            DualScale<Stack> stacks,
+            SegmentedBackground background,
+            ConcurrentModelPool<S> modelPool,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws SegmentationFailedException {
+        try {
+            Stack stack = stacks.atModelScale();
+            Optional<List<String>> classLabels = classLabels();
+            InferenceHelper<T, S> helper = createHelper();
 
-            String inputName = inputName().orElse(FALLBACK_INPUT_NAME);
+            List<LabelledWithConfidence<ObjectMask>> objectsModelScale =
+                    FunctionalListParallel.mapToList(
+                                    tiling.tilesFor(stack.extent()),
+                                    SegmentationFailedException.class,
+                                    tile ->
+                                            segmentTile(
+                                                    stack,
+                                                    tile,
+                                                    helper,
+                                                    modelPool,
+                                                    classLabels,
+                                                    executionTimeRecorder))
+                            .stream()
+                            .flatMap(List::stream)
+                            .toList();
 
-            InferenceHelper<T, S> helper = new InferenceHelper<>(decode, inputName);
+            DualScale<Extent> extent = stacks.map(Stack::extent);
+
+            // What's needed to scale a model-scale object to input-scale.
+            ScaleFactor scaleToInput =
+                    extent.apply(
+                            (input, model) ->
+                                    RelativeScaleCalculator.relativeScale(model, input, false));
+
+            List<LabelledWithConfidence<MultiScaleObject>> objects =
+                    FunctionalList.mapToList(
+                            objectsModelScale,
+                            labelled ->
+                                    labelled.map(
+                                            object ->
+                                                    multiScale(
+                                                            object,
+                                                            scaleToInput,
+                                                            extent.atInputScale())));
+
+            return new SegmentedObjects(objects, background, executionTimeRecorder)
+                    .reduce(tiling.getReduce(), true, executionTimeRecorder);
+        } catch (IOException | OperationFailedException e) {
+            throw new SegmentationFailedException(e);
+        }
+    }
+
+    /**
+     * Performs inference on a single tile, returning the objects at model-scale, in the
+     * coordinates of the entire image.
+     *
+     * <p>Objects that touch a boundary of the tile in the interior of the image are excluded.
+     */
+    private List<LabelledWithConfidence<ObjectMask>> segmentTile(
+            Stack stack,
+            BoundingBox tile,
+            InferenceHelper<T, S> helper,
+            ConcurrentModelPool<S> modelPool,
+            Optional<List<String>> classLabels,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws SegmentationFailedException {
+        try {
+            Stack stackTile =
+                    stack.mapChannel(
+                            channel ->
+                                    new Channel(
+                                            channel.extract().region(tile, false),
+                                            channel.resolution()));
+
+            T input = deriveInputSubtractMeans(stackTile);
+
+            // The tile is treated as both input and model-scale, as only model-scale objects are
+            // retained.
+            Dimensions dimensions = stackTile.dimensions();
+            ImageInferenceContext context =
+                    createContext(
+                            new DualScale<>(dimensions, dimensions),
+                            new ScaleFactor(1.0),
+                            classLabels,
+                            executionTimeRecorder);
 
             List<LabelledWithConfidence<MultiScaleObject>> objects =
                     helper.queueInference(input, modelPool, context);
 
-            return new SegmentedObjects(objects, background, executionTimeRecorder);
+            return objects.stream()
+                    .map(labelled -> labelled.map(MultiScaleObject::getModelScale))
+                    .filter(
+                            labelled ->
+                                    !tiling.touchesInteriorBoundary(
+                                            labelled.getElement(), tile, stack.extent()))
+                    .map(labelled -> labelled.map(object -> object.shiftBy(tile.cornerMin())))
+                    .toList();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new SegmentationFailedException(e);
@@ -168,6 +321,20 @@ public abstract class SegmentStackIntoObjectsScaleDecode<T, S extends ImageInfer
         }
     }
 
+    /** Derives a {@link MultiScaleObject} from a model-scale object, scaling it when needed. */
+    private static MultiScaleObject multiScale(
+            ObjectMask object, ScaleFactor scaleToInput, Extent extentInput) {
+        return new MultiScaleObject(
+                () -> object.scale(scaleToInput, Optional.of(extentInput)), () -> object);
+    }
+
+    /** Creates the helper that performs inference and decodes the output. */
+    private InferenceHelper<T, S> createHelper() {
+        String inputName = inputName().orElse(FALLBACK_INPUT_NAME);
+        return new InferenceHelper<>(
+                decode, inputName, new BatchParameters(batchSize, batchWaitMillis));
+    }
+
     /**
      * Derives the input tensor from an image.
      *
@@ -225,14 +392,15 @@ public abstract class SegmentStackIntoObjectsScaleDecode<T, S extends ImageInfer
 
     /** Creates the {@link ImageInferenceContext} needed for inference. */
     private ImageInferenceContext createContext(
-            DualScale<Stack> stacks,
+            DualScale<Dimensions> dimensions,
             ScaleFactor scaleFactor,
+            Optional<List<String>> classLabels,
             ExecutionTimeRecorder executionTimeRecorder)
-            throws InitializeException, IOException {
+            throws InitializeException {
         return new ImageInferenceContext(
-                stacks.map(Stack::dimensions),
+                dimensions,
                 scaleFactor.invert(),
-                classLabels(),
+                classLabels,
                 new VoxelsResizerExecutionTime(
                         interpolator.voxelsResizer(),
                         executionTimeRecorder,
@@ -0,0 +1,166 @@
+/*-
+ * #%L
+ * anchor-image-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.image.inference.bean.segment.instance;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.anchoranalysis.bean.AnchorBean;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.bean.annotation.NonNegative;
+import org.anchoranalysis.image.bean.spatial.SizeXY;
+import org.anchoranalysis.image.inference.bean.reduce.RemoveOverlappingObjects;
+import org.anchoranalysis.image.inference.bean.segment.reduce.ReduceElements;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
+
+/**
+ * Splits an image into overlapping tiles, on each of which inference is separately performed.
+ *
+ * <p>This allows inference on large images at a fixed model-scale, without scaling the entire image
+ * to the size expected by the model.
+ *
+ * <p>Tiles are placed in a regular grid, with neighboring tiles overlapping by {@code overlap}
+ * pixels. The final tile in each dimension is shifted so that it ends at the image boundary. If an
+ * image is smaller than a tile in a dimension, the tile is reduced to the image's size.
+ *
+ * <p>An object detected in a tile, that touches a tile boundary which lies in the interior of the
+ * image, is discarded, as it is expected to be detected fully in a neighboring tile. This requires
+ * {@code overlap} to be larger than any object. Remaining duplicate detections in the overlapping
+ * regions are then merged with {@code reduce}.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor
+public class Tiling extends AnchorBean<Tiling> {
+
+    // START BEAN FIELDS
+    /** The size of each tile, at model-scale. */
+    @BeanField @Getter @Setter private SizeXY size;
+
+    /** How many pixels (at model-scale) neighboring tiles overlap by, in each dimension. */
+    @BeanField @NonNegative @Getter @Setter private int overlap = 64;
+
+    /** Merges duplicate objects that are detected in more than one tile. */
+    @BeanField @Getter @Setter
+    private ReduceElements<ObjectMask> reduce = new RemoveOverlappingObjects();
+    // END BEAN FIELDS
+
+    /**
+     * Creates with a particular tile-size and overlap.
+     *
+     * @param size the size of each tile, at model-scale.
+     * @param overlap how many pixels (at model-scale) neighboring tiles overlap by, in each
+     *     dimension.
+     */
+    public Tiling(SizeXY size, int overlap) {
+        this.size = size;
+        this.overlap = overlap;
+    }
+
+    /**
+     * The tiles that cover an image.
+     *
+     * @param extent the size of the image, at model-scale.
+     * @return a bounding-box for each tile, in the coordinates of the image, ordered by rows.
+     */
+    public List<BoundingBox> tilesFor(Extent extent) {
+        int[] cornersX = cornersFor(extent.x(), size.getWidth());
+        int[] cornersY = cornersFor(extent.y(), size.getHeight());
+
+        Extent tileExtent =
+                new Extent(
+                        Math.min(size.getWidth(), extent.x()),
+                        Math.min(size.getHeight(), extent.y()),
+                        extent.z());
+
+        List<BoundingBox> tiles = new ArrayList<>(cornersX.length * cornersY.length);
+        for (int y : cornersY) {
+            for (int x : cornersX) {
+                tiles.add(BoundingBox.createReuse(new Point3i(x, y, 0), tileExtent));
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Whether an object detected in a tile should be discarded, as it touches a boundary of the
+     * tile that lies in the interior of the image.
+     *
+     * @param object the object, in the coordinates of the tile.
+     * @param tile the tile, in the coordinates of the image.
+     * @param extent the size of the image, at model-scale.
+     * @return true if the object should be discarded, as it is expected to be fully detected in a
+     *     neighboring tile.
+     */
+    public boolean touchesInteriorBoundary(ObjectMask object, BoundingBox tile, Extent extent) {
+        if (overlap == 0) {
+            return false;
+        }
+        BoundingBox box = object.boundingBox();
+        ReadableTuple3i min = box.cornerMin();
+        ReadableTuple3i max = box.calculateCornerMaxInclusive();
+        ReadableTuple3i tileCorner = tile.cornerMin();
+        Extent tileExtent = tile.extent();
+        return touches(min.x(), max.x(), tileCorner.x(), tileExtent.x(), extent.x())
+                || touches(min.y(), max.y(), tileCorner.y(), tileExtent.y(), extent.y());
+    }
+
+    /**
+     * Whether an object touches an interior boundary of the tile in a single dimension.
+     *
+     * @param objectMin the minimum coordinate of the object, relative to the tile.
+     * @param objectMax the maximum coordinate (inclusive) of the object, relative to the tile.
+     * @param tileMin the minimum coordinate of the tile, relative to the image.
+     * @param tileSize the size of the tile.
+     * @param imageSize the size of the image.
+     */
+    private static boolean touches(
+            int objectMin, int objectMax, int tileMin, int tileSize, int imageSize) {
+        boolean interiorMin = tileMin > 0;
+        boolean interiorMax = tileMin + tileSize < imageSize;
+        return (interiorMin && objectMin == 0) || (interiorMax && objectMax == tileSize - 1);
+    }
+
+    /** The minimum corner of each tile, in a single dimension. */
+    private int[] cornersFor(int imageSize, int tileSize) {
+        if (tileSize >= imageSize) {
+            return new int[] {0};
+        }
+        int step = Math.max(tileSize - overlap, 1);
+        int number = (int) Math.ceil((double) (imageSize - tileSize) / step) + 1;
+        int[] corners = new int[number];
+        for (int i = 0; i < number; i++) {
+            corners[i] = Math.min(i * step, imageSize - tileSize);
+        }
+        return corners;
+    }
+}
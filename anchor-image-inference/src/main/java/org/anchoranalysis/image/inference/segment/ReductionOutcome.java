@@ -26,6 +26,7 @@
 package org.anchoranalysis.image.inference.segment;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -91,6 +92,24 @@ public class ReductionOutcome<T> {
         this.added.add(toAdd);
     }
 
+    /**
+     * Adds all retained-indices and newly-added elements from another {@link ReductionOutcome}.
+     *
+     * <p>The indices in {@code other} should already refer to the same input list as this
+     * instance.
+     *
+     * @param other the outcome whose retained-indices and newly-added elements are added.
+     */
+    public void addAll(ReductionOutcome<T> other) {
+        indicesRetained.addAll(other.indicesRetained);
+        added.addAll(other.added);
+    }
+
+    /** Sorts the retained-indices in ascending order. */
+    public void sortIndicesRetained() {
+        Collections.sort(indicesRetained);
+    }
+
     /**
      * Generates a list of elements that exist after the reduction.
      *
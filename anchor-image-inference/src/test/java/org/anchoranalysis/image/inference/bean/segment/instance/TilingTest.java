@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * anchor-image-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.image.inference.bean.segment.instance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.anchoranalysis.image.bean.spatial.SizeXY;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link Tiling}.
+ *
+ * @author Owen Feehan
+ */
+class TilingTest {
+
+    private static final Extent IMAGE = new Extent(250, 100, 1);
+
+    private static final Tiling TILING = new Tiling(new SizeXY(100, 100), 20);
+
+    /** Tiles should overlap, remain inside the image, and the final tile touch the boundary. */
+    @Test
+    void testTilesCoverImage() {
+        List<BoundingBox> tiles = TILING.tilesFor(IMAGE);
+
+        // Corners in X are 0, 80 and 150 (shifted from 160 to end at the boundary).
+        assertEquals(3, tiles.size());
+        assertEquals(0, tiles.get(0).cornerMin().x());
+        assertEquals(80, tiles.get(1).cornerMin().x());
+        assertEquals(150, tiles.get(2).cornerMin().x());
+        for (BoundingBox tile : tiles) {
+            assertEquals(new Extent(100, 100, 1), tile.extent());
+        }
+    }
+
+    /** A tile larger than the image is reduced to the image's size. */
+    @Test
+    void testImageSmallerThanTile() {
+        List<BoundingBox> tiles = TILING.tilesFor(new Extent(60, 40, 1));
+        assertEquals(1, tiles.size());
+        assertEquals(new Extent(60, 40, 1), tiles.get(0).extent());
+    }
+
+    /** Only objects touching a tile boundary in the interior of the image are discarded. */
+    @Test
+    void testTouchesInteriorBoundary() {
+        BoundingBox firstTile = TILING.tilesFor(IMAGE).get(0);
+
+        // Touches the left boundary of the first tile, which is also the image's boundary.
+        assertFalse(TILING.touchesInteriorBoundary(object(0, 10), firstTile, IMAGE));
+
+        // Touches the right boundary of the first tile, which is in the interior of the image.
+        assertTrue(TILING.touchesInteriorBoundary(object(90, 10), firstTile, IMAGE));
+
+        // Touches no boundary.
+        assertFalse(TILING.touchesInteriorBoundary(object(40, 10), firstTile, IMAGE));
+    }
+
+    /** A 10x10 object at a particular corner. */
+    private static ObjectMask object(int x, int y) {
+        return new ObjectMask(
+                BoundingBox.createReuse(new Point3i(x, y, 0), new Extent(10, 10, 1)));
+    }
+}
@@ -28,11 +28,14 @@ package org.anchoranalysis.image.io.bean.stack.reader;
 
 import java.nio.file.Path;
 import org.anchoranalysis.bean.AnchorBean;
+import org.anchoranalysis.core.functional.checked.CheckedFunction;
 import org.anchoranalysis.core.time.ExecutionTimeRecorder;
 import org.anchoranalysis.core.time.OperationContext;
 import org.anchoranalysis.image.core.stack.Stack;
 import org.anchoranalysis.image.io.ImageIOException;
 import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
 
 /**
  * Reads an image-{@link Stack} from the file-system.
@@ -54,20 +57,53 @@ public abstract class StackReader extends AnchorBean<StackReader> {
      *     wrong.
      */
     public Stack readStack(Path path, OperationContext context) throws ImageIOException {
-        OpenedImageFile openedFile = openFile(path, context.getExecutionTimeRecorder());
+        return readSingleStack(
+                path, context, openedFile -> openedFile.open(context.getLogger()).getFrame(0));
+    }
 
-        try {
-            if (openedFile.numberSeries() != 1) {
-                throw new ImageIOException("there must be exactly one series");
-            }
+    /**
+     * Like {@link #readStack(Path, OperationContext)} but reads only a region of the stack.
+     *
+     * <p>Depending on the implementation, this may avoid reading any voxels outside the region.
+     *
+     * @param path the path of the image-file to open.
+     * @param region the region of the stack to read.
+     * @param context context parameters.
+     * @return the stack that has been read, with the size of {@code region}.
+     * @throws ImageIOException if there is a series of stacks in the file, if {@code region} does
+     *     not lie inside the stack, or if anything else goes wrong.
+     */
+    public Stack readStack(Path path, BoundingBox region, OperationContext context)
+            throws ImageIOException {
+        return readSingleStack(
+                path,
+                context,
+                openedFile -> openedFile.open(0, region, context.getLogger()).getFrame(0));
+    }
 
-            return context.getExecutionTimeRecorder()
-                    .recordExecutionTime(
-                            "Opening stack for reading",
-                            () -> openedFile.open(context.getLogger()).getFrame(0));
-        } finally {
-            openedFile.close();
-        }
+    /**
+     * Like {@link #readStack(Path, OperationContext)} but reads the smallest resolution-level
+     * (from an image-pyramid) that is at least as large as {@code target} in the X and Y
+     * dimensions.
+     *
+     * <p>This avoids reading all voxels at full resolution, when the stack will anyway be
+     * downscaled towards {@code target} afterwards. If the file has no image-pyramid, or no
+     * resolution-level is sufficiently large, the full resolution is read.
+     *
+     * @param path the path of the image-file to open.
+     * @param target the minimal size in the X and Y dimensions of the stack that is read. The Z
+     *     dimension is ignored.
+     * @param context context parameters.
+     * @return the stack that has been read, which may be smaller than the full resolution.
+     * @throws ImageIOException if there is a series of stacks in the file, or if anything else goes
+     *     wrong.
+     */
+    public Stack readStackAtLeast(Path path, Extent target, OperationContext context)
+            throws ImageIOException {
+        return readSingleStack(
+                path,
+                context,
+                openedFile -> openedFile.openAtLeast(0, target, context.getLogger()).getFrame(0));
     }
 
     /**
@@ -83,4 +119,25 @@ public abstract class StackReader extends AnchorBean<StackReader> {
      */
     public abstract OpenedImageFile openFile(Path path, ExecutionTimeRecorder executionTimeRecorder)
             throws ImageIOException;
+
+    /** Reads a stack from a file that must contain exactly one series. */
+    private Stack readSingleStack(
+            Path path,
+            OperationContext context,
+            CheckedFunction<OpenedImageFile, Stack, ImageIOException> readFromFile)
+            throws ImageIOException {
+        OpenedImageFile openedFile = openFile(path, context.getExecutionTimeRecorder());
+
+        try {
+            if (openedFile.numberSeries() != 1) {
+                throw new ImageIOException("there must be exactly one series");
+            }
+
+            return context.getExecutionTimeRecorder()
+                    .recordExecutionTime(
+                            "Opening stack for reading", () -> readFromFile.apply(openedFile));
+        } finally {
+            openedFile.close();
+        }
+    }
 }
@@ -0,0 +1,99 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.bean.stack.writer;
+
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.Setter;
+import org.anchoranalysis.bean.BeanInstanceMap;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.bean.annotation.NonNegative;
+import org.anchoranalysis.bean.exception.BeanMisconfiguredException;
+import org.anchoranalysis.core.format.ImageFileFormat;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.output.StackWriteOptions;
+import org.anchoranalysis.image.io.stack.output.encode.PNGEncoder;
+
+/**
+ * Writes a PNG image, encoding directly from the voxel-buffers of the stack.
+ *
+ * <p>Unlike the ImageJ-based writer, the compression level and filtering are configurable, and
+ * large images are compressed concurrently.
+ *
+ * <p>The stack must have a single z-slice, with either one channel, or three channels when
+ * written as RGB. Unsigned 8-bit and 16-bit voxels are supported.
+ *
+ * <p>The extension .png is employed by default.
+ *
+ * @author Owen Feehan
+ */
+public class DirectPNG extends StackWriter {
+
+    /** The maximum permitted value of {@code deflateLevel}. */
+    private static final int MAX_DEFLATE_LEVEL = 9;
+
+    // START BEAN PROPERTIES
+    /**
+     * The deflate compression level, from 0 (no compression) to 9 (maximal compression).
+     *
+     * <p>1 is the fastest level that still compresses, and is suitable for intermediate outputs.
+     */
+    @BeanField @NonNegative @Getter @Setter private int deflateLevel = 6;
+
+    /**
+     * If true, rows are adaptively filtered before compression.
+     *
+     * <p>This usually produces smaller files, but takes additional time.
+     */
+    @BeanField @Getter @Setter private boolean filter = true;
+    // END BEAN PROPERTIES
+
+    @Override
+    public void checkMisconfigured(BeanInstanceMap defaultInstances)
+            throws BeanMisconfiguredException {
+        super.checkMisconfigured(defaultInstances);
+        if (deflateLevel > MAX_DEFLATE_LEVEL) {
+            throw new BeanMisconfiguredException(
+                    String.format(
+                            "deflateLevel must be between 0 and %d, but is %d",
+                            MAX_DEFLATE_LEVEL, deflateLevel));
+        }
+    }
+
+    @Override
+    public ImageFileFormat fileFormat(StackWriteOptions writeOptions) {
+        return ImageFileFormat.PNG;
+    }
+
+    @Override
+    public void writeStack(Stack stack, Path filePath, StackWriteOptions options)
+            throws ImageIOException {
+        new PNGEncoder(deflateLevel, filter)
+                .encode(stack, options.getAttributes().writeAsRGB(stack), filePath);
+    }
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.bean.stack.writer;
+
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.Setter;
+import org.anchoranalysis.bean.BeanInstanceMap;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.bean.annotation.NonNegative;
+import org.anchoranalysis.bean.exception.BeanMisconfiguredException;
+import org.anchoranalysis.core.format.ImageFileFormat;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.output.StackWriteOptions;
+import org.anchoranalysis.image.io.stack.output.encode.TiffEncoder;
+
+/**
+ * Writes a TIFF image, encoding directly from the voxel-buffers of the stack.
+ *
+ * <p>Unlike the ImageJ-based writer, the compression level is configurable, and strips of the
+ * image are encoded concurrently.
+ *
+ * <p>Each z-slice of each channel is written as a separate page, or each z-slice as a single page
+ * when written as RGB. Unsigned 8, 16 and 32-bit, and float voxels are supported.
+ *
+ * <p>The extension .tif is employed by default.
+ *
+ * @author Owen Feehan
+ */
+public class DirectTiff extends StackWriter {
+
+    /** The maximum permitted value of {@code deflateLevel}. */
+    private static final int MAX_DEFLATE_LEVEL = 9;
+
+    // START BEAN PROPERTIES
+    /**
+     * The deflate compression level, from 0 (no compression) to 9 (maximal compression).
+     *
+     * <p>1 is the fastest level that still compresses, and is suitable for intermediate outputs.
+     */
+    @BeanField @NonNegative @Getter @Setter private int deflateLevel = 6;
+    // END BEAN PROPERTIES
+
+    @Override
+    public void checkMisconfigured(BeanInstanceMap defaultInstances)
+            throws BeanMisconfiguredException {
+        super.checkMisconfigured(defaultInstances);
+        if (deflateLevel > MAX_DEFLATE_LEVEL) {
+            throw new BeanMisconfiguredException(
+                    String.format(
+                            "deflateLevel must be between 0 and %d, but is %d",
+                            MAX_DEFLATE_LEVEL, deflateLevel));
+        }
+    }
+
+    @Override
+    public ImageFileFormat fileFormat(StackWriteOptions writeOptions) {
+        return ImageFileFormat.TIFF;
+    }
+
+    @Override
+    public void writeStack(Stack stack, Path filePath, StackWriteOptions options)
+            throws ImageIOException {
+        new TiffEncoder(deflateLevel)
+                .encode(stack, options.getAttributes().writeAsRGB(stack), filePath);
+    }
+}
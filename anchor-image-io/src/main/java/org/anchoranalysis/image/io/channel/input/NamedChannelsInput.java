@@ -26,10 +26,14 @@
 
 package org.anchoranalysis.image.io.channel.input;
 
+import java.util.Optional;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.identifier.provider.store.NamedProviderStore;
 import org.anchoranalysis.core.identifier.provider.store.StoreSupplier;
+import org.anchoranalysis.core.index.GetOperationFailedException;
 import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.error.ErrorReporter;
+import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.dimensions.Dimensions;
 import org.anchoranalysis.image.core.stack.ImageMetadata;
 import org.anchoranalysis.image.io.ImageIOException;
@@ -46,6 +50,12 @@ import org.anchoranalysis.image.io.stack.time.TimeSeries;
  */
 public abstract class NamedChannelsInput implements ProvidesStackInput {
 
+    /**
+     * The channels for the first series, with every channel already read, if {@link #prefetch} has
+     * succeeded.
+     */
+    private volatile Optional<NamedChannelsMap> prefetched = Optional.empty();
+
     /**
      * Number of series that exist.
      *
@@ -108,13 +118,44 @@ public abstract class NamedChannelsInput implements ProvidesStackInput {
      */
     public abstract ImageMetadata metadata(int seriesIndex, Logger logger) throws ImageIOException;
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Every channel in the first series is read, and retained for subsequent use by {@link
+     * #addToStoreInferNames} and {@link #addToStoreWithName}. This is only effective when the
+     * {@link NamedChannelsMap} caches the channels it reads.
+     */
+    @Override
+    public long prefetch(Logger logger) {
+        try {
+            NamedChannelsMap namedChannels = createChannelsForSeries(0, logger);
+            long numberBytes = 0;
+            for (String channelName : namedChannels.channelNames()) {
+                Channel channel = namedChannels.getChannel(channelName, 0, logger);
+                numberBytes +=
+                        channel.extent().calculateVolume()
+                                * channel.getVoxelDataType().numberBytes();
+            }
+            prefetched = Optional.of(namedChannels);
+            return numberBytes;
+        } catch (ImageIOException | GetOperationFailedException e) {
+            // Ignored, as the same error will occur when the input is processed.
+            return 0;
+        }
+    }
+
+    @Override
+    public void close(ErrorReporter errorReporter) {
+        prefetched = Optional.empty();
+    }
+
     @Override
     public void addToStoreInferNames(
             NamedProviderStore<TimeSeries> stacks, int seriesIndex, Logger logger)
             throws OperationFailedException {
         // Adds each channel as a separate stack
         try {
-            NamedChannelsMap namedChannels = createChannelsForSeries(seriesIndex, logger);
+            NamedChannelsMap namedChannels = channelsForSeries(seriesIndex, logger);
             // Apply it only to first time-series frame
             namedChannels.addAsSeparateChannels(stacks, 0, logger);
 
@@ -142,11 +183,22 @@ public abstract class NamedChannelsInput implements ProvidesStackInput {
             throws OperationFailedException {
         // Apply it only to first time-series frame
         try {
-            NamedChannelsMap namedChannels = createChannelsForSeries(seriesIndex, logger);
+            NamedChannelsMap namedChannels = channelsForSeries(seriesIndex, logger);
             return new TimeSeries(namedChannels.allChannelsAsStack(0, logger).get());
 
         } catch (ImageIOException e) {
             throw new OperationFailedException(e);
         }
     }
+
+    /** The channels for a particular series, reusing any channels that have been prefetched. */
+    private NamedChannelsMap channelsForSeries(int seriesIndex, Logger logger)
+            throws ImageIOException {
+        Optional<NamedChannelsMap> existing = prefetched;
+        if (seriesIndex == 0 && existing.isPresent()) {
+            return existing.get();
+        } else {
+            return createChannelsForSeries(seriesIndex, logger);
+        }
+    }
 }
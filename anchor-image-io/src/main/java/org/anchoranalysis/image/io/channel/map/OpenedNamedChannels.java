@@ -26,9 +26,12 @@
 
 package org.anchoranalysis.image.io.channel.map;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.identifier.provider.store.NamedProviderStore;
 import org.anchoranalysis.core.identifier.provider.store.StoreSupplier;
@@ -69,12 +72,33 @@ public class OpenedNamedChannels implements NamedChannelsMap {
     // END REQUIRED ARGUMENTS
 
     /**
-     * The currently opened {@link TimeSeries}.
+     * The currently opened {@link TimeSeries}, when channels cannot be efficiently opened
+     * individually.
      *
      * <p>null until first opened.
      */
     private TimeSeries timeSeries;
 
+    /**
+     * Channels that have already been opened, indexed by time-point and channel-index, when
+     * channels can be efficiently opened individually.
+     *
+     * <p>Like {@code timeSeries}, each channel is retained once opened, so the same instance is
+     * always returned for a particular channel and time-point.
+     */
+    private final Map<ChannelIndex, Channel> channels = new HashMap<>();
+
+    /** Identifies a channel at a particular time-point. */
+    @Value
+    private static class ChannelIndex {
+
+        /** The index of the time-point, zero-indexed. */
+        private int timeIndex;
+
+        /** The index of the channel, zero-indexed. */
+        private int channelIndex;
+    }
+
     @Override
     public Dimensions dimensions(Logger logger) throws ImageIOException {
         return openedFile.dimensionsForSeries(seriesIndex, logger);
@@ -91,9 +115,7 @@ public class OpenedNamedChannels implements NamedChannelsMap {
         }
 
         try {
-            Stack stack = createTimeSeries(logger).getFrame(timeIndex);
-
-            if (index >= stack.getNumberChannels()) {
+            if (index >= openedFile.numberChannels(logger)) {
                 throw new GetOperationFailedException(
                         channelName,
                         String.format(
@@ -101,9 +123,9 @@ public class OpenedNamedChannels implements NamedChannelsMap {
                                 channelName));
             }
 
-            return stack.getChannel(channelMap.getException(channelName));
+            return openChannel(timeIndex, index, logger);
 
-        } catch (OperationFailedException e) {
+        } catch (ImageIOException e) {
             throw new GetOperationFailedException(channelName, e);
         }
     }
@@ -118,25 +140,19 @@ public class OpenedNamedChannels implements NamedChannelsMap {
         }
 
         try {
-            Stack stack = createTimeSeries(logger).getFrame(timeIndex);
-
-            if (index >= stack.getNumberChannels()) {
+            if (index >= openedFile.numberChannels(logger)) {
                 return Optional.empty();
             }
 
-            return Optional.of(stack.getChannel(index));
-        } catch (OperationFailedException e) {
+            return Optional.of(openChannel(timeIndex, index, logger));
+        } catch (ImageIOException e) {
             throw new GetOperationFailedException(channelName, e);
         }
     }
 
     @Override
     public int sizeT(Logger logger) throws ImageIOException {
-        try {
-            return createTimeSeries(logger).size();
-        } catch (OperationFailedException e) {
-            throw new ImageIOException("Cannot establish the size of the time-dimension", e);
-        }
+        return openedFile.numberFrames(logger);
     }
 
     @Override
@@ -192,14 +208,32 @@ public class OpenedNamedChannels implements NamedChannelsMap {
         return StoreSupplier.cache(() -> stackForAllChannels(t, logger));
     }
 
+    /**
+     * Opens a single channel at a particular time-point.
+     *
+     * <p>If {@link OpenedImageFile#canOpenChannelEfficiently}, only the channels that are requested
+     * are read from the file, each of which is retained. Otherwise, the entire {@link TimeSeries}
+     * is read once, and retained.
+     */
+    private Channel openChannel(int timeIndex, int channelIndex, Logger logger)
+            throws ImageIOException {
+        if (!openedFile.canOpenChannelEfficiently()) {
+            return createTimeSeries(logger).getFrame(timeIndex).getChannel(channelIndex);
+        }
+
+        ChannelIndex key = new ChannelIndex(timeIndex, channelIndex);
+        Channel channel = channels.get(key);
+        if (channel == null) {
+            channel = openedFile.openChannel(seriesIndex, timeIndex, channelIndex, logger);
+            channels.put(key, channel);
+        }
+        return channel;
+    }
+
     /** Create the {@link TimeSeries} from which channels are extracted. */
-    private TimeSeries createTimeSeries(Logger logger) throws OperationFailedException {
+    private TimeSeries createTimeSeries(Logger logger) throws ImageIOException {
         if (timeSeries == null) {
-            try {
-                timeSeries = openedFile.open(seriesIndex, logger);
-            } catch (ImageIOException e) {
-                throw new OperationFailedException(e);
-            }
+            timeSeries = openedFile.open(seriesIndex, logger);
         }
         return timeSeries;
     }
@@ -50,4 +50,45 @@ public class HDF5PathHelper {
 
     /** Attribute for z dimension of the extent. */
     public static final String EXTENT_Z = "z";
+
+    /**
+     * Dataset in a <i>packed</i> HDF5 file with the voxels of all object-masks, concatenated into a
+     * single one-dimensional array.
+     *
+     * <p>Each object's voxels are stored slice after slice, and row after row within a slice.
+     */
+    public static final String PACKED_VOXELS = "/ObjectsPacked/voxels";
+
+    /**
+     * Dataset in a <i>packed</i> HDF5 file with a row for each object, describing where its voxels
+     * are stored and its bounding-box.
+     *
+     * <p>The columns are indexed by the {@code PACKED_INDEX_} constants.
+     */
+    public static final String PACKED_INDEX = "/ObjectsPacked/index";
+
+    /** Column in {@link #PACKED_INDEX} for the offset of an object's voxels in the array. */
+    public static final int PACKED_INDEX_OFFSET = 0;
+
+    /** Column in {@link #PACKED_INDEX} for the first of three columns for the extent (x, y, z). */
+    public static final int PACKED_INDEX_EXTENT = 1;
+
+    /**
+     * Column in {@link #PACKED_INDEX} for the first of three columns for the minimum corner (x, y,
+     * z) of the bounding-box.
+     */
+    public static final int PACKED_INDEX_CORNER = 4;
+
+    /** The number of columns in {@link #PACKED_INDEX}. */
+    public static final int PACKED_INDEX_NUMBER_COLUMNS = 7;
+
+    /**
+     * The path in the HDF5 file for a particular object, when <i>not</i> packed.
+     *
+     * @param index the index of the object in the collection.
+     * @return the path to the object's dataset.
+     */
+    public static String pathForObject(int index) {
+        return String.format("%s/%08d", OBJECTS_ROOT_WITH_SEPERATORS, index);
+    }
 }
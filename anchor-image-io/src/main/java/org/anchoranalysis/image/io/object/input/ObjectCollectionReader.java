@@ -31,9 +31,9 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.anchoranalysis.core.format.NonImageFileFormat;
 import org.anchoranalysis.core.serialize.DeserializationFailedException;
-import org.anchoranalysis.core.serialize.Deserializer;
 import org.anchoranalysis.core.time.OperationContext;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
 
 /**
  * Reads an {@link ObjectCollection} from the filesystem
@@ -43,7 +43,7 @@ import org.anchoranalysis.image.voxel.object.ObjectCollection;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ObjectCollectionReader {
 
-    private static final Deserializer<ObjectCollection> HDF5 = new ReadObjectsFromHDF5();
+    private static final ReadObjectsFromHDF5 HDF5 = new ReadObjectsFromHDF5();
 
     /**
      * Reads an object-collection from a path (or path prefix) trying different methods to read the
@@ -93,6 +93,27 @@ public class ObjectCollectionReader {
         }
     }
 
+    /**
+     * Reads a single object from an object-collection in a HDF5 file, without reading any other
+     * objects.
+     *
+     * <p>This is particularly efficient when the objects were written in packed form, with {@link
+     * org.anchoranalysis.image.io.object.output.hdf5.ObjectCollectionWriter#generatorPacked()}.
+     *
+     * @param path path to the HDF5 file, which should have a {@code .h5} extension.
+     * @param index the index of the object in the collection (zero-indexed).
+     * @return the object read from this path.
+     * @throws DeserializationFailedException if the file does not exist, {@code index} is out of
+     *     range, or anything else prevents the object's deserialization.
+     */
+    public static ObjectMask createObjectFromPath(Path path, int index)
+            throws DeserializationFailedException {
+        if (!path.toFile().exists()) {
+            throw new DeserializationFailedException("File not found at " + path);
+        }
+        return HDF5.deserializeObject(path, index);
+    }
+
     /**
      * Whether a path has a suitable extension to be considered a HDF5 file?
      *
@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.object.input;
+
+import ch.systemsx.cisd.hdf5.IHDF5Reader;
+import java.util.Arrays;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.anchoranalysis.image.io.object.HDF5PathHelper;
+import org.anchoranalysis.image.voxel.Voxels;
+import org.anchoranalysis.image.voxel.buffer.VoxelBufferWrap;
+import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedByteBuffer;
+import org.anchoranalysis.image.voxel.factory.VoxelsFactory;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectCollectionFactory;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+
+/**
+ * Reads object-masks from a HDF5 file, where they are <i>packed</i> into a single dataset.
+ *
+ * <p>See {@link HDF5PathHelper#PACKED_VOXELS} and {@link HDF5PathHelper#PACKED_INDEX} for the
+ * layout.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PackedObjectsHDF5Reader {
+
+    /** The maximum number of voxels that are read together in a single array. */
+    private static final long MAX_VOXELS_READ_TOGETHER = Integer.MAX_VALUE - 8L;
+
+    /**
+     * Whether the objects in an opened HDF5 file are packed?
+     *
+     * @param reader a reader for the opened HDF5 file.
+     * @return true if the packed index exists in the file.
+     */
+    public static boolean isPacked(IHDF5Reader reader) {
+        return reader.object().exists(HDF5PathHelper.PACKED_INDEX);
+    }
+
+    /**
+     * Reads all objects.
+     *
+     * <p>The voxels of all objects are read together, in bulk, unless too numerous for a single
+     * array.
+     *
+     * @param reader a reader for the opened HDF5 file.
+     * @return a newly created collection, containing newly allocated voxel-buffers.
+     */
+    public static ObjectCollection readObjects(IHDF5Reader reader) {
+        long[][] index = reader.int64().readMatrix(HDF5PathHelper.PACKED_INDEX);
+
+        long[] last = index[index.length - 1];
+        long totalVoxels =
+                last[HDF5PathHelper.PACKED_INDEX_OFFSET] + extentFor(last).calculateVolume();
+
+        if (totalVoxels <= MAX_VOXELS_READ_TOGETHER) {
+            byte[] voxels = reader.uint8().readArray(HDF5PathHelper.PACKED_VOXELS);
+            return ObjectCollectionFactory.mapFromRange(
+                    0,
+                    index.length,
+                    i ->
+                            createObject(
+                                    index[i],
+                                    voxels,
+                                    (int) index[i][HDF5PathHelper.PACKED_INDEX_OFFSET]));
+        } else {
+            return ObjectCollectionFactory.mapFromRange(
+                    0, index.length, i -> readObject(reader, index[i]));
+        }
+    }
+
+    /**
+     * Reads a single object, without reading the voxels of any other object.
+     *
+     * @param reader a reader for the opened HDF5 file.
+     * @param objectIndex the index of the object in the collection.
+     * @return a newly created {@link ObjectMask}, containing newly allocated voxel-buffers.
+     */
+    public static ObjectMask readObject(IHDF5Reader reader, int objectIndex) {
+        long[][] rows =
+                reader.int64()
+                        .readMatrixBlockWithOffset(
+                                HDF5PathHelper.PACKED_INDEX,
+                                1,
+                                HDF5PathHelper.PACKED_INDEX_NUMBER_COLUMNS,
+                                objectIndex,
+                                0);
+        return readObject(reader, rows[0]);
+    }
+
+    /** Reads a single object, as described by a row in the index. */
+    private static ObjectMask readObject(IHDF5Reader reader, long[] row) {
+        byte[] voxels =
+                reader.uint8()
+                        .readArrayBlockWithOffset(
+                                HDF5PathHelper.PACKED_VOXELS,
+                                extentFor(row).calculateVolumeAsInt(),
+                                row[HDF5PathHelper.PACKED_INDEX_OFFSET]);
+        return createObject(row, voxels, 0);
+    }
+
+    /** Creates an object, as described by a row in the index, copying its voxels into slices. */
+    private static ObjectMask createObject(long[] row, byte[] voxels, int offset) {
+        Extent extent = extentFor(row);
+
+        Voxels<UnsignedByteBuffer> created =
+                VoxelsFactory.getUnsignedByte().createUninitialized(extent);
+        int area = extent.areaXY();
+        for (int z = 0; z < extent.z(); z++) {
+            int sliceOffset = offset + (z * area);
+            created.replaceSlice(
+                    z,
+                    VoxelBufferWrap.unsignedByteArray(
+                            Arrays.copyOfRange(voxels, sliceOffset, sliceOffset + area)));
+        }
+
+        Point3i corner =
+                new Point3i(
+                        (int) row[HDF5PathHelper.PACKED_INDEX_CORNER],
+                        (int) row[HDF5PathHelper.PACKED_INDEX_CORNER + 1],
+                        (int) row[HDF5PathHelper.PACKED_INDEX_CORNER + 2]);
+        return new ObjectMask(BoundingBox.createReuse(corner, extent), created);
+    }
+
+    /** The extent of an object, as described by a row in the index. */
+    private static Extent extentFor(long[] row) {
+        return new Extent(
+                (int) row[HDF5PathHelper.PACKED_INDEX_EXTENT],
+                (int) row[HDF5PathHelper.PACKED_INDEX_EXTENT + 1],
+                (int) row[HDF5PathHelper.PACKED_INDEX_EXTENT + 2]);
+    }
+}
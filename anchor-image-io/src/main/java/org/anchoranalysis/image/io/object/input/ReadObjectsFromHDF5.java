@@ -40,11 +40,13 @@ import org.anchoranalysis.image.io.object.output.hdf5.HDF5ObjectsGenerator;
 import org.anchoranalysis.image.io.object.output.hdf5.ObjectCollectionWriter;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
 import org.anchoranalysis.image.voxel.object.ObjectCollectionFactory;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
 
 /**
  * Reads a {@link ObjectMaskCollection} that has been serialized to a HDF5 file.
  *
- * <p>The serialized file should be in the form created by {@link ObjectCollectionWriter}.
+ * <p>The serialized file should be in the form created by {@link ObjectCollectionWriter}, either
+ * with a dataset for each object, or with all objects packed into a single dataset.
  *
  * @author Owen Feehan
  */
@@ -58,15 +60,44 @@ class ReadObjectsFromHDF5 implements Deserializer<ObjectCollection> {
 
             return readObjects(reader, HDF5PathHelper.OBJECTS_ROOT_WITH_SEPERATORS);
 
-        } catch (HDF5FileNotFoundException e) {
-            throw new DeserializationFailedException(
-                    String.format("HDF5 file not found at %s", path));
         } catch (Exception e) {
-            throw new DeserializationFailedException(
-                    String.format(
-                            "An error occurred while reading HDF5 at %s with rootPath=%s",
-                            path, HDF5PathHelper.OBJECTS_ROOT_WITH_SEPERATORS),
-                    e);
+            throw failedToRead(path, e);
+        }
+    }
+
+    /**
+     * Reads a single object, without reading any other objects.
+     *
+     * @param path the path to the HDF5 file.
+     * @param index the index of the object in the collection (zero-indexed).
+     * @return the deserialized object.
+     * @throws DeserializationFailedException if the object cannot be read, including if {@code
+     *     index} is out of range.
+     */
+    public ObjectMask deserializeObject(Path path, int index)
+            throws DeserializationFailedException {
+
+        try (IHDF5Reader reader = HDF5Factory.openForReading(path.toString())) {
+
+            int numberObjects = numberObjects(reader);
+            if (index < 0 || index >= numberObjects) {
+                throw new DeserializationFailedException(
+                        String.format(
+                                "Object %d was requested, but only %d objects exist.",
+                                index, numberObjects));
+            }
+
+            if (PackedObjectsHDF5Reader.isPacked(reader)) {
+                return PackedObjectsHDF5Reader.readObject(reader, index);
+            } else {
+                return ObjectMaskHDF5Reader.readObject(
+                        reader, HDF5PathHelper.pathForObject(index));
+            }
+
+        } catch (DeserializationFailedException e) {
+            throw e;
+        } catch (Exception e) {
+            throw failedToRead(path, e);
         }
     }
 
@@ -87,13 +118,15 @@ class ReadObjectsFromHDF5 implements Deserializer<ObjectCollection> {
         // First check the number of objects expected
         // if the the rootPath exists in the HDF5, if not, it's an indication that there's no
         // objects present
-        int numberObjects =
-                reader.uint32().getAttr("/", HDF5ObjectsGenerator.NUMBER_OBJECTS_ATTRIBUTE_NAME);
+        int numberObjects = numberObjects(reader);
         if (numberObjects == 0) {
             return ObjectCollectionFactory.empty();
         }
 
-        ObjectCollection out = readObjectsNoCheck(reader, rootPath);
+        ObjectCollection out =
+                PackedObjectsHDF5Reader.isPacked(reader)
+                        ? PackedObjectsHDF5Reader.readObjects(reader)
+                        : readObjectsNoCheck(reader, rootPath);
 
         if (out.size() != numberObjects) {
             throw new DeserializationFailedException(
@@ -104,6 +137,25 @@ class ReadObjectsFromHDF5 implements Deserializer<ObjectCollection> {
         return out;
     }
 
+    /** Creates an exception to describe an error that occurred while reading. */
+    private static DeserializationFailedException failedToRead(Path path, Exception exception) {
+        if (exception instanceof HDF5FileNotFoundException) {
+            return new DeserializationFailedException(
+                    String.format("HDF5 file not found at %s", path));
+        } else {
+            return new DeserializationFailedException(
+                    String.format(
+                            "An error occurred while reading HDF5 at %s with rootPath=%s",
+                            path, HDF5PathHelper.OBJECTS_ROOT_WITH_SEPERATORS),
+                    exception);
+        }
+    }
+
+    /** The total number of objects, as recorded in an attribute. */
+    private static int numberObjects(IHDF5Reader reader) {
+        return reader.uint32().getAttr("/", HDF5ObjectsGenerator.NUMBER_OBJECTS_ATTRIBUTE_NAME);
+    }
+
     /**
      * Reads the objects without doing any check on the total number of objects expected or
      * received.
@@ -30,7 +30,6 @@ import ch.systemsx.cisd.hdf5.HDF5Factory;
 import ch.systemsx.cisd.hdf5.IHDF5Writer;
 import java.nio.file.Path;
 import java.util.Optional;
-import lombok.AllArgsConstructor;
 import org.anchoranalysis.core.log.Logger;
 import org.anchoranalysis.image.io.object.HDF5PathHelper;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
@@ -40,9 +39,12 @@ import org.anchoranalysis.io.output.bean.OutputWriteSettings;
 /**
  * A generator that writes a {@link ObjectCollection} to a HDF5 file.
  *
+ * <p>By default, each object is written as a separate dataset. Alternatively, all objects can be
+ * <i>packed</i> into a single dataset, together with an index, which is much faster to write and
+ * read when there are many objects. See {@link HDF5PathHelper#PACKED_VOXELS}.
+ *
  * @author Owen Feehan
  */
-@AllArgsConstructor
 public class HDF5ObjectsGenerator extends OneStageGenerator<ObjectCollection> {
 
     /** Name of the attribute in the root of the HDF5 that stores the number of objects. */
@@ -52,11 +54,35 @@ public class HDF5ObjectsGenerator extends OneStageGenerator<ObjectCollection> {
     /** Whether to use compression when writing the object-masks in HDF5. */
     private final boolean compressed;
 
+    /** Whether to pack all object-masks into a single dataset, rather than a dataset for each. */
+    private final boolean packed;
+
     // END REQUIRED ARGUMENTS
 
-    /** Creates with compression activated. */
+    /** Creates with compression activated, and a dataset for each object. */
     public HDF5ObjectsGenerator() {
-        this.compressed = true;
+        this(true);
+    }
+
+    /**
+     * Creates with a dataset for each object.
+     *
+     * @param compressed whether to use compression when writing the object-masks in HDF5.
+     */
+    public HDF5ObjectsGenerator(boolean compressed) {
+        this(compressed, false);
+    }
+
+    /**
+     * Creates with a choice of layout.
+     *
+     * @param compressed whether to use compression when writing the object-masks in HDF5.
+     * @param packed whether to pack all object-masks into a single dataset, rather than a dataset
+     *     for each.
+     */
+    public HDF5ObjectsGenerator(boolean compressed, boolean packed) {
+        this.compressed = compressed;
+        this.packed = packed;
     }
 
     @Override
@@ -65,12 +91,19 @@ public class HDF5ObjectsGenerator extends OneStageGenerator<ObjectCollection> {
 
         addObjectsSizeAttribute(writer, element);
         try {
-            for (int i = 0; i < element.size(); i++) {
+            if (packed) {
+                new PackedObjectsHDF5Writer(writer, compressed).writeObjects(element);
+            } else {
+                for (int i = 0; i < element.size(); i++) {
 
-                ObjectMaskHDF5Writer writerHDF5 =
-                        new ObjectMaskHDF5Writer(
-                                element.get(i), pathForObject(i), writer, compressed);
-                writerHDF5.writeObject();
+                    ObjectMaskHDF5Writer writerHDF5 =
+                            new ObjectMaskHDF5Writer(
+                                    element.get(i),
+                                    HDF5PathHelper.pathForObject(i),
+                                    writer,
+                                    compressed);
+                    writerHDF5.writeObject();
+                }
             }
 
         } finally {
@@ -90,9 +123,4 @@ public class HDF5ObjectsGenerator extends OneStageGenerator<ObjectCollection> {
     private static void addObjectsSizeAttribute(IHDF5Writer writer, ObjectCollection objects) {
         writer.uint32().setAttr("/", NUMBER_OBJECTS_ATTRIBUTE_NAME, objects.size());
     }
-
-    /** The path in the HDF5 file for a particular object. */
-    private static String pathForObject(int index) {
-        return String.format("%s/%08d", HDF5PathHelper.OBJECTS_ROOT_WITH_SEPERATORS, index);
-    }
 }
@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.object.output.hdf5;
+
+import ch.systemsx.cisd.hdf5.HDF5IntStorageFeatures;
+import ch.systemsx.cisd.hdf5.IHDF5Writer;
+import java.nio.ByteBuffer;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.image.io.object.HDF5PathHelper;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
+
+/**
+ * Writes all object-masks in a collection into two datasets in a HDF5 file.
+ *
+ * <ul>
+ *   <li>{@link HDF5PathHelper#PACKED_VOXELS}: a chunked one-dimensional array with the voxels of
+ *       every object-mask, one after the other.
+ *   <li>{@link HDF5PathHelper#PACKED_INDEX}: a matrix with a row for each object-mask, giving the
+ *       offset of its voxels in the array, its extent and the minimum corner of its bounding-box.
+ * </ul>
+ *
+ * <p>Voxels are copied in bulk, a slice at a time, into a block that is written whenever full.
+ * This avoids the overhead of creating a dataset and attributes for each object.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+class PackedObjectsHDF5Writer {
+
+    /** The number of voxels in each chunk of the HDF5 dataset. */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /** The number of voxels written to the HDF5 dataset in a single operation. */
+    private static final int BLOCK_SIZE = CHUNK_SIZE * 16;
+
+    /** An opened-writer for the HDF5 file. */
+    private final IHDF5Writer writer;
+
+    /** Whether to use compression or not. */
+    private final boolean compression;
+
+    /**
+     * Writes the object-masks to the HDF5 file.
+     *
+     * <p>Nothing is written when the collection is empty.
+     *
+     * @param objects the object-masks to write.
+     */
+    public void writeObjects(ObjectCollection objects) {
+        if (objects.isEmpty()) {
+            return;
+        }
+
+        long[][] index = new long[objects.size()][HDF5PathHelper.PACKED_INDEX_NUMBER_COLUMNS];
+        long totalVoxels = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            ObjectMask object = objects.get(i);
+            long[] row = index[i];
+            row[HDF5PathHelper.PACKED_INDEX_OFFSET] = totalVoxels;
+            addTuple(row, HDF5PathHelper.PACKED_INDEX_EXTENT, object.extent().asTuple());
+            addTuple(row, HDF5PathHelper.PACKED_INDEX_CORNER, object.boundingBox().cornerMin());
+            totalVoxels += object.extent().calculateVolume();
+        }
+
+        writer.uint8()
+                .createArray(
+                        HDF5PathHelper.PACKED_VOXELS,
+                        totalVoxels,
+                        (int) Math.min(CHUNK_SIZE, totalVoxels),
+                        compression
+                                ? HDF5IntStorageFeatures.INT_DEFLATE_UNSIGNED
+                                : HDF5IntStorageFeatures.INT_NO_COMPRESSION_UNSIGNED);
+        writeVoxels(objects, totalVoxels);
+
+        writer.int64()
+                .writeMatrix(
+                        HDF5PathHelper.PACKED_INDEX,
+                        index,
+                        compression
+                                ? HDF5IntStorageFeatures.INT_DEFLATE
+                                : HDF5IntStorageFeatures.INT_NO_COMPRESSION);
+    }
+
+    /** Copies the voxels of each object into blocks, which are written to the voxels dataset. */
+    private void writeVoxels(ObjectCollection objects, long totalVoxels) {
+        byte[] block = new byte[(int) Math.min(BLOCK_SIZE, totalVoxels)];
+        int blockFilled = 0;
+        long blockOffset = 0;
+
+        for (ObjectMask object : objects) {
+            Extent extent = object.extent();
+            for (int z = 0; z < extent.z(); z++) {
+                ByteBuffer slice = object.sliceBufferLocal(z).getDelegate().duplicate();
+                slice.clear();
+
+                int remaining = extent.areaXY();
+                while (remaining > 0) {
+                    int toCopy = Math.min(remaining, block.length - blockFilled);
+                    slice.get(block, blockFilled, toCopy);
+                    blockFilled += toCopy;
+                    remaining -= toCopy;
+
+                    if (blockFilled == block.length) {
+                        writeBlock(block, blockFilled, blockOffset);
+                        blockOffset += blockFilled;
+                        blockFilled = 0;
+                    }
+                }
+            }
+        }
+
+        if (blockFilled > 0) {
+            writeBlock(block, blockFilled, blockOffset);
+        }
+    }
+
+    /** Writes the first {@code size} elements of {@code block} at an offset in the dataset. */
+    private void writeBlock(byte[] block, int size, long offset) {
+        writer.uint8().writeArrayBlockWithOffset(HDF5PathHelper.PACKED_VOXELS, block, size, offset);
+    }
+
+    /** Places the three components of a tuple into consecutive columns of a row. */
+    private static void addTuple(long[] row, int firstColumn, ReadableTuple3i tuple) {
+        row[firstColumn] = tuple.x();
+        row[firstColumn + 1] = tuple.y();
+        row[firstColumn + 2] = tuple.z();
+    }
+}
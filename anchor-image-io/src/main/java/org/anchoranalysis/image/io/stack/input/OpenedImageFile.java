@@ -26,9 +26,12 @@
 
 package org.anchoranalysis.image.io.stack.input;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.dimensions.Dimensions;
 import org.anchoranalysis.image.core.stack.ImageLocation;
 import org.anchoranalysis.image.core.stack.ImageMetadata;
@@ -37,6 +40,8 @@ import org.anchoranalysis.image.core.stack.Stack;
 import org.anchoranalysis.image.io.ImageIOException;
 import org.anchoranalysis.image.io.stack.time.TimeSeries;
 import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
 
 /**
  * An image file that has been opened for reading containing one or more series of image-{@link
@@ -91,6 +96,143 @@ public interface OpenedImageFile extends AutoCloseable {
      */
     TimeSeries open(int seriesIndex, Logger logger) throws ImageIOException;
 
+    /**
+     * Opens only a region of a series, when we don't have a specific-type.
+     *
+     * <p>By default, the entire series is read, and the region is then extracted. Implementations
+     * should override this, if they can read only the voxels inside the region.
+     *
+     * @param seriesIndex the index of the series of the open, zero-indexed.
+     * @param region the region to read, which must lie inside {@link #dimensionsForSeries}.
+     * @param logger the logger.
+     * @return a time-sequence of images, each of which has the size of {@code region}.
+     * @throws ImageIOException if an error occurs reading the image during this operation, or if
+     *     {@code region} does not lie inside the image.
+     */
+    default TimeSeries open(int seriesIndex, BoundingBox region, Logger logger)
+            throws ImageIOException {
+        checkRegionInside(region, dimensionsForSeries(seriesIndex, logger));
+
+        TimeSeries series = open(seriesIndex, logger);
+
+        List<Stack> cropped = new ArrayList<>(series.size());
+        for (Stack stack : series) {
+            try {
+                cropped.add(
+                        stack.mapChannel(
+                                channel ->
+                                        new Channel(
+                                                channel.extract().region(region, false),
+                                                channel.resolution())));
+            } catch (OperationFailedException e) {
+                throw new ImageIOException("Failed to extract a region from an image", e);
+            }
+        }
+        return new TimeSeries(cropped.stream());
+    }
+
+    /**
+     * Opens a single channel at a single time-point of a series, when we don't have a
+     * specific-type.
+     *
+     * <p>By default, the entire series is read, and the channel is then extracted. Implementations
+     * should override this, and {@link #canOpenChannelEfficiently}, if they can read only the
+     * voxels of a single channel.
+     *
+     * @param seriesIndex the index of the series of the open, zero-indexed.
+     * @param timeIndex the index of the time-point (frame) to open, zero-indexed.
+     * @param channelIndex the index of the channel to open, zero-indexed.
+     * @param logger the logger.
+     * @return the channel.
+     * @throws ImageIOException if an error occurs reading the image during this operation, or if
+     *     either index does not exist in the image.
+     */
+    default Channel openChannel(int seriesIndex, int timeIndex, int channelIndex, Logger logger)
+            throws ImageIOException {
+        checkChannelInside(timeIndex, channelIndex, numberFrames(logger), numberChannels(logger));
+        return open(seriesIndex, logger).getFrame(timeIndex).getChannel(channelIndex);
+    }
+
+    /**
+     * Whether {@link #openChannel} reads only the voxels of the requested channel, rather than the
+     * entire series.
+     *
+     * @return true if opening a single channel is cheaper than opening the entire series.
+     */
+    default boolean canOpenChannelEfficiently() {
+        return false;
+    }
+
+    /**
+     * Opens a particular resolution-level of an image-pyramid, when we don't have a specific-type.
+     *
+     * <p>By default, only the full resolution (level 0) is supported.
+     *
+     * @param seriesIndex the index of the series of the open, zero-indexed.
+     * @param resolutionLevel the resolution-level to open, where 0 is the full resolution, and
+     *     higher levels have successively lower resolutions.
+     * @param logger the logger.
+     * @return a time-sequence of images, at the particular resolution-level.
+     * @throws ImageIOException if an error occurs reading the image during this operation, or if
+     *     the resolution-level does not exist.
+     */
+    default TimeSeries openResolution(int seriesIndex, int resolutionLevel, Logger logger)
+            throws ImageIOException {
+        checkFullResolution(resolutionLevel);
+        return open(seriesIndex, logger);
+    }
+
+    /**
+     * Opens the smallest resolution-level that is at least as large as {@code target} in the X
+     * and Y dimensions.
+     *
+     * <p>This avoids reading the voxels of a large image at full resolution, when only a
+     * downscaled version is needed, by making use of any pre-downscaled resolution-levels in an
+     * image-pyramid.
+     *
+     * <p>If no resolution-level is at least as large as {@code target}, the full resolution is
+     * opened.
+     *
+     * @param seriesIndex the index of the series of the open, zero-indexed.
+     * @param target the minimal size in the X and Y dimensions. The Z dimension is ignored.
+     * @param logger the logger.
+     * @return a time-sequence of images, at the selected resolution-level.
+     * @throws ImageIOException if an error occurs reading the image during this operation.
+     */
+    default TimeSeries openAtLeast(int seriesIndex, Extent target, Logger logger)
+            throws ImageIOException {
+        return openResolution(
+                seriesIndex, selectResolutionLevel(seriesIndex, target, logger), logger);
+    }
+
+    /**
+     * Selects the smallest resolution-level that is at least as large as {@code target} in the X
+     * and Y dimensions.
+     *
+     * @param seriesIndex the index of the series, zero-indexed.
+     * @param target the minimal size in the X and Y dimensions. The Z dimension is ignored.
+     * @param logger the logger.
+     * @return the selected resolution-level, or 0 (the full resolution) if no resolution-level is
+     *     at least as large as {@code target}.
+     * @throws ImageIOException if an error occurs reading the image to determine this information.
+     */
+    default int selectResolutionLevel(int seriesIndex, Extent target, Logger logger)
+            throws ImageIOException {
+        int selected = 0;
+        long selectedArea = Long.MAX_VALUE;
+        for (int level = 0; level < numberResolutionLevels(seriesIndex); level++) {
+            Dimensions dimensions = dimensionsForResolution(seriesIndex, level, logger);
+            long area = (long) dimensions.x() * dimensions.y();
+            if (dimensions.x() >= target.x()
+                    && dimensions.y() >= target.y()
+                    && area < selectedArea) {
+                selected = level;
+                selectedArea = area;
+            }
+        }
+        return selected;
+    }
+
     /**
      * The number of series (distinct sets of images) in the image-file.
      *
@@ -181,6 +323,98 @@ public interface OpenedImageFile extends AutoCloseable {
      */
     Dimensions dimensionsForSeries(int seriesIndex, Logger logger) throws ImageIOException;
 
+    /**
+     * The number of resolution-levels that exist for a particular series.
+     *
+     * <p>By default, only a single resolution-level exists.
+     *
+     * @param seriesIndex the index of the series.
+     * @return the number of resolution-levels, which is always at least 1, as the full resolution
+     *     is level 0.
+     * @throws ImageIOException if an error occurs reading the image to determine this information.
+     */
+    default int numberResolutionLevels(int seriesIndex) throws ImageIOException {
+        return 1;
+    }
+
+    /**
+     * The {@link Dimensions} associated with a particular resolution-level of a series.
+     *
+     * <p>The image-resolution is scaled so that the dimensions describe the same physical size
+     * as the full resolution.
+     *
+     * @param seriesIndex the index of the series.
+     * @param resolutionLevel the resolution-level, where 0 is the full resolution.
+     * @param logger a logger for any non-fatal errors. Fatal errors throw an exception.
+     * @return the corresponding dimensions.
+     * @throws ImageIOException if any filesystem-related input-output failure occurs, or if the
+     *     resolution-level does not exist.
+     */
+    default Dimensions dimensionsForResolution(
+            int seriesIndex, int resolutionLevel, Logger logger) throws ImageIOException {
+        checkFullResolution(resolutionLevel);
+        return dimensionsForSeries(seriesIndex, logger);
+    }
+
+    /**
+     * Checks that a region lies inside the dimensions of an image.
+     *
+     * @param region the region.
+     * @param dimensions the dimensions of the image.
+     * @throws ImageIOException if {@code region} does not lie fully inside {@code dimensions}.
+     */
+    static void checkRegionInside(BoundingBox region, Dimensions dimensions)
+            throws ImageIOException {
+        if (!dimensions.contains(region)) {
+            throw new ImageIOException(
+                    String.format(
+                            "The region %s does not lie inside the image with extent %s.",
+                            region, dimensions.extent()));
+        }
+    }
+
+    /**
+     * Checks that a particular time-point and channel exist in an image.
+     *
+     * @param timeIndex the index of the time-point (frame), zero-indexed.
+     * @param channelIndex the index of the channel, zero-indexed.
+     * @param numberFrames the number of time-points in the image.
+     * @param numberChannels the number of channels in the image.
+     * @throws ImageIOException if either index lies outside the image.
+     */
+    static void checkChannelInside(
+            int timeIndex, int channelIndex, int numberFrames, int numberChannels)
+            throws ImageIOException {
+        if (timeIndex < 0 || timeIndex >= numberFrames) {
+            throw new ImageIOException(
+                    String.format(
+                            "Time-index %d does not exist, as the image has %d frame(s).",
+                            timeIndex, numberFrames));
+        }
+        if (channelIndex < 0 || channelIndex >= numberChannels) {
+            throw new ImageIOException(
+                    String.format(
+                            "Channel-index %d does not exist, as the image has %d channel(s).",
+                            channelIndex, numberChannels));
+        }
+    }
+
+    /**
+     * Checks that a resolution-level is the full resolution, as no other level is supported by
+     * default.
+     *
+     * @param resolutionLevel the resolution-level, where 0 is the full resolution.
+     * @throws ImageIOException if the resolution-level is not 0.
+     */
+    private static void checkFullResolution(int resolutionLevel) throws ImageIOException {
+        if (resolutionLevel != 0) {
+            throw new ImageIOException(
+                    String.format(
+                            "Resolution-level %d does not exist, as only the full resolution (level 0) is supported.",
+                            resolutionLevel));
+        }
+    }
+
     /**
      * Extracts metadata about the image.
      *
@@ -0,0 +1,225 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compresses bytes with the <i>deflate</i> algorithm, into a stream in the <a
+ * href="https://www.rfc-editor.org/rfc/rfc1950">zlib format</a>.
+ *
+ * <p>Within a single call, each {@link Deflater} is reused for successive blocks, to avoid
+ * repeatedly allocating its native memory. Every {@link Deflater} is ended when the call completes,
+ * so no native memory is retained afterwards by the threads that compressed.
+ *
+ * <p>Large inputs are split into blocks, that are compressed concurrently and then concatenated.
+ * All but the last block are terminated with a sync-flush, so that the concatenation is itself a
+ * valid deflate stream. This costs a little compression, as each block does not refer to the
+ * preceding block.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class Deflate {
+
+    /** The number of bytes in each block that is compressed concurrently. */
+    private static final int BLOCK_SIZE = 1 << 18;
+
+    /** The size of the buffer, into which compressed bytes are written. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** First byte of the zlib header: deflate with a 32K window. */
+    private static final int ZLIB_METHOD = 0x78;
+
+    /**
+     * Compresses a range of bytes, concurrently in blocks, if sufficiently large.
+     *
+     * @param data the bytes to compress.
+     * @param offset the index of the first byte to compress.
+     * @param length the number of bytes to compress.
+     * @param level the compression level, from 0 (no compression) to 9 (maximal compression).
+     * @return the compressed bytes, in the zlib format.
+     */
+    public static byte[] compress(byte[] data, int offset, int length, int level) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(length / 2 + 64);
+        stream.write(ZLIB_METHOD);
+        stream.write(levelFlags(level));
+
+        int numberBlocks = Math.max((length + BLOCK_SIZE - 1) / BLOCK_SIZE, 1);
+        try (DeflaterPool pool = new DeflaterPool(level)) {
+            if (numberBlocks == 1) {
+                writeBlock(data, offset, length, pool, true, stream);
+            } else {
+                List<byte[]> blocks =
+                        IntStream.range(0, numberBlocks)
+                                .parallel()
+                                .mapToObj(index -> compressBlock(data, offset, length, pool, index))
+                                .collect(Collectors.toList());
+                for (byte[] block : blocks) {
+                    stream.write(block, 0, block.length);
+                }
+            }
+        }
+
+        Adler32 checksum = new Adler32();
+        checksum.update(data, offset, length);
+        int value = (int) checksum.getValue();
+        stream.write(value >>> 24);
+        stream.write(value >>> 16);
+        stream.write(value >>> 8);
+        stream.write(value);
+        return stream.toByteArray();
+    }
+
+    /** Compresses the block at a particular index, into a newly created array. */
+    private static byte[] compressBlock(
+            byte[] data, int offset, int length, DeflaterPool pool, int blockIndex) {
+        int start = blockIndex * BLOCK_SIZE;
+        int size = Math.min(BLOCK_SIZE, length - start);
+        boolean last = start + size == length;
+        ByteArrayOutputStream stream = new ByteArrayOutputStream(size / 2 + 64);
+        writeBlock(data, offset + start, size, pool, last, stream);
+        return stream.toByteArray();
+    }
+
+    /**
+     * Compresses bytes, writing raw deflate data to {@code stream}.
+     *
+     * <p>The data is terminated with a sync-flush, unless it is the {@code last} block, in which
+     * case the deflate stream is finished.
+     */
+    private static void writeBlock(
+            byte[] data,
+            int offset,
+            int length,
+            DeflaterPool pool,
+            boolean last,
+            ByteArrayOutputStream stream) {
+        Deflater deflater = pool.borrow();
+        try {
+            deflater.setInput(data, offset, length);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int written = deflater.deflate(buffer);
+                    stream.write(buffer, 0, written);
+                }
+            } else {
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    stream.write(buffer, 0, written);
+                } while (written == buffer.length);
+            }
+        } finally {
+            pool.release(deflater);
+        }
+    }
+
+    /**
+     * {@link Deflater}s producing raw deflate data, without a zlib header or trailer, with a
+     * particular compression level.
+     *
+     * <p>A {@link Deflater} is created only when none is idle, so there are at most as many as the
+     * number of threads compressing concurrently. All are ended when closed, which must occur only
+     * after every borrowed {@link Deflater} is released.
+     */
+    private static class DeflaterPool implements AutoCloseable {
+
+        /** The compression level, from 0 (no compression) to 9 (maximal compression). */
+        private final int level;
+
+        /** Deflaters that have been released, and are ready to be reused. */
+        private final Queue<Deflater> idle = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Creates an empty pool.
+         *
+         * @param level the compression level, from 0 (no compression) to 9 (maximal compression).
+         */
+        public DeflaterPool(int level) {
+            this.level = level;
+        }
+
+        /**
+         * A {@link Deflater} for exclusive use, until it is released.
+         *
+         * @return an idle {@link Deflater}, or a newly created one, if none is idle.
+         */
+        public Deflater borrow() {
+            Deflater deflater = idle.poll();
+            if (deflater != null) {
+                return deflater;
+            } else {
+                return new Deflater(level, true);
+            }
+        }
+
+        /**
+         * Resets a {@link Deflater}, and makes it available for reuse.
+         *
+         * @param deflater the deflater, previously returned by {@link #borrow}.
+         */
+        public void release(Deflater deflater) {
+            deflater.reset();
+            idle.add(deflater);
+        }
+
+        /** Ends every {@link Deflater}, freeing its native memory. */
+        @Override
+        public void close() {
+            for (Deflater deflater : idle) {
+                deflater.end();
+            }
+            idle.clear();
+        }
+    }
+
+    /** The second byte of the zlib header, indicating the compression level. */
+    private static int levelFlags(int level) {
+        if (level <= 1) {
+            return 0x01;
+        } else if (level <= 5) {
+            return 0x5E;
+        } else if (level == 6) {
+            return 0x9C;
+        } else {
+            return 0xDA;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Encodes a {@link Stack} as a PNG file, directly from the buffers of its voxels.
+ *
+ * <p>Grayscale or RGB images, with either 8 or 16 bits per sample, are supported. Only a single
+ * z-slice may exist.
+ *
+ * <p>Rows are filtered concurrently, and large images are compressed concurrently in blocks.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+public class PNGEncoder {
+
+    /** The first eight bytes of every PNG file. */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /** PNG color-type for grayscale. */
+    private static final int COLOR_GRAYSCALE = 0;
+
+    /** PNG color-type for RGB. */
+    private static final int COLOR_RGB = 2;
+
+    /** The size of the buffer when writing to the file. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The deflate compression level, from 0 (no compression) to 9 (maximal compression). */
+    private final int level;
+
+    /**
+     * If true, rows are adaptively filtered before compression. If false, no filtering occurs.
+     *
+     * <p>Filtering usually improves compression, but takes additional time.
+     */
+    private final boolean filter;
+
+    /**
+     * Encodes a stack to a PNG file.
+     *
+     * @param stack the stack, with a single z-slice, and with one channel (or three if {@code
+     *     rgb}) of identical type.
+     * @param rgb if true, the three channels are encoded as a RGB image. If false, the single
+     *     channel is encoded as a grayscale image.
+     * @param path the path to write to.
+     * @throws ImageIOException if the stack is unsupported, or cannot be written.
+     */
+    public void encode(Stack stack, boolean rgb, Path path) throws ImageIOException {
+        int numberChannels = rgb ? 3 : 1;
+        VoxelDataType dataType = checkStack(stack, numberChannels);
+
+        Extent extent = stack.extent();
+        int bytesPerSample = dataType.numberBytes();
+        int bytesPerPixel = numberChannels * bytesPerSample;
+
+        byte[] raw = new byte[extent.areaXY() * bytesPerPixel];
+        for (int c = 0; c < numberChannels; c++) {
+            new SampleCopier(stack.getChannel(c), ByteOrder.BIG_ENDIAN)
+                    .copyRows(0, 0, extent.y(), raw, c * bytesPerSample, bytesPerPixel);
+        }
+
+        byte[] filtered = PNGRowFilter.filter(raw, extent.y(), bytesPerPixel, filter);
+        byte[] compressed = Deflate.compress(filtered, 0, filtered.length, level);
+
+        try (DataOutputStream stream =
+                new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+            stream.write(SIGNATURE);
+            writeChunk(stream, "IHDR", header(extent, bytesPerSample * 8, rgb));
+            writeChunk(stream, "IDAT", compressed);
+            writeChunk(stream, "IEND", new byte[0]);
+        } catch (IOException e) {
+            throw new ImageIOException("Failed to write PNG file: " + path, e);
+        }
+    }
+
+    /** Checks that a stack can be encoded, and returns the data-type of its channels. */
+    private static VoxelDataType checkStack(Stack stack, int numberChannels)
+            throws ImageIOException {
+        if (stack.getNumberChannels() != numberChannels) {
+            throw new ImageIOException(
+                    String.format(
+                            "A PNG requires %d channel(s), but the stack has %d",
+                            numberChannels, stack.getNumberChannels()));
+        }
+        if (stack.hasMoreThanOneSlice()) {
+            throw new ImageIOException("A PNG cannot contain more than one z-slice");
+        }
+        if (!stack.allChannelsHaveIdenticalType()) {
+            throw new ImageIOException("Stack must have identically-typed channels");
+        }
+        VoxelDataType dataType = stack.getChannel(0).getVoxelDataType();
+        if (!(dataType.equals(UnsignedByteVoxelType.INSTANCE)
+                || dataType.equals(UnsignedShortVoxelType.INSTANCE))) {
+            throw new ImageIOException(
+                    String.format("A PNG cannot contain voxels of data-type %s", dataType));
+        }
+        return dataType;
+    }
+
+    /** The contents of the {@code IHDR} chunk. */
+    private static byte[] header(Extent extent, int bitDepth, boolean rgb) {
+        return new byte[] {
+            (byte) (extent.x() >>> 24),
+            (byte) (extent.x() >>> 16),
+            (byte) (extent.x() >>> 8),
+            (byte) extent.x(),
+            (byte) (extent.y() >>> 24),
+            (byte) (extent.y() >>> 16),
+            (byte) (extent.y() >>> 8),
+            (byte) extent.y(),
+            (byte) bitDepth,
+            (byte) (rgb ? COLOR_RGB : COLOR_GRAYSCALE),
+            0, // Compression method: deflate
+            0, // Filter method: adaptive
+            0 // Interlace method: none
+        };
+    }
+
+    /** Writes a chunk, with its length, type, data and checksum. */
+    private static void writeChunk(DataOutputStream stream, String type, byte[] data)
+            throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        stream.writeInt(data.length);
+        stream.write(typeBytes);
+        stream.write(data);
+        stream.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,152 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Applies the <a href="https://www.w3.org/TR/png/#9Filters">filters</a> that precede compression
+ * in a PNG file.
+ *
+ * <p>Each row is either left unfiltered, or <i>adaptively</i> filtered, choosing whichever filter
+ * minimizes the sum of absolute differences, as recommended by the PNG specification.
+ *
+ * <p>As each row is filtered independently, rows are filtered concurrently.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PNGRowFilter {
+
+    /** Filter-type: no filtering. */
+    private static final int NONE = 0;
+
+    /** Filter-type: difference to the byte to the left. */
+    private static final int SUB = 1;
+
+    /** Filter-type: difference to the byte above. */
+    private static final int UP = 2;
+
+    /** Filter-type: difference to the mean of the bytes to the left and above. */
+    private static final int AVERAGE = 3;
+
+    /** Filter-type: difference to the Paeth predictor. */
+    private static final int PAETH = 4;
+
+    /** The minimum number of bytes in an image, before rows are filtered concurrently. */
+    private static final int MIN_BYTES_CONCURRENT = 1 << 16;
+
+    /**
+     * Filters rows, preceding each row with a byte that identifies its filter.
+     *
+     * @param raw the unfiltered bytes of all rows, one after the other.
+     * @param numberRows the number of rows.
+     * @param bytesPerPixel the number of bytes in each pixel (rounded up to at least one).
+     * @param adaptive if true, each row is adaptively filtered. if false, no filtering occurs.
+     * @return a newly created array, with the filtered bytes for each row, and one additional byte
+     *     per row.
+     */
+    public static byte[] filter(byte[] raw, int numberRows, int bytesPerPixel, boolean adaptive) {
+        int rowBytes = raw.length / numberRows;
+        byte[] filtered = new byte[raw.length + numberRows];
+
+        IntStream rows = IntStream.range(0, numberRows);
+        if (raw.length >= MIN_BYTES_CONCURRENT) {
+            rows = rows.parallel();
+        }
+        rows.forEach(
+                row -> {
+                    int type = adaptive ? selectFilter(raw, row, rowBytes, bytesPerPixel) : NONE;
+                    int target = row * (rowBytes + 1);
+                    filtered[target] = (byte) type;
+                    for (int i = 0; i < rowBytes; i++) {
+                        filtered[target + 1 + i] =
+                                (byte) filterByte(type, raw, row, rowBytes, bytesPerPixel, i);
+                    }
+                });
+        return filtered;
+    }
+
+    /** The filter that minimizes the sum of absolute (signed) differences for a row. */
+    private static int selectFilter(byte[] raw, int row, int rowBytes, int bytesPerPixel) {
+        int bestType = NONE;
+        long bestSum = Long.MAX_VALUE;
+        for (int type = NONE; type <= PAETH; type++) {
+            long sum = 0;
+            for (int i = 0; i < rowBytes && sum < bestSum; i++) {
+                sum += Math.abs((byte) filterByte(type, raw, row, rowBytes, bytesPerPixel, i));
+            }
+            if (sum < bestSum) {
+                bestSum = sum;
+                bestType = type;
+            }
+        }
+        return bestType;
+    }
+
+    /** Calculates the filtered value of a single byte in a row. */
+    private static int filterByte(
+            int type, byte[] raw, int row, int rowBytes, int bytesPerPixel, int i) {
+        int index = row * rowBytes + i;
+        int current = raw[index] & 0xFF;
+        int left = i >= bytesPerPixel ? raw[index - bytesPerPixel] & 0xFF : 0;
+        int above = row > 0 ? raw[index - rowBytes] & 0xFF : 0;
+        switch (type) {
+            case SUB:
+                return current - left;
+            case UP:
+                return current - above;
+            case AVERAGE:
+                return current - ((left + above) >>> 1);
+            case PAETH:
+                int aboveLeft =
+                        (row > 0 && i >= bytesPerPixel)
+                                ? raw[index - rowBytes - bytesPerPixel] & 0xFF
+                                : 0;
+                return current - paeth(left, above, aboveLeft);
+            default:
+                return current;
+        }
+    }
+
+    /** The Paeth predictor, selecting whichever neighbor is closest to a linear estimate. */
+    private static int paeth(int left, int above, int aboveLeft) {
+        int estimate = left + above - aboveLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceAbove = Math.abs(estimate - above);
+        int distanceAboveLeft = Math.abs(estimate - aboveLeft);
+        if (distanceLeft <= distanceAbove && distanceLeft <= distanceAboveLeft) {
+            return left;
+        } else if (distanceAbove <= distanceAboveLeft) {
+            return above;
+        } else {
+            return aboveLeft;
+        }
+    }
+}
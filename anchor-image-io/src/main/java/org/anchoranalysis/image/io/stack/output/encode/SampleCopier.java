@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.voxel.VoxelsUntyped;
+import org.anchoranalysis.image.voxel.datatype.FloatVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedIntVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+
+/**
+ * Copies the voxels of rows in a slice, directly from a channel's buffer, into a byte-array with a
+ * particular byte-order.
+ *
+ * <p>The samples of a channel may be interleaved with those of other channels, by copying with a
+ * {@code step} greater than the number of bytes in each sample.
+ *
+ * @author Owen Feehan
+ */
+class SampleCopier {
+
+    /** The data-type of the channel's voxels. */
+    private final VoxelDataType dataType;
+
+    /** The voxels of the channel. */
+    private final VoxelsUntyped voxels;
+
+    /** The number of voxels in each row. */
+    private final int width;
+
+    /** The byte-order in which multi-byte samples are copied. */
+    private final ByteOrder order;
+
+    /**
+     * Creates for a particular channel.
+     *
+     * @param channel the channel whose voxels are copied.
+     * @param order the byte-order in which multi-byte samples are copied.
+     * @throws ImageIOException if the channel's data-type is unsupported.
+     */
+    public SampleCopier(Channel channel, ByteOrder order) throws ImageIOException {
+        this.dataType = channel.getVoxelDataType();
+        this.voxels = channel.voxels();
+        this.width = channel.extent().x();
+        this.order = order;
+        checkSupported(dataType);
+    }
+
+    /**
+     * Whether a data-type can be copied.
+     *
+     * @param dataType the data-type.
+     * @throws ImageIOException if the data-type is unsupported.
+     */
+    public static void checkSupported(VoxelDataType dataType) throws ImageIOException {
+        if (!(dataType.equals(UnsignedByteVoxelType.INSTANCE)
+                || dataType.equals(UnsignedShortVoxelType.INSTANCE)
+                || dataType.equals(UnsignedIntVoxelType.INSTANCE)
+                || dataType.equals(FloatVoxelType.INSTANCE))) {
+            throw new ImageIOException(
+                    String.format("Voxels of data-type %s cannot be written", dataType));
+        }
+    }
+
+    /**
+     * Copies the samples of consecutive rows in a slice.
+     *
+     * @param z the index of the slice.
+     * @param firstRow the index of the first row to copy.
+     * @param numberRows the number of rows to copy.
+     * @param destination where the samples are copied to.
+     * @param offset the index in {@code destination} of the first sample.
+     * @param step the number of bytes between the start of successive samples in {@code
+     *     destination}.
+     */
+    public void copyRows(
+            int z, int firstRow, int numberRows, byte[] destination, int offset, int step) {
+        int start = firstRow * width;
+        int count = numberRows * width;
+        if (dataType.equals(UnsignedByteVoxelType.INSTANCE)) {
+            ByteBuffer source = voxels.asByte().sliceBuffer(z).getDelegate();
+            copyBytes(source, start, count, destination, offset, step);
+        } else if (dataType.equals(UnsignedShortVoxelType.INSTANCE)) {
+            ShortBuffer source = voxels.asShort().sliceBuffer(z).getDelegate();
+            ByteBuffer target = wrap(destination);
+            for (int i = 0; i < count; i++) {
+                target.putShort(offset + i * step, source.get(start + i));
+            }
+        } else if (dataType.equals(UnsignedIntVoxelType.INSTANCE)) {
+            IntBuffer source = voxels.asInt().sliceBuffer(z).getDelegate();
+            ByteBuffer target = wrap(destination);
+            for (int i = 0; i < count; i++) {
+                target.putInt(offset + i * step, source.get(start + i));
+            }
+        } else {
+            FloatBuffer source = voxels.asFloat().sliceBuffer(z);
+            ByteBuffer target = wrap(destination);
+            for (int i = 0; i < count; i++) {
+                target.putFloat(offset + i * step, source.get(start + i));
+            }
+        }
+    }
+
+    /** Copies bytes, in bulk when contiguous. */
+    private static void copyBytes(
+            ByteBuffer source, int start, int count, byte[] destination, int offset, int step) {
+        if (step == 1) {
+            ByteBuffer duplicate = source.duplicate();
+            duplicate.position(start);
+            duplicate.get(destination, offset, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                destination[offset + i * step] = source.get(start + i);
+            }
+        }
+    }
+
+    /** Wraps an array, to write multi-byte samples with the correct byte-order. */
+    private ByteBuffer wrap(byte[] destination) {
+        return ByteBuffer.wrap(destination).order(order);
+    }
+}
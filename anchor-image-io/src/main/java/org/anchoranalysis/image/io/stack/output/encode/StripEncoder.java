@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Encodes a single strip of a TIFF page, copying the samples of its rows and then optionally
+ * compressing them.
+ *
+ * <p>Each strip is encoded independently, so separate strips can be encoded concurrently.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+class StripEncoder {
+
+    /** A copier for each channel. */
+    private final List<SampleCopier> copiers;
+
+    /** The size of the image. */
+    private final Extent extent;
+
+    /** The number of rows in each strip, except perhaps the last strip in a page. */
+    private final int rowsPerStrip;
+
+    /** The number of samples in each pixel. When greater than one, all channels are interleaved. */
+    private final int samplesPerPixel;
+
+    /** The number of bytes in each sample. */
+    private final int bytesPerSample;
+
+    /** The deflate compression level, or zero, if no compression occurs. */
+    private final int level;
+
+    /**
+     * The number of bytes in a strip, before any compression.
+     *
+     * @param strip the index of the strip in the page.
+     * @return the number of bytes.
+     */
+    public int uncompressedSize(int strip) {
+        return rowsInStrip(strip) * extent.x() * samplesPerPixel * bytesPerSample;
+    }
+
+    /**
+     * Encodes a strip.
+     *
+     * @param z the index of the z-slice.
+     * @param channel the index of the channel, or -1 to interleave all channels.
+     * @param strip the index of the strip in the page.
+     * @return the encoded bytes of the strip, as they should be written to the file.
+     */
+    public byte[] encode(int z, int channel, int strip) {
+        int firstRow = strip * rowsPerStrip;
+        int numberRows = rowsInStrip(strip);
+        byte[] raw = new byte[uncompressedSize(strip)];
+        if (channel >= 0) {
+            copiers.get(channel).copyRows(z, firstRow, numberRows, raw, 0, bytesPerSample);
+        } else {
+            int step = samplesPerPixel * bytesPerSample;
+            for (int c = 0; c < samplesPerPixel; c++) {
+                copiers.get(c).copyRows(z, firstRow, numberRows, raw, c * bytesPerSample, step);
+            }
+        }
+
+        if (level > 0) {
+            return Deflate.compress(raw, 0, raw.length, level);
+        } else {
+            return raw;
+        }
+    }
+
+    /** The number of rows in a particular strip. */
+    private int rowsInStrip(int strip) {
+        return Math.min(rowsPerStrip, extent.y() - (strip * rowsPerStrip));
+    }
+}
@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+
+/**
+ * Builds an <i>Image File Directory</i> (IFD), describing a single page in a TIFF file.
+ *
+ * <p>Entries must be added in ascending order of their tags. Values that are too large to be
+ * stored in an entry are placed immediately after the directory.
+ *
+ * @author Owen Feehan
+ */
+class TiffDirectory {
+
+    /** TIFF field-type for an ASCII string. */
+    private static final short TYPE_ASCII = 2;
+
+    /** TIFF field-type for an unsigned 16-bit integer. */
+    private static final short TYPE_SHORT = 3;
+
+    /** TIFF field-type for an unsigned 32-bit integer. */
+    private static final short TYPE_LONG = 4;
+
+    /** TIFF field-type for a fraction of two unsigned 32-bit integers. */
+    private static final short TYPE_RATIONAL = 5;
+
+    /** The number of bytes in each entry. */
+    private static final int ENTRY_SIZE = 12;
+
+    /** An entry in the directory. */
+    @AllArgsConstructor
+    private static class Entry {
+
+        /** The tag identifying the entry. */
+        private final int tag;
+
+        /** The TIFF field-type of the values. */
+        private final short type;
+
+        /** The number of values. */
+        private final int count;
+
+        /** The encoded values. */
+        private final byte[] value;
+    }
+
+    /** The entries added so far. */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds an entry with one or more unsigned 16-bit values.
+     *
+     * @param tag the tag identifying the entry.
+     * @param values the values.
+     */
+    public void addShorts(int tag, int... values) {
+        ByteBuffer buffer = allocate(values.length * 2);
+        for (int value : values) {
+            buffer.putShort((short) value);
+        }
+        entries.add(new Entry(tag, TYPE_SHORT, values.length, buffer.array()));
+    }
+
+    /**
+     * Adds an entry with one or more unsigned 32-bit values.
+     *
+     * @param tag the tag identifying the entry.
+     * @param values the values.
+     */
+    public void addLongs(int tag, long... values) {
+        ByteBuffer buffer = allocate(values.length * 4);
+        for (long value : values) {
+            buffer.putInt((int) value);
+        }
+        entries.add(new Entry(tag, TYPE_LONG, values.length, buffer.array()));
+    }
+
+    /**
+     * Adds an entry with a single fraction of two unsigned 32-bit values.
+     *
+     * @param tag the tag identifying the entry.
+     * @param numerator the numerator of the fraction.
+     * @param denominator the denominator of the fraction.
+     */
+    public void addRational(int tag, long numerator, long denominator) {
+        ByteBuffer buffer = allocate(8);
+        buffer.putInt((int) numerator);
+        buffer.putInt((int) denominator);
+        entries.add(new Entry(tag, TYPE_RATIONAL, 1, buffer.array()));
+    }
+
+    /**
+     * Adds an entry with an ASCII string.
+     *
+     * @param tag the tag identifying the entry.
+     * @param value the string, which is terminated by a null character.
+     */
+    public void addString(int tag, String value) {
+        byte[] bytes = (value + '\0').getBytes(StandardCharsets.US_ASCII);
+        entries.add(new Entry(tag, TYPE_ASCII, bytes.length, bytes));
+    }
+
+    /**
+     * The number of bytes in the encoded directory, including any values placed after it.
+     *
+     * @return the number of bytes, which is always even.
+     */
+    public int size() {
+        int size = directorySize();
+        for (Entry entry : entries) {
+            size += externalSize(entry);
+        }
+        return size;
+    }
+
+    /**
+     * Encodes the directory, followed by any values too large to be stored in an entry.
+     *
+     * @param offset the offset in the file at which the directory will be written. It should be
+     *     even.
+     * @param nextOffset the offset in the file of the next directory, or zero if none exists.
+     * @return the encoded directory, whose size is even.
+     */
+    public ByteBuffer encode(long offset, long nextOffset) {
+        ByteBuffer buffer = allocate(size());
+        buffer.putShort((short) entries.size());
+
+        long externalOffset = offset + directorySize();
+        for (Entry entry : entries) {
+            buffer.putShort((short) entry.tag);
+            buffer.putShort(entry.type);
+            buffer.putInt(entry.count);
+            if (entry.value.length <= 4) {
+                buffer.put(entry.value);
+                buffer.position(buffer.position() + 4 - entry.value.length);
+            } else {
+                buffer.putInt((int) externalOffset);
+                externalOffset += externalSize(entry);
+            }
+        }
+        buffer.putInt((int) nextOffset);
+
+        for (Entry entry : entries) {
+            if (entry.value.length > 4) {
+                buffer.put(entry.value);
+                buffer.position(buffer.position() + entry.value.length % 2);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** The number of bytes in the directory itself, excluding any values placed after it. */
+    private int directorySize() {
+        return 2 + (entries.size() * ENTRY_SIZE) + 4;
+    }
+
+    /** The number of bytes an entry's value occupies after the directory, padded to be even. */
+    private static int externalSize(Entry entry) {
+        if (entry.value.length <= 4) {
+            return 0;
+        } else {
+            return entry.value.length + entry.value.length % 2;
+        }
+    }
+
+    /** Allocates a little-endian buffer. */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,368 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.image.core.dimensions.Resolution;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.voxel.datatype.FloatVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Encodes a {@link Stack} as a TIFF file, directly from the buffers of its voxels.
+ *
+ * <p>Each z-slice of each channel becomes a page, with channels varying fastest, or each z-slice
+ * becomes a single page when written as RGB. When there is more than one page, the dimensions are
+ * described in the first page, in the same manner as ImageJ.
+ *
+ * <p>Any resolution of the stack is recorded in the same manner as ImageJ, with the number of
+ * pixels per micron in the <i>XResolution</i> and <i>YResolution</i> fields, and the units and
+ * z-spacing in the description of the first page.
+ *
+ * <p>Each page is divided into strips, which are compressed with <i>deflate</i> unless the
+ * compression level is zero. Strips are encoded concurrently, in batches.
+ *
+ * <p>Unsigned 8, 16 and 32-bit, and float voxels are supported. The file may not exceed 4GB.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+public class TiffEncoder {
+
+    /** The approximate number of uncompressed bytes in each strip. */
+    private static final int STRIP_SIZE = 1 << 17;
+
+    /** The maximum number of uncompressed bytes encoded concurrently, before being written. */
+    private static final long BATCH_SIZE = 1L << 26;
+
+    /** The largest file-offset that can be stored in a TIFF file (without BigTIFF). */
+    private static final long MAX_OFFSET = 0xFFFFFFFFL;
+
+    /** The largest value of an unsigned 32-bit integer, as used in a rational. */
+    private static final long MAX_UNSIGNED_32 = 0xFFFFFFFFL;
+
+    /** TIFF compression identifier for no compression. */
+    private static final int COMPRESSION_NONE = 1;
+
+    /** TIFF compression identifier for (Adobe) deflate. */
+    private static final int COMPRESSION_DEFLATE = 8;
+
+    /** TIFF resolution-unit identifier, indicating the unit is described elsewhere. */
+    private static final int RESOLUTION_UNIT_NONE = 1;
+
+    /** The name of the unit of resolution, as used by ImageJ. */
+    private static final String UNIT_MICRON = "micron";
+
+    /** Multiplies a value in meters to convert it to microns. */
+    private static final double METERS_TO_MICRONS = 1e6;
+
+    /** The strips of a single page, and where they were written in the file. */
+    private static class Page {
+
+        /** The index of the z-slice. */
+        private final int z;
+
+        /** The index of the channel, or -1 if all channels are interleaved as RGB. */
+        private final int channel;
+
+        /** The offset in the file of each strip. */
+        private final long[] offsets;
+
+        /** The number of bytes written for each strip. */
+        private final long[] sizes;
+
+        private Page(int z, int channel, int numberStrips) {
+            this.z = z;
+            this.channel = channel;
+            this.offsets = new long[numberStrips];
+            this.sizes = new long[numberStrips];
+        }
+    }
+
+    /** The deflate compression level, from 0 (no compression) to 9 (maximal compression). */
+    private final int level;
+
+    /**
+     * Encodes a stack to a TIFF file.
+     *
+     * @param stack the stack, with channels of identical type.
+     * @param rgb if true, three channels are interleaved as a RGB image. If false, each channel is
+     *     a separate grayscale page.
+     * @param path the path to write to.
+     * @throws ImageIOException if the stack is unsupported, or cannot be written.
+     */
+    public void encode(Stack stack, boolean rgb, Path path) throws ImageIOException {
+        if (!stack.allChannelsHaveIdenticalType()) {
+            throw new ImageIOException("Stack must have identically-typed channels");
+        }
+        if (rgb && stack.getNumberChannels() != 3) {
+            throw new ImageIOException("A RGB image must have three channels");
+        }
+
+        VoxelDataType dataType = stack.getChannel(0).getVoxelDataType();
+        SampleCopier.checkSupported(dataType);
+
+        List<SampleCopier> copiers = new ArrayList<>();
+        for (int c = 0; c < stack.getNumberChannels(); c++) {
+            copiers.add(new SampleCopier(stack.getChannel(c), ByteOrder.LITTLE_ENDIAN));
+        }
+
+        Extent extent = stack.extent();
+        int samplesPerPixel = rgb ? 3 : 1;
+        int bytesPerSample = dataType.numberBytes();
+        int rowBytes = extent.x() * samplesPerPixel * bytesPerSample;
+        int rowsPerStrip = Math.max(1, Math.min(extent.y(), STRIP_SIZE / rowBytes));
+
+        List<Page> pages = createPages(extent, stack.getNumberChannels(), rgb, rowsPerStrip);
+
+        try (FileChannel file =
+                FileChannel.open(
+                        path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE)) {
+            ByteBuffer header = allocate(8);
+            header.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(0);
+            header.flip();
+            writeFully(file, header);
+
+            StripEncoder encoder =
+                    new StripEncoder(
+                            copiers, extent, rowsPerStrip, samplesPerPixel, bytesPerSample, level);
+            writeStrips(pages, encoder, file);
+
+            long firstDirectory = writeDirectories(pages, stack, rgb, dataType, rowsPerStrip, file);
+
+            ByteBuffer patch = allocate(4).putInt((int) firstDirectory);
+            patch.flip();
+            file.write(patch, 4);
+        } catch (IOException e) {
+            throw new ImageIOException("Failed to write TIFF file: " + path, e);
+        }
+    }
+
+    /** Creates a page for each z-slice and channel (or each z-slice only, if RGB). */
+    private static List<Page> createPages(
+            Extent extent, int numberChannels, boolean rgb, int rowsPerStrip) {
+        int numberStrips = (extent.y() + rowsPerStrip - 1) / rowsPerStrip;
+        List<Page> pages = new ArrayList<>();
+        for (int z = 0; z < extent.z(); z++) {
+            if (rgb) {
+                pages.add(new Page(z, -1, numberStrips));
+            } else {
+                for (int c = 0; c < numberChannels; c++) {
+                    pages.add(new Page(z, c, numberStrips));
+                }
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Encodes the strips of all pages, concurrently in batches, writing them to the file in order.
+     */
+    private static void writeStrips(List<Page> pages, StripEncoder encoder, FileChannel file)
+            throws IOException, ImageIOException {
+        List<int[]> batch = new ArrayList<>();
+        long batchSize = 0;
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            for (int strip = 0; strip < pages.get(pageIndex).offsets.length; strip++) {
+                batch.add(new int[] {pageIndex, strip});
+                batchSize += encoder.uncompressedSize(strip);
+                if (batchSize >= BATCH_SIZE) {
+                    writeBatch(batch, pages, encoder, file);
+                    batch.clear();
+                    batchSize = 0;
+                }
+            }
+        }
+        writeBatch(batch, pages, encoder, file);
+    }
+
+    /** Encodes a batch of strips concurrently, and then writes them to the file. */
+    private static void writeBatch(
+            List<int[]> batch, List<Page> pages, StripEncoder encoder, FileChannel file)
+            throws IOException, ImageIOException {
+        List<byte[]> encoded =
+                batch.parallelStream()
+                        .map(
+                                identifier -> {
+                                    Page page = pages.get(identifier[0]);
+                                    return encoder.encode(page.z, page.channel, identifier[1]);
+                                })
+                        .collect(Collectors.toList());
+
+        for (int i = 0; i < batch.size(); i++) {
+            Page page = pages.get(batch.get(i)[0]);
+            int strip = batch.get(i)[1];
+            byte[] bytes = encoded.get(i);
+            page.offsets[strip] = file.position();
+            page.sizes[strip] = bytes.length;
+            writeFully(file, ByteBuffer.wrap(bytes));
+            if (bytes.length % 2 == 1) {
+                // Keep subsequent offsets even, as recommended for TIFF files
+                writeFully(file, ByteBuffer.wrap(new byte[1]));
+            }
+            checkOffset(file.position());
+        }
+    }
+
+    /** Writes a directory for each page, returning the offset of the first directory. */
+    private long writeDirectories(
+            List<Page> pages,
+            Stack stack,
+            boolean rgb,
+            VoxelDataType dataType,
+            int rowsPerStrip,
+            FileChannel file)
+            throws IOException, ImageIOException {
+        long firstOffset = file.position();
+        Extent extent = stack.extent();
+        int samplesPerPixel = rgb ? 3 : 1;
+        int bitsPerSample = dataType.numberBytes() * 8;
+        int sampleFormat = dataType.equals(FloatVoxelType.INSTANCE) ? 3 : 1;
+        Optional<Resolution> resolution = stack.resolution().filter(TiffEncoder::isValid);
+
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            TiffDirectory directory = new TiffDirectory();
+            directory.addLongs(256, extent.x());
+            directory.addLongs(257, extent.y());
+            directory.addShorts(258, repeat(bitsPerSample, samplesPerPixel));
+            directory.addShorts(259, level > 0 ? COMPRESSION_DEFLATE : COMPRESSION_NONE);
+            directory.addShorts(262, rgb ? 2 : 1);
+            if (i == 0 && (pages.size() > 1 || resolution.isPresent())) {
+                directory.addString(
+                        270, describeDimensions(pages.size(), stack, rgb, resolution));
+            }
+            directory.addLongs(273, page.offsets);
+            directory.addShorts(277, samplesPerPixel);
+            directory.addLongs(278, rowsPerStrip);
+            directory.addLongs(279, page.sizes);
+            if (resolution.isPresent()) {
+                addRational(directory, 282, 1.0 / toMicrons(resolution.get().x()));
+                addRational(directory, 283, 1.0 / toMicrons(resolution.get().y()));
+            }
+            directory.addShorts(284, 1);
+            if (resolution.isPresent()) {
+                directory.addShorts(296, RESOLUTION_UNIT_NONE);
+            }
+            directory.addShorts(339, repeat(sampleFormat, samplesPerPixel));
+
+            long offset = file.position();
+            long nextOffset = i < pages.size() - 1 ? offset + directory.size() : 0;
+            checkOffset(nextOffset);
+            writeFully(file, directory.encode(offset, nextOffset));
+        }
+        return firstOffset;
+    }
+
+    /** Describes the dimensions, and any resolution, of a stack in the ImageJ format. */
+    private static String describeDimensions(
+            int numberPages, Stack stack, boolean rgb, Optional<Resolution> resolution) {
+        StringBuilder builder = new StringBuilder("ImageJ=1.11a\n");
+        builder.append("images=").append(numberPages).append('\n');
+        if (!rgb && stack.getNumberChannels() > 1) {
+            builder.append("channels=").append(stack.getNumberChannels()).append('\n');
+        }
+        if (stack.hasMoreThanOneSlice()) {
+            builder.append("slices=").append(stack.extent().z()).append('\n');
+        }
+        if (!rgb && stack.getNumberChannels() > 1) {
+            builder.append("hyperstack=true\nmode=grayscale\n");
+        }
+        if (resolution.isPresent()) {
+            builder.append("unit=").append(UNIT_MICRON).append('\n');
+            double z = resolution.get().z();
+            if (stack.hasMoreThanOneSlice() && Double.isFinite(z) && z > 0) {
+                builder.append("spacing=").append(toMicrons(z)).append('\n');
+            }
+        }
+        return builder.toString();
+    }
+
+    /** Whether a resolution can be recorded, requiring a positive size in X and Y. */
+    private static boolean isValid(Resolution resolution) {
+        return Double.isFinite(resolution.x())
+                && resolution.x() > 0
+                && Double.isFinite(resolution.y())
+                && resolution.y() > 0;
+    }
+
+    /**
+     * Adds a rational entry approximating a positive value, with the same denominators as ImageJ.
+     */
+    private static void addRational(TiffDirectory directory, int tag, double value) {
+        long denominator = value > 1000 ? 1000 : 1000000;
+        long numerator = Math.round(value * denominator);
+        directory.addRational(tag, Math.max(1, Math.min(numerator, MAX_UNSIGNED_32)), denominator);
+    }
+
+    /** Converts a value in meters to microns. */
+    private static double toMicrons(double meters) {
+        return meters * METERS_TO_MICRONS;
+    }
+
+    /** An array with {@code value} repeated {@code times}. */
+    private static int[] repeat(int value, int times) {
+        int[] values = new int[times];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    /** Throws an exception if an offset is too large for a TIFF file. */
+    private static void checkOffset(long offset) throws ImageIOException {
+        if (offset > MAX_OFFSET) {
+            throw new ImageIOException("The TIFF file would exceed the maximum size of 4GB");
+        }
+    }
+
+    /** Writes all remaining bytes in a buffer. */
+    private static void writeFully(FileChannel file, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            file.write(buffer);
+        }
+    }
+
+    /** Allocates a little-endian buffer. */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,202 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.bean.stack.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorder;
+import org.anchoranalysis.core.time.OperationContext;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.stack.ImageLocation;
+import org.anchoranalysis.image.core.stack.ImagePyramidMetadata;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.input.ImageTimestampsAttributes;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.image.io.stack.time.TimeSeries;
+import org.anchoranalysis.spatial.box.Extent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link StackReader} reading a particular resolution-level from an image-pyramid.
+ *
+ * @author Owen Feehan
+ */
+class StackReaderTest {
+
+    /** The size of each resolution-level, from the full resolution downwards. */
+    private static final Extent[] LEVELS = {
+        new Extent(100, 80, 3), new Extent(50, 40, 3), new Extent(25, 20, 3)
+    };
+
+    private static final Path PATH = Path.of("pyramid.ome.tiff");
+
+    private OperationContext context = new OperationContext(new Logger(new NullMessageLogger()));
+
+    /** Without a target, the full resolution is read. */
+    @Test
+    void testFullResolution() throws ImageIOException {
+        PyramidReader reader = new PyramidReader();
+        assertEquals(LEVELS[0], reader.readStack(PATH, context).extent());
+        assertTrue(reader.closed);
+    }
+
+    /** The smallest resolution-level that is at least as large as the target is read. */
+    @Test
+    void testAtLeast() throws ImageIOException {
+        assertLevelRead(1, new Extent(40, 30, 1));
+        assertLevelRead(1, new Extent(50, 40, 1));
+        assertLevelRead(2, new Extent(1, 1, 1));
+    }
+
+    /** When only one dimension of a smaller level is too small, a larger level is read. */
+    @Test
+    void testAtLeastOneDimension() throws ImageIOException {
+        assertLevelRead(1, new Extent(26, 1, 1));
+        assertLevelRead(0, new Extent(1, 41, 1));
+    }
+
+    /** When no resolution-level is sufficiently large, the full resolution is read. */
+    @Test
+    void testTargetLargerThanImage() throws ImageIOException {
+        assertLevelRead(0, new Extent(200, 10, 1));
+    }
+
+    /** Reads with a target, and checks that a particular resolution-level was read. */
+    private void assertLevelRead(int expectedLevel, Extent target) throws ImageIOException {
+        PyramidReader reader = new PyramidReader();
+        Stack stack = reader.readStackAtLeast(PATH, target, context);
+        assertEquals(LEVELS[expectedLevel], stack.extent());
+        assertTrue(reader.closed);
+    }
+
+    /** Opens a single-series image, with a resolution-level of each size in {@code LEVELS}. */
+    private static class PyramidReader extends StackReader {
+
+        /** Whether the opened file has been closed. */
+        private boolean closed = false;
+
+        @Override
+        public OpenedImageFile openFile(Path path, ExecutionTimeRecorder executionTimeRecorder) {
+            return new PyramidOpenedFile();
+        }
+
+        /** An opened image-pyramid, whose voxels are all zero. */
+        private class PyramidOpenedFile implements OpenedImageFile {
+
+            @Override
+            public TimeSeries open(int seriesIndex, Logger logger) throws ImageIOException {
+                return openResolution(seriesIndex, 0, logger);
+            }
+
+            @Override
+            public TimeSeries openResolution(int seriesIndex, int resolutionLevel, Logger logger)
+                    throws ImageIOException {
+                return new TimeSeries(
+                        new Stack(
+                                dimensionsForResolution(seriesIndex, resolutionLevel, logger)
+                                        .extent()));
+            }
+
+            @Override
+            public int numberResolutionLevels(int seriesIndex) {
+                return LEVELS.length;
+            }
+
+            @Override
+            public Dimensions dimensionsForResolution(
+                    int seriesIndex, int resolutionLevel, Logger logger) throws ImageIOException {
+                if (resolutionLevel < 0 || resolutionLevel >= LEVELS.length) {
+                    throw new ImageIOException(
+                            "Resolution-level does not exist: " + resolutionLevel);
+                }
+                return new Dimensions(LEVELS[resolutionLevel]);
+            }
+
+            @Override
+            public Dimensions dimensionsForSeries(int seriesIndex, Logger logger) {
+                return new Dimensions(LEVELS[0]);
+            }
+
+            @Override
+            public int numberSeries() {
+                return 1;
+            }
+
+            @Override
+            public Optional<List<String>> channelNames(Logger logger) {
+                return Optional.empty();
+            }
+
+            @Override
+            public int numberChannels(Logger logger) {
+                return 1;
+            }
+
+            @Override
+            public int numberFrames(Logger logger) {
+                return 1;
+            }
+
+            @Override
+            public int bitDepth(Logger logger) {
+                return 8;
+            }
+
+            @Override
+            public ImageTimestampsAttributes timestamps() throws ImageIOException {
+                throw new ImageIOException("Timestamps are not supported");
+            }
+
+            @Override
+            public Optional<ImageLocation> location() {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<ImagePyramidMetadata> pyramid() {
+                return Optional.empty();
+            }
+
+            @Override
+            public boolean isRGB(Logger logger) {
+                return false;
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.channel.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.anchoranalysis.core.index.GetOperationFailedException;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.channel.factory.ChannelFactory;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.dimensions.IncorrectImageSizeException;
+import org.anchoranalysis.image.core.stack.ImageLocation;
+import org.anchoranalysis.image.core.stack.ImagePyramidMetadata;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.bean.channel.IndexedChannel;
+import org.anchoranalysis.image.io.channel.input.ChannelMap;
+import org.anchoranalysis.image.io.stack.input.ImageTimestampsAttributes;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.image.io.stack.time.TimeSeries;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OpenedNamedChannels}, with a file that has several channels and frames.
+ *
+ * @author Owen Feehan
+ */
+class OpenedNamedChannelsTest {
+
+    private static final int NUMBER_CHANNELS = 2;
+
+    private static final int NUMBER_FRAMES = 3;
+
+    private static final Dimensions DIMENSIONS = new Dimensions(2, 2, 1);
+
+    private Logger logger = new Logger(new NullMessageLogger());
+
+    /** The size of the time-dimension is the number of frames in the file. */
+    @Test
+    void testSizeT() throws ImageIOException {
+        for (boolean efficient : new boolean[] {false, true}) {
+            FramesOpenedFile file = new FramesOpenedFile(efficient);
+            assertEquals(NUMBER_FRAMES, channels(file).sizeT(logger));
+            assertEquals(NUMBER_FRAMES, file.open(0, logger).size());
+        }
+    }
+
+    /**
+     * When channels are opened individually, the same channel is returned for each request, even
+     * after every other channel and frame has been requested, and each is opened only once.
+     */
+    @Test
+    void testChannelsRetained() throws GetOperationFailedException {
+        FramesOpenedFile file = new FramesOpenedFile(true);
+        OpenedNamedChannels channels = channels(file);
+
+        Channel first = channels.getChannel("c0", 0, logger);
+        for (int frame = 0; frame < NUMBER_FRAMES; frame++) {
+            for (int index = 0; index < NUMBER_CHANNELS; index++) {
+                Channel channel = channels.getChannel("c" + index, frame, logger);
+                assertEquals(valueFor(frame, index), channel.extract().voxel(0, 0, 0));
+            }
+        }
+
+        assertSame(first, channels.getChannel("c0", 0, logger));
+        assertEquals(NUMBER_FRAMES * NUMBER_CHANNELS, file.numberChannelsOpened);
+    }
+
+    /** Maps a name {@code c0}, {@code c1} etc. to each channel in {@code file}. */
+    private static OpenedNamedChannels channels(OpenedImageFile file) {
+        ChannelMap map = new ChannelMap();
+        for (int index = 0; index < NUMBER_CHANNELS; index++) {
+            map.add(new IndexedChannel("c" + index, index));
+        }
+        return new OpenedNamedChannels(file, map, 0);
+    }
+
+    /** The value of every voxel in a particular channel and frame. */
+    private static int valueFor(int frame, int channelIndex) {
+        return 1 + frame * NUMBER_CHANNELS + channelIndex;
+    }
+
+    /** An opened file with several frames and channels, created in memory. */
+    private static class FramesOpenedFile implements OpenedImageFile {
+
+        /** Whether individual channels can be opened efficiently. */
+        private final boolean efficient;
+
+        /** How many times a channel has been opened individually. */
+        private int numberChannelsOpened = 0;
+
+        public FramesOpenedFile(boolean efficient) {
+            this.efficient = efficient;
+        }
+
+        @Override
+        public TimeSeries open(int seriesIndex, Logger logger) throws ImageIOException {
+            List<Stack> frames = new ArrayList<>();
+            try {
+                for (int frame = 0; frame < NUMBER_FRAMES; frame++) {
+                    frames.add(new Stack(channelsInFrame(frame)));
+                }
+            } catch (IncorrectImageSizeException e) {
+                throw new ImageIOException(e);
+            }
+            return new TimeSeries(frames.stream());
+        }
+
+        @Override
+        public Channel openChannel(
+                int seriesIndex, int timeIndex, int channelIndex, Logger logger) {
+            numberChannelsOpened++;
+            return channel(timeIndex, channelIndex);
+        }
+
+        @Override
+        public boolean canOpenChannelEfficiently() {
+            return efficient;
+        }
+
+        @Override
+        public int numberSeries() {
+            return 1;
+        }
+
+        @Override
+        public Optional<List<String>> channelNames(Logger logger) {
+            return Optional.empty();
+        }
+
+        @Override
+        public int numberChannels(Logger logger) {
+            return NUMBER_CHANNELS;
+        }
+
+        @Override
+        public int numberFrames(Logger logger) {
+            return NUMBER_FRAMES;
+        }
+
+        @Override
+        public int bitDepth(Logger logger) {
+            return 8;
+        }
+
+        @Override
+        public ImageTimestampsAttributes timestamps() throws ImageIOException {
+            throw new ImageIOException("Timestamps are not supported");
+        }
+
+        @Override
+        public Optional<ImageLocation> location() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<ImagePyramidMetadata> pyramid() {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isRGB(Logger logger) {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // NOTHING TO DO
+        }
+
+        @Override
+        public Dimensions dimensionsForSeries(int seriesIndex, Logger logger) {
+            return DIMENSIONS;
+        }
+
+        /** Creates every channel in a frame. */
+        private static Stream<Channel> channelsInFrame(int frame) {
+            return IntStream.range(0, NUMBER_CHANNELS).mapToObj(index -> channel(frame, index));
+        }
+
+        /** Creates a channel, whose voxels all have the value for a particular frame. */
+        private static Channel channel(int frame, int channelIndex) {
+            Channel channel =
+                    ChannelFactory.instance().create(DIMENSIONS, UnsignedByteVoxelType.INSTANCE);
+            channel.assignValue(valueFor(frame, channelIndex)).toAll();
+            return channel;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.object.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.anchoranalysis.core.serialize.DeserializationFailedException;
+import org.anchoranalysis.core.time.OperationContext;
+import org.anchoranalysis.image.io.object.output.hdf5.HDF5ObjectsGenerator;
+import org.anchoranalysis.image.voxel.object.ObjectCollection;
+import org.anchoranalysis.image.voxel.object.ObjectCollectionFactory;
+import org.anchoranalysis.image.voxel.object.ObjectMask;
+import org.anchoranalysis.io.output.bean.OutputWriteSettings;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link ObjectCollectionReader} on objects written by {@link HDF5ObjectsGenerator}, with
+ * both the packed layout and the layout with a dataset for each object.
+ *
+ * @author Owen Feehan
+ */
+class ObjectCollectionReaderTest {
+
+    private static final OperationContext CONTEXT =
+            new OperationContext(new Logger(new NullMessageLogger()));
+
+    @TempDir Path directory;
+
+    /** Every packed object is read back, with identical bounding-boxes and voxels. */
+    @Test
+    void testCollectionPacked() throws DeserializationFailedException {
+        testCollection(true);
+    }
+
+    /** Every object, with a dataset for each, is read back identically. */
+    @Test
+    void testCollectionPerObject() throws DeserializationFailedException {
+        testCollection(false);
+    }
+
+    /** A single packed object is read back by its index. */
+    @Test
+    void testSingleObjectPacked() throws DeserializationFailedException {
+        testSingleObject(true);
+    }
+
+    /** A single object, with a dataset for each, is read back by its index. */
+    @Test
+    void testSingleObjectPerObject() throws DeserializationFailedException {
+        testSingleObject(false);
+    }
+
+    /** An empty packed collection is read back as empty. */
+    @Test
+    void testEmptyPacked() throws DeserializationFailedException {
+        testEmpty(true);
+    }
+
+    /** An empty collection, with a dataset for each object, is read back as empty. */
+    @Test
+    void testEmptyPerObject() throws DeserializationFailedException {
+        testEmpty(false);
+    }
+
+    private void testCollection(boolean packed) throws DeserializationFailedException {
+        ObjectCollection objects = createObjects();
+        Path path = write(objects, packed);
+        ObjectCollection read = ObjectCollectionReader.createFromPath(path, CONTEXT);
+
+        assertEquals(objects.size(), read.size());
+        for (int i = 0; i < objects.size(); i++) {
+            assertIdentical(objects.get(i), read.get(i));
+        }
+    }
+
+    /** Each object is read back by its index, and an index out of range is rejected. */
+    private void testSingleObject(boolean packed) throws DeserializationFailedException {
+        ObjectCollection objects = createObjects();
+        Path path = write(objects, packed);
+
+        for (int i = 0; i < objects.size(); i++) {
+            assertIdentical(objects.get(i), ObjectCollectionReader.createObjectFromPath(path, i));
+        }
+        assertThrows(
+                DeserializationFailedException.class,
+                () -> ObjectCollectionReader.createObjectFromPath(path, objects.size()));
+    }
+
+    private void testEmpty(boolean packed) throws DeserializationFailedException {
+        Path path = write(ObjectCollectionFactory.empty(), packed);
+
+        assertTrue(ObjectCollectionReader.createFromPath(path, CONTEXT).isEmpty());
+        assertThrows(
+                DeserializationFailedException.class,
+                () -> ObjectCollectionReader.createObjectFromPath(path, 0));
+    }
+
+    /** Writes objects to a HDF5 file in the temporary directory. */
+    private Path write(ObjectCollection objects, boolean packed) {
+        Path path = directory.resolve(packed ? "packed.h5" : "perObject.h5");
+        new HDF5ObjectsGenerator(true, packed)
+                .writeToFile(objects, new OutputWriteSettings(), path);
+        return path;
+    }
+
+    /**
+     * Objects of different sizes and positions, including a 2D object and an object too large to
+     * be written in a single block.
+     */
+    private static ObjectCollection createObjects() {
+        return ObjectCollectionFactory.of(
+                createObject(new Point3i(2, 3, 0), new Extent(5, 4, 1)),
+                createObject(new Point3i(10, 1, 2), new Extent(3, 7, 3)),
+                createObject(new Point3i(0, 5, 1), new Extent(131, 117, 71)));
+    }
+
+    /** Creates an object where a pattern of voxels, varying in each dimension, are on. */
+    private static ObjectMask createObject(Point3i corner, Extent extent) {
+        ObjectMask object = new ObjectMask(BoundingBox.createReuse(corner, extent));
+        for (int z = 0; z < extent.z(); z++) {
+            for (int y = 0; y < extent.y(); y++) {
+                for (int x = 0; x < extent.x(); x++) {
+                    if ((x + 2 * y + 3 * z) % 5 < 2) {
+                        object.assignOn().toVoxel(x, y, z);
+                    }
+                }
+            }
+        }
+        return object;
+    }
+
+    private static void assertIdentical(ObjectMask expected, ObjectMask actual) {
+        assertEquals(expected.boundingBox(), actual.boundingBox());
+        assertTrue(expected.equalsDeep(actual));
+    }
+}
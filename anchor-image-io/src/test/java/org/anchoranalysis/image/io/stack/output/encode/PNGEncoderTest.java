@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.dimensions.IncorrectImageSizeException;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.Extent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link PNGEncoder}, by decoding what it writes with {@link ImageIO}.
+ *
+ * @author Owen Feehan
+ */
+class PNGEncoderTest {
+
+    /** An odd size, so that rows are not aligned with any block. */
+    private static final Extent EXTENT = new Extent(67, 41, 1);
+
+    /** Large enough to be filtered and compressed concurrently, in several blocks. */
+    private static final Extent EXTENT_LARGE = new Extent(700, 500, 1);
+
+    private static final int DEFAULT_LEVEL = 6;
+
+    private static final int MAX_LEVEL = 9;
+
+    @TempDir Path directory;
+
+    /** A single 8-bit channel is decoded identically. */
+    @Test
+    void testUnsignedByteGrayscale()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, false, true, DEFAULT_LEVEL);
+    }
+
+    /** A single 16-bit channel is decoded identically. */
+    @Test
+    void testUnsignedShortGrayscale()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, false, true, DEFAULT_LEVEL);
+    }
+
+    /** Three 8-bit channels are decoded identically, as RGB. */
+    @Test
+    void testUnsignedByteRGB()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, true, true, DEFAULT_LEVEL);
+    }
+
+    /** Three 16-bit channels are decoded identically, as RGB. */
+    @Test
+    void testUnsignedShortRGB()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, true, true, DEFAULT_LEVEL);
+    }
+
+    /** Images are decoded identically, when rows are not filtered. */
+    @Test
+    void testUnfiltered()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, false, false, DEFAULT_LEVEL);
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, true, false, DEFAULT_LEVEL);
+    }
+
+    /** Images are decoded identically, with every compression level. */
+    @Test
+    void testEachLevel()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, true, true, level);
+            testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, false, false, level);
+        }
+    }
+
+    /** A large image, compressed in several blocks, is decoded identically. */
+    @Test
+    void testLarge()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT_LARGE, UnsignedShortVoxelType.INSTANCE, true, true, 1);
+        testRoundTrip(EXTENT_LARGE, UnsignedByteVoxelType.INSTANCE, false, true, MAX_LEVEL);
+    }
+
+    /** A stack with more than one z-slice is rejected. */
+    @Test
+    void testZStack() throws IncorrectImageSizeException, CreateException {
+        Stack stack =
+                PatternedStack.create(
+                        new Extent(8, 8, 2),
+                        UnsignedByteVoxelType.INSTANCE,
+                        1,
+                        false,
+                        Optional.empty());
+        PNGEncoder encoder = new PNGEncoder(DEFAULT_LEVEL, true);
+        Path path = directory.resolve("stack.png");
+        assertThrows(ImageIOException.class, () -> encoder.encode(stack, false, path));
+    }
+
+    /** Encodes a patterned stack, and checks that it decodes identically. */
+    private void testRoundTrip(
+            Extent extent, VoxelDataType dataType, boolean rgb, boolean filter, int level)
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        int numberChannels = rgb ? 3 : 1;
+        Stack stack =
+                PatternedStack.create(extent, dataType, numberChannels, rgb, Optional.empty());
+
+        Path path = directory.resolve(String.format("image_%s_%d.png", filter, level));
+        new PNGEncoder(level, filter).encode(stack, rgb, path);
+
+        BufferedImage image = ImageIO.read(path.toFile());
+        assertEquals(numberChannels, image.getRaster().getNumBands());
+        assertEquals(dataType.numberBytes() * 8, image.getColorModel().getComponentSize(0));
+        for (int c = 0; c < numberChannels; c++) {
+            PatternedStack.assertSlice(image.getRaster(), c, 0, c, dataType, extent);
+        }
+    }
+}
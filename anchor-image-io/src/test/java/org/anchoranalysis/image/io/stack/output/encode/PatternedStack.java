@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.channel.factory.ChannelFactory;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.dimensions.IncorrectImageSizeException;
+import org.anchoranalysis.image.core.dimensions.Resolution;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.voxel.buffer.VoxelBuffer;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Creates stacks whose voxels follow a known pattern, and checks decoded images against the
+ * pattern.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PatternedStack {
+
+    /**
+     * Creates a stack, whose voxels follow the pattern.
+     *
+     * @param extent the size of the stack.
+     * @param dataType the data-type of every channel.
+     * @param numberChannels the number of channels.
+     * @param rgb whether the stack is RGB, in which case there must be three channels.
+     * @param resolution the resolution of the stack, if known.
+     * @return the newly created stack.
+     * @throws IncorrectImageSizeException if the channels differ in size, which should not occur.
+     * @throws CreateException if {@code rgb} is true, but there are not three channels.
+     */
+    public static Stack create(
+            Extent extent,
+            VoxelDataType dataType,
+            int numberChannels,
+            boolean rgb,
+            Optional<Resolution> resolution)
+            throws IncorrectImageSizeException, CreateException {
+        Dimensions dimensions = new Dimensions(extent, resolution);
+        List<Channel> channels = new ArrayList<>();
+        for (int c = 0; c < numberChannels; c++) {
+            Channel channel = ChannelFactory.instance().create(dimensions, dataType);
+            for (int z = 0; z < extent.z(); z++) {
+                VoxelBuffer<?> buffer = channel.voxels().any().slice(z);
+                for (int y = 0; y < extent.y(); y++) {
+                    for (int x = 0; x < extent.x(); x++) {
+                        buffer.putInt(extent.offset(x, y), expectedValue(x, y, z, c, dataType));
+                    }
+                }
+            }
+            channels.add(channel);
+        }
+        return new Stack(rgb, channels.toArray(Channel[]::new));
+    }
+
+    /**
+     * Asserts that a band of a decoded image has identical voxels to a z-slice and channel of the
+     * pattern.
+     *
+     * @param raster the decoded image.
+     * @param band the band in {@code raster} to check.
+     * @param z the index of the z-slice in the pattern.
+     * @param channel the index of the channel in the pattern.
+     * @param dataType the data-type of the pattern.
+     * @param extent the size of the stack, of which {@code raster} is a z-slice.
+     */
+    public static void assertSlice(
+            Raster raster, int band, int z, int channel, VoxelDataType dataType, Extent extent) {
+        assertEquals(extent.x(), raster.getWidth());
+        assertEquals(extent.y(), raster.getHeight());
+        for (int y = 0; y < extent.y(); y++) {
+            for (int x = 0; x < extent.x(); x++) {
+                assertEquals(
+                        expectedValue(x, y, z, channel, dataType),
+                        raster.getSample(x, y, band),
+                        () -> String.format("band %d", band));
+            }
+        }
+    }
+
+    /**
+     * The value of a voxel in the pattern, spanning the full range of the data-type.
+     *
+     * <p>It varies both smoothly and irregularly, so that every filter may be chosen.
+     */
+    private static int expectedValue(int x, int y, int z, int channel, VoxelDataType dataType) {
+        int mask = (1 << (dataType.numberBytes() * 8)) - 1;
+        int smooth = x * 31 + y * 17 + z * 7 + channel * 101;
+        int irregular = (x * y * 2654435) >>> 7;
+        return (smooth ^ (irregular % 5 == 0 ? irregular : 0)) & mask;
+    }
+}
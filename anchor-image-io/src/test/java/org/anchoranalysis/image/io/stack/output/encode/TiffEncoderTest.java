@@ -0,0 +1,246 @@
+/*-
+ * #%L
+ * anchor-image-io
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.image.io.stack.output.encode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.stream.ImageInputStream;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.dimensions.IncorrectImageSizeException;
+import org.anchoranalysis.image.core.dimensions.Resolution;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+import org.anchoranalysis.spatial.box.Extent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link TiffEncoder}, by decoding what it writes with {@link ImageIO}.
+ *
+ * @author Owen Feehan
+ */
+class TiffEncoderTest {
+
+    /** An odd size, so that rows are not aligned with any strip. */
+    private static final Extent EXTENT = new Extent(67, 41, 1);
+
+    /** A z-stack, with an odd size. */
+    private static final Extent EXTENT_STACK = new Extent(67, 41, 5);
+
+    /** Large enough that each page is divided into several strips. */
+    private static final Extent EXTENT_LARGE = new Extent(600, 400, 2);
+
+    private static final int DEFAULT_LEVEL = 6;
+
+    private static final int MAX_LEVEL = 9;
+
+    private static final double DELTA = 1e-9;
+
+    private static final int TAG_DESCRIPTION = 270;
+
+    private static final int TAG_X_RESOLUTION = 282;
+
+    private static final int TAG_Y_RESOLUTION = 283;
+
+    private static final int TAG_RESOLUTION_UNIT = 296;
+
+    @TempDir Path directory;
+
+    /** A single 8-bit channel is decoded identically. */
+    @Test
+    void testUnsignedByteSingleChannel()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, 1, false, DEFAULT_LEVEL);
+    }
+
+    /** A single 16-bit channel is decoded identically. */
+    @Test
+    void testUnsignedShortSingleChannel()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, 1, false, DEFAULT_LEVEL);
+    }
+
+    /** Several 16-bit channels are decoded identically, each as a separate page. */
+    @Test
+    void testMultipleChannels()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, 4, false, DEFAULT_LEVEL);
+    }
+
+    /** A z-stack with several channels is decoded identically. */
+    @Test
+    void testZStack()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT_STACK, UnsignedByteVoxelType.INSTANCE, 2, false, DEFAULT_LEVEL);
+        testRoundTrip(EXTENT_STACK, UnsignedShortVoxelType.INSTANCE, 3, false, DEFAULT_LEVEL);
+    }
+
+    /** A RGB z-stack is decoded identically, with each z-slice as a single page. */
+    @Test
+    void testRGB()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT_STACK, UnsignedByteVoxelType.INSTANCE, 3, true, DEFAULT_LEVEL);
+        testRoundTrip(EXTENT, UnsignedShortVoxelType.INSTANCE, 3, true, DEFAULT_LEVEL);
+    }
+
+    /** Pages with several strips are decoded identically. */
+    @Test
+    void testLarge()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        testRoundTrip(EXTENT_LARGE, UnsignedShortVoxelType.INSTANCE, 2, false, 1);
+        testRoundTrip(EXTENT_LARGE, UnsignedByteVoxelType.INSTANCE, 3, true, 0);
+    }
+
+    /** Images are decoded identically, with every compression level. */
+    @Test
+    void testEachLevel()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            testRoundTrip(EXTENT_STACK, UnsignedShortVoxelType.INSTANCE, 2, false, level);
+            testRoundTrip(EXTENT, UnsignedByteVoxelType.INSTANCE, 3, true, level);
+        }
+    }
+
+    /** The resolution is recorded in the same manner as ImageJ. */
+    @Test
+    void testResolution()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        Resolution resolution = new Resolution(0.2e-6, 0.25e-6, 0.5e-6);
+        Path path =
+                encode(
+                        EXTENT_STACK,
+                        UnsignedByteVoxelType.INSTANCE,
+                        1,
+                        false,
+                        DEFAULT_LEVEL,
+                        Optional.of(resolution));
+        TIFFDirectory directory = readDirectory(path, 0);
+
+        // The number of pixels per micron
+        assertEquals(5.0, directory.getTIFFField(TAG_X_RESOLUTION).getAsDouble(0), DELTA);
+        assertEquals(4.0, directory.getTIFFField(TAG_Y_RESOLUTION).getAsDouble(0), DELTA);
+        assertEquals(1, directory.getTIFFField(TAG_RESOLUTION_UNIT).getAsInt(0));
+
+        String description = directory.getTIFFField(TAG_DESCRIPTION).getAsString(0);
+        assertTrue(description.contains("slices=5\n"), description);
+        assertTrue(description.contains("unit=micron\n"), description);
+        assertTrue(description.contains("spacing=0.5\n"), description);
+    }
+
+    /** No resolution is recorded, when the stack has none. */
+    @Test
+    void testNoResolution()
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        Path path =
+                encode(
+                        EXTENT,
+                        UnsignedByteVoxelType.INSTANCE,
+                        1,
+                        false,
+                        DEFAULT_LEVEL,
+                        Optional.empty());
+        TIFFDirectory directory = readDirectory(path, 0);
+        assertNull(directory.getTIFFField(TAG_X_RESOLUTION));
+        assertNull(directory.getTIFFField(TAG_RESOLUTION_UNIT));
+        assertNull(directory.getTIFFField(TAG_DESCRIPTION));
+    }
+
+    /**
+     * Encodes a patterned stack, and checks that it decodes identically.
+     *
+     * <p>Each page is expected to contain a channel of a z-slice, with channels varying fastest,
+     * or all channels of a z-slice, if RGB.
+     */
+    private void testRoundTrip(
+            Extent extent, VoxelDataType dataType, int numberChannels, boolean rgb, int level)
+            throws IncorrectImageSizeException, CreateException, ImageIOException, IOException {
+        Path path = encode(extent, dataType, numberChannels, rgb, level, Optional.empty());
+
+        ImageReader reader = ImageIO.getImageReadersByFormatName("tiff").next();
+        try (ImageInputStream stream = ImageIO.createImageInputStream(path.toFile())) {
+            reader.setInput(stream);
+            int channelsPerPage = rgb ? numberChannels : 1;
+            assertEquals(extent.z() * numberChannels / channelsPerPage, reader.getNumImages(true));
+            for (int page = 0; page < reader.getNumImages(true); page++) {
+                int z = page * channelsPerPage / numberChannels;
+                int firstChannel = (page * channelsPerPage) % numberChannels;
+                for (int band = 0; band < channelsPerPage; band++) {
+                    PatternedStack.assertSlice(
+                            reader.read(page).getRaster(),
+                            band,
+                            z,
+                            firstChannel + band,
+                            dataType,
+                            extent);
+                }
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /** Encodes a patterned stack to a TIFF file. */
+    private Path encode(
+            Extent extent,
+            VoxelDataType dataType,
+            int numberChannels,
+            boolean rgb,
+            int level,
+            Optional<Resolution> resolution)
+            throws IncorrectImageSizeException, CreateException, ImageIOException {
+        Stack stack = PatternedStack.create(extent, dataType, numberChannels, rgb, resolution);
+        Path path =
+                directory.resolve(
+                        String.format(
+                                "image_%s_%d_%d_%s_%d.tif",
+                                dataType, extent.z(), numberChannels, rgb, level));
+        new TiffEncoder(level).encode(stack, rgb, path);
+        return path;
+    }
+
+    /** Reads the directory describing a particular page of a TIFF file. */
+    private static TIFFDirectory readDirectory(Path path, int page) throws IOException {
+        ImageReader reader = ImageIO.getImageReadersByFormatName("tiff").next();
+        try (ImageInputStream stream = ImageIO.createImageInputStream(path.toFile())) {
+            reader.setInput(stream);
+            return TIFFDirectory.createFromMetadata(reader.getImageMetadata(page));
+        } finally {
+            reader.dispose();
+        }
+    }
+}
@@ -29,7 +29,7 @@ package org.anchoranalysis.image.voxel.neighborhood;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.stream.IntStream;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
 import org.anchoranalysis.image.voxel.object.ObjectMask;
@@ -40,19 +40,19 @@ import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
 /**
  * Adds edges if objects neighbor each other.
  *
+ * <p>Objects are identified by their index in a {@link ObjectCollection}, so that a caller may map
+ * an index to any vertex-type, or use the index directly as a vertex.
+ *
  * @author Owen Feehan
- * @param <V> vertex-type
  */
-class EdgeAdder<V> {
+class EdgeAdder {
 
     // START REQUIRED ARGUMENTS
-    /** A list of vertices */
-    private final List<V> verticesAsList;
-
-    /** How to convert a individual vertex to an object-mask. */
-    private final Function<V, ObjectMask> vertexToObject;
+    /** The objects, whose indices identify each vertex. */
+    private final ObjectCollection objects;
 
-    private final AddEdge<V> addEdge;
+    /** Called to add an edge between the indices of two neighboring objects. */
+    private final AddEdge addEdge;
 
     /** Avoids any edge if any two objects have a common pixel. */
     private final EdgeAdderParameters parameters;
@@ -63,35 +63,43 @@ class EdgeAdder<V> {
     private final BoundingBoxRTree<Integer> rTree;
 
     /**
-     * Create extract objects from a vertex.
+     * Create for particular objects.
      *
-     * @param verticesAsList a list of vertices.
-     * @param vertexToObject how to convert a individual vertex to an object-mask.
-     * @param objects the objects represented in the graph.
-     * @param addEdge
+     * @param objects the objects represented in the graph, whose indices identify each vertex.
+     * @param addEdge called to add an edge between the indices of two neighboring objects.
      * @param parameters avoids any edge if any two objects have a common pixel.
      */
-    public EdgeAdder(
-            List<V> verticesAsList,
-            Function<V, ObjectMask> vertexToObject,
-            ObjectCollection objects,
-            AddEdge<V> addEdge,
-            EdgeAdderParameters parameters) {
-        this.verticesAsList = verticesAsList;
-        this.vertexToObject = vertexToObject;
+    public EdgeAdder(ObjectCollection objects, AddEdge addEdge, EdgeAdderParameters parameters) {
+        this.objects = objects;
         this.addEdge = addEdge;
         this.parameters = parameters;
         this.rTree = createIndicesRTree(objects);
     }
 
+    /** Adds an edge between the indices of two neighboring objects. */
     @FunctionalInterface
-    public static interface AddEdge<V> {
-        void addEdge(V src, V dest, int numBorderPixels);
+    public static interface AddEdge {
+
+        /**
+         * Adds an edge.
+         *
+         * @param index1 the index of the first object.
+         * @param index2 the index of the second object.
+         * @param numberBorderVoxels the number of voxels on the border between the objects.
+         */
+        void addEdge(int index1, int index2, int numberBorderVoxels);
     }
 
-    public void addEdgesFor(
-            int ignoreIndex, ObjectMask object, V vertexWith, Extent sceneExtent, boolean do3D)
-            throws CreateException {
+    /**
+     * Adds edges between an object and any objects that neighbor it.
+     *
+     * @param index the index of the object in the collection.
+     * @param sceneExtent the size of the image, the object-masks exist in.
+     * @param do3D if true, the Z-dimension is also considered for neighbors.
+     * @throws CreateException if the object cannot be dilated.
+     */
+    public void addEdgesFor(int index, Extent sceneExtent, boolean do3D) throws CreateException {
+        ObjectMask object = objects.get(index);
 
         ObjectMask dilated =
                 MorphologicalDilation.dilate(
@@ -101,27 +109,19 @@ class EdgeAdder<V> {
                         1,
                         parameters.isBigNeighborhood());
 
-        addWithDilatedMask(ignoreIndex, object, vertexWith, dilated);
+        addWithDilatedMask(index, object, dilated);
     }
 
-    private void addWithDilatedMask(
-            int ignoreIndex, ObjectMask object, V vertexWith, ObjectMask dilated) {
+    private void addWithDilatedMask(int index, ObjectMask object, ObjectMask dilated) {
         Set<Integer> indicesIntersects = rTree.intersectsWith(dilated.boundingBox());
         for (int j : indicesIntersects) {
 
             // We enforce an ordering, so as not to do the same pair twice (or the identity case)
-            if (doSkipIndex(j, ignoreIndex)) {
+            if (doSkipIndex(j, index)) {
                 continue;
             }
 
-            V vertexOther = verticesAsList.get(j);
-
-            maybeAddEdge(
-                    object,
-                    dilated,
-                    vertexToObject.apply(vertexOther),
-                    vertexWith,
-                    verticesAsList.get(j));
+            maybeAddEdge(object, dilated, objects.get(j), index, j);
         }
     }
 
@@ -139,7 +139,7 @@ class EdgeAdder<V> {
     }
 
     private void maybeAddEdge(
-            ObjectMask object, ObjectMask dilated, ObjectMask other, V vertexWith, V vertexOther) {
+            ObjectMask object, ObjectMask dilated, ObjectMask other, int index, int indexOther) {
         // Check that they don't overlap
         if (parameters.isPreventObjectIntersection() && object.hasIntersectingVoxels(other)) {
             return;
@@ -148,17 +148,14 @@ class EdgeAdder<V> {
         // How many border pixels shared between the two?
         int numberSharedVoxels = numberBorderVoxels(dilated, other);
         if (numberSharedVoxels > 0) {
-            addEdge.addEdge(vertexWith, vertexOther, numberSharedVoxels);
+            addEdge.addEdge(index, indexOther, numberSharedVoxels);
         }
     }
 
     /** Creates an r-tree mapping the bounding-box of objects to their index in a collection. */
     private static BoundingBoxRTree<Integer> createIndicesRTree(ObjectCollection objects) {
-        BoundingBoxRTree<Integer> tree = new BoundingBoxRTree<>(objects.size());
-        for (int i = 0; i < objects.size(); i++) {
-            tree.add(objects.get(i).boundingBox(), i);
-        }
-        return tree;
+        List<Integer> indices = IntStream.range(0, objects.size()).boxed().toList();
+        return new BoundingBoxRTree<>(indices, index -> objects.get(index).boundingBox());
     }
 
     private static int numberBorderVoxels(ObjectMask object1Dilated, ObjectMask object2) {
@@ -31,6 +31,7 @@ import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.core.graph.GraphWithPayload;
+import org.anchoranalysis.core.graph.IndexedGraph;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
 import org.anchoranalysis.image.voxel.object.ObjectMask;
 import org.anchoranalysis.spatial.box.Extent;
@@ -75,6 +76,33 @@ public class NeighborGraph {
                 do3D);
     }
 
+    /**
+     * Like {@link #create(ObjectCollection, Extent, boolean, boolean)} but creates a compact {@link
+     * IndexedGraph}.
+     *
+     * <p>Each vertex is the index of an object in {@code objects}, and the weight of each edge is
+     * the number of neighboring voxels between objects.
+     *
+     * @param objects objects to create a graph of neighbors for, and whose indices become the
+     *     vertices in the graph.
+     * @param sceneExtent the size of the image, the object-masks exist in.
+     * @param preventObjectIntersection iff true, objects can only be neighbors, if they have no
+     *     intersecting voxels.
+     * @param do3D if true, the Z-dimension is also considered for neighbors. Otherwise, only the X
+     *     and Y dimensions.
+     * @return the newly created graph.
+     * @throws CreateException if any objects are not fully contained in the scene.
+     */
+    public static IndexedGraph createIndexed(
+            ObjectCollection objects,
+            Extent sceneExtent,
+            boolean preventObjectIntersection,
+            boolean do3D)
+            throws CreateException {
+        return NeighborGraphCreator.createGraphIndexed(
+                objects, sceneExtent, preventObjectIntersection, do3D);
+    }
+
     /**
      * Like {@link #create(ObjectCollection, Extent, boolean, boolean)} but extracts objects from a
      * list of elements which form the vertices.
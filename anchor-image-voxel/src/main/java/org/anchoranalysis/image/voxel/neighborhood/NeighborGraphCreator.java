@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.function.Function;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.core.graph.GraphWithPayload;
+import org.anchoranalysis.core.graph.IndexedGraph;
 import org.anchoranalysis.image.voxel.neighborhood.EdgeAdder.AddEdge;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
 import org.anchoranalysis.image.voxel.object.ObjectCollectionFactory;
@@ -99,6 +100,42 @@ class NeighborGraphCreator<V> {
                 do3D);
     }
 
+    /**
+     * Create a compact graph, where each vertex is the index of an object in {@code objects}, and
+     * the weight of each edge is the number of neighboring voxels between objects.
+     *
+     * <p>Unlike the other methods, this does not depend on the vertex-type, so is static.
+     *
+     * @param objects the objects, whose indices become the vertices in the graph.
+     * @param sceneExtent the size of the image, the object-masks exist in.
+     * @param preventObjectIntersection iff true, objects can only be neighbors, if they have no
+     *     intersecting voxels.
+     * @param do3D if true, the Z-dimension is also considered for neighbors. Otherwise, only the X
+     *     and Y dimensions.
+     * @return the newly created graph.
+     * @throws CreateException if any objects are not fully contained in the scene.
+     */
+    public static IndexedGraph createGraphIndexed(
+            ObjectCollection objects,
+            Extent sceneExtent,
+            boolean preventObjectIntersection,
+            boolean do3D)
+            throws CreateException {
+        checkObjectsInScene(objects, sceneExtent);
+
+        IndexedGraph graph = new IndexedGraph(objects.size());
+
+        EdgeAdder edgeAdder =
+                new EdgeAdder(
+                        objects,
+                        graph::addEdge,
+                        new EdgeAdderParameters(preventObjectIntersection));
+        for (int i = 0; i < objects.size(); i++) {
+            edgeAdder.addEdgesFor(i, sceneExtent, do3D);
+        }
+        return graph;
+    }
+
     /**
      * Create the graph for a given list of vertices.
      *
@@ -129,20 +166,15 @@ class NeighborGraphCreator<V> {
         ObjectCollection objects = ObjectCollectionFactory.mapFrom(vertices, vertexToObject::apply);
         checkObjectsInScene(objects, sceneExtent);
 
-        EdgeAdder<V> edgeAdder =
-                new EdgeAdder<>(
-                        vertices,
-                        vertexToObject,
+        EdgeAdder edgeAdder =
+                new EdgeAdder(
                         objects,
-                        createAndAddEdge(graph, edgeFromVertices),
+                        createAndAddEdge(graph, vertices, edgeFromVertices),
                         edgeAdderParameters);
 
         for (int i = 0; i < objects.size(); i++) {
-
-            V vertexWith = vertices.get(i);
-            graph.addVertex(vertexWith);
-
-            edgeAdder.addEdgesFor(i, objects.get(i), vertexWith, sceneExtent, do3D);
+            graph.addVertex(vertices.get(i));
+            edgeAdder.addEdgesFor(i, sceneExtent, do3D);
         }
 
         return graph;
@@ -160,10 +192,15 @@ class NeighborGraphCreator<V> {
         }
     }
 
-    private static <V, E> AddEdge<V> createAndAddEdge(
-            GraphWithPayload<V, E> graph, EdgeFromVertices<V, E> edgeFromVertices) {
-        return (vertex1, vertex2, numPixels) ->
-                graph.addEdge(
-                        vertex1, vertex2, edgeFromVertices.createEdge(vertex1, vertex2, numPixels));
+    private static <V, E> AddEdge createAndAddEdge(
+            GraphWithPayload<V, E> graph,
+            List<V> vertices,
+            EdgeFromVertices<V, E> edgeFromVertices) {
+        return (index1, index2, numPixels) -> {
+            V vertex1 = vertices.get(index1);
+            V vertex2 = vertices.get(index2);
+            graph.addEdge(
+                    vertex1, vertex2, edgeFromVertices.createEdge(vertex1, vertex2, numPixels));
+        };
     }
 }
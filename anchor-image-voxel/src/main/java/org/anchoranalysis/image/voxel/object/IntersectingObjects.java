@@ -30,15 +30,23 @@ import com.google.common.base.Functions;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.experimental.Accessors;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.exception.friendly.AnchorImpossibleSituationException;
 import org.anchoranalysis.core.graph.GraphWithoutPayload;
+import org.anchoranalysis.core.graph.IndexedGraph;
 import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.BoundingBoxIndex;
+import org.anchoranalysis.spatial.index.BoundingBoxIndexFactory;
+import org.anchoranalysis.spatial.index.SpatialGridIndex;
 import org.anchoranalysis.spatial.point.Point3i;
 import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
 
@@ -48,15 +56,18 @@ import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
  * <p>It can store elements of any type, so long each element maps deterministically to an {@link
  * ObjectMask}.
  *
- * <p>Internally, a r-tree data structure is used of object-masks (indexed via a derived
- * bounding-box) for efficient queries. However, search methods check not only bounding-box overlap,
- * but also that objects have at least one overlapping voxel.
+ * <p>Internally, a spatial index is used of object-masks (indexed via a derived bounding-box) for
+ * efficient queries. However, search methods check not only bounding-box overlap, but also that
+ * objects have at least one overlapping voxel.
+ *
+ * <p>The spatial index is a {@link SpatialGridIndex} when there are many similarly-sized objects,
+ * and otherwise an r-tree, as selected by {@link BoundingBoxIndexFactory}.
  *
  * <p>All objects that are passed to the constructor are initially included. An existing object may
  * be removed, but no additional object may be added.
  *
  * <p>Note that when an object is removed, it remains in the {@code objects} associated with the
- * r-tree, but is removed from the index.
+ * spatial index, but is removed from the index.
  *
  * @see <a href="https://en.wikipedia.org/wiki/R-tree">R-tree on Wikipedia</a>
  * @see BoundingBoxRTree for a related structure operating only on bounding-boxes
@@ -67,12 +78,15 @@ import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
 @Accessors(fluent = true)
 public class IntersectingObjects<T> {
 
-    /** An r-tree that stores indices of the objects for each bounding-box */
-    private BoundingBoxRTree<T> tree;
+    /** A spatial index that stores the elements for each bounding-box. */
+    private BoundingBoxIndex<T> tree;
 
     /** Extracts an {@link ObjectMask} from an element. */
     private final Function<T, ObjectMask> extractObject;
 
+    /** All elements passed to the constructor, in their original order. */
+    private final List<T> elements;
+
     /**
      * Creates from an {@link ObjectCollection}.
      *
@@ -84,15 +98,15 @@ public class IntersectingObjects<T> {
     }
 
     /**
-     * Creates an r-tree for particular objects, as extracted from elements.
+     * Creates a spatial index for particular objects, as extracted from elements.
      *
      * @param elements the elements, each corresponding to a unique object.
      * @param extractObject a function that extracts a unique {@link ObjectMask} from an element.
      */
     public IntersectingObjects(Collection<T> elements, Function<T, ObjectMask> extractObject) {
         this.extractObject = extractObject;
-        this.tree = new BoundingBoxRTree<>(elements.size());
-        elements.stream().forEach(element -> tree.add(boxFor(element), element));
+        this.elements = new ArrayList<>(elements);
+        this.tree = BoundingBoxIndexFactory.create(elements, this::boxFor);
     }
 
     /**
@@ -221,7 +235,39 @@ public class IntersectingObjects<T> {
     }
 
     /**
-     * Number of items in the r-tree.
+     * Like {@link #asGraph} but constructs a compact {@link IndexedGraph}.
+     *
+     * <p>Each vertex is identified by the index of an element in the collection passed to the
+     * constructor. The vertex of any element that has been removed is also removed from the graph.
+     *
+     * <p>This avoids any boxing, hashing or checking for existing edges per edge, and so is
+     * preferred to {@link #asGraph} for large numbers of elements.
+     *
+     * @return a newly created graph, with integer vertices.
+     */
+    public IndexedGraph asGraphIndexed() {
+        IndexedGraph graph = new IndexedGraph(elements.size());
+
+        Set<T> remaining = tree.asSet();
+        Map<T, Integer> indices = new IdentityHashMap<>(elements.size());
+        for (int index = 0; index < elements.size(); index++) {
+            T element = elements.get(index);
+            indices.put(element, index);
+            if (!remaining.contains(element)) {
+                removeVertex(graph, index);
+            }
+        }
+
+        for (int index = 0; index < elements.size(); index++) {
+            if (graph.containsVertex(index)) {
+                addEdgesIndexed(graph, index, indices);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Number of items in the spatial index.
      *
      * @return the number of items
      */
@@ -260,6 +306,32 @@ public class IntersectingObjects<T> {
         }
     }
 
+    /**
+     * Adds an edge from the vertex at {@code index} to any intersecting vertex with a higher index.
+     *
+     * <p>As intersection is symmetric, this adds each edge exactly once, without checking for
+     * existing edges.
+     */
+    private void addEdgesIndexed(IndexedGraph graph, int index, Map<T, Integer> indices) {
+        Iterator<T> intersecting =
+                intersectsWithStream(extractObject.apply(elements.get(index))).iterator();
+        while (intersecting.hasNext()) {
+            int other = indices.get(intersecting.next());
+            if (other > index) {
+                graph.addEdgeUnchecked(index, other, 0);
+            }
+        }
+    }
+
+    /** Removes a vertex that is known to exist. */
+    private static void removeVertex(IndexedGraph graph, int vertex) {
+        try {
+            graph.removeVertex(vertex);
+        } catch (OperationFailedException e) {
+            throw new AnchorImpossibleSituationException();
+        }
+    }
+
     /** Extracts a {@link BoundingBox} for an element. */
     private BoundingBox boxFor(T element) {
         return extractObject.apply(element).boundingBox();
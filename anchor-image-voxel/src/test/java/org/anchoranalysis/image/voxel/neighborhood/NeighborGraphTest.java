@@ -30,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.util.function.ToIntFunction;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.core.graph.GraphWithPayload;
+import org.anchoranalysis.core.graph.IndexedGraph;
 import org.anchoranalysis.image.voxel.object.ObjectCollection;
 import org.anchoranalysis.image.voxel.object.ObjectCollectionFixture;
 import org.anchoranalysis.image.voxel.object.ObjectMask;
@@ -87,6 +88,15 @@ class NeighborGraphTest {
         GraphAsserter asserter = new GraphAsserter(graph, prefix, do3D);
         asserter.value(objects.size(), GraphWithPayload::numberVertices, "numberVertices");
         asserter.value(expectedNumberEdges, GraphWithPayload::numberEdges, "numberEdges");
+
+        IndexedGraph indexed =
+                NeighborGraph.createIndexed(
+                        objects,
+                        fixture.extentLargerThanAllObjects(),
+                        preventObjectIntersection,
+                        do3D);
+        assertEquals(objects.size(), indexed.numberVertices(), prefix + "_indexedNumberVertices");
+        assertEquals(expectedNumberEdges, indexed.numberEdges(), prefix + "_indexedNumberEdges");
     }
 
     /**
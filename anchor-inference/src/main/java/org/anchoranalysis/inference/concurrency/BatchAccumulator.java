@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.inference.concurrency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.anchoranalysis.inference.InferenceModel;
+
+/**
+ * Groups inputs submitted concurrently by different callers into batches, and executes each batch
+ * on a single model from a {@link ConcurrentModelPool}.
+ *
+ * <p>Inputs are only grouped together if they share an identical <i>batch-key</i>, which
+ * should describe everything that must be compatible for inputs to be batched e.g. the shape of
+ * the input tensor and the names of the outputs.
+ *
+ * <p>A batch is executed either by the caller whose input fills it to the maximum size, or
+ * otherwise by the first waiting caller whose maximum wait-time expires. No additional thread is
+ * used.
+ *
+ * @author Owen Feehan
+ * @param <T> model-type
+ */
+class BatchAccumulator<T extends InferenceModel> {
+
+    /** A request from a single caller, awaiting its output. */
+    private static class Request<I, O> {
+        private final I input;
+        private final CompletableFuture<O> output = new CompletableFuture<>();
+
+        public Request(I input) {
+            this.input = input;
+        }
+    }
+
+    /** Requests that are waiting to be executed together. */
+    private static class PendingBatch<T extends InferenceModel, I, O> {
+        private final BatchFunction<T, I, O> function;
+        private final List<Request<I, O>> requests = new ArrayList<>();
+
+        public PendingBatch(BatchFunction<T, I, O> function) {
+            this.function = function;
+        }
+    }
+
+    /** The batch currently accumulating requests, for each batch-key. */
+    private final Map<Object, PendingBatch<T, ?, ?>> pending = new HashMap<>();
+
+    /**
+     * Submits an input to be executed as part of a batch, and waits until its output is available.
+     *
+     * @param <I> input-type
+     * @param <O> output-type
+     * @param input the input.
+     * @param batchKey only inputs with equal keys are batched together.
+     * @param function performs inference on a batch. When inputs are batched together, only the
+     *     function of the first submitted input is used.
+     * @param parameters how to batch.
+     * @param pool the pool of models that executes each batch.
+     * @return the output corresponding to {@code input}.
+     * @throws Throwable if thrown by {@code function}, or by {@link
+     *     ConcurrentModelPool#executeOrWait}.
+     */
+    public <I, O> O submit(
+            I input,
+            Object batchKey,
+            BatchFunction<T, I, O> function,
+            BatchParameters parameters,
+            ConcurrentModelPool<T> pool)
+            throws Throwable { // NOSONAR
+        Request<I, O> request = new Request<>(input);
+
+        PendingBatch<T, I, O> batch;
+        boolean full;
+        synchronized (this) {
+            batch = pendingBatchFor(batchKey, function);
+            batch.requests.add(request);
+            full = batch.requests.size() >= parameters.getMaxBatchSize();
+            if (full) {
+                pending.remove(batchKey);
+            }
+        }
+
+        if (full) {
+            execute(batch, pool);
+        } else {
+            try {
+                return request.output.get(parameters.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (claim(batchKey, batch)) {
+                    execute(batch, pool);
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+        return waitFor(request);
+    }
+
+    /** The batch currently pending for a key, creating it if it doesn't exist. */
+    @SuppressWarnings("unchecked")
+    private <I, O> PendingBatch<T, I, O> pendingBatchFor(
+            Object batchKey, BatchFunction<T, I, O> function) {
+        return (PendingBatch<T, I, O>)
+                pending.computeIfAbsent(batchKey, key -> new PendingBatch<>(function));
+    }
+
+    /**
+     * Removes {@code batch} from the pending batches, if it is still pending.
+     *
+     * @return true if {@code batch} was still pending, and the caller is now responsible for
+     *     executing it.
+     */
+    private synchronized boolean claim(Object batchKey, PendingBatch<T, ?, ?> batch) {
+        if (pending.get(batchKey) == batch) {
+            pending.remove(batchKey);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Executes a batch on a model from {@code pool} and scatters the outputs to each request.
+     *
+     * <p>Any failure is propagated to every request in the batch.
+     */
+    private static <T extends InferenceModel, I, O> void execute(
+            PendingBatch<T, I, O> batch, ConcurrentModelPool<T> pool) {
+        List<I> inputs = new ArrayList<>(batch.requests.size());
+        for (Request<I, O> request : batch.requests) {
+            inputs.add(request.input);
+        }
+        try {
+            List<O> outputs = pool.executeOrWait(model -> batch.function.apply(model, inputs));
+            if (outputs.size() != inputs.size()) {
+                throw new IllegalStateException(
+                        String.format(
+                                "A batch of %d inputs unexpectedly produced %d outputs.",
+                                inputs.size(), outputs.size()));
+            }
+            for (int i = 0; i < outputs.size(); i++) {
+                batch.requests.get(i).output.complete(outputs.get(i));
+            }
+        } catch (Throwable e) { // NOSONAR
+            for (Request<I, O> request : batch.requests) {
+                request.output.completeExceptionally(e);
+            }
+        }
+    }
+
+    /** Waits indefinitely for the output of a request, unwrapping any exception that occurred. */
+    private static <O> O waitFor(Request<?, O> request) throws Throwable { // NOSONAR
+        try {
+            return request.output.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+}
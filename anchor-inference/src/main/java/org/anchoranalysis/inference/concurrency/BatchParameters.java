@@ -0,0 +1,59 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.inference.concurrency;
+
+import lombok.Value;
+
+/**
+ * How inputs from concurrent callers are grouped into batches, before inference.
+ *
+ * @author Owen Feehan
+ */
+@Value
+public class BatchParameters {
+
+    /**
+     * The maximum number of inputs in a single batch.
+     *
+     * <p>A value of 1 (or less) disables batching.
+     */
+    private int maxBatchSize;
+
+    /**
+     * The maximum number of milliseconds a caller waits for further inputs to join its batch,
+     * before the batch is executed regardless of its size.
+     */
+    private long maxWaitMillis;
+
+    /**
+     * Whether batching is enabled i.e. more than one input may occur in a batch.
+     *
+     * @return true if batching is enabled, false otherwise.
+     */
+    public boolean isEnabled() {
+        return maxBatchSize > 1;
+    }
+}
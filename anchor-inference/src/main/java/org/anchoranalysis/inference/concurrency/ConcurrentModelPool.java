@@ -25,8 +25,12 @@
  */
 package org.anchoranalysis.inference.concurrency;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.anchoranalysis.core.functional.FunctionalIterate;
 import org.anchoranalysis.core.functional.checked.CheckedFunction;
 import org.anchoranalysis.core.log.Logger;
@@ -37,11 +41,24 @@ import org.anchoranalysis.inference.InferenceModel;
  *
  * <p>The copies van variously use GPU and CPU for execution, with GPU always being given priority.
  *
+ * <p>Models using a GPU are created immediately, but models using a CPU are only created as needed,
+ * when no existing model is available, up to the limit determined by the {@link ConcurrencyPlan}.
+ * A model using a CPU that is unused for longer than an idle timeout is closed and removed from the
+ * pool, and will be recreated if needed later. Idle models are checked for when a model is
+ * returned to the pool, and periodically by a background daemon thread, so they are also evicted
+ * when the pool is no longer being used.
+ *
  * @author Owen Feehan
  * @param <T> model-type
  */
 public class ConcurrentModelPool<T extends InferenceModel> implements AutoCloseable {
 
+    /**
+     * The default time in milliseconds, after which an unused model using a CPU is removed from
+     * the pool.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+
     /**
      * A queue that prioritizes if {@code hasPriority==true} and blocks if {@link
      * PriorityBlockingQueue#take} is called but no elements are available.
@@ -51,8 +68,29 @@ public class ConcurrentModelPool<T extends InferenceModel> implements AutoClosea
     /** Function to create a model. */
     private final CreateModelForPool<T> createModel;
 
+    /** Groups inputs from concurrent callers into batches, for {@link #executeOrWaitBatched}. */
+    private final BatchAccumulator<T> batches = new BatchAccumulator<>();
+
+    /** How long a model using a CPU may be unused, before it is removed from the pool. */
+    private final long idleTimeoutNanos;
+
+    /** Where errors are reported, when closing an idle model. */
+    private final Logger logger;
+
+    /** Records metrics about the usage of the pool. */
+    private final PoolMetricsRecorder metrics = new PoolMetricsRecorder();
+
+    /** Periodically evicts idle models, even if no model is returned to the pool. */
+    private final ScheduledExecutorService evictor;
+
+    /** The maximum number of models using a CPU that may exist at the same time. */
+    private int capacityCPU;
+
+    /** The number of models using a CPU that currently exist, whether in use or not. */
+    private int numberCPU;
+
     /**
-     * Creates with a particular plan and function to create models.
+     * Creates with a particular plan and function to create models, and the default idle timeout.
      *
      * @param plan a plan determining how many CPUs and GPUs to use for inference.
      * @param createModel called to create a new model, as needed.
@@ -62,22 +100,52 @@ public class ConcurrentModelPool<T extends InferenceModel> implements AutoClosea
     public ConcurrentModelPool(
             ConcurrencyPlan plan, CreateModelForPool<T> createModel, Logger logger)
             throws CreateModelFailedException {
+        this(plan, createModel, DEFAULT_IDLE_TIMEOUT_MILLIS, logger);
+    }
+
+    /**
+     * Creates with a particular plan and function to create models.
+     *
+     * @param plan a plan determining how many CPUs and GPUs to use for inference.
+     * @param createModel called to create a new model, as needed.
+     * @param idleTimeoutMillis how long in milliseconds a model using a CPU may be unused, before
+     *     it is removed from the pool.
+     * @param logger where feedback is written about how many GPUs or CPUs were selected.
+     * @throws CreateModelFailedException if a model cannot be created.
+     */
+    public ConcurrentModelPool(
+            ConcurrencyPlan plan,
+            CreateModelForPool<T> createModel,
+            long idleTimeoutMillis,
+            Logger logger)
+            throws CreateModelFailedException {
         this.createModel = createModel;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.logger = logger;
         this.queue = new PriorityBlockingQueue<>();
 
-        int gpusAdded = addNumberModels(plan.numberGPUs(), true, createModel);
+        int gpusAdded = addNumberGPUModels(plan.numberGPUs());
 
         GPUMessageLogger.maybeLog(plan.numberGPUs(), gpusAdded, logger.messageLogger());
 
-        // TODO is it necessary to always keep a CPU in reserve, in case the GPU fails?
-        addNumberModels(plan.numberCPUs() - gpusAdded, false, createModel);
+        this.capacityCPU = Math.max(plan.numberCPUs() - gpusAdded, 0);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(ConcurrentModelPool::daemon);
+        long periodMillis = Math.max(idleTimeoutMillis, 1);
+        this.evictor.scheduleWithFixedDelay(
+                () -> evictIdle(System.nanoTime()),
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS);
     }
 
     /**
      * Execute on the next available model (or wait until one becomes available).
      *
+     * <p>If no model is available, and fewer models exist than planned, a new model is created.
+     *
      * <p>If an exception is thrown while executing on a GPU, the GPU processor is no longer used,
-     * and instead an additional CPU node is added. The failed job is tried again.
+     * and instead an additional CPU node is permitted. The failed job is tried again.
      *
      * @param functionToExecute function to execute on a given model, possibly throwing an
      *     exception.
@@ -91,24 +159,70 @@ public class ConcurrentModelPool<T extends InferenceModel> implements AutoClosea
             throws Throwable { // NOSONAR
         while (true) {
             WithPriority<ConcurrentModel<T>> model = getOrWait();
+            long start = System.nanoTime();
             try {
                 S returnValue = functionToExecute.apply(model.get());
 
                 // When finished executing without error we return the model to the pool
+                metrics.recordExecution(model.isGPU(), System.nanoTime() - start);
                 giveBack(model);
                 return returnValue;
             } catch (ConcurrentModelException e) {
+                metrics.recordExecution(model.isGPU(), System.nanoTime() - start);
                 if (model.isGPU()) {
-                    // Add extra CPU model, and try to execute the function again
-                    addNumberModels(1, false, createModel);
+                    // Permit an extra CPU model instead, and try to execute the function again
+                    increaseCapacityCPU();
                 } else {
-                    // Rethrow if error occurred on a CPU
+                    // Rethrow if error occurred on a CPU, as the model itself remains usable
+                    giveBack(model);
                     throw e.getCause();
                 }
             }
         }
     }
 
+    /**
+     * Like {@link #executeOrWait} but groups {@code input} with inputs from other concurrent
+     * callers into a single batch, which is executed together on one model.
+     *
+     * <p>Inputs are only batched together with other inputs with an equal {@code batchKey}. A batch
+     * is executed as soon as it reaches {@link BatchParameters#getMaxBatchSize} or when {@link
+     * BatchParameters#getMaxWaitMillis} has elapsed, whichever is sooner.
+     *
+     * <p>If batching is disabled in {@code parameters}, {@code input} is executed immediately as a
+     * batch of size one.
+     *
+     * @param <I> input-type, for each element in the batch.
+     * @param <O> output-type, for each element in the batch.
+     * @param input the input to perform inference on.
+     * @param batchKey inputs are only batched together when their keys are equal. It should
+     *     encode anything that must be identical for inputs to be compatible e.g. input shape.
+     * @param function performs inference on a batch of inputs. When inputs are batched together,
+     *     only the function associated with the first input in the batch is called.
+     * @param parameters how to batch.
+     * @return the output corresponding to {@code input}.
+     * @throws Throwable if thrown from {@code function} while executing on a CPU. It is suppressed
+     *     if thrown on a GPU.
+     */
+    public <I, O> O executeOrWaitBatched(
+            I input, Object batchKey, BatchFunction<T, I, O> function, BatchParameters parameters)
+            throws Throwable { // NOSONAR
+        if (parameters.isEnabled()) {
+            return batches.submit(input, batchKey, function, parameters, this);
+        } else {
+            return executeOrWait(model -> function.apply(model, List.of(input)).get(0));
+        }
+    }
+
+    /**
+     * A snapshot of metrics describing how the pool has been used so far.
+     *
+     * @return a newly-created snapshot of the metrics.
+     */
+    public ConcurrentModelPoolMetrics metrics() {
+        return metrics.snapshot();
+    }
+
     /**
      * Close all models, to indicate they are no longer in use, and to perform tidy-up.
      *
@@ -116,61 +230,162 @@ public class ConcurrentModelPool<T extends InferenceModel> implements AutoClosea
      */
     @Override
     public void close() throws Exception {
+        evictor.shutdownNow();
         for (WithPriority<ConcurrentModel<T>> model : queue) {
             model.get().getModel().close();
         }
     }
 
     /**
-     * Gets an instantiated model to be used.
+     * Gets an instantiated model to be used, creating a new model if none is available and
+     * capacity allows.
+     *
+     * <p>If neither is possible, it waits until a model is returned to the pool, or further
+     * capacity is permitted, whichever comes first.
      *
      * <p>After usage, {@link #giveBack} should be called to return the model to the pool.
      *
      * @return the model to be used concurrently, with an associated priority.
      * @throws InterruptedException
+     * @throws CreateModelFailedException if a new model cannot be created.
      */
-    private WithPriority<ConcurrentModel<T>> getOrWait() throws InterruptedException {
-        return queue.take();
+    private WithPriority<ConcurrentModel<T>> getOrWait()
+            throws InterruptedException, CreateModelFailedException {
+        long start = System.nanoTime();
+        while (true) {
+            WithPriority<ConcurrentModel<T>> model = queue.poll();
+            if (model == null) {
+                model = createCPUModelIfCapacity().orElse(null);
+            }
+            if (model != null) {
+                metrics.recordAcquisition(System.nanoTime() - start);
+                return model;
+            }
+            synchronized (this) {
+                // Checked while holding the lock, so a signal cannot be missed before waiting
+                if (queue.isEmpty() && numberCPU >= capacityCPU) {
+                    wait();
+                }
+            }
+        }
     }
 
     /**
-     * Returns the model to the pool.
+     * Returns the model to the pool, and removes any models that have become idle.
      *
      * @param model the model to return
      */
     private void giveBack(WithPriority<ConcurrentModel<T>> model) {
+        long timestamp = System.nanoTime();
+        model.markUsed(timestamp);
         queue.put(model);
+        signalAvailable();
+        evictIdle(timestamp);
     }
 
-    private int addNumberModels(int numberModels, boolean useGPU, CreateModelForPool<T> createModel)
-            throws CreateModelFailedException {
-        return FunctionalIterate.repeatCountSuccessful(
-                numberModels, () -> addModelCatchGPUException(useGPU, createModel));
+    /** Closes and removes any model using a CPU that has been unused for too long. */
+    private void evictIdle(long timestamp) {
+        for (WithPriority<ConcurrentModel<T>> model : queue) {
+            // The removal fails if another thread has meanwhile acquired the model
+            if (!model.isGPU()
+                    && model.nanosIdle(timestamp) > idleTimeoutNanos
+                    && queue.remove(model)) {
+                releaseCapacityCPU();
+                metrics.recordEvicted();
+                try {
+                    model.get().getModel().close();
+                } catch (Exception e) {
+                    logger.errorReporter()
+                            .recordError(
+                                    ConcurrentModelPool.class,
+                                    "Failed to close an idle model.",
+                                    e);
+                }
+            }
+        }
     }
 
-    /** Creates a model, return a boolean indicating whether it was successful or not. */
-    private boolean addModelCatchGPUException(boolean useGPU, CreateModelForPool<T> createModel)
+    /**
+     * Creates a model using a CPU, if fewer such models exist than permitted.
+     *
+     * @return the newly created model, not yet added to the queue, or {@link Optional#empty} if
+     *     there is no capacity.
+     * @throws CreateModelFailedException if the model cannot be created, including if no model is
+     *     returned, as otherwise the caller may wait indefinitely for a model that never exists.
+     */
+    private Optional<WithPriority<ConcurrentModel<T>>> createCPUModelIfCapacity()
             throws CreateModelFailedException {
-        if (useGPU) {
-            try {
-                return createAdd(true, createModel);
-            } catch (CreateModelFailedException e) {
-                // TODO Should this be logged somewhere, to give more information?
-                return false;
+        synchronized (this) {
+            if (numberCPU >= capacityCPU) {
+                return Optional.empty();
+            }
+            // Reserve the capacity, before creating the model outside the lock
+            numberCPU++;
+        }
+
+        boolean created = false;
+        try {
+            Optional<ConcurrentModel<T>> model = createModel.create(false);
+            if (!model.isPresent()) {
+                throw new CreateModelFailedException("No model could be created using a CPU.");
+            }
+            created = true;
+            metrics.recordCreated(false);
+            return Optional.of(new WithPriority<>(model.get(), false));
+        } finally {
+            if (!created) {
+                releaseCapacityCPU();
             }
-        } else {
-            return createAdd(false, createModel);
         }
     }
 
-    private boolean createAdd(boolean useGPU, CreateModelForPool<T> createModel)
-            throws CreateModelFailedException {
-        Optional<ConcurrentModel<T>> model = createModel.create(useGPU);
-        if (model.isPresent()) {
-            WithPriority<ConcurrentModel<T>> priority = new WithPriority<>(model.get(), useGPU);
-            queue.add(priority);
-            return true;
-        } else {
+    /**
+     * Permits an additional model using a CPU to be created, waking any callers that are waiting
+     * for a model.
+     */
+    private synchronized void increaseCapacityCPU() {
+        capacityCPU++;
+        notifyAll();
+    }
+
+    /**
+     * Indicates that a model using a CPU no longer exists, waking any callers that are waiting for
+     * a model, as another may now be created.
+     */
+    private synchronized void releaseCapacityCPU() {
+        numberCPU--;
+        notifyAll();
+    }
+
+    /** Wakes any callers that are waiting for a model, as one has been added to the queue. */
+    private synchronized void signalAvailable() {
+        notifyAll();
+    }
+
+    /** Creates a daemon thread, so that evicting idle models never prevents the JVM exiting. */
+    private static Thread daemon(Runnable runnable) {
+        Thread thread = new Thread(runnable, "evict-idle-models");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private int addNumberGPUModels(int numberModels) {
+        return FunctionalIterate.repeatCountSuccessful(numberModels, this::addGPUModel);
+    }
+
+    /** Creates a model using a GPU, returning whether it was successful or not. */
+    private boolean addGPUModel() {
+        try {
+            Optional<ConcurrentModel<T>> model = createModel.create(true);
+            if (model.isPresent()) {
+                metrics.recordCreated(true);
+                queue.add(new WithPriority<>(model.get(), true));
+                return true;
+            } else {
+                return false;
+            }
+        } catch (CreateModelFailedException e) {
+            // TODO Should this be logged somewhere, to give more information?
             return false;
         }
     }
@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.inference.concurrency;
+
+import lombok.Value;
+
+/**
+ * A snapshot of metrics describing how a {@link ConcurrentModelPool} has been used.
+ *
+ * @author Owen Feehan
+ */
+@Value
+public class ConcurrentModelPoolMetrics {
+
+    /** How many models using a GPU were created. */
+    private long numberCreatedGPU;
+
+    /** How many models using a CPU were created. */
+    private long numberCreatedCPU;
+
+    /** How many models were closed and removed from the pool, after being idle. */
+    private long numberEvicted;
+
+    /** How many times a model was acquired from the pool. */
+    private long numberAcquisitions;
+
+    /** The total time spent waiting to acquire a model from the pool, in milliseconds. */
+    private double totalWaitMillis;
+
+    /** The longest time spent waiting to acquire a model from the pool, in milliseconds. */
+    private double maxWaitMillis;
+
+    /** How many times a function was executed on a model using a GPU. */
+    private long numberExecutionsGPU;
+
+    /** How many times a function was executed on a model using a CPU. */
+    private long numberExecutionsCPU;
+
+    /** The total time spent executing functions on models using a GPU, in milliseconds. */
+    private double busyMillisGPU;
+
+    /** The total time spent executing functions on models using a CPU, in milliseconds. */
+    private double busyMillisCPU;
+
+    /**
+     * The mean time spent waiting to acquire a model from the pool.
+     *
+     * @return the mean time in milliseconds, or zero if no model was ever acquired.
+     */
+    public double meanWaitMillis() {
+        if (numberAcquisitions > 0) {
+            return totalWaitMillis / numberAcquisitions;
+        } else {
+            return 0.0;
+        }
+    }
+
+    /**
+     * The fraction of the total execution-time that occurred on a GPU.
+     *
+     * @return a value between 0 and 1 (inclusive), or zero if nothing was executed.
+     */
+    public double fractionBusyGPU() {
+        double total = busyMillisGPU + busyMillisCPU;
+        if (total > 0) {
+            return busyMillisGPU / total;
+        } else {
+            return 0.0;
+        }
+    }
+}
@@ -37,6 +37,15 @@ public class CreateModelFailedException extends AnchorCheckedException {
     /** */
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Creates with a message only.
+     *
+     * @param message the message.
+     */
+    public CreateModelFailedException(String message) {
+        super(message);
+    }
+
     /**
      * Creates with a cause only.
      *
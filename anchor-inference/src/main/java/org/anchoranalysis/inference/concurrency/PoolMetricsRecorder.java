@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.inference.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records metrics about a {@link ConcurrentModelPool} in a thread-safe way.
+ *
+ * <p>All times are recorded in nanoseconds.
+ *
+ * @author Owen Feehan
+ */
+class PoolMetricsRecorder {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final LongAdder createdGPU = new LongAdder();
+    private final LongAdder createdCPU = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWait = new LongAdder();
+    private final AtomicLong maxWait = new AtomicLong();
+    private final LongAdder executionsGPU = new LongAdder();
+    private final LongAdder executionsCPU = new LongAdder();
+    private final LongAdder busyGPU = new LongAdder();
+    private final LongAdder busyCPU = new LongAdder();
+
+    /**
+     * Records that a model was created.
+     *
+     * @param gpu whether the model uses a GPU.
+     */
+    public void recordCreated(boolean gpu) {
+        select(gpu, createdGPU, createdCPU).increment();
+    }
+
+    /** Records that an idle model was evicted from the pool. */
+    public void recordEvicted() {
+        evicted.increment();
+    }
+
+    /**
+     * Records that a model was acquired from the pool.
+     *
+     * @param nanosWaited how long was spent waiting to acquire the model.
+     */
+    public void recordAcquisition(long nanosWaited) {
+        acquisitions.increment();
+        totalWait.add(nanosWaited);
+        maxWait.accumulateAndGet(nanosWaited, Math::max);
+    }
+
+    /**
+     * Records that a function was executed on a model.
+     *
+     * @param gpu whether the model uses a GPU.
+     * @param nanosBusy how long the execution took.
+     */
+    public void recordExecution(boolean gpu, long nanosBusy) {
+        select(gpu, executionsGPU, executionsCPU).increment();
+        select(gpu, busyGPU, busyCPU).add(nanosBusy);
+    }
+
+    /**
+     * Creates a snapshot of the metrics recorded so far.
+     *
+     * @return a newly created snapshot.
+     */
+    public ConcurrentModelPoolMetrics snapshot() {
+        return new ConcurrentModelPoolMetrics(
+                createdGPU.sum(),
+                createdCPU.sum(),
+                evicted.sum(),
+                acquisitions.sum(),
+                toMillis(totalWait.sum()),
+                toMillis(maxWait.get()),
+                executionsGPU.sum(),
+                executionsCPU.sum(),
+                toMillis(busyGPU.sum()),
+                toMillis(busyCPU.sum()));
+    }
+
+    private static LongAdder select(boolean gpu, LongAdder adderGPU, LongAdder adderCPU) {
+        return gpu ? adderGPU : adderCPU;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
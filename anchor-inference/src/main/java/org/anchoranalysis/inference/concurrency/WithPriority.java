@@ -32,7 +32,8 @@ import lombok.EqualsAndHashCode;
  * Wraps an element of type {@code T} to ensure priority is given when the flag {@code gpu==true}.
  *
  * <p>The priority exists via an ordering of elements, where elements with flag {@code gpu==true}
- * always precede those with {@code gpu==false}.
+ * always precede those with {@code gpu==false}. Amongst elements with an identical flag, the most
+ * recently used element precedes others, so that seldom-used elements remain idle.
  *
  * @author Owen Feehan
  * @param <T> the element-type
@@ -47,6 +48,24 @@ public class WithPriority<T> implements Comparable<WithPriority<T>> {
     /** Whether the element is associated with a GPU, in which case, it is given priority. */
     private boolean gpu;
 
+    /**
+     * When the element was last used, as returned by {@link System#nanoTime}.
+     *
+     * <p>This should only be changed when the element is not in a queue.
+     */
+    @EqualsAndHashCode.Exclude private long timestampLastUsed;
+
+    /**
+     * Creates for an element, as if it was last used now.
+     *
+     * @param element the element to assign priority to.
+     * @param gpu whether the element is associated with a GPU, in which case, it is given
+     *     priority.
+     */
+    public WithPriority(T element, boolean gpu) {
+        this(element, gpu, System.nanoTime());
+    }
+
     /**
      * Gets the underlying element stored in the structure.
      *
@@ -65,9 +84,35 @@ public class WithPriority<T> implements Comparable<WithPriority<T>> {
         return gpu;
     }
 
-    /** Orders so that {@code gpu==true} has higher priority in queue to {@code gpu==false}. */
+    /**
+     * Records that the element was used at a particular time.
+     *
+     * @param timestamp when the element was used, as returned by {@link System#nanoTime}.
+     */
+    public void markUsed(long timestamp) {
+        this.timestampLastUsed = timestamp;
+    }
+
+    /**
+     * How long the element has been unused for.
+     *
+     * @param timestamp the current time, as returned by {@link System#nanoTime}.
+     * @return the number of nanoseconds since the element was last used.
+     */
+    public long nanosIdle(long timestamp) {
+        return timestamp - timestampLastUsed;
+    }
+
+    /**
+     * Orders so that {@code gpu==true} has higher priority in queue to {@code gpu==false}, and
+     * otherwise so the most recently used element has higher priority.
+     */
     @Override
     public int compareTo(WithPriority<T> other) {
-        return Boolean.compare(other.gpu, gpu);
+        int compareGPU = Boolean.compare(other.gpu, gpu);
+        if (compareGPU != 0) {
+            return compareGPU;
+        }
+        return Long.compare(other.timestampLastUsed, timestampLastUsed);
     }
 }
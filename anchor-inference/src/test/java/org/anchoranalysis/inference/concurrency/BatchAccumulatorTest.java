@@ -0,0 +1,173 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.inference.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BatchAccumulator} via {@link ConcurrentModelPool#executeOrWaitBatched}.
+ *
+ * @author Owen Feehan
+ */
+class BatchAccumulatorTest {
+
+    /** A wait so long, that a test would time out, if a batch waited for it to elapse. */
+    private static final long WAIT_LONG = 60000;
+
+    /** A short wait, after which a partially-filled batch is executed. */
+    private static final long WAIT_SHORT = 50;
+
+    private static final String BATCH_KEY = "key";
+
+    /** The size of each batch passed to the batch-function, in the order they occurred. */
+    private List<Integer> batchSizes;
+
+    private ExecutorService executor;
+
+    private ConcurrentModelPool<FakeModel> pool;
+
+    @BeforeEach
+    void setup() throws CreateModelFailedException {
+        batchSizes = Collections.synchronizedList(new ArrayList<>());
+        executor = Executors.newFixedThreadPool(2);
+        pool =
+                new ConcurrentModelPool<>(
+                        ConcurrencyPlan.multipleProcessors(2, 0),
+                        useGPU -> Optional.of(new ConcurrentModel<>(new FakeModel(), false)),
+                        new Logger(new NullMessageLogger()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    /** Two concurrent inputs fill a batch of size two, which executes without waiting. */
+    @Test
+    void testFlushOnSize() throws InterruptedException, ExecutionException {
+        BatchParameters parameters = new BatchParameters(2, WAIT_LONG);
+
+        long start = System.currentTimeMillis();
+        List<Future<Integer>> outputs = submitEach(List.of(3, 4), parameters, this::doubleEach);
+
+        assertEquals(List.of(6, 8), waitForAll(outputs));
+        assertEquals(List.of(2), batchSizes, "a single batch containing both inputs");
+        assertTrue(System.currentTimeMillis() - start < WAIT_LONG);
+    }
+
+    /** A single input in a larger batch is executed, once the maximum wait has elapsed. */
+    @Test
+    void testFlushOnTimeout() throws Throwable {
+        BatchParameters parameters = new BatchParameters(4, WAIT_SHORT);
+
+        int output = pool.executeOrWaitBatched(5, BATCH_KEY, this::doubleEach, parameters);
+
+        assertEquals(10, output);
+        assertEquals(List.of(1), batchSizes, "a batch with only the single input");
+    }
+
+    /** An exception while executing a batch, is thrown to every caller in the batch. */
+    @Test
+    void testExceptionPropagatedToAll() throws InterruptedException {
+        OperationFailedException failure = new OperationFailedException("inference failed");
+        BatchParameters parameters = new BatchParameters(2, WAIT_LONG);
+
+        List<Future<Integer>> outputs =
+                submitEach(
+                        List.of(1, 2),
+                        parameters,
+                        (model, inputs) -> {
+                            batchSizes.add(inputs.size());
+                            throw new ConcurrentModelException(failure);
+                        });
+
+        for (Future<Integer> output : outputs) {
+            ExecutionException thrown = assertThrows(ExecutionException.class, output::get);
+            assertSame(failure, thrown.getCause());
+        }
+        assertEquals(List.of(2), batchSizes, "both callers were in the failed batch");
+    }
+
+    /** Submits each input from a separate thread, with an identical batch-key. */
+    private List<Future<Integer>> submitEach(
+            List<Integer> inputs,
+            BatchParameters parameters,
+            BatchFunction<FakeModel, Integer, Integer> function) {
+        List<Future<Integer>> out = new ArrayList<>(inputs.size());
+        for (Integer input : inputs) {
+            Callable<Integer> task =
+                    () -> {
+                        try {
+                            return pool.executeOrWaitBatched(
+                                    input, BATCH_KEY, function, parameters);
+                        } catch (Exception e) {
+                            throw e;
+                        } catch (Throwable e) { // NOSONAR
+                            throw new ExecutionException(e);
+                        }
+                    };
+            out.add(executor.submit(task));
+        }
+        return out;
+    }
+
+    /** A batch-function that doubles each input, and records the size of the batch. */
+    private List<Integer> doubleEach(ConcurrentModel<FakeModel> model, List<Integer> inputs) {
+        batchSizes.add(inputs.size());
+        return inputs.stream().map(value -> value * 2).collect(Collectors.toList());
+    }
+
+    private static List<Integer> waitForAll(List<Future<Integer>> futures)
+            throws InterruptedException, ExecutionException {
+        List<Integer> out = new ArrayList<>(futures.size());
+        for (Future<Integer> future : futures) {
+            out.add(future.get());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,178 @@
+/*-
+ * #%L
+ * anchor-inference
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.inference.concurrency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.anchoranalysis.core.exception.OperationFailedException;
+import org.anchoranalysis.core.functional.checked.CheckedFunction;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.NullMessageLogger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ConcurrentModelPool}.
+ *
+ * @author Owen Feehan
+ */
+class ConcurrentModelPoolTest {
+
+    /** The maximum time a test may take, before it is considered to be deadlocked. */
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Logger LOGGER = new Logger(new NullMessageLogger());
+
+    /** Models that were created, in the order they were created. */
+    private final List<FakeModel> created = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * A caller waiting for a model, is served after the only GPU fails and a CPU is permitted
+     * instead.
+     */
+    @Test
+    void testFallbackToCPUAfterGPUFailure() throws Exception {
+        try (ConcurrentModelPool<FakeModel> pool =
+                new ConcurrentModelPool<>(
+                        ConcurrencyPlan.singleCPUProcessor(1), this::create, LOGGER)) {
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                CountDownLatch gpuInUse = new CountDownLatch(1);
+                CountDownLatch waiterStarted = new CountDownLatch(1);
+                Future<Boolean> failing =
+                        submit(
+                                executor,
+                                pool,
+                                model -> {
+                                    if (model.isGpu()) {
+                                        gpuInUse.countDown();
+                                        awaitUninterruptibly(waiterStarted);
+                                        throw new ConcurrentModelException(
+                                                new OperationFailedException("GPU failed"));
+                                    }
+                                    return model.isGpu();
+                                });
+                awaitUninterruptibly(gpuInUse);
+                Future<Boolean> waiting = submit(executor, pool, ConcurrentModel::isGpu);
+                waiterStarted.countDown();
+
+                assertTimeoutPreemptively(
+                        TIMEOUT,
+                        () -> {
+                            assertFalse(failing.get(), "retried on a CPU");
+                            assertFalse(waiting.get(), "served by a CPU");
+                        });
+                assertEquals(1, pool.metrics().getNumberCreatedCPU());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /** When a model cannot be created, an exception is thrown, rather than waiting forever. */
+    @Test
+    void testFailFastWhenNoModelCreated() throws Exception {
+        try (ConcurrentModelPool<FakeModel> pool =
+                new ConcurrentModelPool<>(
+                        ConcurrencyPlan.singleCPUProcessor(0),
+                        useGPU -> Optional.empty(),
+                        LOGGER)) {
+            assertTimeoutPreemptively(
+                    TIMEOUT,
+                    () ->
+                            assertThrows(
+                                    CreateModelFailedException.class,
+                                    () -> pool.executeOrWait(ConcurrentModel::isGpu)));
+        }
+    }
+
+    /** A model is evicted after it becomes idle, even if the pool is no longer used. */
+    @Test
+    void testEvictWhenQuiet() throws Throwable {
+        try (ConcurrentModelPool<FakeModel> pool =
+                new ConcurrentModelPool<>(
+                        ConcurrencyPlan.singleCPUProcessor(0), this::create, 20, LOGGER)) {
+            pool.executeOrWait(ConcurrentModel::isGpu);
+            assertEquals(1, created.size());
+
+            assertTimeoutPreemptively(
+                    TIMEOUT,
+                    () -> {
+                        while (pool.metrics().getNumberEvicted() == 0) {
+                            Thread.sleep(10);
+                        }
+                    });
+            assertTrue(created.get(0).isClosed(), "the evicted model is closed");
+        }
+    }
+
+    /** Creates a model, using a GPU if requested. */
+    private Optional<ConcurrentModel<FakeModel>> create(boolean useGPU) {
+        FakeModel model = new FakeModel();
+        created.add(model);
+        return Optional.of(new ConcurrentModel<>(model, useGPU));
+    }
+
+    /** Executes {@code function} on a model from {@code pool}, in a separate thread. */
+    private static Future<Boolean> submit(
+            ExecutorService executor,
+            ConcurrentModelPool<FakeModel> pool,
+            CheckedFunction<ConcurrentModel<FakeModel>, Boolean, ConcurrentModelException>
+                    function) {
+        return executor.submit(
+                () -> {
+                    try {
+                        return pool.executeOrWait(function);
+                    } catch (Exception e) {
+                        throw e;
+                    } catch (Throwable e) { // NOSONAR
+                        throw new ExecutionException(e);
+                    }
+                });
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
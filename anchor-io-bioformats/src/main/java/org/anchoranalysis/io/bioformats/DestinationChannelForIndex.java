@@ -43,7 +43,8 @@ public interface DestinationChannelForIndex {
      * Retrieves the channel corresponding to a particular index.
      *
      * @param index the index (beginning at 0).
-     * @return the corresponding channel.
+     * @return the corresponding channel, or null if the channel at this index is not needed, and
+     *     should not be copied.
      */
     Channel get(int index);
 }
@@ -64,6 +64,7 @@ import org.anchoranalysis.io.bioformats.copyconvert.ConvertTo;
 import org.anchoranalysis.io.bioformats.copyconvert.ConvertToFactory;
 import org.anchoranalysis.io.bioformats.copyconvert.CopyConvert;
 import org.anchoranalysis.io.bioformats.copyconvert.ImageFileShape;
+import org.anchoranalysis.spatial.box.BoundingBox;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.commons.math3.util.Pair;
@@ -145,7 +146,89 @@ class BioformatsOpenedRaster implements OpenedImageFile {
 
         VoxelDataType dataType = multiplexFormat(pixelType);
 
-        return openAsType(seriesIndex, dataType, logger);
+        return openAsType(seriesIndex, 0, Optional.empty(), dataType, logger);
+    }
+
+    @Override
+    public TimeSeries open(int seriesIndex, BoundingBox region, Logger logger)
+            throws ImageIOException {
+        if (calculateOrientation(logger) != OrientationChange.KEEP_UNCHANGED) {
+            // The region refers to the corrected orientation, so read everything, and then crop.
+            return OpenedImageFile.super.open(seriesIndex, region, logger);
+        }
+
+        OpenedImageFile.checkRegionInside(region, dimensionsForSeries(seriesIndex, logger));
+
+        VoxelDataType dataType = multiplexFormat(reader.getPixelType());
+
+        return openAsType(seriesIndex, 0, Optional.of(region), dataType, logger);
+    }
+
+    @Override
+    public Channel openChannel(int seriesIndex, int timeIndex, int channelIndex, Logger logger)
+            throws ImageIOException {
+        OpenedImageFile.checkChannelInside(timeIndex, channelIndex, sizeT, numberChannels);
+        try {
+            Dimensions dimensions = dimensionsWithoutOrientationChange(seriesIndex, 0);
+
+            VoxelDataType dataType = multiplexFormat(reader.getPixelType());
+
+            Channel channel =
+                    multiplexVoxelDataType(dataType)
+                            .createEmptyUninitialised(
+                                    calculateOrientation(logger).dimensions(dimensions));
+
+            CopyConvert.copyChannel(
+                    reader,
+                    channel,
+                    new ImageFileShape(dimensions, numberChannels, sizeT),
+                    timeIndex,
+                    channelIndex,
+                    createConverter(dataType),
+                    readOptions,
+                    calculateOrientation(logger));
+            return channel;
+        } catch (FormatException | IOException | CreateException e) {
+            throw new ImageIOException(
+                    String.format(
+                            "An error occurred opening channel %d at time-point %d of series %d",
+                            channelIndex, timeIndex, seriesIndex),
+                    e);
+        }
+    }
+
+    @Override
+    public boolean canOpenChannelEfficiently() {
+        return true;
+    }
+
+    @Override
+    public TimeSeries openResolution(int seriesIndex, int resolutionLevel, Logger logger)
+            throws ImageIOException {
+        checkResolutionLevel(seriesIndex, resolutionLevel);
+
+        VoxelDataType dataType = multiplexFormat(reader.getPixelType());
+
+        return openAsType(seriesIndex, resolutionLevel, Optional.empty(), dataType, logger);
+    }
+
+    @Override
+    public int numberResolutionLevels(int seriesIndex) {
+        reader.setSeries(seriesIndex);
+        return reader.getResolutionCount();
+    }
+
+    @Override
+    public Dimensions dimensionsForResolution(int seriesIndex, int resolutionLevel, Logger logger)
+            throws ImageIOException {
+        checkResolutionLevel(seriesIndex, resolutionLevel);
+        try {
+            Dimensions dimensions =
+                    dimensionsWithoutOrientationChange(seriesIndex, resolutionLevel);
+            return calculateOrientation(logger).dimensions(dimensions);
+        } finally {
+            reader.setResolution(0);
+        }
     }
 
     @Override
@@ -208,6 +291,35 @@ class BioformatsOpenedRaster implements OpenedImageFile {
         return ImagePyramidMetadataFactory.derivePyramidMetadata(reader);
     }
 
+    /**
+     * The dimensions of a particular resolution-level, with the image-resolution scaled to
+     * describe the same physical size as the full resolution.
+     *
+     * <p>This leaves {@code reader} set to the particular series and resolution-level.
+     */
+    private Dimensions dimensionsWithoutOrientationChange(int seriesIndex, int resolutionLevel)
+            throws ImageIOException {
+        reader.setSeries(seriesIndex);
+        Dimensions dimensions = dimensionsWithoutOrientationChange(seriesIndex);
+        if (resolutionLevel == 0) {
+            return dimensions;
+        }
+        reader.setResolution(resolutionLevel);
+        return dimensions.resizeXY(reader.getSizeX(), reader.getSizeY());
+    }
+
+    /** Throws an exception if a resolution-level does not exist for a series. */
+    private void checkResolutionLevel(int seriesIndex, int resolutionLevel)
+            throws ImageIOException {
+        int numberLevels = numberResolutionLevels(seriesIndex);
+        if (resolutionLevel < 0 || resolutionLevel >= numberLevels) {
+            throw new ImageIOException(
+                    String.format(
+                            "Resolution-level %d does not exist, as only %d level(s) exist for series %d.",
+                            resolutionLevel, numberLevels, seriesIndex));
+        }
+    }
+
     private Dimensions dimensionsWithoutOrientationChange(int seriesIndex) throws ImageIOException {
         try {
             return new DimensionsCreator(metadata).apply(reader, readOptions, seriesIndex);
@@ -216,25 +328,41 @@ class BioformatsOpenedRaster implements OpenedImageFile {
         }
     }
 
-    /** Opens as a specific data-type. */
-    private TimeSeries openAsType(int seriesIndex, VoxelDataType dataType, Logger logger)
+    /**
+     * Opens a particular resolution-level as a specific data-type.
+     *
+     * <p>If {@code region} is defined, only voxels inside the region are read.
+     */
+    private TimeSeries openAsType(
+            int seriesIndex,
+            int resolutionLevel,
+            Optional<BoundingBox> region,
+            VoxelDataType dataType,
+            Logger logger)
             throws ImageIOException {
 
         try {
-            LOG.debug(String.format("Opening series %d as %s", seriesIndex, dataType));
+            LOG.debug(
+                    String.format(
+                            "Opening series %d at resolution-level %d as %s",
+                            seriesIndex, resolutionLevel, dataType));
 
             LOG.debug(String.format("Size T = %d; Size C = %d", sizeT, numberChannels));
 
-            reader.setSeries(seriesIndex);
+            Dimensions dimensions =
+                    dimensionsWithoutOrientationChange(seriesIndex, resolutionLevel);
 
-            Dimensions dimensions = dimensionsWithoutOrientationChange(seriesIndex);
+            Dimensions dimensionsToRead =
+                    region.map(box -> dimensions.duplicateChangeExtent(box.extent()))
+                            .orElse(dimensions);
 
             // Assumes order of time first, and then channels
             Pair<List<Channel>, TimeSeries> pair =
                     createUninitialisedChannels(
-                            dimensions, multiplexVoxelDataType(dataType), logger);
+                            dimensionsToRead, multiplexVoxelDataType(dataType), logger);
 
-            copyBytesIntoChannels(pair.getFirst(), dimensions, dataType, readOptions, logger);
+            copyBytesIntoChannels(
+                    pair.getFirst(), dimensions, region, dataType, readOptions, logger);
 
             LOG.debug(
                     String.format(
@@ -246,6 +374,8 @@ class BioformatsOpenedRaster implements OpenedImageFile {
         } catch (ImageIOException e) {
             throw new ImageIOException(
                     String.format("An error occurred opening series %d", seriesIndex), e);
+        } finally {
+            reader.setResolution(0);
         }
     }
 
@@ -296,22 +426,19 @@ class BioformatsOpenedRaster implements OpenedImageFile {
     private void copyBytesIntoChannels(
             List<Channel> listChannels,
             Dimensions dimensions,
+            Optional<BoundingBox> region,
             VoxelDataType dataType,
             ReadOptions readOptions,
             Logger logger)
             throws ImageIOException {
 
         try {
-            // Determine what type to convert to
-            ConvertTo<?> convertTo =
-                    ConvertToFactory.create(
-                            reader, dataType, readOptions.effectiveBitsPerPixel(reader));
-
             CopyConvert.copyAllFrames(
                     reader,
                     listChannels,
                     new ImageFileShape(dimensions, numberChannels, sizeT),
-                    convertTo,
+                    region,
+                    createConverter(dataType),
                     readOptions,
                     calculateOrientation(logger));
         } catch (FormatException | IOException | CreateException e) {
@@ -321,6 +448,11 @@ class BioformatsOpenedRaster implements OpenedImageFile {
         }
     }
 
+    /** Determines how to convert voxels from the reader to {@code dataType}. */
+    private ConvertTo<?> createConverter(VoxelDataType dataType) throws CreateException {
+        return ConvertToFactory.create(reader, dataType, readOptions.effectiveBitsPerPixel(reader));
+    }
+
     /**
      * Lazy evaluation of the orientation, using the logger associated with the job not the
      * experiment.
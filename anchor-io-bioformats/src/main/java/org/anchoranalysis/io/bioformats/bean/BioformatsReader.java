@@ -26,20 +26,23 @@
 
 package org.anchoranalysis.io.bioformats.bean;
 
+import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
+import java.util.Optional;
 import loci.common.services.DependencyException;
 import loci.common.services.ServiceException;
 import loci.common.services.ServiceFactory;
 import loci.formats.IFormatReader;
 import loci.formats.ImageReader;
+import loci.formats.Memoizer;
 import loci.formats.UnknownFormatException;
 import loci.formats.ome.OMEXMLMetadata;
 import loci.formats.services.OMEXMLService;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.anchoranalysis.bean.annotation.AllowEmpty;
 import org.anchoranalysis.bean.annotation.BeanField;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.core.exception.OperationFailedException;
@@ -69,8 +72,40 @@ public class BioformatsReader extends StackReaderOrientationCorrection {
     /** Options that influence how stack is read. */
     @BeanField @Getter @Setter private ReadOptions options = new Default();
 
+    /**
+     * When true, the format-reader selected for a file-extension is reused for subsequent files
+     * with the same extension, avoiding probing all possible formats for each file.
+     *
+     * <p>The cached reader is only used if it confirms, from the file's contents, that it can read
+     * the file.
+     *
+     * <p>This is disabled by default, as it bypasses the priority order in which {@link
+     * ImageReader} probes formats. When several formats share an extension (e.g. vendor-specific
+     * TIFF variants and OME-TIFF all use {@code .tif}), a generic reader cached from an earlier
+     * file also accepts a later file that a more specific, higher-priority reader would otherwise
+     * read. It should only be enabled when all files with a given extension share one format.
+     */
+    @BeanField @Getter @Setter private boolean cacheReaderSelection = false;
+
+    /**
+     * If non-empty, a directory where Bioformats' {@link Memoizer} stores the parsed metadata of
+     * each file, so that re-opening a file skips metadata parsing.
+     *
+     * <p>If empty, no memoization occurs.
+     */
+    @BeanField @AllowEmpty @Getter @Setter private String memoizerDirectory = "";
+
     // END BEAN PROPERTIES
 
+    /**
+     * An {@link OMEXMLService} for each thread, as creating a service is expensive, but a service
+     * is not guaranteed to be thread-safe.
+     */
+    private static final ThreadLocal<OMEXMLService> SERVICE = new ThreadLocal<>();
+
+    /** Remembers which format-reader was selected for each file-extension, across all instances. */
+    private static final ReaderSelectionCache READER_SELECTION = new ReaderSelectionCache();
+
     /**
      * Create with particular options.
      *
@@ -126,23 +161,39 @@ public class BioformatsReader extends StackReaderOrientationCorrection {
         try {
             IFormatReader reader =
                     executionTimeRecorder.recordExecutionTime(
-                            "SelectAndInitReader", BioformatsReader::imageReader);
+                            "SelectAndInitReader", () -> selectReader(filePath));
             reader.setMetadataStore(metadata);
             configureReaderForPyramidal(reader);
             executionTimeRecorder.recordExecutionTime(
                     "Assigning file-path to BioformatsReader",
                     () -> reader.setId(filePath.toString()));
+            if (cacheReaderSelection) {
+                READER_SELECTION.remember(filePath, reader);
+            }
             return reader;
-        } catch (NoSuchMethodException
-                | ClassNotFoundException
-                | InstantiationException
-                | IllegalAccessException
-                | InvocationTargetException
-                | IOException e) {
+        } catch (ReflectiveOperationException | IOException e) {
             throw new OperationFailedException(e);
         }
     }
 
+    /**
+     * Selects a reader for a file, reusing a previously selected format-reader if possible, and
+     * wrapping it in a {@link Memoizer} if requested.
+     */
+    private IFormatReader selectReader(Path filePath)
+            throws ReflectiveOperationException, IOException {
+        Optional<IFormatReader> cached =
+                cacheReaderSelection ? READER_SELECTION.cachedReader(filePath) : Optional.empty();
+        IFormatReader reader = cached.orElseGet(BioformatsReader::imageReader);
+        reader.setGroupFiles(false);
+        if (!memoizerDirectory.isEmpty()) {
+            return new Memoizer(
+                    reader, Memoizer.DEFAULT_MINIMUM_ELAPSED, new File(memoizerDirectory));
+        } else {
+            return reader;
+        }
+    }
+
     /**
      * Performs necessary configuration of the {@link IFormatReader} instructing it how to process
      * image pyramid files (as often occur with whole slide images).
@@ -159,15 +210,17 @@ public class BioformatsReader extends StackReaderOrientationCorrection {
 
     /** The standard multiplexing image-reader from Bioformats. */
     private static IFormatReader imageReader() {
-        ImageReader reader = new ImageReader();
-        reader.setGroupFiles(false);
-        return reader;
+        return new ImageReader();
     }
 
+    /** Creates metadata, reusing a {@link OMEXMLService} previously created on this thread. */
     private static OMEXMLMetadata createMetadata() throws CreateException {
         try {
-            ServiceFactory factory = new ServiceFactory();
-            OMEXMLService service = factory.getInstance(OMEXMLService.class);
+            OMEXMLService service = SERVICE.get();
+            if (service == null) {
+                service = new ServiceFactory().getInstance(OMEXMLService.class);
+                SERVICE.set(service);
+            }
             return service.createOMEXMLMetadata();
 
         } catch (DependencyException | ServiceException e) {
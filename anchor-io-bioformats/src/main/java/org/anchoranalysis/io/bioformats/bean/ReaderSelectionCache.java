@@ -0,0 +1,126 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import loci.formats.IFormatReader;
+import loci.formats.ImageReader;
+import loci.formats.ReaderWrapper;
+import org.anchoranalysis.core.system.path.ExtensionUtilities;
+
+/**
+ * Remembers which concrete {@link IFormatReader} was selected for each file-extension, so that
+ * subsequent files with the same extension can skip the probing of all possible formats.
+ *
+ * <p>Constructing an {@link ImageReader} instantiates every registered format-reader, and opening
+ * a file may probe many of them, which is a significant fixed cost when reading many small files.
+ *
+ * <p>A cached reader is only used if it confirms, by inspecting the file's contents, that it can
+ * read the file. Otherwise, the usual probing occurs.
+ *
+ * <p>Double-extensions like {@code .ome.tif} are treated as distinct from {@code .tif}.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @author Owen Feehan
+ */
+class ReaderSelectionCache {
+
+    /** The class of the concrete reader, indexed by (lower-case) file-extension. */
+    private final Map<String, Class<? extends IFormatReader>> readerForExtension =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Creates a reader, of the same class that was previously selected for files with the same
+     * extension, if it can read {@code path}.
+     *
+     * @param path the path of the file to read.
+     * @return a newly created reader, or {@link Optional#empty} if no reader was previously
+     *     selected for the extension, or if the previously-selected reader cannot read {@code
+     *     path}.
+     * @throws ReflectiveOperationException if the reader cannot be instantiated.
+     * @throws IOException if the reader cannot be closed, after rejecting the file.
+     */
+    public Optional<IFormatReader> cachedReader(Path path)
+            throws ReflectiveOperationException, IOException {
+        Optional<String> extension = extension(path);
+        if (!extension.isPresent()) {
+            return Optional.empty();
+        }
+
+        Class<? extends IFormatReader> readerClass = readerForExtension.get(extension.get());
+        if (readerClass == null) {
+            return Optional.empty();
+        }
+
+        IFormatReader reader = readerClass.getDeclaredConstructor().newInstance();
+        if (reader.isThisType(path.toString(), true)) {
+            return Optional.of(reader);
+        } else {
+            reader.close();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remembers the concrete reader that was selected to read {@code path}.
+     *
+     * @param path the path of the file that was read, after {@link IFormatReader#setId} has been
+     *     called.
+     * @param reader the reader used to read {@code path}, which may be an {@link ImageReader} or
+     *     {@link ReaderWrapper} that delegates to a concrete reader.
+     */
+    public void remember(Path path, IFormatReader reader) {
+        extension(path)
+                .ifPresent(
+                        extension ->
+                                readerForExtension.putIfAbsent(
+                                        extension, concreteReader(reader).getClass()));
+    }
+
+    /** The reader that actually reads the file, after removing any layers of delegation. */
+    private static IFormatReader concreteReader(IFormatReader reader) {
+        while (true) {
+            if (reader instanceof ReaderWrapper) {
+                reader = ((ReaderWrapper) reader).getReader();
+            } else if (reader instanceof ImageReader) {
+                reader = ((ImageReader) reader).getReader();
+            } else {
+                return reader;
+            }
+        }
+    }
+
+    /** The lower-case extension of a path, if it exists. */
+    private static Optional<String> extension(Path path) {
+        return ExtensionUtilities.extractExtension(path.getFileName().toString())
+                .map(String::toLowerCase);
+    }
+}
@@ -0,0 +1,72 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import lombok.Value;
+
+/**
+ * A rectangular region of voxels in a plane, stored uncompressed at a particular offset in a TIFF
+ * file.
+ *
+ * <p>This is either a strip (spanning the entire width of the image) or a tile.
+ *
+ * @author Owen Feehan
+ */
+@Value
+class UncompressedTiffBlock {
+
+    /** The offset in the file where the first voxel of the block is stored. */
+    private long offset;
+
+    /** The minimum corner of the block in the X dimension, in voxels. */
+    private int x;
+
+    /** The minimum corner of the block in the Y dimension, in voxels. */
+    private int y;
+
+    /**
+     * The number of voxels stored for each row of the block, including any padding beyond the
+     * image.
+     */
+    private int storedWidth;
+
+    /** The number of voxels in each row of the block, that lie inside the image. */
+    private int width;
+
+    /** The number of rows of the block, that lie inside the image. */
+    private int height;
+
+    /**
+     * The number of bytes from {@code offset}, needed to read all voxels in the block that lie
+     * inside the image.
+     *
+     * @param bytesPerVoxel the number of bytes to store each voxel.
+     * @return the number of bytes.
+     */
+    public long numberBytesNeeded(int bytesPerVoxel) {
+        return ((long) (height - 1) * storedWidth + width) * bytesPerVoxel;
+    }
+}
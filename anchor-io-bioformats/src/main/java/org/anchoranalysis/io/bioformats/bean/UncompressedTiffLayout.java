@@ -0,0 +1,760 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.anchoranalysis.core.exception.CreateException;
+import org.anchoranalysis.image.core.dimensions.Resolution;
+
+/**
+ * Where and how the voxels are stored, in a TIFF file that can be read without Bioformats.
+ *
+ * <p>Only a narrow, but common, subset of TIFF files is supported:
+ *
+ * <ul>
+ *   <li>a single sample per pixel, of unsigned 8 or 16 bits.
+ *   <li>no compression, and black-is-zero photometric interpretation.
+ *   <li>voxels stored in strips or tiles.
+ *   <li>only baseline tags, and no metadata in the image-description, apart from a minimal ImageJ
+ *       header.
+ *   <li>a single image (IFD), or several identically-sized images (IFDs) that an ImageJ header
+ *       describes as z-slices and/or frames.
+ * </ul>
+ *
+ * <p>Any other file should be read by Bioformats instead, which will interpret any further
+ * metadata.
+ *
+ * @author Owen Feehan
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class UncompressedTiffLayout {
+
+    // START TAGS
+    private static final int TAG_NEW_SUBFILE_TYPE = 254;
+    private static final int TAG_SUBFILE_TYPE = 255;
+    private static final int TAG_IMAGE_WIDTH = 256;
+    private static final int TAG_IMAGE_LENGTH = 257;
+    private static final int TAG_BITS_PER_SAMPLE = 258;
+    private static final int TAG_COMPRESSION = 259;
+    private static final int TAG_PHOTOMETRIC_INTERPRETATION = 262;
+    private static final int TAG_FILL_ORDER = 266;
+    private static final int TAG_DOCUMENT_NAME = 269;
+    private static final int TAG_IMAGE_DESCRIPTION = 270;
+    private static final int TAG_MAKE = 271;
+    private static final int TAG_MODEL = 272;
+    private static final int TAG_STRIP_OFFSETS = 273;
+    private static final int TAG_ORIENTATION = 274;
+    private static final int TAG_SAMPLES_PER_PIXEL = 277;
+    private static final int TAG_ROWS_PER_STRIP = 278;
+    private static final int TAG_STRIP_BYTE_COUNTS = 279;
+    private static final int TAG_MIN_SAMPLE_VALUE = 280;
+    private static final int TAG_MAX_SAMPLE_VALUE = 281;
+    private static final int TAG_X_RESOLUTION = 282;
+    private static final int TAG_Y_RESOLUTION = 283;
+    private static final int TAG_PLANAR_CONFIGURATION = 284;
+    private static final int TAG_RESOLUTION_UNIT = 296;
+    private static final int TAG_SOFTWARE = 305;
+    private static final int TAG_DATE_TIME = 306;
+    private static final int TAG_ARTIST = 315;
+    private static final int TAG_HOST_COMPUTER = 316;
+    private static final int TAG_PREDICTOR = 317;
+    private static final int TAG_TILE_WIDTH = 322;
+    private static final int TAG_TILE_LENGTH = 323;
+    private static final int TAG_TILE_OFFSETS = 324;
+    private static final int TAG_TILE_BYTE_COUNTS = 325;
+    private static final int TAG_SAMPLE_FORMAT = 339;
+
+    // END TAGS
+
+    /** Tags that may be present, as they do not alter how the voxels are interpreted. */
+    private static final Set<Integer> PERMITTED_TAGS =
+            new HashSet<>(
+                    Arrays.asList(
+                            TAG_NEW_SUBFILE_TYPE,
+                            TAG_SUBFILE_TYPE,
+                            TAG_IMAGE_WIDTH,
+                            TAG_IMAGE_LENGTH,
+                            TAG_BITS_PER_SAMPLE,
+                            TAG_COMPRESSION,
+                            TAG_PHOTOMETRIC_INTERPRETATION,
+                            TAG_FILL_ORDER,
+                            TAG_DOCUMENT_NAME,
+                            TAG_IMAGE_DESCRIPTION,
+                            TAG_MAKE,
+                            TAG_MODEL,
+                            TAG_STRIP_OFFSETS,
+                            TAG_ORIENTATION,
+                            TAG_SAMPLES_PER_PIXEL,
+                            TAG_ROWS_PER_STRIP,
+                            TAG_STRIP_BYTE_COUNTS,
+                            TAG_MIN_SAMPLE_VALUE,
+                            TAG_MAX_SAMPLE_VALUE,
+                            TAG_X_RESOLUTION,
+                            TAG_Y_RESOLUTION,
+                            TAG_PLANAR_CONFIGURATION,
+                            TAG_RESOLUTION_UNIT,
+                            TAG_SOFTWARE,
+                            TAG_DATE_TIME,
+                            TAG_ARTIST,
+                            TAG_HOST_COMPUTER,
+                            TAG_PREDICTOR,
+                            TAG_TILE_WIDTH,
+                            TAG_TILE_LENGTH,
+                            TAG_TILE_OFFSETS,
+                            TAG_TILE_BYTE_COUNTS,
+                            TAG_SAMPLE_FORMAT));
+
+    /** The ImageJ key for the total number of planes. */
+    private static final String IMAGEJ_IMAGES = "images";
+
+    /** The ImageJ key for the number of z-slices. */
+    private static final String IMAGEJ_SLICES = "slices";
+
+    /** The ImageJ key for the number of frames. */
+    private static final String IMAGEJ_FRAMES = "frames";
+
+    /** Keys that may appear in an ImageJ image-description, without altering the voxels. */
+    private static final Set<String> PERMITTED_IMAGEJ_KEYS =
+            new HashSet<>(
+                    Arrays.asList(
+                            "ImageJ",
+                            "min",
+                            "max",
+                            IMAGEJ_IMAGES,
+                            IMAGEJ_SLICES,
+                            IMAGEJ_FRAMES,
+                            "hyperstack",
+                            "loop"));
+
+    /** The prefix of an image-description written by ImageJ. */
+    private static final String IMAGEJ_PREFIX = "ImageJ=";
+
+    /** The magic number that identifies a (classic, not big) TIFF file. */
+    private static final int MAGIC_NUMBER = 42;
+
+    /** The size of an entry in an IFD, in bytes. */
+    private static final int ENTRY_SIZE = 12;
+
+    /** The size in bytes of each TIFF field-type, indexed by the type's code. */
+    private static final int[] FIELD_TYPE_SIZE = {0, 1, 1, 2, 4, 8, 1, 1, 2, 4, 8, 4, 8};
+
+    /** The field-type of a rational number. */
+    private static final int FIELD_TYPE_RATIONAL = 5;
+
+    /** Micrometers in an inch, when the resolution-unit is 2. */
+    private static final double MICROMETERS_PER_INCH = 25400;
+
+    /** Micrometers in a centimeter, when the resolution-unit is 3. */
+    private static final double MICROMETERS_PER_CENTIMETER = 10000;
+
+    /** The width of the image, in voxels. */
+    private int width;
+
+    /** The height of the image, in voxels. */
+    private int height;
+
+    /** The number of bytes to store each voxel, either 1 or 2. */
+    private int bytesPerVoxel;
+
+    /** The order of bytes in the file. */
+    private ByteOrder byteOrder;
+
+    /** The number of z-slices in each frame. */
+    private int numberSlices;
+
+    /** The number of frames. */
+    private int numberFrames;
+
+    /** Where each plane is stored, ordered by z-slice, and then by frame. */
+    private List<UncompressedTiffPlane> planes;
+
+    /** The physical size of each voxel, if it is specified. */
+    private Optional<Resolution> resolution;
+
+    /**
+     * The number of bytes used to store the voxels of a single plane, excluding any padding.
+     *
+     * @return the number of bytes.
+     */
+    public int numberBytesPlane() {
+        return width * height * bytesPerVoxel;
+    }
+
+    /**
+     * Determines the layout of a TIFF file, if it is supported.
+     *
+     * @param channel the opened file.
+     * @return the layout, or {@link Optional#empty} if the file is not a TIFF, or uses any features
+     *     that are not supported.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Optional<UncompressedTiffLayout> parse(FileChannel channel) throws IOException {
+        ByteBuffer header = read(channel, 0, 8, ByteOrder.BIG_ENDIAN);
+        if (header.remaining() < 8) {
+            return Optional.empty();
+        }
+
+        Optional<ByteOrder> byteOrder = byteOrder(header.get(0), header.get(1));
+        if (!byteOrder.isPresent()) {
+            return Optional.empty();
+        }
+        header.order(byteOrder.get());
+        if (unsignedShort(header, 2) != MAGIC_NUMBER) {
+            return Optional.empty();
+        }
+
+        Optional<List<Map<Integer, ByteBuffer>>> directories =
+                readDirectories(channel, unsignedInt(header, 4), byteOrder.get());
+        if (!directories.isPresent()) {
+            return Optional.empty();
+        }
+
+        List<Parser> parsers = new ArrayList<>(directories.get().size());
+        for (Map<Integer, ByteBuffer> entries : directories.get()) {
+            parsers.add(new Parser(channel, entries, byteOrder.get()));
+        }
+        return layout(parsers, byteOrder.get());
+    }
+
+    /** Derives the layout from the parsed IFDs, if they are all supported, and alike. */
+    private static Optional<UncompressedTiffLayout> layout(
+            List<Parser> parsers, ByteOrder byteOrder) throws IOException {
+        Parser first = parsers.get(0);
+        if (!first.isSupported()) {
+            return Optional.empty();
+        }
+
+        Optional<long[]> width = first.values(TAG_IMAGE_WIDTH);
+        Optional<long[]> height = first.values(TAG_IMAGE_LENGTH);
+        Optional<long[]> bitsPerSample = first.values(TAG_BITS_PER_SAMPLE);
+        if (!isSingle(width) || !isSingle(height) || !isSingle(bitsPerSample)) {
+            return Optional.empty();
+        }
+
+        long bits = bitsPerSample.get()[0];
+        if (bits != 8 && bits != 16) {
+            return Optional.empty();
+        }
+
+        int bytesPerVoxel = (int) bits / 8;
+        long numberBytes = width.get()[0] * height.get()[0] * bytesPerVoxel;
+        if (numberBytes > Integer.MAX_VALUE || numberBytes == 0) {
+            // Too large to fit in a single array, or without any voxels.
+            return Optional.empty();
+        }
+
+        Optional<int[]> slicesFrames = first.slicesAndFrames(parsers.size());
+        if (!slicesFrames.isPresent()) {
+            return Optional.empty();
+        }
+
+        int widthInt = (int) width.get()[0];
+        int heightInt = (int) height.get()[0];
+        List<UncompressedTiffPlane> planes = new ArrayList<>(parsers.size());
+        for (Parser parser : parsers) {
+            if (!parser.isSupported()
+                    || !parser.hasValue(TAG_IMAGE_WIDTH, widthInt, false)
+                    || !parser.hasValue(TAG_IMAGE_LENGTH, heightInt, false)
+                    || !parser.hasValue(TAG_BITS_PER_SAMPLE, bits, false)) {
+                return Optional.empty();
+            }
+            Optional<UncompressedTiffPlane> plane =
+                    parser.plane(widthInt, heightInt, bytesPerVoxel);
+            if (!plane.isPresent()) {
+                return Optional.empty();
+            }
+            planes.add(plane.get());
+        }
+
+        return Optional.of(
+                new UncompressedTiffLayout(
+                        widthInt,
+                        heightInt,
+                        bytesPerVoxel,
+                        byteOrder,
+                        slicesFrames.get()[0],
+                        slicesFrames.get()[1],
+                        planes,
+                        first.resolution()));
+    }
+
+    /** Interprets the entries from a single IFD in a TIFF file. */
+    @AllArgsConstructor
+    private static class Parser {
+
+        /** The opened file. */
+        private final FileChannel channel;
+
+        /** Each entry in the IFD (of {@code ENTRY_SIZE} bytes), indexed by its tag. */
+        private final Map<Integer, ByteBuffer> entries;
+
+        /** The order of bytes in the file. */
+        private final ByteOrder byteOrder;
+
+        /**
+         * Whether the IFD uses only supported tags and values, and describes a full-resolution
+         * image.
+         */
+        public boolean isSupported() throws IOException {
+            return PERMITTED_TAGS.containsAll(entries.keySet())
+                    && hasValue(TAG_NEW_SUBFILE_TYPE, 0, true)
+                    && hasValue(TAG_SUBFILE_TYPE, 1, true)
+                    && hasValue(TAG_COMPRESSION, 1, true)
+                    && hasValue(TAG_PHOTOMETRIC_INTERPRETATION, 1, false)
+                    && hasValue(TAG_SAMPLES_PER_PIXEL, 1, true)
+                    && hasValue(TAG_SAMPLE_FORMAT, 1, true)
+                    && hasValue(TAG_FILL_ORDER, 1, true)
+                    && hasValue(TAG_ORIENTATION, 1, true)
+                    && hasValue(TAG_PREDICTOR, 1, true);
+        }
+
+        /**
+         * Where the voxels of the image are stored, in strips or tiles, if each lies inside the
+         * file.
+         */
+        public Optional<UncompressedTiffPlane> plane(int width, int height, int bytesPerVoxel)
+                throws IOException {
+            Optional<List<UncompressedTiffBlock>> blocks;
+            if (entries.containsKey(TAG_TILE_OFFSETS)) {
+                blocks = tiles(width, height, bytesPerVoxel);
+            } else {
+                blocks = strips(width, height, bytesPerVoxel);
+            }
+            if (!blocks.isPresent()) {
+                return Optional.empty();
+            }
+
+            long start = Long.MAX_VALUE;
+            long end = 0;
+            boolean contiguous = true;
+            for (UncompressedTiffBlock block : blocks.get()) {
+                start = Math.min(start, block.getOffset());
+                end = Math.max(end, block.getOffset() + block.numberBytesNeeded(bytesPerVoxel));
+                contiguous =
+                        contiguous
+                                && block.getStoredWidth() == width
+                                && block.getOffset()
+                                        == blocks.get().get(0).getOffset()
+                                                + (long) block.getY() * width * bytesPerVoxel;
+            }
+            if (end > channel.size() || end - start > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            return Optional.of(new UncompressedTiffPlane(blocks.get(), start, end, contiguous));
+        }
+
+        /**
+         * The number of z-slices and frames described by the image-description, provided that it
+         * contains no other metadata that would alter how the image is interpreted.
+         *
+         * @param numberPlanes the number of IFDs in the file.
+         * @return an array with two elements, the number of z-slices and the number of frames, or
+         *     {@link Optional#empty} if the description is unsupported, or inconsistent with {@code
+         *     numberPlanes}.
+         */
+        public Optional<int[]> slicesAndFrames(int numberPlanes) throws IOException {
+            Optional<String> description = ascii(TAG_IMAGE_DESCRIPTION);
+            if (description.isPresent() && description.get().trim().startsWith(IMAGEJ_PREFIX)) {
+                Optional<Map<String, String>> keys = imageJKeys(description.get().trim());
+                if (!keys.isPresent()) {
+                    return Optional.empty();
+                }
+                try {
+                    int images = Integer.parseInt(keys.get().getOrDefault(IMAGEJ_IMAGES, "1"));
+                    int slices = Integer.parseInt(keys.get().getOrDefault(IMAGEJ_SLICES, "1"));
+                    int frames = Integer.parseInt(keys.get().getOrDefault(IMAGEJ_FRAMES, "1"));
+                    if (images == numberPlanes && (long) slices * frames == images) {
+                        return Optional.of(new int[] {slices, frames});
+                    } else {
+                        return Optional.empty();
+                    }
+                } catch (NumberFormatException e) {
+                    return Optional.empty();
+                }
+            }
+
+            // Other descriptions are permitted, unless they might contain XML metadata.
+            // Without an ImageJ description, multiple IFDs may be interpreted in different ways.
+            if (numberPlanes == 1
+                    && (!description.isPresent() || !description.get().trim().startsWith("<"))) {
+                return Optional.of(new int[] {1, 1});
+            } else {
+                return Optional.empty();
+            }
+        }
+
+        /** Strips spanning the entire width of the image, each containing several rows. */
+        private Optional<List<UncompressedTiffBlock>> strips(
+                int width, int height, int bytesPerVoxel) throws IOException {
+            Optional<long[]> offsets = values(TAG_STRIP_OFFSETS);
+            Optional<long[]> byteCounts = values(TAG_STRIP_BYTE_COUNTS);
+            Optional<long[]> rowsPerStrip = values(TAG_ROWS_PER_STRIP);
+            // As per the TIFF specification, by default, a single strip contains every row.
+            long rows = isSingle(rowsPerStrip) ? Math.min(rowsPerStrip.get()[0], height) : height;
+            if (rows == 0) {
+                return Optional.empty();
+            }
+            return blocks(offsets, byteCounts, width, height, width, (int) rows, bytesPerVoxel);
+        }
+
+        /** Tiles, arranged in rows, each containing a rectangular region of voxels. */
+        private Optional<List<UncompressedTiffBlock>> tiles(
+                int width, int height, int bytesPerVoxel) throws IOException {
+            Optional<long[]> tileWidth = values(TAG_TILE_WIDTH);
+            Optional<long[]> tileLength = values(TAG_TILE_LENGTH);
+            if (!isSingle(tileWidth)
+                    || !isSingle(tileLength)
+                    || tileWidth.get()[0] == 0
+                    || tileLength.get()[0] == 0
+                    || tileWidth.get()[0] * tileLength.get()[0] > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            return blocks(
+                    values(TAG_TILE_OFFSETS),
+                    values(TAG_TILE_BYTE_COUNTS),
+                    width,
+                    height,
+                    (int) tileWidth.get()[0],
+                    (int) tileLength.get()[0],
+                    bytesPerVoxel);
+        }
+
+        /**
+         * Blocks of a particular size, arranged in rows from the top-left of the image, each of
+         * which must have sufficient bytes inside the file.
+         */
+        private Optional<List<UncompressedTiffBlock>> blocks(
+                Optional<long[]> offsets,
+                Optional<long[]> byteCounts,
+                int width,
+                int height,
+                int blockWidth,
+                int blockHeight,
+                int bytesPerVoxel) {
+            long blocksAcross = numberOf(width, blockWidth);
+            long numberBlocks = blocksAcross * numberOf(height, blockHeight);
+            if (!offsets.isPresent()
+                    || !byteCounts.isPresent()
+                    || offsets.get().length != numberBlocks
+                    || byteCounts.get().length != numberBlocks) {
+                return Optional.empty();
+            }
+
+            List<UncompressedTiffBlock> out = new ArrayList<>(offsets.get().length);
+            for (int index = 0; index < offsets.get().length; index++) {
+                int x = (int) (index % blocksAcross) * blockWidth;
+                int y = (int) (index / blocksAcross) * blockHeight;
+                UncompressedTiffBlock block =
+                        new UncompressedTiffBlock(
+                                offsets.get()[index],
+                                x,
+                                y,
+                                blockWidth,
+                                Math.min(blockWidth, width - x),
+                                Math.min(blockHeight, height - y));
+                if (byteCounts.get()[index] < block.numberBytesNeeded(bytesPerVoxel)) {
+                    return Optional.empty();
+                }
+                out.add(block);
+            }
+            return Optional.of(out);
+        }
+
+        /**
+         * The physical size of a voxel, as Bioformats would interpret it from the resolution tags.
+         */
+        private Optional<Resolution> resolution() throws IOException {
+            Optional<Double> x = rational(TAG_X_RESOLUTION);
+            Optional<Double> y = rational(TAG_Y_RESOLUTION);
+            if (!x.isPresent() || !y.isPresent()) {
+                return Optional.empty();
+            }
+
+            Optional<long[]> unit = values(TAG_RESOLUTION_UNIT);
+            // As per the TIFF specification, the default unit is an inch.
+            long unitCode = isSingle(unit) ? unit.get()[0] : 2;
+
+            double micrometers;
+            if (unitCode == 2) {
+                micrometers = MICROMETERS_PER_INCH;
+            } else if (unitCode == 3) {
+                micrometers = MICROMETERS_PER_CENTIMETER;
+            } else {
+                return Optional.empty();
+            }
+
+            try {
+                return Optional.of(
+                        new Resolution(
+                                metersPerVoxel(micrometers, x.get()),
+                                metersPerVoxel(micrometers, y.get()),
+                                Double.NaN));
+            } catch (CreateException e) {
+                // An invalid resolution, such as zero, is treated as no resolution.
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * The value of each key in an ImageJ image-description, provided it contains only permitted
+         * keys.
+         */
+        private static Optional<Map<String, String>> imageJKeys(String description) {
+            Map<String, String> out = new HashMap<>();
+            for (String line : description.split("\n")) {
+                String[] keyValue = line.split("=", 2);
+                String key = keyValue[0].trim();
+                if (!key.isEmpty()) {
+                    if (!PERMITTED_IMAGEJ_KEYS.contains(key)) {
+                        return Optional.empty();
+                    }
+                    out.put(key, keyValue.length > 1 ? keyValue[1].trim() : "");
+                }
+            }
+            return Optional.of(out);
+        }
+
+        /**
+         * Whether a tag has a single particular value.
+         *
+         * @param tag the tag.
+         * @param value the value it must have.
+         * @param permitAbsent whether the tag may also be absent.
+         */
+        private boolean hasValue(int tag, long value, boolean permitAbsent) throws IOException {
+            Optional<long[]> values = values(tag);
+            if (!values.isPresent()) {
+                return permitAbsent;
+            }
+            return isSingle(values) && values.get()[0] == value;
+        }
+
+        /** The unsigned integer values of an entry, if the entry exists with an integer type. */
+        private Optional<long[]> values(int tag) throws IOException {
+            ByteBuffer entry = entries.get(tag);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            int type = unsignedShort(entry, 2);
+            if (type != 3 && type != 4) {
+                // Only SHORT and LONG are supported.
+                return Optional.empty();
+            }
+            long count = unsignedInt(entry, 4);
+            ByteBuffer buffer = valueBuffer(entry, type, count);
+            if (buffer.remaining() < count * FIELD_TYPE_SIZE[type]) {
+                return Optional.empty();
+            }
+            long[] out = new long[(int) count];
+            for (int index = 0; index < count; index++) {
+                out[index] =
+                        type == 3
+                                ? unsignedShort(buffer, buffer.position() + index * 2)
+                                : unsignedInt(buffer, buffer.position() + index * 4);
+            }
+            return Optional.of(out);
+        }
+
+        /** The first value of a rational entry, if it exists. */
+        private Optional<Double> rational(int tag) throws IOException {
+            ByteBuffer entry = entries.get(tag);
+            if (entry == null || unsignedShort(entry, 2) != FIELD_TYPE_RATIONAL) {
+                return Optional.empty();
+            }
+            ByteBuffer buffer = valueBuffer(entry, FIELD_TYPE_RATIONAL, 1);
+            if (buffer.remaining() < 8) {
+                return Optional.empty();
+            }
+            long numerator = unsignedInt(buffer, buffer.position());
+            long denominator = unsignedInt(buffer, buffer.position() + 4);
+            if (denominator == 0) {
+                return Optional.empty();
+            }
+            return Optional.of(((double) numerator) / denominator);
+        }
+
+        /** The text of an ASCII entry, if it exists. */
+        private Optional<String> ascii(int tag) throws IOException {
+            ByteBuffer entry = entries.get(tag);
+            if (entry == null || unsignedShort(entry, 2) != 2) {
+                return Optional.empty();
+            }
+            long count = unsignedInt(entry, 4);
+            ByteBuffer buffer = valueBuffer(entry, 2, count);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return Optional.of(new String(bytes, StandardCharsets.US_ASCII).replace("\0", ""));
+        }
+
+        /**
+         * The bytes containing an entry's values, which are either stored inside the entry, or
+         * elsewhere in the file, if they do not fit.
+         *
+         * @throws IOException if the values would lie (partially) outside the file, as {@code
+         *     count} is untrusted, and could otherwise cause a huge (or negative) allocation.
+         */
+        private ByteBuffer valueBuffer(ByteBuffer entry, int type, long count) throws IOException {
+            long size = count * FIELD_TYPE_SIZE[type];
+            if (size <= 4) {
+                ByteBuffer inline = entry.duplicate().order(byteOrder);
+                inline.position(8);
+                inline.limit(8 + (int) size);
+                return inline.slice().order(byteOrder);
+            } else {
+                long offset = unsignedInt(entry, 8);
+                if (offset + size > channel.size() || size > Integer.MAX_VALUE) {
+                    throw new IOException(
+                            String.format(
+                                    "The %d bytes of values for tag %d at offset %d do not fit"
+                                        + " inside the file of %d bytes.",
+                                    size, unsignedShort(entry, 0), offset, channel.size()));
+                }
+                return read(channel, offset, (int) size, byteOrder);
+            }
+        }
+    }
+
+    /**
+     * Reads all entries in each IFD in the file, following the chain of IFDs from the first.
+     *
+     * @return the entries of each IFD, in order, or {@link Optional#empty} if any IFD cannot be
+     *     read, or the chain of IFDs is circular.
+     */
+    private static Optional<List<Map<Integer, ByteBuffer>>> readDirectories(
+            FileChannel channel, long firstOffset, ByteOrder byteOrder) throws IOException {
+        List<Map<Integer, ByteBuffer>> out = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        long offset = firstOffset;
+        while (offset != 0) {
+            if (!visited.add(offset)) {
+                return Optional.empty();
+            }
+            ByteBuffer countBuffer = read(channel, offset, 2, byteOrder);
+            if (countBuffer.remaining() < 2) {
+                return Optional.empty();
+            }
+            int numberEntries = unsignedShort(countBuffer, 0);
+
+            int size = numberEntries * ENTRY_SIZE + 4;
+            ByteBuffer buffer = read(channel, offset + 2, size, byteOrder);
+            if (buffer.remaining() < size) {
+                return Optional.empty();
+            }
+
+            Optional<Map<Integer, ByteBuffer>> entries =
+                    readEntries(buffer, numberEntries, byteOrder);
+            if (!entries.isPresent()) {
+                return Optional.empty();
+            }
+            out.add(entries.get());
+            offset = unsignedInt(buffer, numberEntries * ENTRY_SIZE);
+        }
+        return Optional.of(out);
+    }
+
+    /** Reads all entries in an IFD, from a buffer containing all its entries. */
+    private static Optional<Map<Integer, ByteBuffer>> readEntries(
+            ByteBuffer buffer, int numberEntries, ByteOrder byteOrder) {
+        Map<Integer, ByteBuffer> entries = new HashMap<>();
+        for (int index = 0; index < numberEntries; index++) {
+            buffer.position(index * ENTRY_SIZE);
+            buffer.limit(index * ENTRY_SIZE + ENTRY_SIZE);
+            ByteBuffer entry = buffer.slice().order(byteOrder);
+            buffer.limit(buffer.capacity());
+            int type = unsignedShort(entry, 2);
+            if (type >= FIELD_TYPE_SIZE.length) {
+                return Optional.empty();
+            }
+            entries.put(unsignedShort(entry, 0), entry);
+        }
+        return Optional.of(entries);
+    }
+
+    /** The byte-order indicated by the first two bytes of a TIFF file. */
+    private static Optional<ByteOrder> byteOrder(byte first, byte second) {
+        if (first == 'I' && second == 'I') {
+            return Optional.of(ByteOrder.LITTLE_ENDIAN);
+        } else if (first == 'M' && second == 'M') {
+            return Optional.of(ByteOrder.BIG_ENDIAN);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /** Reads up to {@code size} bytes from the file, starting at {@code position}. */
+    private static ByteBuffer read(FileChannel channel, long position, int size, ByteOrder order)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(order);
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int numberRead = channel.read(buffer, current);
+            if (numberRead <= 0) {
+                break;
+            }
+            current += numberRead;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** The physical size of a voxel in meters, given voxels per unit. */
+    private static double metersPerVoxel(double micrometersPerUnit, double voxelsPerUnit) {
+        return micrometersPerUnit / voxelsPerUnit * 1e-6;
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int index) {
+        return Short.toUnsignedInt(buffer.getShort(index));
+    }
+
+    private static long unsignedInt(ByteBuffer buffer, int index) {
+        return Integer.toUnsignedLong(buffer.getInt(index));
+    }
+
+    private static boolean isSingle(Optional<long[]> values) {
+        return values.isPresent() && values.get().length == 1;
+    }
+
+    /** The number of blocks of size {@code divisor} needed to cover {@code total}. */
+    private static long numberOf(long total, long divisor) {
+        return (total + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,389 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.anchoranalysis.core.cache.CachedSupplier;
+import org.anchoranalysis.core.functional.checked.CheckedSupplier;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.dimensions.OrientationChange;
+import org.anchoranalysis.image.core.stack.ImageLocation;
+import org.anchoranalysis.image.core.stack.ImagePyramidMetadata;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.CalculateOrientationChange;
+import org.anchoranalysis.image.io.stack.input.ImageTimestampsAttributes;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.image.io.stack.time.TimeSeries;
+import org.anchoranalysis.image.voxel.Voxels;
+import org.anchoranalysis.image.voxel.buffer.VoxelBuffer;
+import org.anchoranalysis.image.voxel.buffer.VoxelBufferWrap;
+import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedByteBuffer;
+import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedShortBuffer;
+import org.anchoranalysis.image.voxel.factory.VoxelsFactory;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * An uncompressed TIFF file that has been opened, and whose voxels are read directly from a
+ * memory-mapped file, without Bioformats.
+ *
+ * <p>By default, the voxels are copied from the memory-mapped file into the arrays that back each
+ * {@link Channel}, as voxel-buffers elsewhere are assumed to be array-backed and writable. A plane
+ * that is stored contiguously is copied in bulk.
+ *
+ * <p>Optionally, such a contiguous plane is instead wrapped directly from the memory-mapped file,
+ * without any copy, when its byte-order permits. The voxels are then read lazily from the file, but
+ * are read-only, and not backed by an array.
+ *
+ * @author Owen Feehan
+ */
+class UncompressedTiffOpenedFile implements OpenedImageFile {
+
+    /** The opened file. */
+    private final FileChannel channel;
+
+    /** Where and how the voxels are stored in the file. */
+    private final UncompressedTiffLayout layout;
+
+    /** Calculates any change needed in orientation. */
+    private final CalculateOrientationChange calculateOrientation;
+
+    /**
+     * When true, a contiguous plane is wrapped directly from the memory-mapped file, if possible,
+     * rather than being copied.
+     */
+    private final boolean wrapMapped;
+
+    /** How to extract image-timestamps for the opened file. */
+    private final CheckedSupplier<ImageTimestampsAttributes, ImageIOException> timestamps;
+
+    /** How to extract image-location for the opened file. */
+    private final CheckedSupplier<Optional<ImageLocation>, ImageIOException> location;
+
+    /** Stores the result of {@code calculateOrientation}, and is null until this is calculated. */
+    private OrientationChange orientation;
+
+    /**
+     * Creates for a file that has already been opened.
+     *
+     * @param channel the opened file, which is closed when {@link #close} is called.
+     * @param layout where and how the voxels are stored in the file.
+     * @param calculateOrientation any correction of orientation to be applied as voxels are read.
+     * @param wrapMapped when true, a contiguous plane is wrapped directly from the memory-mapped
+     *     file, if possible, rather than being copied.
+     * @param timestamps calculates timestamps and other file-attributes for the image being opened.
+     * @param location calculates a location for the image being opened, if it is known.
+     */
+    public UncompressedTiffOpenedFile(
+            FileChannel channel,
+            UncompressedTiffLayout layout,
+            CalculateOrientationChange calculateOrientation,
+            boolean wrapMapped,
+            CheckedSupplier<ImageTimestampsAttributes, ImageIOException> timestamps,
+            CheckedSupplier<Optional<ImageLocation>, ImageIOException> location) {
+        this.channel = channel;
+        this.layout = layout;
+        this.calculateOrientation = calculateOrientation;
+        this.wrapMapped = wrapMapped;
+        this.timestamps = CachedSupplier.cacheChecked(timestamps);
+        this.location = CachedSupplier.cacheChecked(location);
+    }
+
+    @Override
+    public TimeSeries open(int seriesIndex, Logger logger) throws ImageIOException {
+        checkSeriesIndex(seriesIndex);
+
+        OrientationChange orientationChange = calculateOrientation(logger);
+        Dimensions dimensionsSource = dimensionsWithoutOrientationChange();
+        Dimensions dimensions = orientationChange.dimensions(dimensionsSource);
+
+        try {
+            List<Stack> frames = new ArrayList<>(layout.getNumberFrames());
+            for (int frame = 0; frame < layout.getNumberFrames(); frame++) {
+                Voxels<?> voxels =
+                        layout.getBytesPerVoxel() == 1
+                                ? readUnsignedByte(
+                                        frame,
+                                        orientationChange,
+                                        dimensionsSource.extent(),
+                                        dimensions.extent())
+                                : readUnsignedShort(
+                                        frame,
+                                        orientationChange,
+                                        dimensionsSource.extent(),
+                                        dimensions.extent());
+                frames.add(new Stack(new Channel(voxels, dimensions.resolution())));
+            }
+            return new TimeSeries(frames.stream());
+        } catch (IOException e) {
+            throw new ImageIOException("Failed to read voxels from the uncompressed TIFF", e);
+        }
+    }
+
+    @Override
+    public int numberSeries() {
+        return 1;
+    }
+
+    @Override
+    public Optional<List<String>> channelNames(Logger logger) {
+        return Optional.empty();
+    }
+
+    @Override
+    public int numberChannels(Logger logger) {
+        return 1;
+    }
+
+    @Override
+    public int numberFrames(Logger logger) {
+        return layout.getNumberFrames();
+    }
+
+    @Override
+    public int bitDepth(Logger logger) {
+        return layout.getBytesPerVoxel() * 8;
+    }
+
+    @Override
+    public ImageTimestampsAttributes timestamps() throws ImageIOException {
+        return timestamps.get();
+    }
+
+    @Override
+    public Optional<ImageLocation> location() throws ImageIOException {
+        return location.get();
+    }
+
+    @Override
+    public Optional<ImagePyramidMetadata> pyramid() {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isRGB(Logger logger) {
+        return false;
+    }
+
+    @Override
+    public void close() throws ImageIOException {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ImageIOException("Could not close the uncompressed TIFF", e);
+        }
+    }
+
+    @Override
+    public Dimensions dimensionsForSeries(int seriesIndex, Logger logger) throws ImageIOException {
+        checkSeriesIndex(seriesIndex);
+        return calculateOrientation(logger).dimensions(dimensionsWithoutOrientationChange());
+    }
+
+    /** Reads the 8-bit voxels of each z-slice in a frame, changing orientation if necessary. */
+    private Voxels<UnsignedByteBuffer> readUnsignedByte(
+            int frame, OrientationChange orientationChange, Extent extentSource, Extent extent)
+            throws IOException {
+        Voxels<UnsignedByteBuffer> voxels =
+                VoxelsFactory.getUnsignedByte().createUninitialized(extent);
+        for (int z = 0; z < extent.z(); z++) {
+            UncompressedTiffPlane plane = plane(frame, z);
+            MappedByteBuffer mapped = map(plane);
+            VoxelBuffer<UnsignedByteBuffer> slice;
+            if (isWrapped(plane, orientationChange)) {
+                slice = VoxelBufferWrap.unsignedByteRaw(mapped);
+            } else {
+                byte[] array = new byte[extentSource.areaXY()];
+                if (plane.isContiguous()) {
+                    mapped.get(array);
+                } else {
+                    for (UncompressedTiffBlock block : plane.getBlocks()) {
+                        int offset = (int) (block.getOffset() - plane.getStart());
+                        for (int row = 0; row < block.getHeight(); row++) {
+                            mapped.get(
+                                    offset + row * block.getStoredWidth(),
+                                    array,
+                                    extentSource.offset(block.getX(), block.getY() + row),
+                                    block.getWidth());
+                        }
+                    }
+                }
+                slice =
+                        VoxelBufferWrap.unsignedByteArray(
+                                reorient(array, orientationChange, extentSource));
+            }
+            voxels.replaceSlice(z, slice);
+        }
+        return voxels;
+    }
+
+    /** Reads the 16-bit voxels of each z-slice in a frame, changing orientation if necessary. */
+    private Voxels<UnsignedShortBuffer> readUnsignedShort(
+            int frame, OrientationChange orientationChange, Extent extentSource, Extent extent)
+            throws IOException {
+        Voxels<UnsignedShortBuffer> voxels =
+                VoxelsFactory.getUnsignedShort().createUninitialized(extent);
+        for (int z = 0; z < extent.z(); z++) {
+            UncompressedTiffPlane plane = plane(frame, z);
+            MappedByteBuffer mapped = map(plane);
+            VoxelBuffer<UnsignedShortBuffer> slice;
+            if (isWrapped(plane, orientationChange)) {
+                slice = VoxelBufferWrap.unsignedShortRaw(mapped.asShortBuffer());
+            } else {
+                short[] array = new short[extentSource.areaXY()];
+                if (plane.isContiguous()) {
+                    mapped.asShortBuffer().get(array);
+                } else {
+                    for (UncompressedTiffBlock block : plane.getBlocks()) {
+                        ShortBuffer source =
+                                shortsFrom(mapped, block.getOffset() - plane.getStart());
+                        for (int row = 0; row < block.getHeight(); row++) {
+                            source.get(
+                                    row * block.getStoredWidth(),
+                                    array,
+                                    extentSource.offset(block.getX(), block.getY() + row),
+                                    block.getWidth());
+                        }
+                    }
+                }
+                slice =
+                        VoxelBufferWrap.unsignedShortArray(
+                                reorient(array, orientationChange, extentSource));
+            }
+            voxels.replaceSlice(z, slice);
+        }
+        return voxels;
+    }
+
+    /** Where a particular z-slice in a particular frame is stored in the file. */
+    private UncompressedTiffPlane plane(int frame, int z) {
+        return layout.getPlanes().get(frame * layout.getNumberSlices() + z);
+    }
+
+    /** Maps the region of the file containing all voxels in a plane. */
+    private MappedByteBuffer map(UncompressedTiffPlane plane) throws IOException {
+        MappedByteBuffer mapped =
+                channel.map(MapMode.READ_ONLY, plane.getStart(), plane.getEnd() - plane.getStart());
+        mapped.order(layout.getByteOrder());
+        return mapped;
+    }
+
+    /**
+     * Whether a plane is wrapped directly from the memory-mapped file, without copying.
+     *
+     * <p>This occurs only when requested, and when the voxels need no rearrangement. A 16-bit voxel
+     * must also be stored in the native byte-order, as otherwise, its bytes would be swapped on
+     * every access.
+     */
+    private boolean isWrapped(UncompressedTiffPlane plane, OrientationChange orientationChange) {
+        return wrapMapped
+                && plane.isContiguous()
+                && orientationChange == OrientationChange.KEEP_UNCHANGED
+                && (layout.getBytesPerVoxel() == 1
+                        || layout.getByteOrder() == ByteOrder.nativeOrder());
+    }
+
+    /** The dimensions as stored in the file, before any orientation change. */
+    private Dimensions dimensionsWithoutOrientationChange() {
+        return new Dimensions(
+                new Extent(layout.getWidth(), layout.getHeight(), layout.getNumberSlices()),
+                layout.getResolution());
+    }
+
+    /**
+     * A view of 16-bit voxels, starting at a particular byte offset in {@code mapped}, which need
+     * not be aligned to two bytes.
+     */
+    private ShortBuffer shortsFrom(MappedByteBuffer mapped, long offset) {
+        ByteBuffer duplicate = mapped.duplicate();
+        duplicate.position((int) offset);
+        return duplicate.slice().order(layout.getByteOrder()).asShortBuffer();
+    }
+
+    /** Rearranges the voxels in a slice to apply a change in orientation, if any. */
+    private static byte[] reorient(
+            byte[] source, OrientationChange orientationChange, Extent extentSource) {
+        if (orientationChange == OrientationChange.KEEP_UNCHANGED) {
+            return source;
+        }
+        byte[] out = new byte[source.length];
+        int index = 0;
+        for (int y = 0; y < extentSource.y(); y++) {
+            for (int x = 0; x < extentSource.x(); x++) {
+                out[orientationChange.index(x, y, extentSource)] = source[index++];
+            }
+        }
+        return out;
+    }
+
+    /** Like {@link #reorient(byte[], OrientationChange, Extent)} but for 16-bit voxels. */
+    private static short[] reorient(
+            short[] source, OrientationChange orientationChange, Extent extentSource) {
+        if (orientationChange == OrientationChange.KEEP_UNCHANGED) {
+            return source;
+        }
+        short[] out = new short[source.length];
+        int index = 0;
+        for (int y = 0; y < extentSource.y(); y++) {
+            for (int x = 0; x < extentSource.x(); x++) {
+                out[orientationChange.index(x, y, extentSource)] = source[index++];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Lazy evaluation of the orientation, using the logger associated with the job not the
+     * experiment.
+     */
+    private OrientationChange calculateOrientation(Logger logger) throws ImageIOException {
+        if (orientation == null) {
+            orientation = calculateOrientation.calculateOrientationChange(logger);
+        }
+        return orientation;
+    }
+
+    /** Throws an exception unless {@code seriesIndex} refers to the only series. */
+    private static void checkSeriesIndex(int seriesIndex) throws ImageIOException {
+        if (seriesIndex != 0) {
+            throw new ImageIOException(
+                    String.format(
+                            "Series %d does not exist, as only a single series exists.",
+                            seriesIndex));
+        }
+    }
+}
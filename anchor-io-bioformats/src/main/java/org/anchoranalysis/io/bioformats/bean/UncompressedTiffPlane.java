@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Where the voxels of a single plane (a z-slice in a particular frame) are stored, in a TIFF file.
+ *
+ * @author Owen Feehan
+ */
+@Value
+class UncompressedTiffPlane {
+
+    /** The blocks that together contain all voxels in the plane. */
+    private List<UncompressedTiffBlock> blocks;
+
+    /** The minimum offset in the file of any voxel in the plane. */
+    private long start;
+
+    /** The offset in the file immediately after the last voxel in the plane. */
+    private long end;
+
+    /**
+     * True when the voxels of the plane are stored contiguously from {@code start}, row after row,
+     * without any padding, exactly as they are laid out in memory.
+     */
+    private boolean contiguous;
+}
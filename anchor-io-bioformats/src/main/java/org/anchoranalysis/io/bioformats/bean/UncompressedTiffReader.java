@@ -0,0 +1,155 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.core.format.ImageFileFormat;
+import org.anchoranalysis.core.time.ExecutionTimeRecorder;
+import org.anchoranalysis.image.core.dimensions.OrientationChange;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.bean.stack.reader.StackReaderOrientationCorrection;
+import org.anchoranalysis.image.io.stack.CalculateOrientationChange;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.io.bioformats.metadata.ImageTimestampsAttributesFactory;
+import org.anchoranalysis.io.bioformats.metadata.LocationReader;
+
+/**
+ * Reads uncompressed single-channel TIFF files directly from a memory-mapped file, falling back to
+ * another reader for any other file.
+ *
+ * <p>Only a TIFF with a single channel, of unsigned 8 or 16 bits, without compression, stored in
+ * strips or tiles, and without vendor-specific metadata, is read directly. This avoids the overhead
+ * of Bioformats' generic reading and conversion, for this common case. Multiple pages are read
+ * directly only when an ImageJ header describes them as z-slices and/or frames.
+ *
+ * <p>Any other file, including RGB, multi-channel, compressed and OME-TIFF files, is read with
+ * {@code fallback}.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor
+public class UncompressedTiffReader extends StackReaderOrientationCorrection {
+
+    // START BEAN PROPERTIES
+    /** How to read any file that cannot be read directly. */
+    @BeanField @Getter @Setter
+    private StackReaderOrientationCorrection fallback = new BioformatsReader();
+
+    /**
+     * When true, voxels that are stored contiguously are wrapped directly from the memory-mapped
+     * file, rather than being copied.
+     *
+     * <p>This avoids a copy, but the voxels are then read-only, and not backed by an array, so it
+     * is only suitable when the image is never modified, nor passed to operations that require an
+     * array, such as writing an image with Bioformats.
+     */
+    @BeanField @Getter @Setter private boolean wrapMapped = false;
+
+    // END BEAN PROPERTIES
+
+    /**
+     * Create with a particular fallback reader.
+     *
+     * @param fallback how to read any file that cannot be read directly.
+     */
+    public UncompressedTiffReader(StackReaderOrientationCorrection fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public OpenedImageFile openFile(Path path, ExecutionTimeRecorder executionTimeRecorder)
+            throws ImageIOException {
+        return openFile(
+                path,
+                loggerForOrientation -> OrientationChange.KEEP_UNCHANGED,
+                executionTimeRecorder);
+    }
+
+    @Override
+    public OpenedImageFile openFile(
+            Path path,
+            CalculateOrientationChange orientationCorrection,
+            ExecutionTimeRecorder executionTimeRecorder)
+            throws ImageIOException {
+        Optional<OpenedImageFile> opened =
+                executionTimeRecorder.recordExecutionTime(
+                        "Parsing uncompressed TIFF",
+                        () -> openDirectly(path, orientationCorrection, wrapMapped));
+        if (opened.isPresent()) {
+            return opened.get();
+        } else {
+            return fallback.openFile(path, orientationCorrection, executionTimeRecorder);
+        }
+    }
+
+    /** Opens the file to be read directly, if it is a supported TIFF. */
+    private static Optional<OpenedImageFile> openDirectly(
+            Path path, CalculateOrientationChange orientationCorrection, boolean wrapMapped) {
+        if (!ImageFileFormat.TIFF.matches(path.toString())) {
+            return Optional.empty();
+        }
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            Optional<UncompressedTiffLayout> layout = UncompressedTiffLayout.parse(channel);
+            if (layout.isPresent()) {
+                return Optional.of(
+                        new UncompressedTiffOpenedFile(
+                                channel,
+                                layout.get(),
+                                orientationCorrection,
+                                wrapMapped,
+                                () -> ImageTimestampsAttributesFactory.fromPath(path),
+                                () -> LocationReader.readLocation(path)));
+            }
+        } catch (IOException e) {
+            // Any problem reading the file is left for the fallback reader to report.
+        }
+
+        closeQuietly(channel);
+        return Optional.empty();
+    }
+
+    /** Closes a file, if it was opened, ignoring any errors. */
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignored, as the file is anyway not used further.
+            }
+        }
+    }
+}
@@ -105,6 +105,32 @@ public abstract class BioformatsWriter extends StackWriter {
      */
     protected abstract IFormatWriter createWriter() throws ImageIOException;
 
+    /**
+     * The number of resolution-levels to write, including full resolution.
+     *
+     * <p>Each successive level halves the width and height of the previous level.
+     *
+     * <p>By default, only full resolution is written.
+     *
+     * @return the number of resolution-levels, which is at least one.
+     */
+    protected int numberResolutions() {
+        return 1;
+    }
+
+    /**
+     * Configures the writer, after its metadata has been assigned, but before it is associated
+     * with a file.
+     *
+     * <p>This is an opportunity to assign compression or tiling. By default, nothing occurs.
+     *
+     * @param writer the writer to configure.
+     * @throws FormatException if the writer rejects a setting.
+     */
+    protected void configureWriter(IFormatWriter writer) throws FormatException {
+        // NOTHING TO DO
+    }
+
     /** When channels all have the same type. */
     private void writeHomogeneousChannels(Stack stack, Path filePath, boolean makeRGB)
             throws ImageIOException {
@@ -135,14 +161,15 @@ public abstract class BioformatsWriter extends StackWriter {
             throws ImageIOException {
 
         try (IFormatWriter writer = createWriter()) {
-            prepareWriter(writer, stack, voxelDataTypeToWrite, makeRGB);
+            prepareWriter(writer, stack, voxelDataTypeToWrite, makeRGB, numberResolutions());
+            configureWriter(writer);
 
             writer.setId(filePath.toString());
 
             if (!writer.canDoStacks() && stack.dimensions().z() > 1) {
                 throw new ImageIOException("The writer must support stacks for Z > 1");
             }
-            writeStack(writer, stack, makeRGB, voxelDataTypeToWrite);
+            writeStack(writer, stack, makeRGB, voxelDataTypeToWrite, numberResolutions());
 
         } catch (IOException | FormatException e) {
             throw WriterErrorMessageHelper.generalWriteException(
@@ -151,10 +178,21 @@ public abstract class BioformatsWriter extends StackWriter {
     }
 
     private static void writeStack(
-            IFormatWriter writer, Stack stack, boolean makeRGB, VoxelDataType voxelDataTypeToWrite)
+            IFormatWriter writer,
+            Stack stack,
+            boolean makeRGB,
+            VoxelDataType voxelDataTypeToWrite,
+            int numberResolutions)
             throws ImageIOException {
+        int samplesPerPixel = makeRGB ? stack.getNumberChannels() : 1;
+        PlaneWriter planeWriter =
+                new PlaneWriter(
+                        writer,
+                        stack.extent(),
+                        new SampleLayout(samplesPerPixel, voxelDataTypeToWrite),
+                        numberResolutions);
         if (makeRGB) {
-            writeRGB(writer, stack);
+            writeRGB(planeWriter, stack);
         } else {
             List<ByteRepresentationForChannel> channels =
                     FunctionalList.mapToList(
@@ -162,11 +200,11 @@ public abstract class BioformatsWriter extends StackWriter {
                             channel ->
                                     ByteRepresentationFactory.byteRepresentationFor(
                                             channel, voxelDataTypeToWrite));
-            writeAsSeparateChannels(writer, channels, stack.dimensions().z());
+            writeAsSeparateChannels(planeWriter, channels, stack.dimensions().z());
         }
     }
 
-    private static void writeRGB(IFormatWriter writer, Stack stack) throws ImageIOException {
+    private static void writeRGB(PlaneWriter writer, Stack stack) throws ImageIOException {
         if (stack.getNumberChannels() != 3 && stack.getNumberChannels() != 4) {
             throw new ImageIOException(
                     "If makeRGB==true, then a stack must have exactly 3 or 4 channels, but it actually has: "
@@ -186,7 +224,11 @@ public abstract class BioformatsWriter extends StackWriter {
     }
 
     private static void prepareWriter(
-            IFormatWriter writer, Stack stack, VoxelDataType voxelDataTypeToWrite, boolean makeRGB)
+            IFormatWriter writer,
+            Stack stack,
+            VoxelDataType voxelDataTypeToWrite,
+            boolean makeRGB,
+            int numberResolutions)
             throws ImageIOException {
 
         try {
@@ -197,7 +239,8 @@ public abstract class BioformatsWriter extends StackWriter {
                             stack.getNumberChannels(),
                             pixelType,
                             makeRGB,
-                            false));
+                            false,
+                            numberResolutions));
         } catch (ServiceException | DependencyException e) {
             throw new ImageIOException(
                     String.format(
@@ -208,22 +251,12 @@ public abstract class BioformatsWriter extends StackWriter {
     }
 
     private static void writeAsSeparateChannels(
-            IFormatWriter writer, List<ByteRepresentationForChannel> channels, int numberSlices)
+            PlaneWriter writer, List<ByteRepresentationForChannel> channels, int numberSlices)
             throws ImageIOException {
-        int sliceIndex = 0;
-        for (int channelIndex = 0; channelIndex < channels.size(); channelIndex++) {
-            try {
-                ByteRepresentationForChannel channel = channels.get(channelIndex);
-
-                for (int z = 0; z < numberSlices; z++) {
-                    writer.saveBytes(sliceIndex++, channel.bytesForSlice(z));
-                }
-            } catch (IOException | FormatException e) {
-                throw new ImageIOException(
-                        String.format(
-                                "An error occurred when writing image channel (%d)", channelIndex),
-                        e);
-            }
-        }
+        writer.writePlanes(
+                channels.size() * numberSlices,
+                planeIndex ->
+                        channels.get(planeIndex / numberSlices)
+                                .bytesForSlice(planeIndex % numberSlices));
     }
 }
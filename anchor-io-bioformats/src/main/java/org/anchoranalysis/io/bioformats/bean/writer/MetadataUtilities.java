@@ -31,6 +31,7 @@ import loci.common.services.ServiceException;
 import loci.common.services.ServiceFactory;
 import loci.formats.FormatTools;
 import loci.formats.meta.IMetadata;
+import loci.formats.meta.IPyramidStore;
 import loci.formats.services.OMEXMLService;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
@@ -52,7 +53,8 @@ class MetadataUtilities {
             int numberChannels,
             PixelType pixelType,
             boolean makeRGB,
-            boolean pretendSeries)
+            boolean pretendSeries,
+            int numberResolutions)
             throws ServiceException, DependencyException {
 
         ServiceFactory factory = new ServiceFactory();
@@ -93,6 +95,10 @@ class MetadataUtilities {
 
         addChannels(meta, effectiveNumberChannels, effectiveSamplePerPixels, seriesIndex);
 
+        if (numberResolutions > 1) {
+            addResolutions(meta, dimensions.extent(), numberResolutions, seriesIndex);
+        }
+
         return meta;
     }
 
@@ -119,6 +125,28 @@ class MetadataUtilities {
         }
     }
 
+    /** Describes the size of each sub-resolution in a pyramid. */
+    private static void addResolutions(
+            IMetadata meta, Extent extent, int numberResolutions, int seriesIndex)
+            throws ServiceException {
+        if (!(meta instanceof IPyramidStore)) {
+            throw new ServiceException("The metadata does not support multiple resolutions");
+        }
+        IPyramidStore pyramid = (IPyramidStore) meta;
+        for (int resolution = 1; resolution < numberResolutions; resolution++) {
+            pyramid.setResolutionSizeX(
+                    new PositiveInteger(
+                            PlaneDownsampler.sizeAtResolution(extent.x(), resolution)),
+                    seriesIndex,
+                    resolution);
+            pyramid.setResolutionSizeY(
+                    new PositiveInteger(
+                            PlaneDownsampler.sizeAtResolution(extent.y(), resolution)),
+                    seriesIndex,
+                    resolution);
+        }
+    }
+
     private static Length createLength(double valMeters) {
         return FormatTools.createLength(valMeters, UNITS.METER);
     }
@@ -25,8 +25,17 @@
  */
 package org.anchoranalysis.io.bioformats.bean.writer;
 
+import loci.formats.FormatException;
 import loci.formats.IFormatWriter;
 import loci.formats.out.OMETiffWriter;
+import loci.formats.out.TiffWriter;
+import lombok.Getter;
+import lombok.Setter;
+import org.anchoranalysis.bean.BeanInstanceMap;
+import org.anchoranalysis.bean.annotation.BeanField;
+import org.anchoranalysis.bean.annotation.NonNegative;
+import org.anchoranalysis.bean.annotation.Positive;
+import org.anchoranalysis.bean.exception.BeanMisconfiguredException;
 import org.anchoranalysis.core.format.ImageFileFormat;
 import org.anchoranalysis.image.io.ImageIOException;
 import org.anchoranalysis.image.io.stack.output.StackWriteOptions;
@@ -39,15 +48,62 @@ import org.anchoranalysis.image.io.stack.output.StackWriteOptions;
  * <p>This is particularly useful for stacks of images that have an unusual number of channels
  * (neither 1 or 3 channels), and which most other file formats cannot support.
  *
+ * <p>For large stacks, the image can be written in tiles, compressed, and with additional
+ * sub-resolutions (a pyramid), so that viewers can load it quickly. Each sub-resolution is
+ * downsampled from the full-resolution plane, as it is written.
+ *
  * @author Owen Feehan
  */
 public class OMETiff extends BioformatsWriter {
 
+    /** An alternative name for the {@link TiffWriter#COMPRESSION_ZLIB} codec. */
+    private static final String COMPRESSION_DEFLATE = "Deflate";
+
+    /** Bioformats requires the width and height of a tile to be a multiple of this. */
+    private static final int TILE_SIZE_MULTIPLE = 16;
+
+    // START BEAN PROPERTIES
+    /**
+     * The codec used to compress the image.
+     *
+     * <p>Valid codecs are {@code Uncompressed}, {@code LZW}, {@code Deflate} (or equivalently
+     * {@code zlib}), {@code JPEG}, {@code J2K} and {@code J2K-Lossy}. Codecs that are unsupported
+     * by Bioformats, such as {@code zstd}, produce an error when writing.
+     */
+    @BeanField @Getter @Setter private String compression = TiffWriter.COMPRESSION_UNCOMPRESSED;
+
+    /**
+     * The width and height of each tile in pixels, or 0 to write each plane as a single strip.
+     *
+     * <p>Bioformats requires this to be a multiple of 16.
+     */
+    @BeanField @NonNegative @Getter @Setter private int tileSize = 0;
+
+    /**
+     * The number of resolution-levels to write, including full resolution.
+     *
+     * <p>Each successive level halves the width and height of the previous level.
+     */
+    @BeanField @Positive @Getter @Setter private int resolutionLevels = 1;
+    // END BEAN PROPERTIES
+
     /** Default constructor. */
     public OMETiff() {
         super(true);
     }
 
+    @Override
+    public void checkMisconfigured(BeanInstanceMap defaultInstances)
+            throws BeanMisconfiguredException {
+        super.checkMisconfigured(defaultInstances);
+        if (tileSize % TILE_SIZE_MULTIPLE != 0) {
+            throw new BeanMisconfiguredException(
+                    String.format(
+                            "tileSize must be 0 or a positive multiple of %d, but is %d",
+                            TILE_SIZE_MULTIPLE, tileSize));
+        }
+    }
+
     @Override
     public ImageFileFormat fileFormat(StackWriteOptions writeOptions) {
         return ImageFileFormat.OME_TIFF;
@@ -57,4 +113,23 @@ public class OMETiff extends BioformatsWriter {
     protected IFormatWriter createWriter() throws ImageIOException {
         return new OMETiffWriter();
     }
+
+    @Override
+    protected int numberResolutions() {
+        return resolutionLevels;
+    }
+
+    @Override
+    protected void configureWriter(IFormatWriter writer) throws FormatException {
+        if (compression.equalsIgnoreCase(COMPRESSION_DEFLATE)) {
+            writer.setCompression(TiffWriter.COMPRESSION_ZLIB);
+        } else {
+            writer.setCompression(compression);
+        }
+
+        if (tileSize > 0) {
+            writer.setTileSizeX(tileSize);
+            writer.setTileSizeY(tileSize);
+        }
+    }
 }
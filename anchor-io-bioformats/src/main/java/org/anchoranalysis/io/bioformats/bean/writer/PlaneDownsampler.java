@@ -0,0 +1,169 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean.writer;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Downsamples the bytes of a plane, by averaging each block of voxels.
+ *
+ * <p>A plane consists of one or more samples-per-pixel, each stored planar (i.e. one after the
+ * other), with each sample encoded as big-endian bytes.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class PlaneDownsampler {
+
+    /**
+     * The size of a dimension at a particular resolution-level of a pyramid.
+     *
+     * <p>Each successive level halves the size of the previous level, but never below one.
+     *
+     * @param size the size of the dimension at full resolution.
+     * @param resolution the resolution-level, where 0 is full resolution.
+     * @return the size of the dimension at the resolution-level.
+     */
+    public static int sizeAtResolution(int size, int resolution) {
+        return Math.max(1, size >> resolution);
+    }
+
+    /**
+     * Downsamples a plane by a factor in both X and Y dimensions.
+     *
+     * <p>Each voxel in the downsampled plane is the mean of the corresponding block of voxels in
+     * the source plane. Any remaining source voxels beyond the last complete block are ignored.
+     *
+     * @param plane the bytes of the source plane.
+     * @param width the width of the source plane.
+     * @param height the height of the source plane.
+     * @param layout how samples are encoded.
+     * @param resolution the resolution-level, so that the factor is {@code 2^resolution}.
+     * @return a newly-created array with the bytes of the downsampled plane.
+     */
+    public static byte[] downsample(
+            byte[] plane, int width, int height, SampleLayout layout, int resolution) {
+        int factor = 1 << resolution;
+        int widthOut = sizeAtResolution(width, resolution);
+        int heightOut = sizeAtResolution(height, resolution);
+        int bytesPerSample = layout.getBytesPerSample();
+
+        ByteBuffer source = ByteBuffer.wrap(plane);
+        ByteBuffer destination = ByteBuffer.allocate(layout.bytesForPlane(widthOut, heightOut));
+
+        for (int sample = 0; sample < layout.getSamplesPerPixel(); sample++) {
+            int offsetIn = sample * width * height;
+            int offsetOut = sample * widthOut * heightOut;
+            IntStream.range(0, heightOut)
+                    .parallel()
+                    .forEach(
+                            y -> {
+                                int startY = y * factor;
+                                int endY = Math.min(startY + factor, height);
+                                for (int x = 0; x < widthOut; x++) {
+                                    int startX = x * factor;
+                                    int endX = Math.min(startX + factor, width);
+                                    int indexOut = offsetOut + (y * widthOut) + x;
+                                    averageBlock(
+                                            source,
+                                            destination,
+                                            layout,
+                                            offsetIn,
+                                            width,
+                                            startX,
+                                            endX,
+                                            startY,
+                                            endY,
+                                            indexOut * bytesPerSample);
+                                }
+                            });
+        }
+        return destination.array();
+    }
+
+    /** Calculates the mean of a block of source samples, and places it in the destination. */
+    private static void averageBlock(
+            ByteBuffer source,
+            ByteBuffer destination,
+            SampleLayout layout,
+            int offsetIn,
+            int width,
+            int startX,
+            int endX,
+            int startY,
+            int endY,
+            int byteIndexOut) {
+        int count = (endX - startX) * (endY - startY);
+        if (layout.isFloatingPoint()) {
+            double sum = 0.0;
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    sum += source.getFloat((offsetIn + (y * width) + x) * 4);
+                }
+            }
+            destination.putFloat(byteIndexOut, (float) (sum / count));
+        } else {
+            long sum = 0;
+            for (int y = startY; y < endY; y++) {
+                for (int x = startX; x < endX; x++) {
+                    sum += getUnsigned(source, layout, offsetIn + (y * width) + x);
+                }
+            }
+            putUnsigned(destination, layout, byteIndexOut, (sum + (count / 2)) / count);
+        }
+    }
+
+    /** Gets an unsigned integer sample, at a particular sample-index. */
+    private static long getUnsigned(ByteBuffer buffer, SampleLayout layout, int index) {
+        switch (layout.getBytesPerSample()) {
+            case 1:
+                return buffer.get(index) & 0xFFL;
+            case 2:
+                return buffer.getShort(index * 2) & 0xFFFFL;
+            default:
+                return buffer.getInt(index * 4) & 0xFFFFFFFFL;
+        }
+    }
+
+    /** Puts an unsigned integer sample, at a particular byte-index. */
+    private static void putUnsigned(
+            ByteBuffer buffer, SampleLayout layout, int byteIndex, long value) {
+        switch (layout.getBytesPerSample()) {
+            case 1:
+                buffer.put(byteIndex, (byte) value);
+                break;
+            case 2:
+                buffer.putShort(byteIndex, (short) value);
+                break;
+            default:
+                buffer.putInt(byteIndex, (int) value);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean.writer;
+
+import java.io.IOException;
+import loci.formats.FormatException;
+import loci.formats.IFormatWriter;
+import lombok.AllArgsConstructor;
+import org.anchoranalysis.core.functional.checked.CheckedIntFunction;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.spatial.box.Extent;
+
+/**
+ * Saves the planes of an image via a {@link IFormatWriter}, optionally in tiles and at multiple
+ * resolution-levels.
+ *
+ * <p>All planes are written at full resolution, and then all planes at each successive
+ * sub-resolution. Each sub-resolution plane is downsampled from the full-resolution plane, as it
+ * is written, so no additional stack is ever created.
+ *
+ * <p>When the writer has a tile-size smaller than a plane, each plane is saved one tile at a time.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+class PlaneWriter {
+
+    /** The writer, which should already be associated with a file. */
+    private final IFormatWriter writer;
+
+    /** The size of a plane at full resolution. */
+    private final Extent extent;
+
+    /** How the samples in each plane are encoded. */
+    private final SampleLayout layout;
+
+    /** The number of resolution-levels to write, including full resolution. */
+    private final int numberResolutions;
+
+    /**
+     * Writes all planes, at each resolution-level.
+     *
+     * @param numberPlanes the number of planes.
+     * @param planeBytes the bytes for a plane at full resolution, given the index of the plane.
+     *     This may be called more than once for the same plane, when there are multiple
+     *     resolution-levels.
+     * @throws ImageIOException if a plane cannot be written.
+     */
+    public void writePlanes(
+            int numberPlanes, CheckedIntFunction<byte[], ImageIOException> planeBytes)
+            throws ImageIOException {
+        for (int resolution = 0; resolution < numberResolutions; resolution++) {
+            if (numberResolutions > 1) {
+                writer.setResolution(resolution);
+            }
+            for (int plane = 0; plane < numberPlanes; plane++) {
+                byte[] bytes = planeBytes.apply(plane);
+                try {
+                    savePlane(plane, bytes, resolution);
+                } catch (IOException | FormatException e) {
+                    throw new ImageIOException(
+                            String.format(
+                                    "An error occurred when writing plane (%d) at resolution-level (%d)",
+                                    plane, resolution),
+                            e);
+                }
+            }
+        }
+    }
+
+    /** Saves a plane, downsampling it if needed, and then saving as tiles if needed. */
+    private void savePlane(int index, byte[] bytes, int resolution)
+            throws IOException, FormatException {
+        int width = PlaneDownsampler.sizeAtResolution(extent.x(), resolution);
+        int height = PlaneDownsampler.sizeAtResolution(extent.y(), resolution);
+
+        byte[] downsampled =
+                resolution > 0
+                        ? PlaneDownsampler.downsample(
+                                bytes, extent.x(), extent.y(), layout, resolution)
+                        : bytes;
+
+        int tileWidth = tileSize(writer.getTileSizeX(), width);
+        int tileHeight = tileSize(writer.getTileSizeY(), height);
+        if (tileWidth == width && tileHeight == height) {
+            writer.saveBytes(index, downsampled);
+        } else {
+            for (int y = 0; y < height; y += tileHeight) {
+                for (int x = 0; x < width; x += tileWidth) {
+                    int regionWidth = Math.min(tileWidth, width - x);
+                    int regionHeight = Math.min(tileHeight, height - y);
+                    byte[] tile =
+                            extractTile(
+                                    downsampled, width, height, x, y, regionWidth, regionHeight);
+                    writer.saveBytes(index, tile, x, y, regionWidth, regionHeight);
+                }
+            }
+        }
+    }
+
+    /** Copies a rectangular region of each sample in a plane, into a newly-created array. */
+    private byte[] extractTile(
+            byte[] plane,
+            int width,
+            int height,
+            int cornerX,
+            int cornerY,
+            int regionWidth,
+            int regionHeight) {
+        int bytesPerSample = layout.getBytesPerSample();
+        int rowBytes = regionWidth * bytesPerSample;
+        byte[] tile = new byte[layout.bytesForPlane(regionWidth, regionHeight)];
+        int indexOut = 0;
+        for (int sample = 0; sample < layout.getSamplesPerPixel(); sample++) {
+            int sampleOffset = sample * width * height;
+            for (int y = cornerY; y < cornerY + regionHeight; y++) {
+                int indexIn = (sampleOffset + (y * width) + cornerX) * bytesPerSample;
+                System.arraycopy(plane, indexIn, tile, indexOut, rowBytes);
+                indexOut += rowBytes;
+            }
+        }
+        return tile;
+    }
+
+    /** The size of a tile along a dimension, or the size of the plane, if untiled. */
+    private static int tileSize(int tileSizeWriter, int planeSize) {
+        if (tileSizeWriter <= 0 || tileSizeWriter > planeSize) {
+            return planeSize;
+        } else {
+            return tileSizeWriter;
+        }
+    }
+}
@@ -26,7 +26,6 @@
 package org.anchoranalysis.io.bioformats.bean.writer;
 
 import java.util.Optional;
-import loci.formats.IFormatWriter;
 import org.anchoranalysis.core.functional.OptionalFactory;
 import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.stack.Stack;
@@ -35,7 +34,7 @@ import org.anchoranalysis.image.io.ImageIOException;
 abstract class RGBWriter {
 
     /** The writer to eventual write the image. */
-    protected final IFormatWriter writer;
+    private final PlaneWriter writer;
 
     /** The red channel. */
     protected final Channel channelRed;
@@ -49,7 +48,7 @@ abstract class RGBWriter {
     /** The alpha channel, if one is defined. */
     protected final Optional<Channel> channelAlpha;
 
-    protected RGBWriter(IFormatWriter writer, Stack stack, boolean plusAlpha) {
+    protected RGBWriter(PlaneWriter writer, Stack stack, boolean plusAlpha) {
         this.writer = writer;
         this.channelRed = stack.getChannel(0);
         this.channelGreen = stack.getChannel(1);
@@ -61,7 +60,7 @@ abstract class RGBWriter {
 
         int capacity = channelRed.voxels().any().extent().areaXY();
 
-        channelRed.extent().iterateOverZ(z -> mergeSliceAsRGB(z, capacity));
+        writer.writePlanes(channelRed.extent().z(), z -> mergeSliceAsRGB(z, capacity));
     }
 
     /**
@@ -73,5 +72,14 @@ abstract class RGBWriter {
         return channelAlpha.isPresent() ? 4 : 3;
     }
 
-    protected abstract void mergeSliceAsRGB(int z, int capacity) throws ImageIOException;
+    /**
+     * Merges the channels of a slice into a single plane, with each channel stored one after the
+     * other.
+     *
+     * @param z the index of the slice.
+     * @param capacity the number of voxels in each channel of the slice.
+     * @return the bytes of the merged plane.
+     * @throws ImageIOException if the channels cannot be merged.
+     */
+    protected abstract byte[] mergeSliceAsRGB(int z, int capacity) throws ImageIOException;
 }
@@ -25,22 +25,18 @@
  */
 package org.anchoranalysis.io.bioformats.bean.writer;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import loci.formats.FormatException;
-import loci.formats.IFormatWriter;
 import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.stack.Stack;
-import org.anchoranalysis.image.io.ImageIOException;
 
 class RGBWriterByte extends RGBWriter {
 
-    public RGBWriterByte(IFormatWriter writer, Stack stack, boolean plusAlpha) {
+    public RGBWriterByte(PlaneWriter writer, Stack stack, boolean plusAlpha) {
         super(writer, stack, plusAlpha);
     }
 
     @Override
-    protected void mergeSliceAsRGB(int z, int capacity) throws ImageIOException {
+    protected byte[] mergeSliceAsRGB(int z, int capacity) {
 
         ByteBuffer merged = ByteBuffer.allocate(capacity * numberChannels());
         putSlice(merged, channelRed, z);
@@ -49,12 +45,7 @@ class RGBWriterByte extends RGBWriter {
         if (channelAlpha.isPresent()) {
             putSlice(merged, channelAlpha.get(), z);
         }
-
-        try {
-            writer.saveBytes(z, merged.array());
-        } catch (FormatException | IOException e) {
-            throw new ImageIOException("Failed to merge-slices as RGB", e);
-        }
+        return merged.array();
     }
 
     private static void putSlice(ByteBuffer merged, Channel channel, int z) {
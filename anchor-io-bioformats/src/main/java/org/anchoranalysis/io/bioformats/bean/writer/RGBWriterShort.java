@@ -25,33 +25,25 @@
  */
 package org.anchoranalysis.io.bioformats.bean.writer;
 
-import java.io.IOException;
 import java.nio.ShortBuffer;
-import loci.formats.FormatException;
-import loci.formats.IFormatWriter;
 import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.stack.Stack;
-import org.anchoranalysis.image.io.ImageIOException;
 import org.anchoranalysis.image.voxel.buffer.primitive.UnsignedByteBuffer;
 
 class RGBWriterShort extends RGBWriter {
 
-    public RGBWriterShort(IFormatWriter writer, Stack stack, boolean withAlpha) {
+    public RGBWriterShort(PlaneWriter writer, Stack stack, boolean withAlpha) {
         super(writer, stack, withAlpha);
     }
 
     @Override
-    protected void mergeSliceAsRGB(int z, int capacity) throws ImageIOException {
+    protected byte[] mergeSliceAsRGB(int z, int capacity) {
         UnsignedByteBuffer merged = UnsignedByteBuffer.allocate(capacity * numberChannels() * 2);
         ShortBuffer mergedAsShort = merged.getDelegate().asShortBuffer();
         putSliceShort(mergedAsShort, channelRed, z);
         putSliceShort(mergedAsShort, channelGreen, z);
         putSliceShort(mergedAsShort, channelBlue, z);
-        try {
-            writer.saveBytes(z, merged.array());
-        } catch (FormatException | IOException e) {
-            throw new ImageIOException("Failed to merge-slices as RGB", e);
-        }
+        return merged.array();
     }
 
     private static void putSliceShort(ShortBuffer merged, Channel channel, int z) {
@@ -0,0 +1,72 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean.writer;
+
+import lombok.Value;
+import org.anchoranalysis.image.voxel.datatype.FloatVoxelType;
+import org.anchoranalysis.image.voxel.datatype.VoxelDataType;
+
+/**
+ * How the samples of a plane are encoded as bytes.
+ *
+ * @author Owen Feehan
+ */
+@Value
+class SampleLayout {
+
+    /** The number of samples for each pixel, each stored in a separate plane one after another. */
+    private int samplesPerPixel;
+
+    /** The number of bytes used to encode each sample. */
+    private int bytesPerSample;
+
+    /** True when each sample is a float, false when an unsigned integer. */
+    private boolean floatingPoint;
+
+    /**
+     * Creates for a particular number of samples and data-type.
+     *
+     * @param samplesPerPixel the number of samples for each pixel.
+     * @param dataType the data-type of each sample.
+     */
+    public SampleLayout(int samplesPerPixel, VoxelDataType dataType) {
+        this.samplesPerPixel = samplesPerPixel;
+        this.bytesPerSample = dataType.numberBytes();
+        this.floatingPoint = dataType.equals(FloatVoxelType.INSTANCE);
+    }
+
+    /**
+     * The number of bytes in a plane of a particular size.
+     *
+     * @param width the width of the plane.
+     * @param height the height of the plane.
+     * @return the number of bytes, for all samples.
+     */
+    public int bytesForPlane(int width, int height) {
+        return width * height * samplesPerPixel * bytesPerSample;
+    }
+}
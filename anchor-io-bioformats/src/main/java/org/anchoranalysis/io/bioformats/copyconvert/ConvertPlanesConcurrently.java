@@ -0,0 +1,201 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.copyconvert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.anchoranalysis.core.functional.checked.CheckedBooleanSupplier;
+
+/**
+ * Converts planes concurrently, while the bytes for subsequent planes are being read.
+ *
+ * <p>Reading bytes from an {@link loci.formats.IFormatReader} is not thread-safe, so it should
+ * occur sequentially on a single thread. The conversion of each plane's bytes is independent, and
+ * so is performed in parallel on a dedicated pool of threads, shared by all instances.
+ *
+ * <p>A dedicated pool is used, rather than the common {@link
+ * java.util.concurrent.ForkJoinPool}, as the reading thread blocks until conversions complete. If
+ * the reading thread were itself a worker in the same pool (e.g. when images are read from a
+ * parallel stream), every worker could block waiting for conversions that no remaining worker is
+ * free to execute. Conversions never block, so the dedicated pool always makes progress.
+ *
+ * <p>At most a fixed number of planes may be in flight at any one time, and the byte-arrays of
+ * converted planes are recycled for subsequent reads, unless the converted plane still references
+ * them.
+ *
+ * @author Owen Feehan
+ */
+class ConvertPlanesConcurrently {
+
+    /** The number of threads that convert planes. */
+    private static final int NUMBER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Threads that are unused for this many seconds are stopped. */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /** Converts planes, shared by all instances. */
+    private static final Executor CONVERTERS = createConverters();
+
+    /** Where each conversion is executed. */
+    private final Executor executor;
+
+    /** Bounds how many planes may be read, but not yet converted. */
+    private final Semaphore planesInFlight;
+
+    /** Byte-arrays that are no longer needed after conversion, and may be reused. */
+    private final Queue<byte[]> spareArrays = new ConcurrentLinkedQueue<>();
+
+    /** The conversions that have been submitted. */
+    private final List<CompletableFuture<Void>> submitted = new ArrayList<>();
+
+    /** The first exception thrown by any conversion. */
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    /** Creates, allowing one more plane in flight than the number of converting threads. */
+    public ConvertPlanesConcurrently() {
+        this(CONVERTERS, NUMBER_THREADS + 1);
+    }
+
+    /**
+     * Creates with a particular executor and bound on planes in flight.
+     *
+     * @param executor where each conversion is executed. This must not be the thread that reads
+     *     the planes, unless {@code maxPlanesInFlight} is 1 and {@code executor} runs each
+     *     conversion immediately.
+     * @param maxPlanesInFlight the maximum number of planes that may be read, but not yet
+     *     converted.
+     */
+    ConvertPlanesConcurrently(Executor executor, int maxPlanesInFlight) {
+        this.executor = executor;
+        this.planesInFlight = new Semaphore(maxPlanesInFlight);
+    }
+
+    /**
+     * Creates to convert each plane immediately on the calling thread, without any concurrency.
+     *
+     * @return a newly created instance.
+     */
+    static ConvertPlanesConcurrently sequential() {
+        return new ConvertPlanesConcurrently(Runnable::run, 1);
+    }
+
+    /**
+     * Waits until another plane may be read, and provides a byte-array to read it into, if one is
+     * available for reuse.
+     *
+     * @return a previously used byte-array, or {@link Optional#empty} if none is available and a
+     *     new array should be allocated.
+     * @throws IOException if a previous conversion failed, or the thread is interrupted.
+     */
+    public Optional<byte[]> acquireArray() throws IOException {
+        try {
+            planesInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to read a plane", e);
+        }
+        throwIfFailed();
+        return Optional.ofNullable(spareArrays.poll());
+    }
+
+    /**
+     * Converts a plane, that has been read into {@code array}, in the background.
+     *
+     * <p>This should be called exactly once after each call to {@link #acquireArray}.
+     *
+     * @param array the array the plane was read into.
+     * @param convert performs the conversion, returning true if {@code array} is referenced by the
+     *     converted plane, and so cannot be reused.
+     */
+    public void submit(byte[] array, CheckedBooleanSupplier<IOException> convert) {
+        submitted.add(
+                CompletableFuture.runAsync(
+                        () -> {
+                            try {
+                                if (!convert.getAsBoolean()) {
+                                    spareArrays.add(array);
+                                }
+                            } catch (IOException e) {
+                                failure.compareAndSet(null, e);
+                            } finally {
+                                planesInFlight.release();
+                            }
+                        },
+                        executor));
+    }
+
+    /**
+     * Waits until all submitted conversions have completed.
+     *
+     * @throws IOException if any conversion failed.
+     */
+    public void awaitCompletion() throws IOException {
+        try {
+            CompletableFuture.allOf(submitted.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw new IOException("A plane could not be converted", e.getCause());
+        }
+        throwIfFailed();
+    }
+
+    /** Creates the pool of daemon threads that convert planes, stopping threads when unused. */
+    private static Executor createConverters() {
+        ThreadPoolExecutor pool =
+                new ThreadPoolExecutor(
+                        NUMBER_THREADS,
+                        NUMBER_THREADS,
+                        KEEP_ALIVE_SECONDS,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "convert-planes");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /** Throws the first exception from any conversion, if one has occurred. */
+    private void throwIfFailed() throws IOException {
+        IOException exception = failure.get();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
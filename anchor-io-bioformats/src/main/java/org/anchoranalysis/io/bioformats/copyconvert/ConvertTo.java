@@ -32,6 +32,7 @@ import java.nio.ByteOrder;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import lombok.RequiredArgsConstructor;
+import org.anchoranalysis.image.core.channel.Channel;
 import org.anchoranalysis.image.core.dimensions.Dimensions;
 import org.anchoranalysis.image.core.dimensions.OrientationChange;
 import org.anchoranalysis.image.voxel.Voxels;
@@ -90,9 +91,11 @@ public abstract class ConvertTo<T> {
      * @param sourceImageEncoding how voxels are stored in the source-image.
      * @param orientationCorrection any correction of orientation to be applied as bytes are
      *     converted.
+     * @return true if {@code source} is now referenced by a destination channel, and so should not
+     *     be reused, false if its array may be safely reused.
      * @throws IOException if any error occurs when copying channels.
      */
-    public void copyAllChannels(
+    public boolean copyAllChannels(
             Dimensions dimensions,
             ByteBuffer source,
             DestinationChannelForIndex destination,
@@ -100,22 +103,76 @@ public abstract class ConvertTo<T> {
             ImageFileEncoding sourceImageEncoding,
             OrientationChange orientationCorrection)
             throws IOException {
+        prepare(dimensions, sourceImageEncoding);
+        return copyAllChannelsPrepared(
+                source, destination, z, sourceImageEncoding, orientationCorrection);
+    }
 
-        log.debug(String.format("copy to %d start", z));
-
+    /**
+     * Prepares to copy slices of particular dimensions and encoding, via {@link
+     * #copyAllChannelsPrepared}.
+     *
+     * <p>After this is called, {@link #copyAllChannelsPrepared} may be called concurrently from
+     * multiple threads, for any slices that share the same {@code dimensions} and {@code
+     * sourceImageEncoding}.
+     *
+     * @param dimensions scene-dimension.
+     * @param sourceImageEncoding how voxels are stored in the source-image.
+     * @throws IOException if a particular combination of parameters is unsupported.
+     */
+    public void prepare(Dimensions dimensions, ImageFileEncoding sourceImageEncoding)
+            throws IOException {
         setupBefore(dimensions, sourceImageEncoding);
+    }
 
+    /**
+     * Like {@link #copyAllChannels} but assumes {@link #prepare} has already been called with the
+     * dimensions and encoding of {@code source}.
+     *
+     * <p>This does not alter the state of the converter, so it is safe to call concurrently.
+     *
+     * @param source the buffer we copy all channels from.
+     * @param destination finds an appropriate destination channel for a particular
+     *     relative-channel-index.
+     * @param z the current slice we are working on.
+     * @param sourceImageEncoding how voxels are stored in the source-image.
+     * @param orientationCorrection any correction of orientation to be applied as bytes are
+     *     converted.
+     * @return true if {@code source} is now referenced by a destination channel, and so should not
+     *     be reused, false if its array may be safely reused.
+     * @throws IOException if any error occurs when copying channels.
+     */
+    public boolean copyAllChannelsPrepared(
+            ByteBuffer source,
+            DestinationChannelForIndex destination,
+            int z,
+            ImageFileEncoding sourceImageEncoding,
+            OrientationChange orientationCorrection)
+            throws IOException {
+
+        log.debug(String.format("copy to %d start", z));
+
+        boolean retained = false;
         for (int channelIndexRelative = 0;
                 channelIndexRelative < sourceImageEncoding.getNumberChannelsPerArray();
                 channelIndexRelative++) {
 
+            Channel channel = destination.get(channelIndexRelative);
+            if (channel == null) {
+                // This channel is not needed, so is not converted
+                continue;
+            }
+
+            retained |= retainsSource(source, channelIndexRelative, orientationCorrection);
+
             VoxelBuffer<T> converted =
                     convertSliceOfSingleChannel(
                             source, channelIndexRelative, orientationCorrection);
-            placeSliceInDestination(converted, functionCast, destination, z, channelIndexRelative);
+            placeSliceInDestination(converted, functionCast, channel, z);
         }
 
         log.debug(String.format("copy to byte %d end", z));
+        return retained;
     }
 
     /**
@@ -242,6 +299,22 @@ public abstract class ConvertTo<T> {
             OrientationChange orientationCorrection)
             throws IOException;
 
+    /**
+     * Whether the converted buffer reuses the memory of {@code source}, rather than copying it.
+     *
+     * @param source the buffer we copy all channels from.
+     * @param channelIndexRelative 0 if the buffer is non interleaved, or otherwise the index of the
+     *     channel among the interleaved channels.
+     * @param orientationCorrection any correction of orientation to be applied as bytes are
+     *     converted.
+     * @return true if the memory of {@code source} is reused in the converted buffer, and so must
+     *     not be overwritten afterwards.
+     */
+    protected boolean retainsSource(
+            ByteBuffer source, int channelIndexRelative, OrientationChange orientationCorrection) {
+        return false;
+    }
+
     /**
      * Whether the source buffer can encode more than one channel?
      *
@@ -260,10 +333,9 @@ public abstract class ConvertTo<T> {
     private static <S> void placeSliceInDestination(
             VoxelBuffer<S> voxelBuffer,
             Function<VoxelsUntyped, Voxels<S>> functionCast,
-            DestinationChannelForIndex destination,
-            int z,
-            int channelIndexRelative) {
-        Voxels<S> voxels = functionCast.apply(destination.get(channelIndexRelative).voxels());
+            Channel destination,
+            int z) {
+        Voxels<S> voxels = functionCast.apply(destination.voxels());
         voxels.slices().replaceSlice(z, voxelBuffer);
     }
 }
@@ -30,23 +30,46 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.List;
+import java.util.Optional;
 import loci.formats.FormatException;
 import loci.formats.IFormatReader;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
 import org.anchoranalysis.image.core.dimensions.OrientationChange;
 import org.anchoranalysis.io.bioformats.DestinationChannelForIndex;
 import org.anchoranalysis.io.bioformats.bean.options.ReadOptions;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
 
 /**
  * Copies the bytes from a {@link IFormatReader} to a list of channels, converting if necessary.
  *
+ * <p>Planes are read sequentially from the {@link IFormatReader}, reusing byte-arrays where
+ * possible, but are converted in parallel.
+ *
  * @author Owen Feehan
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class CopyConvert {
 
+    /** Selects a destination channel for a particular time-point and channel. */
+    @FunctionalInterface
+    private interface DestinationForPlane {
+
+        /**
+         * The destination channel for a particular time-point and channel.
+         *
+         * @param timeIndex the index of the time-point, zero-indexed.
+         * @param channelIndex the index of the channel, zero-indexed.
+         * @return the destination channel, or null if this channel and time-point should not be
+         *     copied.
+         */
+        Channel get(int timeIndex, int channelIndex);
+    }
+
     /**
      * Copies all frames, channels, z-slices (in a byte-array) into a destination set of {@link
      * Channel}s converting them if necessary along the way.
@@ -70,49 +93,209 @@ public class CopyConvert {
             ReadOptions readOptions,
             OrientationChange orientationCorrection)
             throws FormatException, IOException {
+        copyAllFrames(
+                reader,
+                destination,
+                targetShape,
+                Optional.empty(),
+                convertTo,
+                readOptions,
+                orientationCorrection);
+    }
+
+    /**
+     * Like {@link #copyAllFrames(IFormatReader, List, ImageFileShape, ConvertTo, ReadOptions,
+     * OrientationChange)} but optionally copies only the voxels inside a region.
+     *
+     * <p>When a region is specified, only the voxels inside the region are read from {@code
+     * reader}, and any z-slices outside the region are not read at all.
+     *
+     * @param reader the source of the copy.
+     * @param destination the destination of the copy. When {@code region} is defined, each channel
+     *     should have the size of {@code region}.
+     * @param targetShape the shape of the entire image-file to convert to (before any orientation
+     *     correction).
+     * @param region if defined, the region of the image to copy, in the coordinates of the image
+     *     before any orientation correction. If empty, the entire image is copied.
+     * @param convertTo how to convert the source bytes to the desired target form.
+     * @param readOptions Options that influence how stack is read.
+     * @param orientationCorrection any correction of orientation to be applied as bytes are
+     *     converted.
+     * @throws FormatException when the operation fails due to file-format problems.
+     * @throws IOException when the operation fails due to read or write IO problems.
+     */
+    public static void copyAllFrames(
+            IFormatReader reader,
+            List<Channel> destination,
+            ImageFileShape targetShape,
+            Optional<BoundingBox> region,
+            ConvertTo<?> convertTo,
+            ReadOptions readOptions,
+            OrientationChange orientationCorrection)
+            throws FormatException, IOException {
+        int numberChannels = targetShape.getNumberChannels();
+        copyFrames(
+                reader,
+                targetShape,
+                region,
+                convertTo,
+                readOptions,
+                orientationCorrection,
+                (t, c) -> destination.get(destinationIndex(c, t, numberChannels)));
+    }
+
+    /**
+     * Copies a single channel at a single time-point into a destination {@link Channel},
+     * converting if necessary along the way.
+     *
+     * <p>Only the planes containing the channel are read from {@code reader}.
+     *
+     * @param reader the source of the copy.
+     * @param destination the destination of the copy.
+     * @param targetShape the shape of the image-file to convert to (before any orientation
+     *     correction).
+     * @param timeIndex the index of the time-point to copy, zero-indexed.
+     * @param channelIndex the index of the channel to copy, zero-indexed.
+     * @param convertTo how to convert the source bytes to the desired target form.
+     * @param readOptions Options that influence how stack is read.
+     * @param orientationCorrection any correction of orientation to be applied as bytes are
+     *     converted.
+     * @throws FormatException when the operation fails due to file-format problems.
+     * @throws IOException when the operation fails due to read or write IO problems.
+     */
+    public static void copyChannel(
+            IFormatReader reader,
+            Channel destination,
+            ImageFileShape targetShape,
+            int timeIndex,
+            int channelIndex,
+            ConvertTo<?> convertTo,
+            ReadOptions readOptions,
+            OrientationChange orientationCorrection)
+            throws FormatException, IOException {
+        copyFrames(
+                reader,
+                targetShape,
+                Optional.empty(),
+                convertTo,
+                readOptions,
+                orientationCorrection,
+                (t, c) -> t == timeIndex && c == channelIndex ? destination : null);
+    }
+
+    /**
+     * Copies the planes that have a destination channel, skipping any other planes without
+     * reading them.
+     */
+    private static void copyFrames(
+            IFormatReader reader,
+            ImageFileShape targetShape,
+            Optional<BoundingBox> region,
+            ConvertTo<?> convertTo,
+            ReadOptions readOptions,
+            OrientationChange orientationCorrection,
+            DestinationForPlane destination)
+            throws FormatException, IOException {
         int numberChannelsPerByteArray = readOptions.channelsPerByteArray(reader);
 
+        Dimensions dimensionsImage = targetShape.getImageDimensions();
+        Dimensions dimensionsToCopy =
+                region.map(box -> dimensionsImage.duplicateChangeExtent(box.extent()))
+                        .orElse(dimensionsImage);
+
         int numberByteArraysPerIteration =
                 calculateByteArraysPerIteration(
                         targetShape.getNumberChannels(), numberChannelsPerByteArray);
 
+        ImageFileEncoding encoding =
+                new ImageFileEncoding(
+                        reader.isRGB(), reader.isInterleaved(), numberChannelsPerByteArray);
+        convertTo.prepare(dimensionsToCopy, encoding);
+
+        ByteOrder order = reader.isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+        // Planes are read sequentially, as the reader is not thread-safe, but converted in parallel
+        ConvertPlanesConcurrently conversion = new ConvertPlanesConcurrently();
         IterateOverSlices.iterateDimensionsOrder(
                 reader.getDimensionOrder(),
                 targetShape,
                 numberByteArraysPerIteration,
                 (t, z, c, readerIndex) -> {
 
+                    if (region.isPresent() && !containsZ(region.get(), z)) {
+                        // Skip any slice outside the region, without reading it.
+                        return;
+                    }
+
                     /** Selects a destination channel for a particular relative channel */
                     DestinationChannelForIndex destinationChannel =
-                            channelIndexRelative ->
-                                    destination.get(
-                                            destinationIndex(
-                                                    c + channelIndexRelative,
-                                                    t,
-                                                    targetShape.getNumberChannels()));
-
-                    ImageFileEncoding encoding =
-                            new ImageFileEncoding(
-                                    reader.isRGB(),
-                                    reader.isInterleaved(),
-                                    numberChannelsPerByteArray);
-                    convertTo.copyAllChannels(
-                            targetShape.getImageDimensions(),
-                            openByteBuffer(reader, readerIndex),
-                            destinationChannel,
-                            z,
-                            encoding,
-                            orientationCorrection);
+                            channelIndexRelative -> destination.get(t, c + channelIndexRelative);
+
+                    if (!anyDestination(destinationChannel, numberChannelsPerByteArray)) {
+                        // Skip any plane whose channels are not needed, without reading it.
+                        return;
+                    }
+
+                    int zDestination = region.map(box -> z - box.cornerMin().z()).orElse(z);
+
+                    byte[] array =
+                            readPlane(reader, readerIndex, region, conversion.acquireArray());
+                    ByteBuffer source = ByteBuffer.wrap(array).order(order);
+                    conversion.submit(
+                            array,
+                            () ->
+                                    convertTo.copyAllChannelsPrepared(
+                                            source,
+                                            destinationChannel,
+                                            zDestination,
+                                            encoding,
+                                            orientationCorrection));
                 });
+        conversion.awaitCompletion();
     }
 
-    /** Reads bytes from a {@link IFormatReader} making sure the endianness is correct. */
-    private static ByteBuffer openByteBuffer(IFormatReader reader, int index)
+    /**
+     * Reads the bytes of a plane from a {@link IFormatReader}, reusing an existing array if
+     * possible.
+     *
+     * <p>If {@code region} is defined, only bytes for voxels inside the region are read.
+     */
+    private static byte[] readPlane(
+            IFormatReader reader, int index, Optional<BoundingBox> region, Optional<byte[]> reuse)
             throws FormatException, IOException {
-        byte[] bufferArray = reader.openBytes(index);
-        ByteBuffer buffer = ByteBuffer.wrap(bufferArray);
-        buffer.order(reader.isLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
-        return buffer;
+        if (region.isPresent()) {
+            ReadableTuple3i corner = region.get().cornerMin();
+            Extent extent = region.get().extent();
+            if (reuse.isPresent()) {
+                return reader.openBytes(
+                        index, reuse.get(), corner.x(), corner.y(), extent.x(), extent.y());
+            } else {
+                return reader.openBytes(index, corner.x(), corner.y(), extent.x(), extent.y());
+            }
+        } else if (reuse.isPresent()) {
+            return reader.openBytes(index, reuse.get());
+        } else {
+            return reader.openBytes(index);
+        }
+    }
+
+    /** Whether any channel in a plane has a destination. */
+    private static boolean anyDestination(
+            DestinationChannelForIndex destination, int numberChannelsPerByteArray) {
+        for (int channelIndexRelative = 0;
+                channelIndexRelative < numberChannelsPerByteArray;
+                channelIndexRelative++) {
+            if (destination.get(channelIndexRelative) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether a z-slice lies inside a region. */
+    private static boolean containsZ(BoundingBox region, int z) {
+        int minZ = region.cornerMin().z();
+        return z >= minZ && z < minZ + region.extent().z();
     }
 
     private static int calculateByteArraysPerIteration(
@@ -59,7 +59,7 @@ public abstract class UnsignedByteFromUnsignedByte extends ToUnsignedByte {
             OrientationChange orientationCorrection,
             boolean littleEndian)
             throws IOException {
-        if (isSourceIdenticalToDestination(source, channelIndexRelative, orientationCorrection)) {
+        if (retainsSource(source, channelIndexRelative, orientationCorrection)) {
             // Reuse the existing buffer, if it's single channeled
             return UnsignedByteBuffer.wrapRaw(source);
         } else {
@@ -67,7 +67,8 @@ public abstract class UnsignedByteFromUnsignedByte extends ToUnsignedByte {
         }
     }
 
-    private boolean isSourceIdenticalToDestination(
+    @Override
+    protected boolean retainsSource(
             ByteBuffer source, int channelIndexRelative, OrientationChange orientationCorrection) {
         return source.capacity() == destinationSize
                 && sourceIncrement == destinationSize
@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.io.bioformats.ConfigureBioformatsLogging;
+import org.anchoranalysis.test.LoggerFixture;
+import org.anchoranalysis.test.TestLoader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests opening a single channel with {@link BioformatsReader}, compared to opening the entire
+ * stack.
+ *
+ * @author Owen Feehan
+ */
+class OpenChannelTest {
+
+    static {
+        ConfigureBioformatsLogging.instance().makeSureConfigured();
+    }
+
+    private TestLoader loader = TestLoader.createFromMavenWorkingDirectory();
+
+    private BioformatsReader reader = new BioformatsReader();
+
+    private Logger logger = LoggerFixture.suppressedLogger();
+
+    @Test
+    void testUnsigned8BitThreeChannels() throws ImageIOException {
+        assertChannelsMatch("images/tif/unsigned_8bit_three_channels.tif", 3);
+    }
+
+    @Test
+    void testUnsigned16BitThreeChannels() throws ImageIOException {
+        assertChannelsMatch("images/tif/unsigned_16bit_three_channels.tif", 3);
+    }
+
+    /** Each channel is interleaved in the same byte-array, so the other channels are skipped. */
+    @Test
+    void testRGB() throws ImageIOException {
+        assertChannelsMatch("images/tif/rgb.tif", 3);
+    }
+
+    /** Each channel, opened individually, should be identical to the channel in the full stack. */
+    private void assertChannelsMatch(String relativePath, int expectedNumberChannels)
+            throws ImageIOException {
+        Stack full;
+        try (OpenedImageFile file = openFile(relativePath)) {
+            full = file.open(logger).getFrame(0);
+        }
+        assertEquals(expectedNumberChannels, full.getNumberChannels());
+
+        for (int index = 0; index < full.getNumberChannels(); index++) {
+            try (OpenedImageFile file = openFile(relativePath)) {
+                Channel channel = file.openChannel(0, 0, index, logger);
+                assertTrue(
+                        full.getChannel(index).equalsDeep(channel, true),
+                        "channel " + index + " is identical");
+            }
+        }
+    }
+
+    private OpenedImageFile openFile(String relativePath) throws ImageIOException {
+        Path path = loader.resolveTestPath(relativePath);
+        return reader.openFile(path, ExecutionTimeRecorderIgnore.instance());
+    }
+}
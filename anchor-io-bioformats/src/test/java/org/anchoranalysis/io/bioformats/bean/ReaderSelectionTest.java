@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.file.Path;
+import loci.common.services.ServiceFactory;
+import loci.formats.IFormatWriter;
+import loci.formats.MetadataTools;
+import loci.formats.meta.IMetadata;
+import loci.formats.out.OMETiffWriter;
+import loci.formats.services.OMEXMLService;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.io.bioformats.ConfigureBioformatsLogging;
+import org.anchoranalysis.test.LoggerFixture;
+import org.anchoranalysis.test.TestLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests how {@link BioformatsReader} selects a format-reader, when two formats share an extension.
+ *
+ * <p>A plain TIFF and an OME-TIFF, both with a {@code .tif} extension, are read in turn. The
+ * OME-TIFF contains a time-series, which a plain TIFF reader would instead interpret as a
+ * z-stack.
+ *
+ * @author Owen Feehan
+ */
+class ReaderSelectionTest {
+
+    static {
+        ConfigureBioformatsLogging.instance().makeSureConfigured();
+    }
+
+    /** The number of frames in the OME-TIFF. */
+    private static final int NUMBER_FRAMES = 3;
+
+    /** Size in the X and Y dimensions of the OME-TIFF. */
+    private static final int SIZE = 8;
+
+    @TempDir Path directory;
+
+    private TestLoader loader = TestLoader.createFromMavenWorkingDirectory();
+
+    private Logger logger = LoggerFixture.suppressedLogger();
+
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(new BioformatsReader().isCacheReaderSelection());
+    }
+
+    /**
+     * After reading a plain TIFF, an OME-TIFF with the same extension is still read by the
+     * higher-priority OME-TIFF reader.
+     */
+    @Test
+    void testSharedExtension() throws Exception {
+        BioformatsReader reader = new BioformatsReader();
+        Path plain = loader.resolveTestPath("images/tif/unsigned_8bit.tif");
+        Path ome = writeOMETiffSeries(directory.resolve("series.tif"));
+
+        try (OpenedImageFile file = open(reader, plain)) {
+            assertEquals(1, file.numberFrames(logger));
+        }
+
+        try (OpenedImageFile file = open(reader, ome)) {
+            assertEquals(NUMBER_FRAMES, file.numberFrames(logger));
+            assertEquals(1, file.dimensionsForSeries(0, logger).z());
+        }
+    }
+
+    private static OpenedImageFile open(BioformatsReader reader, Path path)
+            throws ImageIOException {
+        return reader.openFile(path, ExecutionTimeRecorderIgnore.instance());
+    }
+
+    /** Writes an OME-TIFF with a single channel and z-slice, but several time-points. */
+    private static Path writeOMETiffSeries(Path path) throws Exception {
+        OMEXMLService service = new ServiceFactory().getInstance(OMEXMLService.class);
+        IMetadata metadata = service.createOMEXMLMetadata();
+        MetadataTools.populateMetadata(
+                metadata, 0, null, false, "XYZCT", "uint8", SIZE, SIZE, 1, 1, NUMBER_FRAMES, 1);
+
+        try (IFormatWriter writer = new OMETiffWriter()) {
+            writer.setMetadataRetrieve(metadata);
+            writer.setId(path.toString());
+            for (int frame = 0; frame < NUMBER_FRAMES; frame++) {
+                writer.saveBytes(frame, new byte[SIZE * SIZE]);
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,113 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.io.bioformats.ConfigureBioformatsLogging;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.test.LoggerFixture;
+import org.anchoranalysis.test.TestLoader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests reading only a region of an image with {@link BioformatsReader}.
+ *
+ * @author Owen Feehan
+ */
+class RegionReadTest {
+
+    static {
+        ConfigureBioformatsLogging.instance().makeSureConfigured();
+    }
+
+    private static final BoundingBox REGION =
+            BoundingBox.createReuse(new Point3i(10, 5, 0), new Extent(30, 20, 1));
+
+    private TestLoader loader = TestLoader.createFromMavenWorkingDirectory();
+
+    private BioformatsReader reader = new BioformatsReader();
+
+    private Logger logger = LoggerFixture.suppressedLogger();
+
+    @Test
+    void testRGB() throws ImageIOException {
+        assertRegionMatches("images/tif/rgb.tif");
+    }
+
+    @Test
+    void testUnsigned16Bit() throws ImageIOException {
+        assertRegionMatches("images/tif/unsigned_16bit.tif");
+    }
+
+    @Test
+    void testOutsideImage() throws ImageIOException {
+        BoundingBox outside =
+                BoundingBox.createReuse(new Point3i(-1, 0, 0), new Extent(30, 20, 1));
+        try (OpenedImageFile file = openFile("images/tif/unsigned_8bit.tif")) {
+            assertThrows(ImageIOException.class, () -> file.open(0, outside, logger));
+        }
+    }
+
+    /** The region that is read should be identical to the region extracted from the image. */
+    private void assertRegionMatches(String relativePath) throws ImageIOException {
+        Stack full;
+        Stack region;
+        try (OpenedImageFile file = openFile(relativePath)) {
+            full = file.open(logger).getFrame(0);
+        }
+        try (OpenedImageFile file = openFile(relativePath)) {
+            region = file.open(0, REGION, logger).getFrame(0);
+        }
+
+        assertEquals(full.getNumberChannels(), region.getNumberChannels());
+        assertEquals(REGION.extent(), region.extent());
+        for (int index = 0; index < full.getNumberChannels(); index++) {
+            Channel expected = extractRegion(full.getChannel(index));
+            assertTrue(expected.equalsDeep(region.getChannel(index), true));
+        }
+    }
+
+    private static Channel extractRegion(Channel channel) {
+        return new Channel(channel.extract().region(REGION, false), channel.resolution());
+    }
+
+    private OpenedImageFile openFile(String relativePath) throws ImageIOException {
+        Path path = loader.resolveTestPath(relativePath);
+        return reader.openFile(path, ExecutionTimeRecorderIgnore.instance());
+    }
+}
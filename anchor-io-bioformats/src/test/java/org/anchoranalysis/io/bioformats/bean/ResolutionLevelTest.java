@@ -0,0 +1,197 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import loci.common.services.ServiceFactory;
+import loci.formats.IFormatWriter;
+import loci.formats.MetadataTools;
+import loci.formats.ome.OMEPyramidStore;
+import loci.formats.out.PyramidOMETiffWriter;
+import loci.formats.services.OMEXMLService;
+import ome.units.UNITS;
+import ome.units.quantity.Length;
+import ome.xml.model.primitives.PositiveInteger;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.stack.TimeSeries;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.io.bioformats.ConfigureBioformatsLogging;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.test.LoggerFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests reading particular resolution-levels of an image-pyramid with {@link BioformatsReader}.
+ *
+ * <p>A pyramidal OME-TIFF is written, with each resolution-level having half the size of the
+ * previous level in X and Y, and every voxel in a level set to {@link #valueForLevel}.
+ *
+ * @author Owen Feehan
+ */
+class ResolutionLevelTest {
+
+    static {
+        ConfigureBioformatsLogging.instance().makeSureConfigured();
+    }
+
+    /** Size in the X dimension of the full resolution. */
+    private static final int FULL_X = 64;
+
+    /** Size in the Y dimension of the full resolution. */
+    private static final int FULL_Y = 48;
+
+    /** The number of resolution-levels in the pyramid, including the full resolution. */
+    private static final int NUMBER_LEVELS = 3;
+
+    /** Physical size of a voxel in the X and Y dimensions, at full resolution, in micrometers. */
+    private static final double PHYSICAL_SIZE = 0.5;
+
+    @TempDir static Path directory;
+
+    private static Path path;
+
+    private BioformatsReader reader = new BioformatsReader();
+
+    private Logger logger = LoggerFixture.suppressedLogger();
+
+    @BeforeAll
+    static void writePyramid() throws Exception {
+        path = directory.resolve("pyramid.ome.tif");
+
+        OMEXMLService service = new ServiceFactory().getInstance(OMEXMLService.class);
+        OMEPyramidStore metadata = (OMEPyramidStore) service.createOMEXMLMetadata();
+        MetadataTools.populateMetadata(
+                metadata, 0, null, false, "XYZCT", "uint8", FULL_X, FULL_Y, 1, 1, 1, 1);
+        metadata.setPixelsPhysicalSizeX(new Length(PHYSICAL_SIZE, UNITS.MICROMETER), 0);
+        metadata.setPixelsPhysicalSizeY(new Length(PHYSICAL_SIZE, UNITS.MICROMETER), 0);
+        for (int level = 1; level < NUMBER_LEVELS; level++) {
+            metadata.setResolutionSizeX(new PositiveInteger(sizeX(level)), 0, level);
+            metadata.setResolutionSizeY(new PositiveInteger(sizeY(level)), 0, level);
+        }
+
+        try (IFormatWriter writer = new PyramidOMETiffWriter()) {
+            writer.setMetadataRetrieve(metadata);
+            writer.setId(path.toString());
+            for (int level = 0; level < NUMBER_LEVELS; level++) {
+                writer.setResolution(level);
+                byte[] plane = new byte[sizeX(level) * sizeY(level)];
+                Arrays.fill(plane, (byte) valueForLevel(level));
+                writer.saveBytes(0, plane);
+            }
+        }
+    }
+
+    @Test
+    void testNumberLevels() throws ImageIOException {
+        try (OpenedImageFile file = openFile()) {
+            assertEquals(NUMBER_LEVELS, file.numberResolutionLevels(0));
+        }
+    }
+
+    /** Lower levels are smaller, but describe the same physical area. */
+    @Test
+    void testDimensions() throws ImageIOException {
+        try (OpenedImageFile file = openFile()) {
+            Dimensions full = file.dimensionsForResolution(0, 0, logger);
+            Dimensions half = file.dimensionsForResolution(0, 1, logger);
+
+            assertEquals(new Extent(FULL_X, FULL_Y, 1), full.extent());
+            assertEquals(new Extent(sizeX(1), sizeY(1), 1), half.extent());
+            assertEquals(full.resolution().get().x() * 2, half.resolution().get().x(), 1e-12);
+            assertEquals(full.resolution().get().y() * 2, half.resolution().get().y(), 1e-12);
+        }
+    }
+
+    @Test
+    void testOpenResolution() throws ImageIOException {
+        try (OpenedImageFile file = openFile()) {
+            for (int level = 0; level < NUMBER_LEVELS; level++) {
+                assertLevel(level, file.openResolution(0, level, logger));
+            }
+            // The full-resolution is still read afterwards
+            assertLevel(0, file.open(0, logger));
+        }
+    }
+
+    @Test
+    void testOpenMissingLevel() throws ImageIOException {
+        try (OpenedImageFile file = openFile()) {
+            assertThrows(
+                    ImageIOException.class, () -> file.openResolution(0, NUMBER_LEVELS, logger));
+        }
+    }
+
+    /** The smallest level that is at least as large as the target is opened. */
+    @Test
+    void testOpenAtLeast() throws ImageIOException {
+        try (OpenedImageFile file = openFile()) {
+            assertLevel(0, file.openAtLeast(0, new Extent(FULL_X * 2, FULL_Y, 1), logger));
+            assertLevel(0, file.openAtLeast(0, new Extent(sizeX(1) + 1, sizeY(1), 1), logger));
+            assertLevel(1, file.openAtLeast(0, new Extent(sizeX(1), sizeY(1), 1), logger));
+            assertLevel(1, file.openAtLeast(0, new Extent(sizeX(2) + 1, 1, 1), logger));
+            assertLevel(2, file.openAtLeast(0, new Extent(1, 1, 1), logger));
+        }
+    }
+
+    /** Checks the extent and voxel-values of a stack read from a particular level. */
+    private static void assertLevel(int expectedLevel, TimeSeries series) {
+        Channel channel = series.getFrame(0).getChannel(0);
+        Extent expectedExtent = new Extent(sizeX(expectedLevel), sizeY(expectedLevel), 1);
+        assertEquals(expectedExtent, channel.extent());
+        assertEquals(
+                expectedExtent.calculateVolumeAsInt(),
+                channel.extract().voxelsEqualTo(valueForLevel(expectedLevel)).count(),
+                "every voxel has the value written to the level");
+    }
+
+    private OpenedImageFile openFile() throws ImageIOException {
+        return reader.openFile(path, ExecutionTimeRecorderIgnore.instance());
+    }
+
+    private static int sizeX(int level) {
+        return FULL_X >> level;
+    }
+
+    private static int sizeY(int level) {
+        return FULL_Y >> level;
+    }
+
+    /** A distinct voxel-value for each level, so the level that was read can be identified. */
+    private static int valueForLevel(int level) {
+        return (level + 1) * 10;
+    }
+}
@@ -0,0 +1,226 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+
+/**
+ * Writes a minimal uncompressed single-channel 16-bit TIFF, whose voxels have {@link #valueAt}.
+ *
+ * <p>The voxels of each plane are stored in a separate IFD, either in strips or in tiles. When
+ * there is more than one strip or tile, they are written in reverse order, so they are not
+ * contiguous in the file.
+ *
+ * @author Owen Feehan
+ */
+@AllArgsConstructor
+class UncompressedTiffFixture {
+
+    /** The field-type of an ASCII string in a TIFF. */
+    private static final short TYPE_ASCII = 2;
+
+    /** The field-type of an unsigned 16-bit integer in a TIFF. */
+    private static final short TYPE_SHORT = 3;
+
+    /** The field-type of an unsigned 32-bit integer in a TIFF. */
+    private static final short TYPE_LONG = 4;
+
+    /** The maximum size of a written file, in bytes. */
+    private static final int MAX_FILE_SIZE = 1 << 20;
+
+    /** The width of the image, in voxels. */
+    private final int width;
+
+    /** The height of the image, in voxels. */
+    private final int height;
+
+    /** The order of bytes in the file. */
+    private final ByteOrder order;
+
+    /** The number of planes, each written in a separate IFD. */
+    private final int numberPlanes;
+
+    /** The number of rows in each strip, or if tiled, the width and height of each tile. */
+    private final int blockSize;
+
+    /** Whether the voxels are stored in square tiles, rather than strips. */
+    private final boolean tiled;
+
+    /** An image-description to write in the first IFD, if any. */
+    private final Optional<String> description;
+
+    /**
+     * Writes the TIFF.
+     *
+     * @param path the path to write to.
+     * @return {@code path}.
+     * @throws IOException if the file cannot be written.
+     */
+    public Path write(Path path) throws IOException {
+        return write(path, Optional.empty());
+    }
+
+    /**
+     * Writes the TIFF, but with a particular count of values in the entry for the offset of each
+     * strip or tile.
+     *
+     * <p>Unless the count is correct, this does not describe the voxels correctly.
+     *
+     * @param path the path to write to.
+     * @param countOffsets the count of values to write for the offsets entry, if it differs from
+     *     the actual count.
+     * @return {@code path}.
+     * @throws IOException if the file cannot be written.
+     */
+    public Path write(Path path, Optional<Long> countOffsets) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_FILE_SIZE).order(order);
+        byte orderCode = order == ByteOrder.LITTLE_ENDIAN ? (byte) 'I' : (byte) 'M';
+        buffer.put(orderCode);
+        buffer.put(orderCode);
+        buffer.putShort((short) 42);
+        int nextIFDPointer = buffer.position();
+        buffer.putInt(0);
+
+        int blockWidth = tiled ? blockSize : width;
+        int blocksAcross = (width + blockWidth - 1) / blockWidth;
+        int numberBlocks = blocksAcross * ((height + blockSize - 1) / blockSize);
+        int bytesBlock = blockWidth * blockSize * 2;
+
+        for (int plane = 0; plane < numberPlanes; plane++) {
+            Optional<String> descriptionPlane = plane == 0 ? description : Optional.empty();
+            // Tiles need one more entry than strips, as they have both a width and a height
+            int numberEntries = (tiled ? 10 : 9) + (descriptionPlane.isPresent() ? 1 : 0);
+            int ifdOffset = buffer.position();
+            buffer.putInt(nextIFDPointer, ifdOffset);
+
+            // The values stored outside the entries follow the IFD
+            int offsetsArray = ifdOffset + 2 + numberEntries * 12 + 4;
+            int countsArray = offsetsArray + numberBlocks * 4;
+            int descriptionOffset = countsArray + numberBlocks * 4;
+            byte[] descriptionBytes =
+                    (descriptionPlane.orElse("") + "\0").getBytes(StandardCharsets.US_ASCII);
+            int dataOffset = descriptionOffset + descriptionBytes.length;
+
+            buffer.putShort((short) numberEntries);
+            putEntry(buffer, 256, TYPE_SHORT, 1, width);
+            putEntry(buffer, 257, TYPE_SHORT, 1, height);
+            putEntry(buffer, 258, TYPE_SHORT, 1, 16);
+            putEntry(buffer, 259, TYPE_SHORT, 1, 1);
+            putEntry(buffer, 262, TYPE_SHORT, 1, 1);
+            if (descriptionPlane.isPresent()) {
+                putEntry(buffer, 270, TYPE_ASCII, descriptionBytes.length, descriptionOffset);
+            }
+            long countOffsetsPlane = countOffsets.orElse((long) numberBlocks);
+            if (tiled) {
+                putEntry(buffer, 277, TYPE_SHORT, 1, 1);
+                putEntry(buffer, 322, TYPE_SHORT, 1, blockSize);
+                putEntry(buffer, 323, TYPE_SHORT, 1, blockSize);
+                putBlockEntry(buffer, 324, countOffsetsPlane, offsetsArray, dataOffset);
+                putBlockEntry(buffer, 325, numberBlocks, countsArray, bytesBlock);
+            } else {
+                putBlockEntry(buffer, 273, countOffsetsPlane, offsetsArray, dataOffset);
+                putEntry(buffer, 277, TYPE_SHORT, 1, 1);
+                putEntry(buffer, 278, TYPE_SHORT, 1, blockSize);
+                putBlockEntry(buffer, 279, numberBlocks, countsArray, bytesBlock);
+            }
+            nextIFDPointer = buffer.position();
+            buffer.putInt(0);
+
+            buffer.position(descriptionOffset);
+            buffer.put(descriptionBytes);
+
+            for (int block = 0; block < numberBlocks; block++) {
+                // Blocks are written in reverse order
+                int offset = dataOffset + (numberBlocks - block - 1) * bytesBlock;
+                buffer.putInt(offsetsArray + block * 4, offset);
+                buffer.putInt(countsArray + block * 4, bytesBlock);
+                int x = (block % blocksAcross) * blockWidth;
+                int y = (block / blocksAcross) * blockSize;
+                buffer.position(offset);
+                for (int row = 0; row < blockSize; row++) {
+                    for (int column = 0; column < blockWidth; column++) {
+                        buffer.putShort(voxelOrPadding(plane, x + column, y + row));
+                    }
+                }
+            }
+            buffer.position(dataOffset + numberBlocks * bytesBlock);
+        }
+
+        Files.write(path, Arrays.copyOf(buffer.array(), buffer.position()));
+        return path;
+    }
+
+    /**
+     * A voxel value whose two bytes differ, so any swapping of bytes is detected.
+     *
+     * @param plane the index of the plane (IFD).
+     * @param x the X coordinate of the voxel.
+     * @param y the Y coordinate of the voxel.
+     * @return the value, as an unsigned 16-bit integer.
+     */
+    public static int valueAt(int plane, int x, int y) {
+        return 300 + (plane * 7919 + y * 257 + x * 1001) % 65000;
+    }
+
+    /** The value of a voxel, or zero if it lies outside the image, as padding. */
+    private short voxelOrPadding(int plane, int x, int y) {
+        if (x < width && y < height) {
+            return (short) valueAt(plane, x, y);
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Writes an IFD entry with a value for each strip or tile, stored inline if there is only a
+     * single value.
+     */
+    private static void putBlockEntry(
+            ByteBuffer buffer, int tag, long count, int arrayOffset, int singleValue) {
+        putEntry(buffer, tag, TYPE_LONG, count, count == 1 ? singleValue : arrayOffset);
+    }
+
+    /** Writes an IFD entry, with a single value stored inside the entry, or an offset. */
+    private static void putEntry(ByteBuffer buffer, int tag, short type, long count, int value) {
+        buffer.putShort((short) tag);
+        buffer.putShort(type);
+        buffer.putInt((int) count);
+        if (type == TYPE_SHORT) {
+            buffer.putShort((short) value);
+            buffer.putShort((short) 0);
+        } else {
+            buffer.putInt(value);
+        }
+    }
+}
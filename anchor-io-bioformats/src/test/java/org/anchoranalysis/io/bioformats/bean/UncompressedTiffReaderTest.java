@@ -0,0 +1,255 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.bioformats.bean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.stack.Stack;
+import org.anchoranalysis.image.io.ImageIOException;
+import org.anchoranalysis.image.io.bean.stack.reader.StackReaderOrientationCorrection;
+import org.anchoranalysis.image.io.stack.input.OpenedImageFile;
+import org.anchoranalysis.image.io.stack.time.TimeSeries;
+import org.anchoranalysis.io.bioformats.ConfigureBioformatsLogging;
+import org.anchoranalysis.test.LoggerFixture;
+import org.anchoranalysis.test.TestLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link UncompressedTiffReader} produces identical images to {@link BioformatsReader}.
+ *
+ * @author Owen Feehan
+ */
+class UncompressedTiffReaderTest {
+
+    static {
+        ConfigureBioformatsLogging.instance().makeSureConfigured();
+    }
+
+    /** The width of a generated TIFF, which is not a multiple of the tile size. */
+    private static final int WIDTH = 21;
+
+    /** The height of a generated TIFF, which is not a multiple of the tile size. */
+    private static final int HEIGHT = 19;
+
+    /** The size of each tile, or the number of rows in each strip, when not a single strip. */
+    private static final int BLOCK_SIZE = 16;
+
+    @TempDir Path directory;
+
+    private TestLoader loader = TestLoader.createFromMavenWorkingDirectory();
+
+    private Logger logger = LoggerFixture.suppressedLogger();
+
+    /** A single-channel uncompressed 8-bit TIFF is read directly. */
+    @Test
+    void testDirect() throws ImageIOException {
+        assertIdentical(loader.resolveTestPath("images/tif/unsigned_8bit.tif"), true);
+    }
+
+    /** A 16-bit little-endian TIFF is read directly, with each voxel's bytes in the right order. */
+    @Test
+    void testDirect16BitLittleEndian() throws IOException {
+        assertDirect(singleStrip(ByteOrder.LITTLE_ENDIAN), 1, 1, false);
+    }
+
+    /** A 16-bit big-endian TIFF is read directly, with each voxel's bytes in the right order. */
+    @Test
+    void testDirect16BitBigEndian() throws IOException {
+        assertDirect(singleStrip(ByteOrder.BIG_ENDIAN), 1, 1, false);
+    }
+
+    /** Strips that are not contiguous in the file are read directly. */
+    @Test
+    void testDirectStripsNotContiguous() throws IOException {
+        assertDirect(fixture(ByteOrder.LITTLE_ENDIAN, 1, false, Optional.empty()), 1, 1, false);
+    }
+
+    /** Tiles, with padding beyond the image, are read directly. */
+    @Test
+    void testDirectTiles() throws IOException {
+        assertDirect(fixture(ByteOrder.BIG_ENDIAN, 1, true, Optional.empty()), 1, 1, false);
+    }
+
+    /** Several IFDs that an ImageJ header describes as z-slices are read directly. */
+    @Test
+    void testDirectSlices() throws IOException {
+        assertDirect(
+                fixture(ByteOrder.LITTLE_ENDIAN, 3, true, imageJ("images=3\nslices=3")),
+                3,
+                1,
+                false);
+    }
+
+    /** Several IFDs that an ImageJ header describes as frames are read directly. */
+    @Test
+    void testDirectFrames() throws IOException {
+        assertDirect(
+                fixture(ByteOrder.BIG_ENDIAN, 2, false, imageJ("images=2\nframes=2")), 1, 2, false);
+    }
+
+    /** Voxels in the native byte-order are read identically, when wrapped without copying. */
+    @Test
+    void testDirectWrapMapped() throws IOException {
+        assertDirect(singleStrip(ByteOrder.nativeOrder()), 1, 1, true);
+    }
+
+    /** A TIFF with ImageJ resolution metadata falls back to Bioformats. */
+    @Test
+    void testFallbackMetadata() throws ImageIOException {
+        assertIdentical(loader.resolveTestPath("images/tif/unsigned_16bit.tif"), false);
+    }
+
+    /** A multi-channel TIFF falls back to Bioformats. */
+    @Test
+    void testFallbackMultipleChannels() throws ImageIOException {
+        assertIdentical(
+                loader.resolveTestPath("images/tif/unsigned_8bit_three_channels.tif"), false);
+    }
+
+    /** Several IFDs, without an ImageJ header to describe them, fall back to Bioformats. */
+    @Test
+    void testFallbackMultiplePagesWithoutHeader() throws IOException {
+        Path path =
+                fixture(ByteOrder.LITTLE_ENDIAN, 2, false, Optional.empty())
+                        .write(directory.resolve("pages.tif"));
+        assertIdentical(path, false);
+    }
+
+    /**
+     * An entry whose count of values is too large for the file, is rejected with an {@link
+     * IOException}, rather than an allocation failing.
+     */
+    @Test
+    void testCountExceedsFile() throws IOException {
+        // A count whose size in bytes overflows an int
+        Path path =
+                singleStrip(ByteOrder.LITTLE_ENDIAN)
+                        .write(directory.resolve("count.tif"), Optional.of(0x20000001L));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            assertThrows(IOException.class, () -> UncompressedTiffLayout.parse(channel));
+        }
+    }
+
+    /**
+     * Writes a 16-bit TIFF, and checks it is read directly, with the expected voxel values.
+     *
+     * @param fixture the TIFF to write.
+     * @param numberSlices the number of z-slices expected in each frame.
+     * @param numberFrames the number of frames expected.
+     * @param wrapMapped whether to wrap the memory-mapped file, rather than copying.
+     */
+    private void assertDirect(
+            UncompressedTiffFixture fixture, int numberSlices, int numberFrames, boolean wrapMapped)
+            throws IOException {
+        Path path = fixture.write(directory.resolve("direct.tif"));
+        if (!wrapMapped) {
+            assertIdentical(path, true);
+        }
+
+        UncompressedTiffReader reader = new UncompressedTiffReader();
+        reader.setWrapMapped(wrapMapped);
+        try (OpenedImageFile file = openFile(reader, path)) {
+            assertTrue(file instanceof UncompressedTiffOpenedFile);
+            assertEquals(numberFrames, file.numberFrames(logger));
+            TimeSeries series = file.open(logger);
+            assertEquals(numberFrames, series.size());
+            for (int frame = 0; frame < numberFrames; frame++) {
+                Channel channel = series.getFrame(frame).getChannel(0);
+                assertEquals(numberSlices, channel.extent().z());
+                for (int z = 0; z < numberSlices; z++) {
+                    assertSlice(channel, z, frame * numberSlices + z);
+                }
+            }
+        }
+    }
+
+    /** Asserts that each voxel in a slice has the value written in a particular plane. */
+    private static void assertSlice(Channel channel, int z, int plane) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals(
+                        UncompressedTiffFixture.valueAt(plane, x, y),
+                        channel.extract().voxel(x, y, z));
+            }
+        }
+    }
+
+    private void assertIdentical(Path path, boolean expectDirect) throws ImageIOException {
+        Stack expected;
+        try (OpenedImageFile file = openFile(new BioformatsReader(), path)) {
+            expected = file.open(logger).getFrame(0);
+        }
+
+        Stack actual;
+        try (OpenedImageFile file = openFile(new UncompressedTiffReader(), path)) {
+            assertEquals(expectDirect, file instanceof UncompressedTiffOpenedFile);
+            actual = file.open(logger).getFrame(0);
+        }
+
+        assertEquals(expected.getNumberChannels(), actual.getNumberChannels());
+        assertEquals(expected.dimensions(), actual.dimensions());
+        for (int index = 0; index < expected.getNumberChannels(); index++) {
+            assertTrue(expected.getChannel(index).equalsDeep(actual.getChannel(index), true));
+        }
+        assertFalse(actual.isRGB());
+    }
+
+    /** A TIFF with a single plane, stored in a single strip. */
+    private static UncompressedTiffFixture singleStrip(ByteOrder order) {
+        return new UncompressedTiffFixture(
+                WIDTH, HEIGHT, order, 1, HEIGHT, false, Optional.empty());
+    }
+
+    /** A TIFF stored in strips or tiles of size {@code BLOCK_SIZE}. */
+    private static UncompressedTiffFixture fixture(
+            ByteOrder order, int numberPlanes, boolean tiled, Optional<String> description) {
+        return new UncompressedTiffFixture(
+                WIDTH, HEIGHT, order, numberPlanes, BLOCK_SIZE, tiled, description);
+    }
+
+    /** An image-description as written by ImageJ, with additional lines. */
+    private static Optional<String> imageJ(String lines) {
+        return Optional.of("ImageJ=1.52p\n" + lines + "\n");
+    }
+
+    private static OpenedImageFile openFile(StackReaderOrientationCorrection reader, Path path)
+            throws ImageIOException {
+        return reader.openFile(path, ExecutionTimeRecorderIgnore.instance());
+    }
+}
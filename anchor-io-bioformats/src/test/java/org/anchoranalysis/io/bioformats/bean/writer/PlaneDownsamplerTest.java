@@ -0,0 +1,94 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.bean.writer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import org.anchoranalysis.image.voxel.datatype.FloatVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.image.voxel.datatype.UnsignedShortVoxelType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PlaneDownsampler}.
+ *
+ * @author Owen Feehan
+ */
+class PlaneDownsamplerTest {
+
+    /** The size of each dimension halves at each level, but never goes below one. */
+    @Test
+    void testSizeAtResolution() {
+        assertEquals(1001, PlaneDownsampler.sizeAtResolution(1001, 0));
+        assertEquals(500, PlaneDownsampler.sizeAtResolution(1001, 1));
+        assertEquals(1, PlaneDownsampler.sizeAtResolution(3, 4));
+    }
+
+    /** Each 2x2 block is averaged, and the remaining odd column and row are ignored. */
+    @Test
+    void testUnsignedByte() {
+        byte[] plane = {
+            0, 2, 10, 12, 99, //
+            4, 6, 14, 16, 99, //
+            99, 99, 99, 99, 99
+        };
+        byte[] downsampled =
+                PlaneDownsampler.downsample(
+                        plane, 5, 3, new SampleLayout(1, UnsignedByteVoxelType.INSTANCE), 1);
+        assertArrayEquals(new byte[] {3, 13}, downsampled);
+    }
+
+    /** Each sample of a multi-sample plane is downsampled independently. */
+    @Test
+    void testUnsignedShortTwoSamples() {
+        ByteBuffer plane = ByteBuffer.allocate(16);
+        plane.asShortBuffer().put(new short[] {1000, 2000, 3000, 4000, 10, 10, 20, 20});
+        byte[] downsampled =
+                PlaneDownsampler.downsample(
+                        plane.array(),
+                        2,
+                        2,
+                        new SampleLayout(2, UnsignedShortVoxelType.INSTANCE),
+                        1);
+        ByteBuffer expected = ByteBuffer.allocate(4);
+        expected.asShortBuffer().put(new short[] {2500, 15});
+        assertArrayEquals(expected.array(), downsampled);
+    }
+
+    /** Float samples are averaged without rounding. */
+    @Test
+    void testFloat() {
+        ByteBuffer plane = ByteBuffer.allocate(16);
+        plane.asFloatBuffer().put(new float[] {0.5f, 1.0f, 1.5f, 2.0f});
+        byte[] downsampled =
+                PlaneDownsampler.downsample(
+                        plane.array(), 2, 2, new SampleLayout(1, FloatVoxelType.INSTANCE), 1);
+        assertEquals(1.25f, ByteBuffer.wrap(downsampled).getFloat(), 1e-6);
+    }
+}
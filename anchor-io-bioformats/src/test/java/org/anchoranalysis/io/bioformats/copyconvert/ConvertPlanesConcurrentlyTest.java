@@ -0,0 +1,182 @@
+/*-
+ * #%L
+ * anchor-io-bioformats
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.bioformats.copyconvert;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import org.anchoranalysis.image.core.channel.Channel;
+import org.anchoranalysis.image.core.channel.factory.ChannelFactory;
+import org.anchoranalysis.image.core.dimensions.Dimensions;
+import org.anchoranalysis.image.core.dimensions.OrientationChange;
+import org.anchoranalysis.image.voxel.datatype.UnsignedByteVoxelType;
+import org.anchoranalysis.io.bioformats.copyconvert.tobyte.UnsignedByteFromUnsignedByteNoInterleaving;
+import org.anchoranalysis.io.bioformats.copyconvert.tobyte.UnsignedByteFromUnsignedShort;
+import org.anchoranalysis.spatial.box.Extent;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ConvertPlanesConcurrently}.
+ *
+ * <p>Planes of random voxels are converted concurrently, reusing byte-arrays as a reader would, and
+ * compared to the same planes converted sequentially.
+ *
+ * @author Owen Feehan
+ */
+class ConvertPlanesConcurrentlyTest {
+
+    /** The size of the image, whose z-slices are each a plane. */
+    private static final Extent EXTENT = new Extent(31, 17, 40);
+
+    private static final ImageFileEncoding ENCODING = new ImageFileEncoding(false, false, 1);
+
+    /** The maximum time a test may take, before it is considered to be deadlocked. */
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /** A conversion that creates a new array for the converted plane. */
+    @Test
+    void testUnsignedShortMatchesSequential() throws IOException {
+        assertMatchesSequential(() -> new UnsignedByteFromUnsignedShort(12), 2);
+    }
+
+    /** A conversion whose converted plane reuses the source array, which must not be recycled. */
+    @Test
+    void testUnsignedByteMatchesSequential() throws IOException {
+        assertMatchesSequential(UnsignedByteFromUnsignedByteNoInterleaving::new, 1);
+    }
+
+    /**
+     * Planes are converted when read from every thread of the common {@link ForkJoinPool}, without
+     * the threads starving each other.
+     */
+    @Test
+    void testFromCommonPool() {
+        List<byte[]> planes = randomPlanes(2, 1);
+        int numberReaders = ForkJoinPool.getCommonPoolParallelism() + 1;
+        assertTimeoutPreemptively(
+                TIMEOUT,
+                () -> {
+                    List<CompletableFuture<Channel>> readers = new ArrayList<>();
+                    for (int i = 0; i < numberReaders; i++) {
+                        readers.add(
+                                CompletableFuture.supplyAsync(() -> convertUnchecked(planes, 2)));
+                    }
+                    for (CompletableFuture<Channel> reader : readers) {
+                        reader.join();
+                    }
+                });
+    }
+
+    /**
+     * Converts random planes both concurrently and sequentially, and checks the resulting channels
+     * are identical.
+     */
+    private static void assertMatchesSequential(
+            Supplier<ConvertTo<?>> converter, int bytesPerVoxel) throws IOException {
+        List<byte[]> planes = randomPlanes(bytesPerVoxel, 0);
+        Channel concurrent =
+                convert(new ConvertPlanesConcurrently(), converter.get(), planes, bytesPerVoxel);
+        Channel sequential =
+                convert(
+                        ConvertPlanesConcurrently.sequential(),
+                        converter.get(),
+                        planes,
+                        bytesPerVoxel);
+        assertTrue(concurrent.equalsDeep(sequential, true));
+    }
+
+    private static Channel convertUnchecked(List<byte[]> planes, int bytesPerVoxel) {
+        try {
+            return convert(
+                    new ConvertPlanesConcurrently(),
+                    new UnsignedByteFromUnsignedShort(12),
+                    planes,
+                    bytesPerVoxel);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Converts each plane into a z-slice of a channel, copying each plane into a (possibly reused)
+     * array first, like {@link CopyConvert} reads from a reader.
+     */
+    private static Channel convert(
+            ConvertPlanesConcurrently conversion,
+            ConvertTo<?> converter,
+            List<byte[]> planes,
+            int bytesPerVoxel)
+            throws IOException {
+        Dimensions dimensions = new Dimensions(EXTENT);
+        Channel channel =
+                ChannelFactory.instance().create(dimensions, UnsignedByteVoxelType.INSTANCE);
+        converter.prepare(dimensions, ENCODING);
+
+        int planeSize = EXTENT.areaXY() * bytesPerVoxel;
+        for (int z = 0; z < planes.size(); z++) {
+            Optional<byte[]> reuse = conversion.acquireArray();
+            byte[] array = reuse.orElseGet(() -> new byte[planeSize]);
+            System.arraycopy(planes.get(z), 0, array, 0, planeSize);
+
+            int zDestination = z;
+            conversion.submit(
+                    array,
+                    () ->
+                            converter.copyAllChannelsPrepared(
+                                    ByteBuffer.wrap(array),
+                                    index -> channel,
+                                    zDestination,
+                                    ENCODING,
+                                    OrientationChange.KEEP_UNCHANGED));
+        }
+        conversion.awaitCompletion();
+        return channel;
+    }
+
+    /** Creates a plane of random bytes, for each z-slice. */
+    private static List<byte[]> randomPlanes(int bytesPerVoxel, long seed) {
+        Random random = new Random(seed);
+        List<byte[]> planes = new ArrayList<>(EXTENT.z());
+        for (int z = 0; z < EXTENT.z(); z++) {
+            byte[] plane = new byte[EXTENT.areaXY() * bytesPerVoxel];
+            random.nextBytes(plane);
+            planes.add(plane);
+        }
+        return planes;
+    }
+}
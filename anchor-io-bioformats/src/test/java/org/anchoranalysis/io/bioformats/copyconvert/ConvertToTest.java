@@ -25,6 +25,7 @@
  */
 package org.anchoranalysis.io.bioformats.copyconvert;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -176,6 +177,39 @@ class ConvertToTest {
                 false);
     }
 
+    /**
+     * Channels without a destination are skipped, while the remaining channel is still copied from
+     * the interleaved source.
+     */
+    @Test
+    void testSkipNullDestination() throws IOException {
+        int numberChannels = 3;
+        int channelToCopy = 1;
+
+        int area = DIMENSIONS.extent().areaXY();
+        byte[] interleaved = new byte[area * numberChannels];
+        byte[] expected = new byte[area];
+        for (int index = 0; index < area; index++) {
+            for (int channel = 0; channel < numberChannels; channel++) {
+                interleaved[index * numberChannels + channel] = (byte) (INTENSITY_SHIFT + channel);
+            }
+            expected[index] = (byte) (INTENSITY_SHIFT + channelToCopy);
+        }
+
+        Channel destination =
+                ChannelFactory.instance().create(DIMENSIONS, UnsignedByteVoxelType.INSTANCE);
+        new UnsignedByteFromUnsignedByteInterleaving()
+                .copyAllChannels(
+                        DIMENSIONS,
+                        ByteBuffer.wrap(interleaved),
+                        index -> index == channelToCopy ? destination : null,
+                        0,
+                        new ImageFileEncoding(true, true, numberChannels),
+                        OrientationChange.KEEP_UNCHANGED);
+
+        assertArrayEquals(expected, destination.voxels().slice(0).underlyingBytes().array());
+    }
+
     /**
      * Creates voxels with values sequentially in the range 243 to 255 in the input-type.
      *
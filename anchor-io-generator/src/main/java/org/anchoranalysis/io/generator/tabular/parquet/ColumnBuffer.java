@@ -0,0 +1,287 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+
+/**
+ * Buffers the values of a column in the current row-group, until they are written as pages.
+ *
+ * <p>Each column is optional, so may contain nulls. Whether each row has a value is recorded
+ * here, while subclasses buffer only the non-null values.
+ *
+ * @author Owen Feehan
+ */
+@RequiredArgsConstructor(access = AccessLevel.PROTECTED)
+abstract class ColumnBuffer {
+
+    /** The maximum number of values written in a single data page. */
+    protected static final int MAX_VALUES_PER_PAGE = 1 << 17;
+
+    /** Parquet identifier for the {@code OPTIONAL} repetition-type. */
+    private static final int REPETITION_OPTIONAL = 1;
+
+    /** The name of the column. */
+    @Getter private final String name;
+
+    /** Whether each buffered row has a (non-null) value. Only the first {@code numberRows}. */
+    private boolean[] defined = new boolean[1024];
+
+    /** The number of buffered rows, including those that are null. */
+    private int numberRows = 0;
+
+    /**
+     * Encodes the Parquet {@code SchemaElement} that describes the column.
+     *
+     * @param thrift where to encode to.
+     */
+    public void encodeSchema(ThriftCompactWriter thrift) {
+        thrift.beginStruct();
+        thrift.writeI32Field(1, physicalType());
+        thrift.writeI32Field(3, REPETITION_OPTIONAL);
+        thrift.writeStringField(4, name);
+        encodeAdditionalSchema(thrift);
+        thrift.endStruct();
+    }
+
+    /**
+     * Checks that a value, expressed as text, can be added to the column.
+     *
+     * <p>This should be called for each value in a row, before any are added, so that an invalid
+     * row is never partially added.
+     *
+     * @param value the value to check, which may be null.
+     * @throws OutputWriteFailedException if the value cannot be added.
+     */
+    public void checkText(String value) throws OutputWriteFailedException {
+        // Any value is accepted, unless overridden
+    }
+
+    /**
+     * Adds a value, expressed as text, to the end of the column.
+     *
+     * @param value the value to add, or null, to add a null. It should have been checked with
+     *     {@link #checkText}.
+     */
+    public void addText(String value) {
+        if (value != null) {
+            addNonNullText(value);
+        }
+        addRow(value != null);
+    }
+
+    /**
+     * Adds a numeric value to the end of the column.
+     *
+     * @param value the value to add.
+     */
+    public void addNumber(double value) {
+        addNonNullNumber(value);
+        addRow(true);
+    }
+
+    /**
+     * Writes all buffered rows as pages, and then clears the buffer.
+     *
+     * @param writer where to write the pages to.
+     * @return metadata describing the written pages.
+     * @throws IOException if the pages cannot be written.
+     */
+    public ColumnChunkMetadata writePages(PageWriter writer) throws IOException {
+        ColumnChunkMetadata chunk = new ColumnChunkMetadata(name, physicalType(), dataEncoding());
+        if (numberRows > 0) {
+            writeDictionaryPage(writer, chunk);
+
+            int valueStart = 0;
+            for (int start = 0; start < numberRows; start += MAX_VALUES_PER_PAGE) {
+                int end = Math.min(start + MAX_VALUES_PER_PAGE, numberRows);
+                int valueEnd = valueStart + countDefined(start, end);
+
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                encodeDefinitionLevels(start, end, body);
+                encodeValues(valueStart, valueEnd, body);
+                writer.writeDataPage(body.toByteArray(), end - start, dataEncoding(), chunk);
+
+                valueStart = valueEnd;
+            }
+        }
+        numberRows = 0;
+        clearValues();
+        return chunk;
+    }
+
+    /**
+     * An estimate of the number of bytes needed to store each value in the buffer.
+     *
+     * @return the estimated number of bytes.
+     */
+    public abstract int bytesPerValue();
+
+    /**
+     * Adds a non-null value, expressed as text, to the end of the buffered values.
+     *
+     * @param value the value to add.
+     */
+    protected abstract void addNonNullText(String value);
+
+    /**
+     * Adds a numeric value to the end of the buffered values.
+     *
+     * @param value the value to add.
+     */
+    protected abstract void addNonNullNumber(double value);
+
+    /**
+     * Writes a dictionary page for the buffered values, if the column uses one.
+     *
+     * @param writer where to write the page to.
+     * @param chunk updated to record the written page.
+     * @throws IOException if the page cannot be written.
+     */
+    protected abstract void writeDictionaryPage(PageWriter writer, ColumnChunkMetadata chunk)
+            throws IOException;
+
+    /**
+     * Encodes a range of the buffered (non-null) values, as they appear in a data page.
+     *
+     * @param start the index of the first value to encode (inclusive).
+     * @param end the index of the last value to encode (exclusive).
+     * @param out where to encode to.
+     */
+    protected abstract void encodeValues(int start, int end, ByteArrayOutputStream out);
+
+    /** Removes all buffered values. */
+    protected abstract void clearValues();
+
+    /**
+     * The Parquet physical type of the values in the column.
+     *
+     * @return the identifier of the physical type.
+     */
+    protected abstract int physicalType();
+
+    /**
+     * The Parquet encoding of the values in each data page.
+     *
+     * @return the identifier of the encoding.
+     */
+    protected abstract int dataEncoding();
+
+    /**
+     * Encodes any additional fields (identifier greater than 4) of the {@code SchemaElement}.
+     *
+     * @param thrift where to encode to.
+     */
+    protected abstract void encodeAdditionalSchema(ThriftCompactWriter thrift);
+
+    /**
+     * Encodes values as a single bit-packed run of the <a
+     * href="https://parquet.apache.org/docs/file-format/data-pages/encodings/">RLE / Bit-Packing
+     * Hybrid</a> encoding.
+     *
+     * <p>Nothing is encoded, if there are no values.
+     *
+     * @param valueAt the value at a particular index, from zero.
+     * @param numberValues the number of values.
+     * @param bitWidth the number of bits used to encode each value.
+     * @param out where to encode to.
+     */
+    protected static void encodeBitPacked(
+            IntUnaryOperator valueAt, int numberValues, int bitWidth, ByteArrayOutputStream out) {
+        if (numberValues == 0) {
+            return;
+        }
+
+        int numberGroups = (numberValues + 7) / 8;
+
+        // Run header, indicating a bit-packed run of numberGroups groups of 8 values
+        int header = (numberGroups << 1) | 1;
+        while ((header & ~0x7F) != 0) {
+            out.write((header & 0x7F) | 0x80);
+            header >>>= 7;
+        }
+        out.write(header);
+
+        // Values are packed from the least-significant bit, with the final group padded with zeros
+        long accumulated = 0;
+        int numberBits = 0;
+        for (int i = 0; i < numberGroups * 8; i++) {
+            long value = i < numberValues ? valueAt.applyAsInt(i) : 0;
+            accumulated |= value << numberBits;
+            numberBits += bitWidth;
+            while (numberBits >= 8) {
+                out.write((int) (accumulated & 0xFF));
+                accumulated >>>= 8;
+                numberBits -= 8;
+            }
+        }
+    }
+
+    /** Records whether a row, that was just added, has a value. */
+    private void addRow(boolean hasValue) {
+        if (numberRows == defined.length) {
+            defined = Arrays.copyOf(defined, defined.length * 2);
+        }
+        defined[numberRows++] = hasValue;
+    }
+
+    /** The number of rows with a value, in a range of rows. */
+    private int countDefined(int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (defined[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Encodes the definition-levels (1 for a value, 0 for null) of a range of rows, preceded by
+     * their length in bytes.
+     */
+    private void encodeDefinitionLevels(int start, int end, ByteArrayOutputStream out) {
+        ByteArrayOutputStream levels = new ByteArrayOutputStream();
+        encodeBitPacked(index -> defined[start + index] ? 1 : 0, end - start, 1, levels);
+
+        byte[] length =
+                ByteBuffer.allocate(Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(levels.size())
+                        .array();
+        out.write(length, 0, length.length);
+        out.write(levels.toByteArray(), 0, levels.size());
+    }
+}
@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.util.Optional;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The metadata describing a column's pages in a single row-group, as encoded in the file footer.
+ *
+ * <p>It is incrementally updated as each page is written.
+ *
+ * @author Owen Feehan
+ */
+@RequiredArgsConstructor
+class ColumnChunkMetadata {
+
+    /** Parquet identifier for the GZIP compression codec. */
+    private static final int CODEC_GZIP = 2;
+
+    /** Parquet identifier for the run-length-encoding, used for the definition-levels. */
+    private static final int ENCODING_RLE = 3;
+
+    // START REQUIRED ARGUMENTS
+    /** The name of the column. */
+    private final String name;
+
+    /** The Parquet physical type of the column. */
+    private final int physicalType;
+
+    /** The Parquet encoding used for values in the data pages. */
+    private final int dataEncoding;
+    // END REQUIRED ARGUMENTS
+
+    /** The total number of values in all data pages. */
+    private long numberValues = 0;
+
+    /** The total size of all pages, including headers, before compression. */
+    @Getter private long totalUncompressedSize = 0;
+
+    /** The total size of all pages, including headers, after compression. */
+    @Getter private long totalCompressedSize = 0;
+
+    /** The file-offset of the first data page. */
+    private long dataPageOffset = -1;
+
+    /** The file-offset of the dictionary page, if one exists. */
+    private Optional<Long> dictionaryPageOffset = Optional.empty();
+
+    /**
+     * Records that a dictionary page has been written.
+     *
+     * @param offset the file-offset of the page-header.
+     * @param uncompressedSize the size of the page, including header, before compression.
+     * @param compressedSize the size of the page, including header, after compression.
+     */
+    public void addDictionaryPage(long offset, long uncompressedSize, long compressedSize) {
+        dictionaryPageOffset = Optional.of(offset);
+        addSizes(uncompressedSize, compressedSize);
+    }
+
+    /**
+     * Records that a data page has been written.
+     *
+     * @param offset the file-offset of the page-header.
+     * @param numberValuesInPage the number of values in the page.
+     * @param uncompressedSize the size of the page, including header, before compression.
+     * @param compressedSize the size of the page, including header, after compression.
+     */
+    public void addDataPage(
+            long offset, int numberValuesInPage, long uncompressedSize, long compressedSize) {
+        if (dataPageOffset == -1) {
+            dataPageOffset = offset;
+        }
+        numberValues += numberValuesInPage;
+        addSizes(uncompressedSize, compressedSize);
+    }
+
+    /**
+     * Encodes as a Parquet {@code ColumnChunk} struct.
+     *
+     * @param thrift where to encode to.
+     */
+    public void encode(ThriftCompactWriter thrift) {
+        thrift.beginStruct();
+        thrift.writeI64Field(2, dictionaryPageOffset.orElse(dataPageOffset));
+
+        thrift.beginStructField(3);
+        thrift.writeI32Field(1, physicalType);
+        thrift.beginListField(2, ThriftCompactWriter.TYPE_I32, 2);
+        thrift.writeI32(dataEncoding);
+        thrift.writeI32(ENCODING_RLE);
+        thrift.beginListField(3, ThriftCompactWriter.TYPE_BINARY, 1);
+        thrift.writeString(name);
+        thrift.writeI32Field(4, CODEC_GZIP);
+        thrift.writeI64Field(5, numberValues);
+        thrift.writeI64Field(6, totalUncompressedSize);
+        thrift.writeI64Field(7, totalCompressedSize);
+        thrift.writeI64Field(9, dataPageOffset);
+        if (dictionaryPageOffset.isPresent()) {
+            thrift.writeI64Field(11, dictionaryPageOffset.get());
+        }
+        thrift.endStruct();
+
+        thrift.endStruct();
+    }
+
+    private void addSizes(long uncompressedSize, long compressedSize) {
+        totalUncompressedSize += uncompressedSize;
+        totalCompressedSize += compressedSize;
+    }
+}
@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+
+/**
+ * Buffers a column of {@code double} values, which are written with PLAIN encoding.
+ *
+ * @author Owen Feehan
+ */
+class DoubleColumnBuffer extends ColumnBuffer {
+
+    /** Parquet identifier for the {@code DOUBLE} physical type. */
+    private static final int TYPE_DOUBLE = 5;
+
+    /** Parquet identifier for the PLAIN encoding. */
+    private static final int ENCODING_PLAIN = 0;
+
+    /** The buffered values, of which only the first {@code size} are valid. */
+    private double[] values = new double[1024];
+
+    /** The number of buffered values. */
+    private int size = 0;
+
+    /**
+     * Creates for a column with a particular name.
+     *
+     * @param name the name of the column.
+     */
+    public DoubleColumnBuffer(String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A non-null value must be parseable as a {@code double}.
+     */
+    @Override
+    public void checkText(String value) throws OutputWriteFailedException {
+        if (value != null && !parse(value).isPresent()) {
+            throw new OutputWriteFailedException(
+                    String.format(
+                            "The value '%s' is not a number, as needed for column '%s'.",
+                            value, getName()));
+        }
+    }
+
+    @Override
+    public int bytesPerValue() {
+        return Double.BYTES;
+    }
+
+    @Override
+    protected void addNonNullText(String value) {
+        addNonNullNumber(parse(value).getAsDouble());
+    }
+
+    @Override
+    protected void addNonNullNumber(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    @Override
+    protected void writeDictionaryPage(PageWriter writer, ColumnChunkMetadata chunk) {
+        // No dictionary is used
+    }
+
+    @Override
+    protected void encodeValues(int start, int end, ByteArrayOutputStream out) {
+        ByteBuffer buffer =
+                ByteBuffer.allocate((end - start) * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(values, start, end - start);
+        out.write(buffer.array(), 0, buffer.capacity());
+    }
+
+    @Override
+    protected void clearValues() {
+        size = 0;
+    }
+
+    @Override
+    protected int physicalType() {
+        return TYPE_DOUBLE;
+    }
+
+    @Override
+    protected int dataEncoding() {
+        return ENCODING_PLAIN;
+    }
+
+    @Override
+    protected void encodeAdditionalSchema(ThriftCompactWriter thrift) {
+        // No additional fields
+    }
+
+    /**
+     * Parses text as a number, as formatted by {@link Double#toString} or for the default locale.
+     */
+    private static OptionalDouble parse(String value) {
+        try {
+            return OptionalDouble.of(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            // TypedValue may format numbers for the default locale, e.g. with a decimal comma
+            ParsePosition position = new ParsePosition(0);
+            Number number = NumberFormat.getInstance().parse(value, position);
+            if (number != null && position.getIndex() == value.length()) {
+                return OptionalDouble.of(number.doubleValue());
+            } else {
+                return OptionalDouble.empty();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes compressed pages, and other raw bytes, sequentially to a Parquet file.
+ *
+ * <p>The current position in the file is tracked, so that pages can be referred to in the footer.
+ *
+ * @author Owen Feehan
+ */
+class PageWriter implements AutoCloseable {
+
+    /** Parquet identifier for a data page (version 1). */
+    private static final int PAGE_TYPE_DATA = 0;
+
+    /** Parquet identifier for a dictionary page. */
+    private static final int PAGE_TYPE_DICTIONARY = 2;
+
+    /** Parquet identifier for the run-length-encoding, used for the definition-levels. */
+    private static final int ENCODING_RLE = 3;
+
+    /** Size of the buffer when writing to the file. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Where the file is written to. */
+    private final OutputStream stream;
+
+    /** The number of bytes written so far. */
+    private long position = 0;
+
+    /** Reused buffer for compressing each page. */
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+    /**
+     * Creates a writer for a new file at {@code path}, replacing any existing file.
+     *
+     * @param path the path to write to.
+     * @throws IOException if the file cannot be created.
+     */
+    public PageWriter(Path path) throws IOException {
+        this.stream = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes bytes directly, without any compression or header.
+     *
+     * @param bytes the bytes to write.
+     * @throws IOException if the bytes cannot be written.
+     */
+    public void writeRaw(byte[] bytes) throws IOException {
+        stream.write(bytes);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes a dictionary page.
+     *
+     * @param body the uncompressed PLAIN-encoded dictionary values.
+     * @param numberValues the number of values in the dictionary.
+     * @param encoding the Parquet encoding to record for the page.
+     * @param chunk updated to record the written page.
+     * @throws IOException if the page cannot be written.
+     */
+    public void writeDictionaryPage(
+            byte[] body, int numberValues, int encoding, ColumnChunkMetadata chunk)
+            throws IOException {
+        long offset = position;
+        byte[] compressedBody = compress(body);
+
+        ThriftCompactWriter header = new ThriftCompactWriter();
+        header.beginStruct();
+        writeCommonHeaderFields(header, PAGE_TYPE_DICTIONARY, body, compressedBody);
+        header.beginStructField(7);
+        header.writeI32Field(1, numberValues);
+        header.writeI32Field(2, encoding);
+        header.endStruct();
+        header.endStruct();
+
+        long headerSize = writeHeaderAndBody(header, compressedBody);
+        chunk.addDictionaryPage(
+                offset, headerSize + body.length, headerSize + compressedBody.length);
+    }
+
+    /**
+     * Writes a data page, for a column with definition-levels, but without repetition-levels.
+     *
+     * @param body the uncompressed encoded definition-levels, followed by the encoded values.
+     * @param numberValues the number of values in the page, including nulls.
+     * @param encoding the Parquet encoding of {@code body}.
+     * @param chunk updated to record the written page.
+     * @throws IOException if the page cannot be written.
+     */
+    public void writeDataPage(
+            byte[] body, int numberValues, int encoding, ColumnChunkMetadata chunk)
+            throws IOException {
+        long offset = position;
+        byte[] compressedBody = compress(body);
+
+        ThriftCompactWriter header = new ThriftCompactWriter();
+        header.beginStruct();
+        writeCommonHeaderFields(header, PAGE_TYPE_DATA, body, compressedBody);
+        header.beginStructField(5);
+        header.writeI32Field(1, numberValues);
+        header.writeI32Field(2, encoding);
+        header.writeI32Field(3, ENCODING_RLE);
+        header.writeI32Field(4, ENCODING_RLE);
+        header.endStruct();
+        header.endStruct();
+
+        long headerSize = writeHeaderAndBody(header, compressedBody);
+        chunk.addDataPage(
+                offset,
+                numberValues,
+                headerSize + body.length,
+                headerSize + compressedBody.length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    /** Writes the fields of a {@code PageHeader} that are common to all page-types. */
+    private static void writeCommonHeaderFields(
+            ThriftCompactWriter header, int pageType, byte[] body, byte[] compressedBody) {
+        header.writeI32Field(1, pageType);
+        header.writeI32Field(2, body.length);
+        header.writeI32Field(3, compressedBody.length);
+    }
+
+    /** Writes a page-header followed by its body, returning the size of the header. */
+    private long writeHeaderAndBody(ThriftCompactWriter header, byte[] compressedBody)
+            throws IOException {
+        byte[] headerBytes = header.toByteArray();
+        writeRaw(headerBytes);
+        writeRaw(compressedBody);
+        return headerBytes.length;
+    }
+
+    /** Compresses bytes with GZIP. */
+    private byte[] compress(byte[] body) throws IOException {
+        compressed.reset();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, BUFFER_SIZE)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
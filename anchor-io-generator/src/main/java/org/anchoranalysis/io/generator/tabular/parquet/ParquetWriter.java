@@ -0,0 +1,417 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.anchoranalysis.core.format.NonImageFileFormat;
+import org.anchoranalysis.core.value.TypedValue;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.anchoranalysis.io.output.outputter.OutputterChecked;
+
+/**
+ * Writes a table to the file-system in the <a href="https://parquet.apache.org/">Apache
+ * Parquet</a> format, as an alternative to CSV.
+ *
+ * <p>Columns are typed: text columns are dictionary-encoded UTF-8 strings and numeric columns are
+ * {@code double}s. All pages are compressed with GZIP. The type of each column is determined by
+ * the first row that is written. Every column is optional, so a null text value is written as a
+ * null.
+ *
+ * <p>A row that is inconsistent with the first row is rejected with an exception, and is not
+ * written, but does not prevent further rows from being written.
+ *
+ * <p>Rows are buffered in memory and written as a row-group whenever enough rows have
+ * accumulated, so memory-use remains bounded, however many rows are written.
+ *
+ * <p>The file is only valid after {@link #close} is called, which writes the footer.
+ *
+ * <p>As it can be called by different threads, public methods are synchronized.
+ *
+ * @author Owen Feehan
+ */
+public class ParquetWriter implements AutoCloseable {
+
+    /** The approximate number of bytes of buffered values, before a row-group is written. */
+    private static final int TARGET_BYTES_PER_ROW_GROUP = 64 * 1024 * 1024;
+
+    /** Bytes that begin and end every Parquet file. */
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    /** Recorded in the footer, as the application that created the file. */
+    private static final String CREATED_BY = "anchor";
+
+    /** Names of the columns, in order. */
+    private final List<String> headers;
+
+    /** The approximate number of bytes of buffered values, before a row-group is written. */
+    private final int targetBytesPerRowGroup;
+
+    /** Where the pages are written to. */
+    private final PageWriter writer;
+
+    /**
+     * Buffers for each column, which are created when the first row is written.
+     *
+     * <p>Its elements are either {@link TextColumnBuffer} or {@link DoubleColumnBuffer}.
+     */
+    private List<ColumnBuffer> columns;
+
+    /** Metadata for the columns of each row-group written so far. */
+    private final List<ColumnChunkMetadata[]> rowGroups = new ArrayList<>();
+
+    /** The number of rows in each respective element of {@code rowGroups}. */
+    private final List<Integer> rowsInRowGroups = new ArrayList<>();
+
+    /** The number of rows that are buffered. */
+    private int rowsBuffered = 0;
+
+    /** The number of rows, after which the buffered rows are written as a row-group. */
+    private int maxRowsPerGroup;
+
+    /**
+     * The first error that occurred while writing pages, after which no further rows may be
+     * written, and the file remains incomplete.
+     */
+    private Optional<IOException> error = Optional.empty();
+
+    /**
+     * Creates and starts a {@link ParquetWriter} if it's allowed, otherwise returns {@link
+     * Optional#empty}.
+     *
+     * @param outputName unique name identifying the output which is used to construct a file-path
+     *     to write to.
+     * @param outputter how and whether outputs are written.
+     * @param headers a name for each column.
+     * @return the writer if it's allowed, or empty if it's not.
+     * @throws OutputWriteFailedException if the file cannot be created successfully.
+     */
+    public static Optional<ParquetWriter> createFromOutputter(
+            String outputName, OutputterChecked outputter, List<String> headers)
+            throws OutputWriteFailedException {
+
+        if (!outputter.getOutputsEnabled().isOutputEnabled(outputName)) {
+            return Optional.empty();
+        }
+
+        Optional<Path> path =
+                outputter
+                        .getWriters()
+                        .selective()
+                        .createFilenameForWriting(
+                                outputName, NonImageFileFormat.PARQUET.extensionWithoutPeriod());
+
+        if (!path.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(create(path.get(), headers));
+    }
+
+    /**
+     * Creates and starts a {@link ParquetWriter} at a particular path.
+     *
+     * @param path the path to write to.
+     * @param headers a name for each column.
+     * @return the writer.
+     * @throws OutputWriteFailedException if the file cannot be created successfully.
+     */
+    public static ParquetWriter create(Path path, List<String> headers)
+            throws OutputWriteFailedException {
+        return create(path, headers, TARGET_BYTES_PER_ROW_GROUP);
+    }
+
+    /**
+     * Creates and starts a {@link ParquetWriter} at a particular path, with a particular size of
+     * row-group.
+     *
+     * @param path the path to write to.
+     * @param headers a name for each column.
+     * @param targetBytesPerRowGroup the approximate number of bytes of buffered values, before a
+     *     row-group is written.
+     * @return the writer.
+     * @throws OutputWriteFailedException if the file cannot be created successfully.
+     */
+    static ParquetWriter create(Path path, List<String> headers, int targetBytesPerRowGroup)
+            throws OutputWriteFailedException {
+        try {
+            ParquetWriter writer = new ParquetWriter(path, headers, targetBytesPerRowGroup);
+            writer.writer.writeRaw(MAGIC);
+            return writer;
+        } catch (IOException e) {
+            throw new OutputWriteFailedException(e);
+        }
+    }
+
+    /**
+     * Private constructor called by static methods.
+     *
+     * @param path the path to write to.
+     * @param headers a name for each column.
+     * @param targetBytesPerRowGroup the approximate number of bytes of buffered values, before a
+     *     row-group is written.
+     * @throws IOException if the file cannot be created.
+     */
+    private ParquetWriter(Path path, List<String> headers, int targetBytesPerRowGroup)
+            throws IOException {
+        this.headers = headers;
+        this.targetBytesPerRowGroup = targetBytesPerRowGroup;
+        this.writer = new PageWriter(path);
+    }
+
+    /**
+     * Writes a row with text labels, followed by numeric values.
+     *
+     * @param labels values for the initial (text) columns. A null label is written as a null.
+     * @param values values for the subsequent (numeric) columns.
+     * @throws OutputWriteFailedException if the row has a different number of columns to the
+     *     first row, or a label is written to a numeric column, or if writing failed.
+     */
+    public synchronized void writeRow(List<String> labels, double[] values)
+            throws OutputWriteFailedException {
+        checkNoEarlierError();
+
+        if (columns == null) {
+            List<ColumnBuffer> created = new ArrayList<>(labels.size() + values.length);
+            for (int i = 0; i < labels.size(); i++) {
+                created.add(new TextColumnBuffer(nameForColumn(i)));
+            }
+            for (int i = 0; i < values.length; i++) {
+                created.add(new DoubleColumnBuffer(nameForColumn(labels.size() + i)));
+            }
+            initializeColumns(created);
+        }
+
+        checkNumberColumns(labels.size() + values.length);
+        for (int i = 0; i < labels.size(); i++) {
+            columns.get(i).checkText(labels.get(i));
+        }
+
+        for (int i = 0; i < labels.size(); i++) {
+            columns.get(i).addText(labels.get(i));
+        }
+        for (int i = 0; i < values.length; i++) {
+            columns.get(labels.size() + i).addNumber(values[i]);
+        }
+        rowAdded();
+    }
+
+    /**
+     * Writes a row of typed-values.
+     *
+     * <p>A null value is written as a null. Any other value, in a column that was numeric in the
+     * first row, must be parseable as a number.
+     *
+     * @param elements a value in the row for each respective column.
+     * @throws OutputWriteFailedException if the row has a different number of columns to the
+     *     first row, or a value in a numeric column is not a number, or if writing failed.
+     */
+    public synchronized void writeRow(List<TypedValue> elements)
+            throws OutputWriteFailedException {
+        checkNoEarlierError();
+
+        if (columns == null) {
+            List<ColumnBuffer> created = new ArrayList<>(elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                String name = nameForColumn(i);
+                created.add(
+                        elements.get(i).isNumeric()
+                                ? new DoubleColumnBuffer(name)
+                                : new TextColumnBuffer(name));
+            }
+            initializeColumns(created);
+        }
+
+        checkNumberColumns(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            columns.get(i).checkText(elements.get(i).getValue());
+        }
+
+        for (int i = 0; i < elements.size(); i++) {
+            columns.get(i).addText(elements.get(i).getValue());
+        }
+        rowAdded();
+    }
+
+    /**
+     * Writes any buffered rows and the footer, and closes the file.
+     *
+     * <p>If no rows were written, all columns are described as text.
+     *
+     * @throws OutputWriteFailedException if any error occurred while writing, including earlier
+     *     errors while writing pages.
+     */
+    @Override
+    public synchronized void close() throws OutputWriteFailedException {
+        try {
+            if (!error.isPresent()) {
+                if (columns == null) {
+                    List<ColumnBuffer> created = new ArrayList<>(headers.size());
+                    for (int i = 0; i < headers.size(); i++) {
+                        created.add(new TextColumnBuffer(headers.get(i)));
+                    }
+                    columns = created;
+                }
+                writeRowGroup();
+                writeFooter();
+            }
+            writer.close();
+        } catch (IOException e) {
+            error = Optional.of(error.orElse(e));
+        }
+
+        if (error.isPresent()) {
+            throw new OutputWriteFailedException(error.get());
+        }
+    }
+
+    /** Assigns the buffers for each column and derives how many rows are in a row-group. */
+    private void initializeColumns(List<ColumnBuffer> created) {
+        int bytesPerRow = 1;
+        for (ColumnBuffer column : created) {
+            bytesPerRow += column.bytesPerValue();
+        }
+        this.maxRowsPerGroup = Math.max(1, targetBytesPerRowGroup / bytesPerRow);
+        this.columns = created;
+    }
+
+    /** Throws an exception if an earlier error prevents any further rows being written. */
+    private void checkNoEarlierError() throws OutputWriteFailedException {
+        if (error.isPresent()) {
+            throw new OutputWriteFailedException(error.get());
+        }
+    }
+
+    /** Throws an exception if a row has a different number of columns than the first row. */
+    private void checkNumberColumns(int numberColumns) throws OutputWriteFailedException {
+        if (numberColumns != columns.size()) {
+            throw new OutputWriteFailedException(
+                    String.format(
+                            "A row has %d columns, but the first row had %d.",
+                            numberColumns, columns.size()));
+        }
+    }
+
+    /** Records that a row was added, writing a row-group if enough rows are buffered. */
+    private void rowAdded() throws OutputWriteFailedException {
+        rowsBuffered++;
+        if (rowsBuffered >= maxRowsPerGroup) {
+            try {
+                writeRowGroup();
+            } catch (IOException e) {
+                error = Optional.of(e);
+                throw new OutputWriteFailedException(e);
+            }
+        }
+    }
+
+    /** Writes the pages for all buffered rows, if there are any. */
+    private void writeRowGroup() throws IOException {
+        if (rowsBuffered == 0) {
+            return;
+        }
+        ColumnChunkMetadata[] chunks = new ColumnChunkMetadata[columns.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = columns.get(i).writePages(writer);
+        }
+        rowGroups.add(chunks);
+        rowsInRowGroups.add(rowsBuffered);
+        rowsBuffered = 0;
+    }
+
+    /** Writes the {@code FileMetaData} struct, its length, and the closing magic bytes. */
+    private void writeFooter() throws IOException {
+        ThriftCompactWriter thrift = new ThriftCompactWriter();
+        thrift.beginStruct();
+        thrift.writeI32Field(1, 1);
+
+        // The schema is flattened, with a root element followed by each column
+        thrift.beginListField(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1);
+        thrift.beginStruct();
+        thrift.writeStringField(4, "schema");
+        thrift.writeI32Field(5, columns.size());
+        thrift.endStruct();
+        for (ColumnBuffer column : columns) {
+            column.encodeSchema(thrift);
+        }
+
+        long totalRows = 0;
+        for (int numberRows : rowsInRowGroups) {
+            totalRows += numberRows;
+        }
+        thrift.writeI64Field(3, totalRows);
+
+        thrift.beginListField(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (int i = 0; i < rowGroups.size(); i++) {
+            encodeRowGroup(thrift, rowGroups.get(i), rowsInRowGroups.get(i));
+        }
+
+        thrift.writeStringField(6, CREATED_BY);
+        thrift.endStruct();
+
+        byte[] footer = thrift.toByteArray();
+        writer.writeRaw(footer);
+        writer.writeRaw(
+                ByteBuffer.allocate(Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(footer.length)
+                        .array());
+        writer.writeRaw(MAGIC);
+    }
+
+    /** Encodes a {@code RowGroup} struct. */
+    private static void encodeRowGroup(
+            ThriftCompactWriter thrift, ColumnChunkMetadata[] chunks, int numberRows) {
+        thrift.beginStruct();
+        thrift.beginListField(1, ThriftCompactWriter.TYPE_STRUCT, chunks.length);
+        long totalUncompressed = 0;
+        long totalCompressed = 0;
+        for (ColumnChunkMetadata chunk : chunks) {
+            chunk.encode(thrift);
+            totalUncompressed += chunk.getTotalUncompressedSize();
+            totalCompressed += chunk.getTotalCompressedSize();
+        }
+        thrift.writeI64Field(2, totalUncompressed);
+        thrift.writeI64Field(3, numberRows);
+        thrift.writeI64Field(7, totalCompressed);
+        thrift.endStruct();
+    }
+
+    /** The name of a column, falling back to a generic name if too few headers exist. */
+    private String nameForColumn(int index) {
+        if (index < headers.size()) {
+            return headers.get(index);
+        } else {
+            return "column" + index;
+        }
+    }
+}
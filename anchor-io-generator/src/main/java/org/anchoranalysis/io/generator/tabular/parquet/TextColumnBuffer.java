@@ -0,0 +1,171 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers a column of UTF-8 strings, which are written with dictionary encoding.
+ *
+ * <p>A separate dictionary is written for each row-group. This suits labels, like group-names,
+ * that repeat many times.
+ *
+ * @author Owen Feehan
+ */
+class TextColumnBuffer extends ColumnBuffer {
+
+    /** Parquet identifier for the {@code BYTE_ARRAY} physical type. */
+    private static final int TYPE_BYTE_ARRAY = 6;
+
+    /** Parquet identifier for the (legacy) {@code UTF8} converted type. */
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+
+    /** Parquet identifier for the PLAIN_DICTIONARY encoding. */
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+
+    /** The index of each distinct value in {@code dictionary}. */
+    private final Map<String, Integer> indexForValue = new HashMap<>();
+
+    /** The distinct values, in the order they first occurred. */
+    private final List<String> dictionary = new ArrayList<>();
+
+    /** The index in {@code dictionary} of each buffered value. */
+    private int[] indices = new int[1024];
+
+    /** The number of buffered values. */
+    private int size = 0;
+
+    /**
+     * Creates for a column with a particular name.
+     *
+     * @param name the name of the column.
+     */
+    public TextColumnBuffer(String name) {
+        super(name);
+    }
+
+    @Override
+    public int bytesPerValue() {
+        return Integer.BYTES;
+    }
+
+    @Override
+    protected void addNonNullText(String value) {
+        Integer index = indexForValue.get(value);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.add(value);
+            indexForValue.put(value, index);
+        }
+
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, indices.length * 2);
+        }
+        indices[size++] = index;
+    }
+
+    @Override
+    protected void addNonNullNumber(double value) {
+        addNonNullText(Double.toString(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The dictionary is written even if empty (when all buffered values are null), as the data
+     * pages are always dictionary-encoded.
+     */
+    @Override
+    protected void writeDictionaryPage(PageWriter writer, ColumnChunkMetadata chunk)
+            throws IOException {
+        writer.writeDictionaryPage(
+                encodeDictionary(), dictionary.size(), ENCODING_PLAIN_DICTIONARY, chunk);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The indices are encoded as the bit-width, followed by a single bit-packed run.
+     */
+    @Override
+    protected void encodeValues(int start, int end, ByteArrayOutputStream out) {
+        int maxIndex = Math.max(dictionary.size() - 1, 0);
+        int bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxIndex));
+        out.write(bitWidth);
+        encodeBitPacked(index -> indices[start + index], end - start, bitWidth, out);
+    }
+
+    @Override
+    protected void clearValues() {
+        size = 0;
+        indexForValue.clear();
+        dictionary.clear();
+    }
+
+    @Override
+    protected int physicalType() {
+        return TYPE_BYTE_ARRAY;
+    }
+
+    @Override
+    protected int dataEncoding() {
+        return ENCODING_PLAIN_DICTIONARY;
+    }
+
+    @Override
+    protected void encodeAdditionalSchema(ThriftCompactWriter thrift) {
+        thrift.writeI32Field(6, CONVERTED_TYPE_UTF8);
+        // The logical type is a union, where the (empty) STRING struct is chosen
+        thrift.beginStructField(10);
+        thrift.beginStructField(1);
+        thrift.endStruct();
+        thrift.endStruct();
+    }
+
+    /** PLAIN encodes the dictionary, with each value preceded by its length. */
+    private byte[] encodeDictionary() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (String value : dictionary) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            length.clear();
+            length.putInt(bytes.length);
+            out.write(length.array(), 0, Integer.BYTES);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+}
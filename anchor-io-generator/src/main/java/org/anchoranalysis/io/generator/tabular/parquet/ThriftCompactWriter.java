@@ -0,0 +1,191 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Encodes structures with the <a
+ * href="https://github.com/apache/thrift/blob/master/doc/specs/thrift-compact-protocol.md">Thrift
+ * Compact Protocol</a>, as used for all metadata in a Parquet file.
+ *
+ * <p>Only the subset of the protocol needed for Parquet metadata is supported.
+ *
+ * @author Owen Feehan
+ */
+class ThriftCompactWriter {
+
+    /** Compact-protocol type identifier for a {@code i32}. */
+    static final int TYPE_I32 = 5;
+
+    /** Compact-protocol type identifier for a {@code i64}. */
+    private static final int TYPE_I64 = 6;
+
+    /** Compact-protocol type identifier for {@code binary} or {@code string}. */
+    static final int TYPE_BINARY = 8;
+
+    /** Compact-protocol type identifier for a {@code list}. */
+    private static final int TYPE_LIST = 9;
+
+    /** Compact-protocol type identifier for a {@code struct}. */
+    static final int TYPE_STRUCT = 12;
+
+    /** The bytes encoded so far. */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    /** The identifier of the most recently written field, for each struct currently open. */
+    private final Deque<Integer> lastFieldIdentifiers = new ArrayDeque<>();
+
+    /** The identifier of the most recently written field, in the innermost open struct. */
+    private int lastFieldIdentifier = 0;
+
+    /** Starts a struct, either top-level or as an element of a list. */
+    public void beginStruct() {
+        lastFieldIdentifiers.push(lastFieldIdentifier);
+        lastFieldIdentifier = 0;
+    }
+
+    /** Ends the most recently started struct. */
+    public void endStruct() {
+        buffer.write(0);
+        lastFieldIdentifier = lastFieldIdentifiers.pop();
+    }
+
+    /**
+     * Starts a struct that is a field of the current struct.
+     *
+     * @param identifier the field identifier.
+     */
+    public void beginStructField(int identifier) {
+        writeFieldHeader(identifier, TYPE_STRUCT);
+        beginStruct();
+    }
+
+    /**
+     * Writes a {@code i32} field.
+     *
+     * @param identifier the field identifier.
+     * @param value the value to write.
+     */
+    public void writeI32Field(int identifier, int value) {
+        writeFieldHeader(identifier, TYPE_I32);
+        writeI32(value);
+    }
+
+    /**
+     * Writes a {@code i64} field.
+     *
+     * @param identifier the field identifier.
+     * @param value the value to write.
+     */
+    public void writeI64Field(int identifier, long value) {
+        writeFieldHeader(identifier, TYPE_I64);
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a {@code string} field, encoded as UTF-8.
+     *
+     * @param identifier the field identifier.
+     * @param value the value to write.
+     */
+    public void writeStringField(int identifier, String value) {
+        writeFieldHeader(identifier, TYPE_BINARY);
+        writeString(value);
+    }
+
+    /**
+     * Starts a {@code list} field, whose elements should be written immediately afterwards.
+     *
+     * @param identifier the field identifier.
+     * @param elementType the compact-protocol type of each element.
+     * @param size the number of elements in the list.
+     */
+    public void beginListField(int identifier, int elementType, int size) {
+        writeFieldHeader(identifier, TYPE_LIST);
+        if (size < 15) {
+            buffer.write((size << 4) | elementType);
+        } else {
+            buffer.write(0xF0 | elementType);
+            writeVarint(size);
+        }
+    }
+
+    /**
+     * Writes a {@code i32} without a field header, as an element of a list.
+     *
+     * @param value the value to write.
+     */
+    public void writeI32(int value) {
+        writeVarint(((long) value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a {@code string} without a field header, as an element of a list.
+     *
+     * @param value the value to write.
+     */
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * The bytes encoded so far.
+     *
+     * @return a newly-created array with the encoded bytes.
+     */
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    /** Writes the header of a field, using the short delta-form where possible. */
+    private void writeFieldHeader(int identifier, int type) {
+        int delta = identifier - lastFieldIdentifier;
+        if (delta > 0 && delta <= 15) {
+            buffer.write((delta << 4) | type);
+        } else {
+            buffer.write(type);
+            writeI32(identifier);
+        }
+        lastFieldIdentifier = identifier;
+    }
+
+    /** Writes an unsigned variable-length integer, seven bits at a time. */
+    private void writeVarint(long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.write((int) remaining);
+    }
+}
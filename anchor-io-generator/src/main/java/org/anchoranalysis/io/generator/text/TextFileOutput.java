@@ -26,6 +26,7 @@
 
 package org.anchoranalysis.io.generator.text;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -59,6 +60,9 @@ public class TextFileOutput {
 
     // END REQUIRED ARGUMENTS
 
+    /** The size of the buffer, in characters, before content is written to the file. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /** The {@link PrintWriter} used for writing the text file. */
     @Getter private Optional<PrintWriter> writer;
 
@@ -70,7 +74,11 @@ public class TextFileOutput {
      */
     public void start() throws OutputWriteFailedException {
         try {
-            this.writer = Optional.of(new PrintWriter(new FileWriter(filePath))); // NOSONAR
+            this.writer =
+                    Optional.of(
+                            new PrintWriter(
+                                    new BufferedWriter(
+                                            new FileWriter(filePath), BUFFER_SIZE))); // NOSONAR
         } catch (IOException e) {
             throw new OutputWriteFailedException(e);
         }
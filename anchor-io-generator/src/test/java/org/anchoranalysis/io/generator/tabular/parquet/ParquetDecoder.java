@@ -0,0 +1,390 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import lombok.Getter;
+
+/**
+ * Decodes a Parquet file, as written by {@link ParquetWriter}, independently of the classes that
+ * wrote it.
+ *
+ * <p>Only what {@link ParquetWriter} produces is supported: flat optional columns of {@code
+ * DOUBLE} or {@code BYTE_ARRAY}, GZIP compression, version 1 data pages, and PLAIN or dictionary
+ * encoding. Anything else fails with an {@link IOException}.
+ *
+ * <p>Each value is a {@link String}, a {@link Double} or null.
+ *
+ * @author Owen Feehan
+ */
+class ParquetDecoder {
+
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int CODEC_GZIP = 2;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    /** The name of each column. */
+    @Getter private final List<String> columnNames = new ArrayList<>();
+
+    /** The values of each row, in order. */
+    @Getter private final List<List<Object>> rows = new ArrayList<>();
+
+    /** The number of rows in each row-group. */
+    @Getter private final List<Integer> rowsInRowGroups = new ArrayList<>();
+
+    /** The bytes of the entire file. */
+    private final byte[] bytes;
+
+    /** The physical type of each column. */
+    private final List<Integer> columnTypes = new ArrayList<>();
+
+    /**
+     * Decodes a file.
+     *
+     * @param path the path of the file.
+     * @throws IOException if the file cannot be read, or is invalid.
+     */
+    public ParquetDecoder(Path path) throws IOException {
+        this.bytes = Files.readAllBytes(path);
+        checkMagic(0);
+        checkMagic(bytes.length - 4);
+
+        int footerLength = littleEndian(bytes.length - 8).getInt();
+        Map<Integer, Object> metadata = new ThriftReader(bytes.length - 8 - footerLength).struct();
+
+        List<Object> schema = list(metadata, 2);
+        long numberColumns = number(struct(schema.get(0)), 5);
+        for (int i = 1; i < schema.size(); i++) {
+            Map<Integer, Object> element = struct(schema.get(i));
+            check(number(element, 3) == REPETITION_OPTIONAL, "Column is not optional");
+            columnNames.add(string(element, 4));
+            columnTypes.add((int) number(element, 1));
+        }
+        check(columnNames.size() == numberColumns, "Schema has the wrong number of columns");
+
+        for (Object rowGroup : list(metadata, 4)) {
+            decodeRowGroup(struct(rowGroup));
+        }
+        check(rows.size() == number(metadata, 3), "Total number of rows is incorrect");
+    }
+
+    /** Decodes the column-chunks of a row-group, appending rows. */
+    private void decodeRowGroup(Map<Integer, Object> rowGroup) throws IOException {
+        int numberRows = (int) number(rowGroup, 3);
+        List<Object> chunks = list(rowGroup, 1);
+        check(chunks.size() == columnNames.size(), "Row-group has the wrong number of columns");
+
+        List<List<Object>> columns = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Object> column = decodeColumnChunk(struct(chunks.get(i)), columnTypes.get(i));
+            check(column.size() == numberRows, "Column has the wrong number of values");
+            columns.add(column);
+        }
+
+        for (int row = 0; row < numberRows; row++) {
+            List<Object> values = new ArrayList<>();
+            for (List<Object> column : columns) {
+                values.add(column.get(row));
+            }
+            rows.add(values);
+        }
+        rowsInRowGroups.add(numberRows);
+    }
+
+    /** Decodes all pages of a column-chunk. */
+    private List<Object> decodeColumnChunk(Map<Integer, Object> chunk, int type)
+            throws IOException {
+        Map<Integer, Object> metadata = struct(chunk.get(3));
+        check(number(metadata, 1) == type, "Column-chunk has the wrong type");
+        check(number(metadata, 4) == CODEC_GZIP, "Column-chunk is not GZIP compressed");
+        long numberValues = number(metadata, 5);
+
+        // The dictionary page, if it exists, precedes the data pages
+        long firstPage = metadata.containsKey(11) ? number(metadata, 11) : number(metadata, 9);
+        int position = (int) firstPage;
+        List<String> dictionary = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        while (values.size() < numberValues) {
+            ThriftReader reader = new ThriftReader(position);
+            Map<Integer, Object> header = reader.struct();
+            int compressedSize = (int) number(header, 3);
+            byte[] page = decompress(reader.position, compressedSize);
+            check(page.length == number(header, 2), "Page has the wrong uncompressed size");
+
+            long pageType = number(header, 1);
+            if (pageType == PAGE_DICTIONARY) {
+                Map<Integer, Object> dictionaryHeader = struct(header.get(7));
+                ByteBuffer buffer = littleEndian(page);
+                for (long i = 0; i < number(dictionaryHeader, 1); i++) {
+                    byte[] value = new byte[buffer.getInt()];
+                    buffer.get(value);
+                    dictionary.add(new String(value, StandardCharsets.UTF_8));
+                }
+            } else {
+                check(pageType == PAGE_DATA, "Unsupported page type");
+                decodeDataPage(struct(header.get(5)), page, type, dictionary, values);
+            }
+            position = reader.position + compressedSize;
+        }
+        check(values.size() == numberValues, "Column-chunk has too many values");
+        return values;
+    }
+
+    /** Decodes a data page, with definition-levels, appending its values. */
+    private static void decodeDataPage(
+            Map<Integer, Object> header,
+            byte[] page,
+            int type,
+            List<String> dictionary,
+            List<Object> values)
+            throws IOException {
+        int numberValues = (int) number(header, 1);
+        check(number(header, 3) == ENCODING_RLE, "Definition-levels are not RLE encoded");
+
+        ByteBuffer buffer = littleEndian(page);
+        int levelsLength = buffer.getInt();
+        int[] levels = decodeHybrid(buffer.slice().limit(levelsLength), 1, numberValues);
+        buffer.position(buffer.position() + levelsLength);
+
+        int numberDefined = 0;
+        for (int level : levels) {
+            numberDefined += level;
+        }
+
+        List<Object> defined = new ArrayList<>();
+        long encoding = number(header, 2);
+        if (encoding == ENCODING_PLAIN && type == TYPE_DOUBLE) {
+            for (int i = 0; i < numberDefined; i++) {
+                defined.add(buffer.getDouble());
+            }
+        } else if ((encoding == ENCODING_PLAIN_DICTIONARY || encoding == ENCODING_RLE_DICTIONARY)
+                && type == TYPE_BYTE_ARRAY) {
+            int bitWidth = buffer.get();
+            for (int index : decodeHybrid(buffer, bitWidth, numberDefined)) {
+                defined.add(dictionary.get(index));
+            }
+        } else {
+            throw new IOException("Unsupported encoding " + encoding);
+        }
+        check(!buffer.hasRemaining(), "Data page has unexpected trailing bytes");
+
+        int next = 0;
+        for (int level : levels) {
+            values.add(level == 1 ? defined.get(next++) : null);
+        }
+    }
+
+    /** Decodes values with the RLE / Bit-Packing Hybrid encoding. */
+    private static int[] decodeHybrid(ByteBuffer buffer, int bitWidth, int numberValues) {
+        int[] out = new int[numberValues];
+        int decoded = 0;
+        while (decoded < numberValues) {
+            int header = readVarint(buffer);
+            if ((header & 1) == 1) {
+                int numberBitPacked = (header >>> 1) * 8;
+                long accumulated = 0;
+                int numberBits = 0;
+                for (int i = 0; i < numberBitPacked; i++) {
+                    while (numberBits < bitWidth) {
+                        accumulated |= (long) (buffer.get() & 0xFF) << numberBits;
+                        numberBits += 8;
+                    }
+                    if (decoded < numberValues) {
+                        out[decoded++] = (int) (accumulated & ((1L << bitWidth) - 1));
+                    }
+                    accumulated >>>= bitWidth;
+                    numberBits -= bitWidth;
+                }
+            } else {
+                int value = 0;
+                for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+                    value |= (buffer.get() & 0xFF) << (8 * i);
+                }
+                for (int i = 0; i < header >>> 1; i++) {
+                    out[decoded++] = value;
+                }
+            }
+        }
+        return out;
+    }
+
+    private byte[] decompress(int offset, int length) throws IOException {
+        try (InputStream stream =
+                new GZIPInputStream(new ByteArrayInputStream(bytes, offset, length))) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private void checkMagic(int offset) throws IOException {
+        check(
+                new String(bytes, offset, 4, StandardCharsets.US_ASCII).equals("PAR1"),
+                "Missing magic bytes");
+    }
+
+    private ByteBuffer littleEndian(int offset) {
+        return ByteBuffer.wrap(bytes, offset, bytes.length - offset).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer littleEndian(byte[] array) {
+        return ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = buffer.get() & 0xFF;
+            value |= (next & 0x7F) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    private static void check(boolean condition, String message) throws IOException {
+        if (!condition) {
+            throw new IOException(message);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, Object> struct(Object value) {
+        return (Map<Integer, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Map<Integer, Object> struct, int field) {
+        return (List<Object>) struct.get(field);
+    }
+
+    private static long number(Map<Integer, Object> struct, int field) {
+        return (Long) struct.get(field);
+    }
+
+    private static String string(Map<Integer, Object> struct, int field) {
+        return new String((byte[]) struct.get(field), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads structures encoded with the Thrift Compact Protocol.
+     *
+     * <p>A struct is read as a map from field-identifier to value, where integers are {@link
+     * Long}, binary is {@code byte[]}, lists are {@link List} and structs are {@link Map}.
+     */
+    private class ThriftReader {
+
+        /** The offset in {@code bytes} of the next byte to read. */
+        private int position;
+
+        public ThriftReader(int position) {
+            this.position = position;
+        }
+
+        public Map<Integer, Object> struct() throws IOException {
+            Map<Integer, Object> fields = new HashMap<>();
+            int lastIdentifier = 0;
+            while (true) {
+                int header = bytes[position++] & 0xFF;
+                if (header == 0) {
+                    return fields;
+                }
+                int type = header & 0x0F;
+                int delta = header >>> 4;
+                int identifier = delta != 0 ? lastIdentifier + delta : (int) zigzag();
+                fields.put(identifier, value(type));
+                lastIdentifier = identifier;
+            }
+        }
+
+        private Object value(int type) throws IOException {
+            switch (type) {
+                case 1:
+                    return true;
+                case 2:
+                    return false;
+                case 5:
+                case 6:
+                    return zigzag();
+                case 8:
+                    byte[] binary = new byte[(int) varint()];
+                    System.arraycopy(bytes, position, binary, 0, binary.length);
+                    position += binary.length;
+                    return binary;
+                case 9:
+                    int header = bytes[position++] & 0xFF;
+                    int size = header >>> 4;
+                    if (size == 15) {
+                        size = (int) varint();
+                    }
+                    List<Object> elements = new ArrayList<>();
+                    for (int i = 0; i < size; i++) {
+                        elements.add(value(header & 0x0F));
+                    }
+                    return elements;
+                case 12:
+                    return struct();
+                default:
+                    throw new IOException("Unsupported compact-protocol type " + type);
+            }
+        }
+
+        private long zigzag() {
+            long value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long varint() {
+            long value = 0;
+            int shift = 0;
+            int next;
+            do {
+                next = bytes[position++] & 0xFF;
+                value |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while ((next & 0x80) != 0);
+            return value;
+        }
+    }
+}
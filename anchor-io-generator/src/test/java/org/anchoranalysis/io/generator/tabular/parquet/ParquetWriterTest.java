@@ -0,0 +1,170 @@
+/*-
+ * #%L
+ * anchor-io-generator
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.generator.tabular.parquet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.anchoranalysis.core.value.TypedValue;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link ParquetWriter}.
+ *
+ * <p>Files are checked by decoding them with {@link ParquetDecoder}.
+ *
+ * @author Owen Feehan
+ */
+class ParquetWriterTest {
+
+    private static final List<String> HEADERS = Arrays.asList("id", "group", "featureA");
+
+    /** Small enough that a few rows fill a row-group. */
+    private static final int SMALL_ROW_GROUP_BYTES = 200;
+
+    @TempDir Path directory;
+
+    /** Checks the compact-protocol encoding of a simple struct. */
+    @Test
+    void testThriftEncoding() {
+        ThriftCompactWriter thrift = new ThriftCompactWriter();
+        thrift.beginStruct();
+        thrift.writeI32Field(1, 3);
+        thrift.writeStringField(4, "ab");
+        thrift.endStruct();
+        assertArrayEquals(
+                new byte[] {0x15, 0x06, 0x38, 0x02, 'a', 'b', 0x00}, thrift.toByteArray());
+    }
+
+    /**
+     * Labels and values, including nulls, non-ASCII strings and NaN, are read back identically
+     * across many row-groups.
+     */
+    @Test
+    void testLabelsAndValues() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("table.parquet");
+        List<List<Object>> expected = new ArrayList<>();
+        try (ParquetWriter writer = ParquetWriter.create(path, HEADERS, SMALL_ROW_GROUP_BYTES)) {
+            for (int i = 0; i < 100; i++) {
+                String group = i % 7 == 0 ? null : "gr\u00fcppe" + (i % 3);
+                double value = i % 5 == 0 ? Double.NaN : i * 0.5;
+                writer.writeRow(Arrays.asList("id" + i, group), new double[] {value});
+                expected.add(Arrays.asList("id" + i, group, value));
+            }
+        }
+
+        ParquetDecoder decoded = new ParquetDecoder(path);
+        assertEquals(HEADERS, decoded.getColumnNames());
+        assertEquals(expected, decoded.getRows());
+        assertEquals(10, decoded.getRowsInRowGroups().size());
+    }
+
+    /** Typed-values are written as text or numeric columns, with a null value as null. */
+    @Test
+    void testTypedValues() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("typed.parquet");
+        try (ParquetWriter writer = ParquetWriter.create(path, HEADERS)) {
+            writer.writeRow(
+                    Arrays.asList(new TypedValue("a"), new TypedValue("b"), new TypedValue(3)));
+            writer.writeRow(
+                    Arrays.asList(new TypedValue("c"), new TypedValue(null), new TypedValue(1.5)));
+            writer.writeRow(
+                    Arrays.asList(new TypedValue("d"), new TypedValue("e"), new TypedValue(null)));
+        }
+
+        assertEquals(
+                Arrays.asList(
+                        Arrays.asList("a", "b", 3.0),
+                        Arrays.asList("c", null, 1.5),
+                        Arrays.asList("d", "e", null)),
+                new ParquetDecoder(path).getRows());
+    }
+
+    /** A column whose values are all null, in a row-group, is still valid. */
+    @Test
+    void testAllNull() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("nulls.parquet");
+        try (ParquetWriter writer = ParquetWriter.create(path, HEADERS)) {
+            writer.writeRow(Arrays.asList("a", null), new double[] {1.0});
+            writer.writeRow(Arrays.asList("b", null), new double[] {2.0});
+        }
+
+        assertEquals(
+                Arrays.asList(Arrays.asList("a", null, 1.0), Arrays.asList("b", null, 2.0)),
+                new ParquetDecoder(path).getRows());
+    }
+
+    /**
+     * A row with a different number of columns to the first row is rejected immediately, without
+     * affecting other rows.
+     */
+    @Test
+    void testInconsistentRows() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("inconsistent.parquet");
+        try (ParquetWriter writer = ParquetWriter.create(path, HEADERS)) {
+            writer.writeRow(Arrays.asList("id", "group"), new double[] {1.0});
+            assertThrows(
+                    OutputWriteFailedException.class,
+                    () -> writer.writeRow(Arrays.asList("id", "group"), new double[] {1.0, 2.0}));
+            writer.writeRow(Arrays.asList("id2", "group"), new double[] {2.0});
+        }
+        assertEquals(2, new ParquetDecoder(path).getRows().size());
+    }
+
+    /** A value that is not a number, in a numeric column, is rejected immediately. */
+    @Test
+    void testNonNumeric() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("nonNumeric.parquet");
+        try (ParquetWriter writer = ParquetWriter.create(path, HEADERS)) {
+            writer.writeRow(
+                    Arrays.asList(new TypedValue("a"), new TypedValue("b"), new TypedValue(3)));
+            List<TypedValue> invalid =
+                    Arrays.asList(new TypedValue("c"), new TypedValue("d"), new TypedValue("e"));
+            assertThrows(OutputWriteFailedException.class, () -> writer.writeRow(invalid));
+        }
+        assertEquals(
+                Arrays.asList(Arrays.asList("a", "b", 3.0)), new ParquetDecoder(path).getRows());
+    }
+
+    /** A file with no rows is still valid, with a text column for each header. */
+    @Test
+    void testEmpty() throws OutputWriteFailedException, IOException {
+        Path path = directory.resolve("empty.parquet");
+        ParquetWriter.create(path, HEADERS).close();
+
+        ParquetDecoder decoded = new ParquetDecoder(path);
+        assertEquals(HEADERS, decoded.getColumnNames());
+        assertEquals(0, decoded.getRows().size());
+    }
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.anchoranalysis.core.log.Logger;
 import org.anchoranalysis.core.log.error.ErrorReporter;
 import org.anchoranalysis.io.input.file.NamedFile;
 
@@ -118,6 +119,29 @@ public interface InputFromManager {
         }
     }
 
+    /**
+     * Reads, in advance, any content of the input that is expensive to load, so it is already in
+     * memory when the input is later processed.
+     *
+     * <p>This is best-effort. It is called at most once, possibly on a different thread to the one
+     * that later processes the input. It may not be called at all, and usually completes before
+     * processing begins, but this is not guaranteed: if the processing thread is interrupted while
+     * waiting, processing begins while this may still be executing, or even after {@link #close}.
+     * Any content it reads must therefore be published safely, and processing must not depend on
+     * it, reading the content as normal if it is absent.
+     *
+     * <p>Any failure is ignored, so that it reoccurs (and is reported) when the input is processed.
+     *
+     * <p>By default, nothing is read in advance.
+     *
+     * @param logger a logger for any non-fatal errors.
+     * @return an estimate of the number of bytes of memory occupied by the content read in advance,
+     *     or zero if nothing was read.
+     */
+    default long prefetch(Logger logger) {
+        return 0;
+    }
+
     /**
      * Performs all tidying up, file-closing etc. after we are finished using the {@link
      * InputFromManager}
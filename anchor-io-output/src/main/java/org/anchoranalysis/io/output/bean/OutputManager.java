@@ -85,6 +85,16 @@ public class OutputManager extends AnchorBean<OutputManager> {
     /** Which outputs are enabled or not enabled. If null, default rules are used instead. */
     @BeanField @OptionalBean @Getter @Setter private OutputEnabledRules outputsEnabled;
 
+    /**
+     * When true, elements are written as entries in a single ZIP file in the output directory,
+     * rather than as separate files.
+     *
+     * <p>This is much faster when many small files are outputted, especially on network storage.
+     * Outputs whose file-paths are requested directly (e.g. CSV files) are still written as
+     * separate files.
+     */
+    @BeanField @Getter @Setter private boolean container = false;
+
     // END BEAN PROPERTIES
 
     /**
@@ -117,6 +127,9 @@ public class OutputManager extends AnchorBean<OutputManager> {
      *
      * <p>i.e. this is not an outputter for a specific job.
      *
+     * <p>When {@code container} is true, {@link OutputterChecked#closeContainer} must be called
+     * after the last write.
+     *
      * @param experimentIdentifier if defined, an identifier for the experiment, to be included in
      *     the directory root.
      * @param recordedOutputs if defined, remembers which outputs are written or not.
@@ -128,6 +141,8 @@ public class OutputManager extends AnchorBean<OutputManager> {
      * @param callUponDirectoryCreation when defined, this {@code consumer} is called (with the
      *     directory path) when the directory is first created, as it is created lazily only when
      *     first needed.
+     * @param reuseExistingDirectory when true, any existing output directory (and its contents) is
+     *     reused, rather than being deleted or causing an error.
      * @param logger logger for warning for information messages when outputting.
      * @return a newly created outputter.
      * @throws BindFailedException when an outputter cannot be successfully bound to an output
@@ -140,6 +155,7 @@ public class OutputManager extends AnchorBean<OutputManager> {
             OutputWriteContext writeContext,
             PathPrefixerContext prefixerContext,
             Optional<Consumer<Path>> callUponDirectoryCreation,
+            boolean reuseExistingDirectory,
             Optional<Logger> logger)
             throws BindFailedException {
 
@@ -147,14 +163,22 @@ public class OutputManager extends AnchorBean<OutputManager> {
             DirectoryWithPrefix prefix =
                     prefixer.rootDirectoryPrefix(experimentIdentifier, prefixerContext);
 
-            return OutputterChecked.createWithPrefix(
-                    prefix,
-                    outputsEnabled,
-                    writeContext,
-                    recordedOutputs,
-                    new DirectoryCreationParameters(
-                            silentlyDeleteExisting, callUponDirectoryCreation),
-                    logger);
+            OutputterChecked outputter =
+                    OutputterChecked.createWithPrefix(
+                            prefix,
+                            outputsEnabled,
+                            writeContext,
+                            recordedOutputs,
+                            new DirectoryCreationParameters(
+                                    silentlyDeleteExisting,
+                                    reuseExistingDirectory,
+                                    callUponDirectoryCreation),
+                            logger);
+            if (container) {
+                return outputter.writeElementsToContainer();
+            } else {
+                return outputter;
+            }
 
         } catch (PathPrefixerException e) {
             throw new BindFailedException(e);
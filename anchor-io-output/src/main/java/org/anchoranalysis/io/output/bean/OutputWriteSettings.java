@@ -61,6 +61,24 @@ public class OutputWriteSettings extends AnchorBean<OutputWriteSettings> {
      */
     @BeanField @OptionalBean @Getter @Setter private List<NamedBean<?>> writers;
 
+    /**
+     * How many threads write the outputs of jobs asynchronously, so that writing overlaps with
+     * computation.
+     *
+     * <p>0 disables, so outputs are written synchronously on the thread of the job.
+     *
+     * <p>When enabled, an element may be written after the call to write it has returned, so it
+     * must not be modified after being supplied. Outputs written while writing another output are
+     * written synchronously.
+     */
+    @BeanField @Getter @Setter private int asynchronousWriteThreads = 0;
+
+    /**
+     * The maximum number of asynchronous writes that may be outstanding, before a job blocks when
+     * writing a further output.
+     */
+    @BeanField @Getter @Setter private int asynchronousWriteCapacity = 16;
+
     // END BEAN PROPERTIES
 
     // Contains instances for each writer
@@ -0,0 +1,292 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.output.container;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import lombok.Getter;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A single ZIP file, into which outputs are written as separate entries, instead of as separate
+ * files on the filesystem.
+ *
+ * <p>Each output is first written to a <i>staging</i> path, in a temporary directory, and then
+ * appended to the ZIP file (<i>stored</i> without compression), after which the staged file is
+ * deleted. The name of each entry is its path relative to {@code rootDirectory}.
+ *
+ * <p>Outputs may be added concurrently from many threads. Each reserves a region at the end of the
+ * file by atomically incrementing the file-length, and then writes to that region independently of
+ * any other thread. No lock is held while writing.
+ *
+ * <p>The ZIP file is only created when the first output is added, and is only valid after {@link
+ * #close} is called.
+ *
+ * <p>If a ZIP file already exists in {@code rootDirectory}, e.g. from an earlier run of an
+ * experiment that is being resumed, its entries are retained, and further outputs are appended
+ * after them. The existing entries are recovered from their local headers, so this also succeeds
+ * for a file that was never completed. An existing entry is replaced by any output added with the
+ * same name.
+ *
+ * @author Owen Feehan
+ */
+public class OutputContainer {
+
+    /** The file-name of the ZIP file, in {@code rootDirectory}. */
+    public static final String FILE_NAME = "outputs.zip";
+
+    /** The size of the buffer used when calculating the checksum of a staged file. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The directory in which the ZIP file is located, and to which entry names are relative. */
+    @Getter private final Path rootDirectory;
+
+    /** The temporary directory in which outputs are written, before being added to the ZIP file. */
+    private final Path stagingDirectory;
+
+    /** The last-modified time assigned to every entry, encoded in MS-DOS format. */
+    private final int time = ZipRecords.dosTime(LocalDateTime.now());
+
+    /** The number of bytes reserved so far in the ZIP file. */
+    private final AtomicLong length = new AtomicLong();
+
+    /** The entries added so far. */
+    private final Queue<ZipRecords.Entry> entries = new ConcurrentLinkedQueue<>();
+
+    /** The entries that already existed in the ZIP file, before it was opened. */
+    private List<ZipRecords.Entry> existingEntries = Collections.emptyList();
+
+    /** The open ZIP file, or null if it has not yet been created. */
+    private volatile FileChannel channel; // NOSONAR
+
+    /**
+     * Creates for a particular root directory.
+     *
+     * @param rootDirectory the directory in which the ZIP file is located, and to which entry names
+     *     are relative.
+     * @throws IOException if the temporary staging directory cannot be created.
+     */
+    public OutputContainer(Path rootDirectory) throws IOException {
+        this.rootDirectory = rootDirectory.normalize();
+        this.stagingDirectory = Files.createTempDirectory("anchorOutputContainer");
+    }
+
+    /**
+     * The path to which an output should be written, before being added to the container.
+     *
+     * <p>Any necessary parent directories of the staging path are created.
+     *
+     * @param path the path at which the output would be written, if no container was used.
+     * @return the path to write to instead, or {@link Optional#empty} if {@code path} does not
+     *     reside in {@code rootDirectory}, and so cannot be placed in the container.
+     */
+    public Optional<Path> stagingPathFor(Path path) {
+        Path normalized = path.normalize();
+        if (!normalized.startsWith(rootDirectory) || normalized.equals(rootDirectory)) {
+            return Optional.empty();
+        }
+        Path staged = stagingDirectory.resolve(rootDirectory.relativize(normalized).toString());
+        staged.getParent().toFile().mkdirs();
+        return Optional.of(staged);
+    }
+
+    /**
+     * Adds a staged output to the container, and deletes the staged file.
+     *
+     * <p>If no file exists at {@code stagedPath}, nothing is added.
+     *
+     * @param stagedPath a path previously returned by {@link #stagingPathFor}.
+     * @throws OutputWriteFailedException if the output cannot be added.
+     */
+    public void add(Path stagedPath) throws OutputWriteFailedException {
+        if (!Files.isRegularFile(stagedPath)) {
+            return;
+        }
+        try {
+            long size = Files.size(stagedPath);
+            byte[] name = entryName(stagedPath);
+            long crc = checksum(stagedPath);
+            ByteBuffer header = ZipRecords.localHeader(name, crc, size, time);
+            int headerSize = header.remaining();
+
+            FileChannel file = openChannel();
+            long offset = length.getAndAdd(headerSize + size);
+            writeFully(file, header, offset);
+            try (FileChannel staged = FileChannel.open(stagedPath)) {
+                long position = offset + headerSize;
+                long transferred = 0;
+                while (transferred < size) {
+                    long count =
+                            file.transferFrom(staged, position + transferred, size - transferred);
+                    if (count <= 0) {
+                        throw new IOException(
+                                String.format(
+                                        "No progress copying %s after %d of %d bytes",
+                                        stagedPath, transferred, size));
+                    }
+                    transferred += count;
+                }
+            }
+            entries.add(new ZipRecords.Entry(name, crc, size, offset));
+            Files.delete(stagedPath);
+        } catch (IOException e) {
+            throw new OutputWriteFailedException(e);
+        }
+    }
+
+    /**
+     * Completes the ZIP file, by writing its central directory, and deletes the staging directory.
+     *
+     * <p>The central directory lists both the existing entries and those added, and any bytes
+     * after it, e.g. from an earlier central directory, are removed.
+     *
+     * <p>No further outputs should be added after calling this method.
+     *
+     * @throws OutputWriteFailedException if the ZIP file cannot be completed.
+     */
+    public synchronized void close() throws OutputWriteFailedException {
+        try {
+            if (channel != null || Files.exists(path())) {
+                FileChannel file = openChannel();
+                long offset = length.get();
+                ByteBuffer end = ZipRecords.centralDirectoryAndEnd(allEntries(), offset, time);
+                writeFully(file, end, offset);
+                file.truncate(offset + end.limit());
+                file.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            throw new OutputWriteFailedException(e);
+        } finally {
+            FileUtils.deleteQuietly(stagingDirectory.toFile());
+        }
+    }
+
+    /**
+     * The open ZIP file, opening it on the first call.
+     *
+     * <p>If the file already exists, its entries are recovered, and the file-length is set to
+     * where they finish, so that any earlier central directory is overwritten.
+     */
+    private FileChannel openChannel() throws IOException {
+        FileChannel existing = channel;
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            if (channel == null) {
+                FileChannel file =
+                        FileChannel.open(
+                                path(),
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+                try {
+                    ZipRecords.Recovered recovered = ZipRecords.recoverEntries(file);
+                    existingEntries = recovered.getEntries();
+                    length.set(recovered.getLength());
+                } catch (IOException e) {
+                    file.close();
+                    throw e;
+                }
+                channel = file;
+            }
+            return channel;
+        }
+    }
+
+    /** The path of the ZIP file. */
+    private Path path() {
+        return rootDirectory.resolve(FILE_NAME);
+    }
+
+    /**
+     * The existing entries that have not been replaced by an added entry, followed by the added
+     * entries.
+     */
+    private List<ZipRecords.Entry> allEntries() {
+        Set<String> addedNames = new HashSet<>();
+        for (ZipRecords.Entry entry : entries) {
+            addedNames.add(new String(entry.getName(), StandardCharsets.UTF_8));
+        }
+        List<ZipRecords.Entry> all = new ArrayList<>();
+        for (ZipRecords.Entry entry : existingEntries) {
+            if (!addedNames.contains(new String(entry.getName(), StandardCharsets.UTF_8))) {
+                all.add(entry);
+            }
+        }
+        all.addAll(entries);
+        return all;
+    }
+
+    /** The name of the entry for a staged file, with forward-slashes separating directories. */
+    private byte[] entryName(Path stagedPath) {
+        String name = stagingDirectory.relativize(stagedPath).toString().replace('\\', '/');
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Writes all remaining bytes in a buffer to a particular position in a file. */
+    private static void writeFully(FileChannel file, ByteBuffer buffer, long position)
+            throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += file.write(buffer, position + written);
+        }
+    }
+
+    /** Calculates the CRC-32 checksum of all bytes in a file. */
+    private static long checksum(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream stream = Files.newInputStream(path)) {
+            int read = stream.read(buffer);
+            while (read != -1) {
+                crc.update(buffer, 0, read);
+                read = stream.read(buffer);
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,371 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.output.container;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+/**
+ * Encodes, and recovers, the records of a <a
+ * href="https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT">ZIP file</a>, for entries
+ * that are <i>stored</i> without any compression.
+ *
+ * <p>ZIP64 extensions are used, only when a size, offset or the number of entries is too large for
+ * the original format.
+ *
+ * <p>Entries are recovered from the local headers that precede them, rather than from the central
+ * directory, so that entries can also be recovered from a file that was never completed.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class ZipRecords {
+
+    /** An entry that has been written to the ZIP file. */
+    @Value
+    public static class Entry {
+
+        /** The name of the entry, encoded as UTF-8. */
+        private byte[] name;
+
+        /** The CRC-32 checksum of the bytes of the entry. */
+        private long crc;
+
+        /** The number of bytes in the entry. */
+        private long size;
+
+        /** The offset in the file of the entry's local header. */
+        private long offset;
+    }
+
+    /** The entries recovered from an existing ZIP file. */
+    @Value
+    public static class Recovered {
+
+        /** The entries whose bytes are intact, in the order they occur in the file. */
+        private List<Entry> entries;
+
+        /**
+         * The offset immediately after the last local header and bytes that could be read, at
+         * which further entries may be written.
+         */
+        private long length;
+    }
+
+    /** The largest value that can be stored without a ZIP64 extension, for sizes and offsets. */
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    /** The largest number of entries that can be stored without a ZIP64 extension. */
+    private static final int MAX_16 = 0xFFFF;
+
+    private static final int SIGNATURE_LOCAL = 0x04034b50;
+    private static final int SIGNATURE_CENTRAL = 0x02014b50;
+    private static final int SIGNATURE_END = 0x06054b50;
+    private static final int SIGNATURE_END_ZIP64 = 0x06064b50;
+    private static final int SIGNATURE_LOCATOR_ZIP64 = 0x07064b50;
+
+    /** Identifies the ZIP64 extended-information extra-field. */
+    private static final short EXTRA_ZIP64 = 0x0001;
+
+    /** Version 2.0 of the specification. */
+    private static final short VERSION_DEFAULT = 20;
+
+    /** Version 4.5 of the specification, needed for ZIP64. */
+    private static final short VERSION_ZIP64 = 45;
+
+    /** Flag indicating that the entry name is encoded as UTF-8. */
+    private static final short FLAG_UTF8 = 0x0800;
+
+    /** The <i>stored</i> compression-method, indicating no compression. */
+    private static final short METHOD_STORED = 0;
+
+    /** The size of a local header, excluding the name and extra-field. */
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    /** The size of the buffer used when calculating the checksum of an existing entry. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Encodes the local header that precedes the bytes of an entry.
+     *
+     * @param name the name of the entry, encoded as UTF-8.
+     * @param crc the CRC-32 checksum of the bytes of the entry.
+     * @param size the number of bytes in the entry.
+     * @param time the last-modified time of the entry, encoded in MS-DOS format.
+     * @return the encoded header, ready to be written.
+     */
+    public static ByteBuffer localHeader(byte[] name, long crc, long size, int time) {
+        boolean zip64 = size >= MAX_32;
+        ByteBuffer buffer = allocate(30 + name.length + (zip64 ? 20 : 0));
+        buffer.putInt(SIGNATURE_LOCAL);
+        buffer.putShort(zip64 ? VERSION_ZIP64 : VERSION_DEFAULT);
+        buffer.putShort(FLAG_UTF8);
+        buffer.putShort(METHOD_STORED);
+        buffer.putInt(time);
+        buffer.putInt((int) crc);
+        buffer.putInt((int) Math.min(size, MAX_32));
+        buffer.putInt((int) Math.min(size, MAX_32));
+        buffer.putShort((short) name.length);
+        buffer.putShort((short) (zip64 ? 20 : 0));
+        buffer.put(name);
+        if (zip64) {
+            buffer.putShort(EXTRA_ZIP64);
+            buffer.putShort((short) 16);
+            buffer.putLong(size);
+            buffer.putLong(size);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the central directory and the end records, that together complete a ZIP file.
+     *
+     * @param entries the entries in the file.
+     * @param offset the offset in the file at which the central directory begins.
+     * @param time the last-modified time of each entry, encoded in MS-DOS format.
+     * @return the encoded records, ready to be written.
+     */
+    public static ByteBuffer centralDirectoryAndEnd(
+            Collection<Entry> entries, long offset, int time) {
+        int size = 0;
+        for (Entry entry : entries) {
+            size += 46 + entry.getName().length + centralExtraSize(entry);
+        }
+
+        boolean zip64 = entries.size() >= MAX_16 || offset >= MAX_32 || size >= MAX_32;
+
+        ByteBuffer buffer = allocate(size + (zip64 ? 56 + 20 : 0) + 22);
+        for (Entry entry : entries) {
+            putCentralHeader(buffer, entry, time);
+        }
+
+        if (zip64) {
+            long offsetEnd64 = offset + size;
+            buffer.putInt(SIGNATURE_END_ZIP64);
+            buffer.putLong(44);
+            buffer.putShort(VERSION_ZIP64);
+            buffer.putShort(VERSION_ZIP64);
+            buffer.putInt(0);
+            buffer.putInt(0);
+            buffer.putLong(entries.size());
+            buffer.putLong(entries.size());
+            buffer.putLong(size);
+            buffer.putLong(offset);
+
+            buffer.putInt(SIGNATURE_LOCATOR_ZIP64);
+            buffer.putInt(0);
+            buffer.putLong(offsetEnd64);
+            buffer.putInt(1);
+        }
+
+        buffer.putInt(SIGNATURE_END);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) Math.min(entries.size(), MAX_16));
+        buffer.putShort((short) Math.min(entries.size(), MAX_16));
+        buffer.putInt((int) Math.min(size, MAX_32));
+        buffer.putInt((int) Math.min(offset, MAX_32));
+        buffer.putShort((short) 0);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Recovers the entries from an existing ZIP file, by reading each local header in turn.
+     *
+     * <p>Reading stops at the first position that does not contain a complete local header, such
+     * as the central directory, or a region that was reserved but never written. An entry whose
+     * bytes are incomplete, or do not match their checksum, is skipped.
+     *
+     * @param file the ZIP file to read from, which must be readable.
+     * @return the intact entries, and the offset at which reading stopped.
+     * @throws IOException if the file cannot be read.
+     */
+    public static Recovered recoverEntries(FileChannel file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long fileSize = file.size();
+        long position = 0;
+        while (position + LOCAL_HEADER_SIZE <= fileSize) {
+            ByteBuffer header = allocate(LOCAL_HEADER_SIZE);
+            readFully(file, header, position);
+            if (header.getInt(0) != SIGNATURE_LOCAL) {
+                break;
+            }
+            long crc = header.getInt(14) & MAX_32;
+            long size = header.getInt(22) & MAX_32;
+            int nameLength = header.getShort(26) & MAX_16;
+            int extraLength = header.getShort(28) & MAX_16;
+
+            long start = position + LOCAL_HEADER_SIZE + nameLength + extraLength;
+            if (start > fileSize) {
+                break;
+            }
+            ByteBuffer variable = allocate(nameLength + extraLength);
+            readFully(file, variable, position + LOCAL_HEADER_SIZE);
+            byte[] name = new byte[nameLength];
+            variable.get(0, name);
+            if (size == MAX_32) {
+                size = sizeFromExtra(variable, nameLength);
+            }
+
+            if (size < 0 || start + size > fileSize) {
+                break;
+            }
+            if (checksum(file, start, size) == crc) {
+                entries.add(new Entry(name, crc, size, position));
+            }
+            position = start + size;
+        }
+        return new Recovered(entries, position);
+    }
+
+    /**
+     * Encodes a time in the MS-DOS format used by ZIP files.
+     *
+     * @param time the time to encode.
+     * @return the date in the upper 16 bits, and the time in the lower 16 bits.
+     */
+    public static int dosTime(LocalDateTime time) {
+        int date =
+                ((time.getYear() - 1980) << 9)
+                        | (time.getMonthValue() << 5)
+                        | time.getDayOfMonth();
+        int clock = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2);
+        return (date << 16) | clock;
+    }
+
+    /** Encodes the header for an entry in the central directory. */
+    private static void putCentralHeader(ByteBuffer buffer, Entry entry, int time) {
+        int extraSize = centralExtraSize(entry);
+        short version = extraSize > 0 ? VERSION_ZIP64 : VERSION_DEFAULT;
+        buffer.putInt(SIGNATURE_CENTRAL);
+        buffer.putShort(version);
+        buffer.putShort(version);
+        buffer.putShort(FLAG_UTF8);
+        buffer.putShort(METHOD_STORED);
+        buffer.putInt(time);
+        buffer.putInt((int) entry.getCrc());
+        buffer.putInt((int) Math.min(entry.getSize(), MAX_32));
+        buffer.putInt((int) Math.min(entry.getSize(), MAX_32));
+        buffer.putShort((short) entry.getName().length);
+        buffer.putShort((short) extraSize);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putInt(0);
+        buffer.putInt((int) Math.min(entry.getOffset(), MAX_32));
+        buffer.put(entry.getName());
+        if (extraSize > 0) {
+            buffer.putShort(EXTRA_ZIP64);
+            buffer.putShort((short) (extraSize - 4));
+            if (entry.getSize() >= MAX_32) {
+                buffer.putLong(entry.getSize());
+                buffer.putLong(entry.getSize());
+            }
+            if (entry.getOffset() >= MAX_32) {
+                buffer.putLong(entry.getOffset());
+            }
+        }
+    }
+
+    /**
+     * The size of an entry from the ZIP64 extra-field of a local header, or -1 if the field is
+     * absent.
+     */
+    private static long sizeFromExtra(ByteBuffer variable, int start) {
+        int position = start;
+        while (position + 4 <= variable.limit()) {
+            short identifier = variable.getShort(position);
+            int fieldSize = variable.getShort(position + 2) & MAX_16;
+            if (identifier == EXTRA_ZIP64 && fieldSize >= 8) {
+                return variable.getLong(position + 4);
+            }
+            position += 4 + fieldSize;
+        }
+        return -1;
+    }
+
+    /** Calculates the CRC-32 checksum of a region of a file. */
+    private static long checksum(FileChannel file, long start, long size) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long read = 0;
+        while (read < size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, size - read));
+            readFully(file, buffer, start + read);
+            buffer.flip();
+            crc.update(buffer);
+            read += buffer.limit();
+        }
+        return crc.getValue();
+    }
+
+    /** Fills a buffer with bytes read from a particular position in a file. */
+    private static void readFully(FileChannel file, ByteBuffer buffer, long position)
+            throws IOException {
+        long read = 0;
+        while (buffer.hasRemaining()) {
+            int count = file.read(buffer, position + read);
+            if (count <= 0) {
+                throw new IOException("Unexpected end of file at position " + (position + read));
+            }
+            read += count;
+        }
+    }
+
+    /**
+     * The size of the ZIP64 extra-field for an entry in the central directory, or zero if none is
+     * needed.
+     */
+    private static int centralExtraSize(Entry entry) {
+        int size = 0;
+        if (entry.getSize() >= MAX_32) {
+            size += 16;
+        }
+        if (entry.getOffset() >= MAX_32) {
+            size += 8;
+        }
+        return size > 0 ? size + 4 : 0;
+    }
+
+    /** Allocates a buffer, with the little-endian byte-order that ZIP files use. */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -45,10 +45,18 @@ public class DirectoryCreationParameters {
      * anew.
      *
      * <p>When false, an exception is thrown if an existing directory with the same path already
-     * exists.
+     * exists, unless {@code reuseExistingDirectory} is true.
      */
     private final boolean deleteExistingDirectory;
 
+    /**
+     * When true, any existing directory with the same path is used as it is, without deleting its
+     * contents or throwing an exception.
+     *
+     * <p>This allows a previous experiment's outputs to be retained, for example when resuming.
+     */
+    private final boolean reuseExistingDirectory;
+
     /**
      * When defined, this {@code consumer} is called when the directory is first created, as it is
      * created lazily only when first needed.
@@ -63,6 +71,7 @@ public class DirectoryCreationParameters {
      */
     public DirectoryCreationParameters() {
         this.deleteExistingDirectory = false;
+        this.reuseExistingDirectory = false;
         this.callUponDirectoryCreation = Optional.empty();
     }
 }
@@ -26,6 +26,7 @@
 package org.anchoranalysis.io.output.outputter;
 
 import java.util.Optional;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.anchoranalysis.bean.BeanInstanceMap;
@@ -35,13 +36,16 @@ import org.anchoranalysis.core.format.ImageFileFormat;
 import org.anchoranalysis.core.time.ExecutionTimeRecorder;
 import org.anchoranalysis.core.time.ExecutionTimeRecorderIgnore;
 import org.anchoranalysis.io.output.bean.OutputWriteSettings;
+import org.anchoranalysis.io.output.container.OutputContainer;
+import org.anchoranalysis.io.output.writer.AsynchronousWriteQueue;
+import org.anchoranalysis.io.output.writer.PendingWrites;
 
 /**
  * Settings and user-arguments for writing files.
  *
  * @author Owen Feehan
  */
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class OutputWriteContext {
 
     /** User-define settings for outputting in output-manager. */
@@ -53,6 +57,23 @@ public class OutputWriteContext {
     /** Records the execution time of particular operations. */
     @Getter private ExecutionTimeRecorder executionTimeRecorder;
 
+    /** Where asynchronous writes are executed, if enabled in {@code settings}. */
+    private final Optional<AsynchronousWriteQueue> asynchronousWrites;
+
+    /**
+     * Writes that are tracked together, and which occur asynchronously, if defined.
+     *
+     * <p>When not defined, writes occur synchronously.
+     */
+    @Getter private final Optional<PendingWrites> pendingWrites;
+
+    /**
+     * A single container file into which elements are written, if defined.
+     *
+     * <p>When not defined, each element is written as separate file(s) on the filesystem.
+     */
+    @Getter private final Optional<OutputContainer> container;
+
     /** Create with default state, including no default beans assigned. */
     public OutputWriteContext() {
         this(createAndInitializeSettings());
@@ -64,9 +85,75 @@ public class OutputWriteContext {
      * @param settings the settings.
      */
     public OutputWriteContext(OutputWriteSettings settings) {
-        this.settings = settings;
-        suggestedFormatToWrite = Optional.empty();
-        executionTimeRecorder = ExecutionTimeRecorderIgnore.instance();
+        this(settings, Optional.empty(), ExecutionTimeRecorderIgnore.instance());
+    }
+
+    /**
+     * Create with particular settings, file-format and execution-time recorder.
+     *
+     * <p>Writes occur synchronously, until {@link #trackWritesSeparately} is called.
+     *
+     * @param settings user-define settings for outputting in output-manager.
+     * @param suggestedFormatToWrite a suggestion on what file-format to write.
+     * @param executionTimeRecorder records the execution time of particular operations.
+     */
+    public OutputWriteContext(
+            OutputWriteSettings settings,
+            Optional<ImageFileFormat> suggestedFormatToWrite,
+            ExecutionTimeRecorder executionTimeRecorder) {
+        this(
+                settings,
+                suggestedFormatToWrite,
+                executionTimeRecorder,
+                createQueue(settings),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    /**
+     * Derives a context, whose writes are tracked separately from any other context.
+     *
+     * <p>If asynchronous writing is enabled in the settings, the writes occur asynchronously, and
+     * must be awaited via {@link PendingWrites#awaitCompletion}.
+     *
+     * @return a newly created context, otherwise identical to this context.
+     */
+    public OutputWriteContext trackWritesSeparately() {
+        return new OutputWriteContext(
+                settings,
+                suggestedFormatToWrite,
+                executionTimeRecorder,
+                asynchronousWrites,
+                asynchronousWrites.map(PendingWrites::new),
+                container);
+    }
+
+    /**
+     * Derives a context, whose elements are written into a container, rather than as separate
+     * files.
+     *
+     * @param containerToAssign the container to write elements into.
+     * @return a newly created context, otherwise identical to this context.
+     */
+    public OutputWriteContext assignContainer(OutputContainer containerToAssign) {
+        return new OutputWriteContext(
+                settings,
+                suggestedFormatToWrite,
+                executionTimeRecorder,
+                asynchronousWrites,
+                pendingWrites,
+                Optional.of(containerToAssign));
+    }
+
+    private static Optional<AsynchronousWriteQueue> createQueue(OutputWriteSettings settings) {
+        if (settings.getAsynchronousWriteThreads() > 0) {
+            return Optional.of(
+                    new AsynchronousWriteQueue(
+                            settings.getAsynchronousWriteThreads(),
+                            settings.getAsynchronousWriteCapacity()));
+        } else {
+            return Optional.empty();
+        }
     }
 
     private static OutputWriteSettings createAndInitializeSettings() {
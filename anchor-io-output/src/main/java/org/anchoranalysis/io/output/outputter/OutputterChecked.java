@@ -26,20 +26,25 @@
 
 package org.anchoranalysis.io.output.outputter;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Optional;
 import lombok.Getter;
 import org.anchoranalysis.core.exception.friendly.AnchorImpossibleSituationException;
 import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.log.error.ErrorReporter;
 import org.anchoranalysis.io.output.bean.OutputManager;
 import org.anchoranalysis.io.output.bean.OutputWriteSettings;
 import org.anchoranalysis.io.output.bean.rules.Permissive;
+import org.anchoranalysis.io.output.container.OutputContainer;
 import org.anchoranalysis.io.output.enabled.multi.MultiLevelOutputEnabled;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
 import org.anchoranalysis.io.output.outputter.directory.OutputterTarget;
 import org.anchoranalysis.io.output.path.prefixer.DirectoryWithPrefix;
 import org.anchoranalysis.io.output.recorded.MultiLevelRecordedOutputs;
 import org.anchoranalysis.io.output.recorded.RecordingWriters;
 import org.anchoranalysis.io.output.writer.ElementOutputter;
+import org.anchoranalysis.io.output.writer.PendingWrites;
 
 /**
  * A particular directory on the filesystem in which outputting can occur.
@@ -176,6 +181,85 @@ public class OutputterChecked {
                 Optional.empty());
     }
 
+    /**
+     * Creates a {@link OutputterChecked} whose writes (and those of any derived outputters) are
+     * tracked separately from other outputters.
+     *
+     * <p>If asynchronous writing is enabled in the settings, writes then occur asynchronously, and
+     * {@link #awaitWrites} must be called after the last write.
+     *
+     * @return a newly created {@link OutputterChecked}, otherwise identical to this outputter.
+     */
+    public OutputterChecked trackWritesSeparately() {
+        return new OutputterChecked(
+                target, outputsEnabled, recordedOutputs, context.trackWritesSeparately(), logger);
+    }
+
+    /**
+     * Creates a {@link OutputterChecked} whose elements (and those of any derived outputters) are
+     * written into a single {@link OutputContainer} in the output directory.
+     *
+     * <p>This avoids creating a separate file for every element, which can be slow, especially on
+     * network storage. Files whose paths are requested directly, via {@link
+     * org.anchoranalysis.io.output.writer.Writer#createFilenameForWriting}, are unaffected.
+     *
+     * <p>{@link #closeContainer} must be called after the last write.
+     *
+     * @return a newly created {@link OutputterChecked}, otherwise identical to this outputter.
+     * @throws BindFailedException if the container cannot be created.
+     */
+    public OutputterChecked writeElementsToContainer() throws BindFailedException {
+        try {
+            OutputContainer container = new OutputContainer(getOutputDirectory());
+            return new OutputterChecked(
+                    target,
+                    outputsEnabled,
+                    recordedOutputs,
+                    context.assignContainer(container),
+                    logger);
+        } catch (IOException e) {
+            throw new BindFailedException(e);
+        }
+    }
+
+    /**
+     * Completes the {@link OutputContainer} into which elements are written.
+     *
+     * <p>This has no effect, if elements are not written to a container.
+     *
+     * @throws OutputWriteFailedException if the container cannot be completed.
+     */
+    public void closeContainer() throws OutputWriteFailedException {
+        if (context.getContainer().isPresent()) {
+            context.getContainer().get().close();
+        }
+    }
+
+    /**
+     * Waits until any asynchronous writes, tracked with this outputter, have completed.
+     *
+     * <p>This has no effect, if writes occur synchronously.
+     *
+     * @param errorReporter where any failures of asynchronous writes are reported.
+     * @return true if every asynchronous write succeeded (or none occurred), false if at least one
+     *     failed.
+     */
+    public boolean awaitWrites(ErrorReporter errorReporter) {
+        return context.getPendingWrites()
+                .map(writes -> writes.awaitCompletion(errorReporter))
+                .orElse(true);
+    }
+
+    /**
+     * Merges any output-names recorded by the current thread, so they are no longer buffered.
+     *
+     * <p>This should be called when the current thread has finished writing outputs, e.g. at the
+     * end of a job. It has no effect, if output-names are not recorded.
+     */
+    public void mergeRecordedOutputs() {
+        recordedOutputs.ifPresent(MultiLevelRecordedOutputs::mergeThreadBuffer);
+    }
+
     /**
      * Derives a bound-output-manager for a (possibly newly created) subdirectory of the existing
      * manager
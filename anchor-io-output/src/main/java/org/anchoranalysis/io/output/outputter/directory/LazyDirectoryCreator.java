@@ -43,9 +43,13 @@ import org.apache.commons.io.FileUtils;
  * <ul>
  *   <li>checks if a directory already exists at the path, and throws an errror
  *   <li>deletes existing directory contents
+ *   <li>reuses an existing directory, leaving its contents intact
  *   <li>creates the directory and any intermediate paths
  *   <li>first calls an initiation routine on parent initializer
  * </ul>
+ *
+ * <p>The initialization routine occurs only once, even when {@link #execute} is called
+ * concurrently. After initialization, {@link #execute} no longer locks.
  */
 @RequiredArgsConstructor
 class LazyDirectoryCreator implements WriterExecuteBeforeEveryOperation {
@@ -63,6 +67,11 @@ class LazyDirectoryCreator implements WriterExecuteBeforeEveryOperation {
      */
     private final boolean deleteExisting;
 
+    /**
+     * When true, an existing directory is used as it is, and {@code deleteExisting} is ignored.
+     */
+    private final boolean reuseExisting;
+
     /**
      * A parent whose {@link #execute} is called before our {@link #execute} is called (if empty(),
      * ignored)
@@ -75,10 +84,14 @@ class LazyDirectoryCreator implements WriterExecuteBeforeEveryOperation {
     // END REQUIRED ARGUMENTS
 
     /** Has this directory already been initialized/ */
-    @Getter private boolean initialized = false;
+    @Getter private volatile boolean initialized = false;
 
     @Override
     public void execute() {
+        if (initialized) {
+            return;
+        }
+
         // A flag used to determine if we we just created the directory for the first time, so we
         // can execute subsequent code
         // after the synchronized block
@@ -88,7 +101,7 @@ class LazyDirectoryCreator implements WriterExecuteBeforeEveryOperation {
 
                 parent.ifPresent(WriterExecuteBeforeEveryOperation::execute);
 
-                if (outputDirectory.toFile().exists()) {
+                if (!reuseExisting && outputDirectory.toFile().exists()) {
                     if (deleteExisting) {
                         FileUtils.deleteQuietly(outputDirectory.toFile());
                     } else {
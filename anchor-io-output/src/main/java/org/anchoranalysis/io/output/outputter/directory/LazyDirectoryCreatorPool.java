@@ -28,10 +28,9 @@ package org.anchoranalysis.io.output.outputter.directory;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import lombok.Getter;
 import org.anchoranalysis.core.index.GetOperationFailedException;
@@ -46,6 +45,8 @@ import org.anchoranalysis.io.output.writer.WriterExecuteBeforeEveryOperation;
  * <p>Directories are first normalized, and all must exist within a particular {@code
  * rootDirectory}.
  *
+ * <p>It is thread-safe, without locking when retrieving an existing element.
+ *
  * @author Owen Feehan
  */
 class LazyDirectoryCreatorPool {
@@ -59,8 +60,8 @@ class LazyDirectoryCreatorPool {
 
     // END REQUIRED ARGUMENTS
 
-    // Cache all directories created by Path
-    private Map<Path, LazyDirectoryCreator> map = new HashMap<>();
+    /** Each directory's creator, indexed by its path relative to {@code rootDirectory}. */
+    private final ConcurrentHashMap<Path, LazyDirectoryCreator> map = new ConcurrentHashMap<>();
 
     /**
      * Creates for a root-direction
@@ -103,7 +104,7 @@ class LazyDirectoryCreatorPool {
      * @throws GetOperationFailedException if the directory-path does not reside within the {@code
      *     rootDirectory}.
      */
-    public synchronized Optional<LazyDirectoryCreator> get(Path directory)
+    public Optional<LazyDirectoryCreator> get(Path directory)
             throws GetOperationFailedException {
         return Optional.ofNullable(map.get(differenceFromRoot(directory)));
     }
@@ -160,11 +161,16 @@ class LazyDirectoryCreatorPool {
         return lazyDirectory;
     }
 
-    private synchronized LazyDirectoryCreator getOrCreate(
+    private LazyDirectoryCreator getOrCreate(
             Path key,
             Path directoryFull,
             Optional<WriterExecuteBeforeEveryOperation> opBefore,
             Optional<Consumer<Path>> opAfter) {
+        // Checked first, as the common case, to avoid any locking by computeIfAbsent
+        LazyDirectoryCreator existing = map.get(key);
+        if (existing != null) {
+            return existing;
+        }
         return map.computeIfAbsent(
                 key,
                 // The creator is bound to the full path not the partial path in the key
@@ -172,6 +178,7 @@ class LazyDirectoryCreatorPool {
                         new LazyDirectoryCreator(
                                 directoryFull,
                                 parameters.isDeleteExistingDirectory(),
+                                parameters.isReuseExistingDirectory(),
                                 opBefore,
                                 opAfter));
     }
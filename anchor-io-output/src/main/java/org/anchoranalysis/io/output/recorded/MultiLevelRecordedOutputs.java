@@ -25,9 +25,9 @@
  */
 package org.anchoranalysis.io.output.recorded;
 
-import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.anchoranalysis.core.exception.friendly.AnchorFriendlyRuntimeException;
@@ -45,7 +45,7 @@ public class MultiLevelRecordedOutputs {
     @Getter private RecordedOutputs first = new RecordedOutputs();
 
     /** A hash-map recording second-level outputs. */
-    private HashMap<String, RecordedOutputs> second = new HashMap<>();
+    private ConcurrentHashMap<String, RecordedOutputs> second = new ConcurrentHashMap<>();
 
     /**
      * A {@link RecordedOutputs} for recording second-level outputs for a given {@code outputName}
@@ -61,8 +61,18 @@ public class MultiLevelRecordedOutputs {
                     "output-name has been recorded as a second-level output, without having being recorded as a first-level output: "
                             + outputName);
         }
-        synchronized (this) {
-            return second.computeIfAbsent(outputName, name -> new RecordedOutputs());
+        return second.computeIfAbsent(outputName, name -> new RecordedOutputs());
+    }
+
+    /**
+     * Merges any output-names added by the current thread, at both levels.
+     *
+     * <p>See {@link RecordedOutputs#mergeThreadBuffer}.
+     */
+    public void mergeThreadBuffer() {
+        first.mergeThreadBuffer();
+        for (RecordedOutputs recorded : second.values()) {
+            recorded.mergeThreadBuffer();
         }
     }
 
@@ -25,8 +25,13 @@
  */
 package org.anchoranalysis.io.output.recorded;
 
+import java.util.Iterator;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.stream.Collectors;
 
 /**
@@ -41,17 +46,43 @@ import java.util.stream.Collectors;
  *
  * <p>Adding outputs to this class is a <i>thread-safe</i> operation.
  *
+ * <p>To avoid contention when many threads add outputs, each thread adds to its own buffer, which
+ * should be merged by calling {@link #mergeThreadBuffer} when the thread finishes writing outputs
+ * e.g. at the end of a job. Any buffer not yet merged is nevertheless drained into the merged
+ * names when querying, so each name is only copied once.
+ *
  * @author Owen Feehan
  */
 public class RecordedOutputs {
 
-    // TreeSet is used to ensure alphabetical ordering
+    /**
+     * Output-names added by a single thread, that have not yet been merged.
+     *
+     * <p>A name is removed from the buffer only after it has been added to the merged names, so
+     * each name always exists in at least one of the two.
+     */
+    private static class Buffer {
+
+        /** Names of outputs that have been allowed and written. */
+        private final Set<String> namesEnabled = ConcurrentHashMap.newKeySet();
+
+        /** Names of outputs that were not allowed and therefore not written. */
+        private final Set<String> namesDisabled = ConcurrentHashMap.newKeySet();
+    }
+
+    // A sorted set is used to ensure alphabetical ordering
+
+    /** Names of outputs that have been allowed and written, merged from all threads. */
+    private final Set<String> namesEnabled = new ConcurrentSkipListSet<>();
 
-    /** Names of outputs that have been allowed and written. */
-    private Set<String> namesEnabled = new TreeSet<>();
+    /** Names of outputs that were not allowed and not written, merged from all threads. */
+    private final Set<String> namesDisabled = new ConcurrentSkipListSet<>();
 
-    /** Names of outputs that were not allowed and therefore not written. */
-    private Set<String> namesDisabled = new TreeSet<>();
+    /** The buffer for the current thread, if it exists. */
+    private final ThreadLocal<Buffer> threadBuffer = new ThreadLocal<>();
+
+    /** All buffers that have not yet been merged, from any thread. */
+    private final Queue<Buffer> unmergedBuffers = new ConcurrentLinkedQueue<>();
 
     /** The maximum number of outputs to list before using a "and others" message. */
     private static final int MAX_OUTPUTS_LISTED = 8;
@@ -62,11 +93,33 @@ public class RecordedOutputs {
      * @param outputName the output-name
      * @param allowed where the output was allowed or not
      */
-    public synchronized void add(String outputName, boolean allowed) {
+    public void add(String outputName, boolean allowed) {
+        Buffer buffer = threadBuffer.get();
+        if (buffer == null) {
+            buffer = new Buffer();
+            unmergedBuffers.add(buffer);
+            threadBuffer.set(buffer);
+        }
+
         if (allowed) {
-            namesEnabled.add(outputName);
+            buffer.namesEnabled.add(outputName);
         } else {
-            namesDisabled.add(outputName);
+            buffer.namesDisabled.add(outputName);
+        }
+    }
+
+    /**
+     * Merges any output-names added by the current thread, and discards its buffer.
+     *
+     * <p>This should be called when the current thread has finished adding outputs, for a time.
+     * Any outputs subsequently added by the thread are placed in a new buffer.
+     */
+    public void mergeThreadBuffer() {
+        Buffer buffer = threadBuffer.get();
+        if (buffer != null) {
+            mergeFrom(buffer);
+            unmergedBuffers.remove(buffer);
+            threadBuffer.remove();
         }
     }
 
@@ -76,6 +129,7 @@ public class RecordedOutputs {
      * @return the number of names
      */
     public int numberEnabled() {
+        mergeUnmerged();
         return namesEnabled.size();
     }
 
@@ -85,6 +139,7 @@ public class RecordedOutputs {
      * @return the number of names
      */
     public int numberDisabled() {
+        mergeUnmerged();
         return namesDisabled.size();
     }
 
@@ -94,6 +149,7 @@ public class RecordedOutputs {
      * @return true if there is at least one output-name exists that was enabled.
      */
     public boolean hasAtLeastOneEnabled() {
+        mergeUnmerged();
         return !namesEnabled.isEmpty();
     }
 
@@ -103,6 +159,7 @@ public class RecordedOutputs {
      * @return true if there is at least one output-name exists that was disabled.
      */
     public boolean hasAtLeastOneDisabled() {
+        mergeUnmerged();
         return !namesDisabled.isEmpty();
     }
 
@@ -127,6 +184,7 @@ public class RecordedOutputs {
      * @return true iff no output-names have been recorded.
      */
     public boolean isEmpty() {
+        mergeUnmerged();
         return namesEnabled.isEmpty() && namesDisabled.isEmpty();
     }
 
@@ -138,6 +196,7 @@ public class RecordedOutputs {
      * @return the output-names as a string
      */
     public String summarizeEnabled() {
+        mergeUnmerged();
         return summarizeNames(namesEnabled, MAX_OUTPUTS_LISTED);
     }
 
@@ -149,6 +208,7 @@ public class RecordedOutputs {
      * @return the output-names as a string
      */
     public String summarizeDisabled() {
+        mergeUnmerged();
         return summarizeNames(namesDisabled, MAX_OUTPUTS_LISTED);
     }
 
@@ -175,7 +235,46 @@ public class RecordedOutputs {
      * @return true if the output-name has been recorded as enabled
      */
     public boolean isRecordedAsEnabled(String outputName) {
-        return namesEnabled.contains(outputName);
+        Buffer buffer = threadBuffer.get();
+        if (buffer != null && buffer.namesEnabled.contains(outputName)) {
+            return true;
+        }
+        if (namesEnabled.contains(outputName)) {
+            return true;
+        }
+        return unmergedBuffers.stream().anyMatch(other -> other.namesEnabled.contains(outputName));
+    }
+
+    /**
+     * Moves the output-names from all unmerged buffers into the merged names, without discarding
+     * the buffers.
+     *
+     * <p>The buffers are not discarded, as they may still be added to, by their respective
+     * threads.
+     */
+    private void mergeUnmerged() {
+        for (Buffer buffer : unmergedBuffers) {
+            mergeFrom(buffer);
+        }
+    }
+
+    /** Moves the output-names from a buffer into the merged names, leaving the buffer empty. */
+    private void mergeFrom(Buffer buffer) {
+        drain(buffer.namesEnabled, namesEnabled);
+        drain(buffer.namesDisabled, namesDisabled);
+    }
+
+    /**
+     * Moves each name from {@code source} to {@code destination}.
+     *
+     * <p>Names concurrently added to {@code source} may or may not be moved.
+     */
+    private static void drain(Set<String> source, Set<String> destination) {
+        Iterator<String> iterator = source.iterator();
+        while (iterator.hasNext()) {
+            destination.add(iterator.next());
+            iterator.remove();
+        }
     }
 
     /**
@@ -31,6 +31,7 @@ import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.anchoranalysis.io.output.error.OutputWriteFailedException;
 import org.anchoranalysis.io.output.namestyle.IndexableOutputNameStyle;
+import org.anchoranalysis.io.output.namestyle.OutputNameStyle;
 import org.anchoranalysis.io.output.namestyle.SimpleOutputNameStyle;
 import org.anchoranalysis.io.output.namestyle.WithoutOutputNameStyle;
 import org.anchoranalysis.io.output.outputter.OutputterChecked;
@@ -38,11 +39,35 @@ import org.anchoranalysis.io.output.outputter.OutputterChecked;
 /**
  * Allows every output, irrespective of whether the {@link OutputterChecked} allows the output-name.
  *
+ * <p>If the outputter tracks {@link PendingWrites}, each element is supplied synchronously, but
+ * written asynchronously. The element is not copied, so it must not be modified after it is
+ * supplied.
+ *
  * @author Owen Feehan
  */
 @RequiredArgsConstructor
 public class AlwaysAllowed implements Writer {
 
+    /**
+     * Writes an element with a particular {@link ElementWriter}.
+     *
+     * @param <T> the type of element.
+     */
+    @FunctionalInterface
+    private interface WriteOperation<T> {
+
+        /**
+         * Performs the write.
+         *
+         * @param writer the writer.
+         * @param element the element to write.
+         * @param outputter how the element is outputted.
+         * @throws OutputWriteFailedException if the write operation fails.
+         */
+        void write(ElementWriter<T> writer, T element, ElementOutputter outputter)
+                throws OutputWriteFailedException;
+    }
+
     // START REQUIRED ARGUMENTS
     /** Outputter for elements. */
     private final ElementOutputter outputter;
@@ -67,19 +92,7 @@ public class AlwaysAllowed implements Writer {
     public <T> boolean write(
             String outputName, ElementWriterSupplier<T> elementWriter, ElementSupplier<T> element)
             throws OutputWriteFailedException {
-        outputter
-                .getExecutionTimeRecorder()
-                .recordExecutionTime(
-                        outputNameForWriting(outputName),
-                        () -> {
-                            maybeExecutePreop();
-                            elementWriter
-                                    .get()
-                                    .write(
-                                            element.get(),
-                                            new SimpleOutputNameStyle(outputName),
-                                            outputter);
-                        });
+        writeElement(outputName, elementWriter, element, new SimpleOutputNameStyle(outputName));
         return true;
     }
 
@@ -90,37 +103,20 @@ public class AlwaysAllowed implements Writer {
             ElementSupplier<T> element,
             String index)
             throws OutputWriteFailedException {
-        return outputter
-                .getExecutionTimeRecorder()
-                .recordExecutionTime(
-                        outputNameForWriting(outputNameStyle.getOutputName()),
-                        () -> {
-                            maybeExecutePreop();
-                            elementWriter
-                                    .get()
-                                    .writeWithIndex(
-                                            element.get(), index, outputNameStyle, outputter);
-                            return true;
-                        });
+        writeElement(
+                outputNameStyle.getOutputName(),
+                elementWriter,
+                element,
+                (writer, toWrite, outputterForWrite) ->
+                        writer.writeWithIndex(toWrite, index, outputNameStyle, outputterForWrite));
+        return true;
     }
 
     @Override
     public <T> boolean writeWithoutName(
             String outputName, ElementWriterSupplier<T> elementWriter, ElementSupplier<T> element)
             throws OutputWriteFailedException {
-        outputter
-                .getExecutionTimeRecorder()
-                .recordExecutionTime(
-                        outputNameForWriting(outputName),
-                        () -> {
-                            maybeExecutePreop();
-                            elementWriter
-                                    .get()
-                                    .write(
-                                            element.get(),
-                                            new WithoutOutputNameStyle(outputName),
-                                            outputter);
-                        });
+        writeElement(outputName, elementWriter, element, new WithoutOutputNameStyle(outputName));
         return true;
     }
 
@@ -133,6 +129,68 @@ public class AlwaysAllowed implements Writer {
         return Optional.of(path);
     }
 
+    /** Writes a non-indexable element, with a particular {@link OutputNameStyle}. */
+    private <T> void writeElement(
+            String outputName,
+            ElementWriterSupplier<T> elementWriter,
+            ElementSupplier<T> element,
+            OutputNameStyle outputNameStyle)
+            throws OutputWriteFailedException {
+        writeElement(
+                outputName,
+                elementWriter,
+                element,
+                (writer, toWrite, outputterForWrite) ->
+                        writer.write(toWrite, outputNameStyle, outputterForWrite));
+    }
+
+    /**
+     * Writes an element, synchronously or asynchronously, recording the execution-time.
+     *
+     * <p>When asynchronous, only the {@code write} is recorded, as the element is supplied
+     * synchronously.
+     */
+    private <T> void writeElement(
+            String outputName,
+            ElementWriterSupplier<T> elementWriter,
+            ElementSupplier<T> element,
+            WriteOperation<T> write)
+            throws OutputWriteFailedException {
+        String operationIdentifier = outputNameForWriting(outputName);
+        Optional<PendingWrites> pendingWrites =
+                outputter.getOutputter().getContext().getPendingWrites();
+        if (pendingWrites.isPresent()) {
+            maybeExecutePreop();
+            ElementWriter<T> writer = elementWriter.get();
+            T toWrite = element.get();
+            pendingWrites
+                    .get()
+                    .submit(
+                            () ->
+                                    outputter
+                                            .getExecutionTimeRecorder()
+                                            .recordExecutionTime(
+                                                    operationIdentifier,
+                                                    () -> executeWrite(write, writer, toWrite)));
+        } else {
+            outputter
+                    .getExecutionTimeRecorder()
+                    .recordExecutionTime(
+                            operationIdentifier,
+                            () -> {
+                                maybeExecutePreop();
+                                executeWrite(write, elementWriter.get(), element.get());
+                            });
+        }
+    }
+
+    /** Executes a write operation, via {@link ElementOutputter#executeWrite}. */
+    private <T> void executeWrite(WriteOperation<T> write, ElementWriter<T> writer, T element)
+            throws OutputWriteFailedException {
+        outputter.executeWrite(
+                outputterForWrite -> write.write(writer, element, outputterForWrite));
+    }
+
     private void maybeExecutePreop() {
         preop.ifPresent(WriterExecuteBeforeEveryOperation::execute);
     }
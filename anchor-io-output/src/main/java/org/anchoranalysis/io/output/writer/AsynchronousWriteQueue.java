@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.output.writer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.anchoranalysis.core.functional.checked.CheckedRunnable;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+
+/**
+ * Executes write operations on dedicated background threads, with a bound on how many writes may
+ * be outstanding.
+ *
+ * <p>When the bound is reached, reserving a further write blocks until an outstanding write
+ * completes. Writes submitted from a writer thread (e.g. by a generator that itself writes
+ * outputs) should instead be executed synchronously, as they would otherwise wait on a permit that
+ * only they can release.
+ *
+ * <p>The threads terminate when idle, so no explicit shutdown is needed.
+ *
+ * @author Owen Feehan
+ */
+public class AsynchronousWriteQueue {
+
+    /** How long a thread may remain idle before terminating. */
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    /** Whether the current thread is executing a write, from any queue. */
+    private static final ThreadLocal<Boolean> WRITING = ThreadLocal.withInitial(() -> false);
+
+    /** Executes the writes. */
+    private final ThreadPoolExecutor executor;
+
+    /** Permits for each write that may be outstanding (queued or executing). */
+    private final Semaphore outstanding;
+
+    /**
+     * Creates with a particular number of threads and capacity.
+     *
+     * @param numberThreads the number of threads that write concurrently.
+     * @param capacity the maximum number of writes that may be outstanding (queued or executing).
+     */
+    public AsynchronousWriteQueue(int numberThreads, int capacity) {
+        this.executor =
+                new ThreadPoolExecutor(
+                        numberThreads,
+                        numberThreads,
+                        KEEP_ALIVE_SECONDS,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(),
+                        AsynchronousWriteQueue::createDaemonThread);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.outstanding = new Semaphore(Math.max(capacity, 1));
+    }
+
+    /**
+     * Whether the current thread is executing a write, submitted to any queue.
+     *
+     * @return true if the current thread is a writer thread, executing a write.
+     */
+    static boolean isWriting() {
+        return WRITING.get();
+    }
+
+    /**
+     * Reserves capacity for a single write, blocking while the maximum number of writes are
+     * outstanding.
+     *
+     * <p>Each reservation must be followed by exactly one call to {@link #submitReserved}. This
+     * should not be called by a writer thread, nor while holding a lock that a writer thread may
+     * need.
+     *
+     * @throws OutputWriteFailedException if interrupted while waiting.
+     */
+    void reserve() throws OutputWriteFailedException {
+        try {
+            outstanding.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OutputWriteFailedException(e);
+        }
+    }
+
+    /**
+     * Submits a write for execution, using capacity previously reserved with {@link #reserve}.
+     *
+     * <p>This never blocks.
+     *
+     * @param predecessor the write only begins after this future completes.
+     * @param write the write operation.
+     * @param onFailure called, on a writer thread, if {@code write} fails.
+     * @return a future that completes (always normally) after {@code write} has executed.
+     */
+    CompletableFuture<Void> submitReserved(
+            CompletableFuture<Void> predecessor,
+            CheckedRunnable<OutputWriteFailedException> write,
+            Consumer<OutputWriteFailedException> onFailure) {
+        try {
+            return predecessor.thenRunAsync(() -> executeAndRelease(write, onFailure), executor);
+        } catch (RuntimeException e) {
+            outstanding.release();
+            throw e;
+        }
+    }
+
+    private void executeAndRelease(
+            CheckedRunnable<OutputWriteFailedException> write,
+            Consumer<OutputWriteFailedException> onFailure) {
+        WRITING.set(true);
+        try {
+            write.run();
+        } catch (OutputWriteFailedException e) {
+            onFailure.accept(e);
+        } catch (RuntimeException e) {
+            onFailure.accept(new OutputWriteFailedException(e));
+        } finally {
+            WRITING.set(false);
+            outstanding.release();
+        }
+    }
+
+    private static Thread createDaemonThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "write-outputs");
+        thread.setDaemon(true);
+        return thread;
+    }
+}
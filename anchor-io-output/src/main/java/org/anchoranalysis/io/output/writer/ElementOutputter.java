@@ -27,14 +27,20 @@ package org.anchoranalysis.io.output.writer;
 
 import java.nio.file.Path;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.anchoranalysis.core.format.ImageFileFormat;
 import org.anchoranalysis.core.log.Logger;
+import org.anchoranalysis.core.functional.checked.CheckedConsumer;
 import org.anchoranalysis.core.time.ExecutionTimeRecorder;
 import org.anchoranalysis.io.output.bean.OutputWriteSettings;
+import org.anchoranalysis.io.output.container.OutputContainer;
 import org.anchoranalysis.io.output.enabled.multi.MultiLevelOutputEnabled;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
 import org.anchoranalysis.io.output.outputter.OutputterChecked;
 
 /**
@@ -42,7 +48,7 @@ import org.anchoranalysis.io.output.outputter.OutputterChecked;
  *
  * @author Owen Feehan
  */
-@AllArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
 public class ElementOutputter {
 
     /** The outputter for writing the element. */
@@ -54,6 +60,57 @@ public class ElementOutputter {
     /** Supplies a logger for information messages when outputting. */
     private Supplier<Optional<Logger>> logger;
 
+    /**
+     * When outputs are written to a {@link OutputContainer}, the staging paths created during the
+     * current write operation.
+     */
+    private Optional<Queue<Path>> stagedPaths;
+
+    /**
+     * Creates for a particular outputter.
+     *
+     * @param outputter the outputter for writing the element.
+     * @param executionTimeRecorder records the execution time of particular operations.
+     * @param logger supplies a logger for information messages when outputting.
+     */
+    public ElementOutputter(
+            OutputterChecked outputter,
+            ExecutionTimeRecorder executionTimeRecorder,
+            Supplier<Optional<Logger>> logger) {
+        this(outputter, executionTimeRecorder, logger, Optional.empty());
+    }
+
+    /**
+     * Executes an operation that writes an element, via paths from {@link #makeOutputPath}.
+     *
+     * <p>When outputs are written to a {@link OutputContainer}, the operation instead writes to
+     * staging paths, and any files written are added to the container after the operation
+     * completes.
+     *
+     * @param operation the operation, which is passed the {@link ElementOutputter} to write with.
+     * @throws OutputWriteFailedException if the operation fails, or its output cannot be added to
+     *     the container.
+     */
+    public void executeWrite(
+            CheckedConsumer<ElementOutputter, OutputWriteFailedException> operation)
+            throws OutputWriteFailedException {
+        Optional<OutputContainer> container = outputter.getContext().getContainer();
+        if (container.isPresent()) {
+            ElementOutputter staging =
+                    new ElementOutputter(
+                            outputter,
+                            executionTimeRecorder,
+                            logger,
+                            Optional.of(new ConcurrentLinkedQueue<>()));
+            operation.accept(staging);
+            for (Path path : staging.stagedPaths.get()) {
+                container.get().add(path);
+            }
+        } else {
+            operation.accept(this);
+        }
+    }
+
     /**
      * Derives a bound-output-manager for a (possibly newly created) subdirectory of the existing
      * manager.
@@ -73,6 +130,9 @@ public class ElementOutputter {
      * Creates a full absolute path that completes the part of the path present in the outputter
      * with an additional suffix.
      *
+     * <p>When called during a {@link #executeWrite} operation, with outputs written to a {@link
+     * OutputContainer}, a staging path is returned instead.
+     *
      * @param suffixWithoutExtension the suffix for the path (without any extension).
      * @param extension the file extension (without a leading period).
      * @param fallbackSuffix if neither a {@code prefix} is defined nor a {@code suffix}, then this
@@ -83,6 +143,17 @@ public class ElementOutputter {
     public Path makeOutputPath(
             Optional<String> suffixWithoutExtension, String extension, String fallbackSuffix) {
         Path path = outputter.makeOutputPath(suffixWithoutExtension, extension, fallbackSuffix);
+        if (stagedPaths.isPresent()) {
+            Optional<Path> staged =
+                    outputter
+                            .getContext()
+                            .getContainer()
+                            .flatMap(container -> container.stagingPathFor(path));
+            if (staged.isPresent()) {
+                stagedPaths.get().add(staged.get());
+                return staged.get();
+            }
+        }
         makeAnyNecessarySubdirectories(path);
         return path;
     }
@@ -0,0 +1,123 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.output.writer;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import org.anchoranalysis.core.functional.checked.CheckedRunnable;
+import org.anchoranalysis.core.log.error.ErrorReporter;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+
+/**
+ * Writes submitted to a {@link AsynchronousWriteQueue}, that can be awaited together.
+ *
+ * <p>Typically, a separate instance exists for each job, so that the job's writes can be awaited
+ * before the job ends, and any failures reported to the job's {@link ErrorReporter}.
+ *
+ * <p>The writes execute one after another, in the order they were submitted. Writes from different
+ * instances may execute concurrently.
+ *
+ * <p>A write submitted while another write is executing (e.g. by a generator that itself writes
+ * outputs) is executed immediately and synchronously, so it never waits for capacity in the queue.
+ *
+ * @author Owen Feehan
+ */
+public class PendingWrites {
+
+    /** Where writes are executed. */
+    private final AsynchronousWriteQueue queue;
+
+    /** A party is registered for each incomplete write, in addition to the awaiting party. */
+    private final Phaser incomplete = new Phaser(1);
+
+    /** Completes after the most recently submitted write. */
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+
+    /** Failures that have occurred, but not yet been reported. */
+    private final Queue<OutputWriteFailedException> failures = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates to submit writes to a particular queue.
+     *
+     * @param queue the queue.
+     */
+    public PendingWrites(AsynchronousWriteQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Submits a write to occur asynchronously.
+     *
+     * <p>This blocks, while the queue has reached its maximum number of outstanding writes, unless
+     * called during another write, in which case {@code write} is executed immediately.
+     *
+     * @param write the write operation.
+     * @throws OutputWriteFailedException if the write cannot be submitted, or if executed
+     *     immediately and it fails. Other failures of the write are instead reported by {@link
+     *     #awaitCompletion}.
+     */
+    public void submit(CheckedRunnable<OutputWriteFailedException> write)
+            throws OutputWriteFailedException {
+        if (AsynchronousWriteQueue.isWriting()) {
+            write.run();
+            return;
+        }
+
+        // Capacity is reserved outside the lock, so other threads can still submit
+        queue.reserve();
+        synchronized (this) {
+            incomplete.register();
+            try {
+                last = queue.submitReserved(last, write, failures::add);
+                last.whenComplete((result, exception) -> incomplete.arriveAndDeregister());
+            } catch (RuntimeException e) {
+                incomplete.arriveAndDeregister();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Waits until all submitted writes have completed, reporting any failures.
+     *
+     * @param errorReporter where failures are reported.
+     * @return true if every write succeeded, false if at least one failed.
+     */
+    public boolean awaitCompletion(ErrorReporter errorReporter) {
+        incomplete.arriveAndAwaitAdvance();
+
+        boolean succeeded = true;
+        OutputWriteFailedException failure = failures.poll();
+        while (failure != null) {
+            errorReporter.recordError(PendingWrites.class, failure);
+            succeeded = false;
+            failure = failures.poll();
+        }
+        return succeeded;
+    }
+}
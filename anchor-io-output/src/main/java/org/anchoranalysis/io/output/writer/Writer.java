@@ -46,6 +46,11 @@ import org.anchoranalysis.io.output.outputter.OutputterChecked;
  *
  * <p>Note that a {@link ElementWriter} may write more than one file for a given element.
  *
+ * <p>If writes occur asynchronously (see {@link
+ * org.anchoranalysis.io.output.bean.OutputWriteSettings#getAsynchronousWriteThreads}), an element
+ * and its {@link ElementWriter} may still be in use after a write method returns. Neither should
+ * be modified after being supplied.
+ *
  * @author Owen Feehan
  */
 public interface Writer {
@@ -0,0 +1,221 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.output.container;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link OutputContainer}.
+ *
+ * @author Owen Feehan
+ */
+class OutputContainerTest {
+
+    private static final int NUMBER_THREADS = 4;
+
+    private static final int NUMBER_OUTPUTS = 400;
+
+    @TempDir Path directory;
+
+    /**
+     * Outputs added concurrently should each appear as an entry in a valid ZIP file, with the
+     * correct content.
+     */
+    @Test
+    void testConcurrentAdd()
+            throws IOException, OutputWriteFailedException, InterruptedException,
+                    ExecutionException {
+        OutputContainer container = new OutputContainer(directory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_THREADS);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int thread = 0; thread < NUMBER_THREADS; thread++) {
+                int firstIndex = thread;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int index = firstIndex;
+                                            index < NUMBER_OUTPUTS;
+                                            index += NUMBER_THREADS) {
+                                        addOutput(container, index);
+                                    }
+                                    return null;
+                                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        container.close();
+
+        try (ZipFile zip = new ZipFile(directory.resolve(OutputContainer.FILE_NAME).toFile())) {
+            assertEquals(NUMBER_OUTPUTS, zip.size());
+            for (int index = 0; index < NUMBER_OUTPUTS; index++) {
+                ZipEntry entry = zip.getEntry(entryName(index));
+                assertEquals(ZipEntry.STORED, entry.getMethod());
+                try (InputStream stream = zip.getInputStream(entry)) {
+                    assertArrayEquals(content(index), stream.readAllBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Outputs added to a container, whose ZIP file already exists, are appended to the existing
+     * entries, replacing any with the same name.
+     */
+    @Test
+    void testAppend() throws IOException, OutputWriteFailedException {
+        OutputContainer first = new OutputContainer(directory);
+        addOutputs(first, 0, 10);
+        first.close();
+
+        OutputContainer second = new OutputContainer(directory);
+        addOutputs(second, 10, 20);
+        addOutput(second, entryName(3), content(100));
+        second.close();
+
+        try (ZipFile zip = new ZipFile(directory.resolve(OutputContainer.FILE_NAME).toFile())) {
+            assertEquals(20, zip.size());
+            for (int index = 0; index < 20; index++) {
+                assertEntry(zip, entryName(index), content(index == 3 ? 100 : index));
+            }
+        }
+    }
+
+    /**
+     * Outputs added to a container, whose ZIP file was never completed, are appended to the
+     * entries that were fully written.
+     */
+    @Test
+    void testAppendAfterInterruption() throws IOException, OutputWriteFailedException {
+        OutputContainer interrupted = new OutputContainer(directory);
+        addOutputs(interrupted, 0, 10);
+
+        // Simulate a final entry, whose bytes were only partially written
+        Path file = directory.resolve(OutputContainer.FILE_NAME);
+        long lengthComplete = Files.size(file);
+        addOutput(interrupted, entryName(10), content(10));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(lengthComplete + 40);
+        }
+
+        OutputContainer resumed = new OutputContainer(directory);
+        addOutputs(resumed, 11, 15);
+        resumed.close();
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            assertEquals(14, zip.size());
+            assertNull(zip.getEntry(entryName(10)));
+            for (int index = 0; index < 15; index++) {
+                if (index != 10) {
+                    assertEntry(zip, entryName(index), content(index));
+                }
+            }
+        }
+    }
+
+    /** Paths outside the root directory cannot be staged. */
+    @Test
+    void testOutsideRoot() throws IOException {
+        OutputContainer container = new OutputContainer(directory.resolve("root"));
+        assertFalse(container.stagingPathFor(directory.resolve("other.txt")).isPresent());
+        assertTrue(container.stagingPathFor(directory.resolve("root/a/b.txt")).isPresent());
+    }
+
+    /** No file is created, if no outputs are added. */
+    @Test
+    void testNothingAdded() throws IOException, OutputWriteFailedException {
+        new OutputContainer(directory).close();
+        assertFalse(Files.exists(directory.resolve(OutputContainer.FILE_NAME)));
+    }
+
+    /** Asserts that an entry exists in a ZIP file, with particular content. */
+    private static void assertEntry(ZipFile zip, String name, byte[] content) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        try (InputStream stream = zip.getInputStream(entry)) {
+            assertArrayEquals(content, stream.readAllBytes());
+        }
+    }
+
+    /** Adds outputs with indices from {@code start} (inclusive) to {@code end} (exclusive). */
+    private void addOutputs(OutputContainer container, int start, int end)
+            throws IOException, OutputWriteFailedException {
+        for (int index = start; index < end; index++) {
+            addOutput(container, index);
+        }
+    }
+
+    /** Writes an output to a staging path, and adds it to the container. */
+    private void addOutput(OutputContainer container, int index)
+            throws IOException, OutputWriteFailedException {
+        addOutput(container, entryName(index), content(index));
+    }
+
+    /** Writes particular content to a staging path, and adds it to the container. */
+    private void addOutput(OutputContainer container, String name, byte[] content)
+            throws IOException, OutputWriteFailedException {
+        Path staged = container.stagingPathFor(directory.resolve(name)).get();
+        Files.write(staged, content);
+        container.add(staged);
+        assertFalse(Files.exists(staged));
+    }
+
+    private static String entryName(int index) {
+        return String.format("job%d/objects/object%03d.txt", index % 7, index);
+    }
+
+    private static byte[] content(int index) {
+        return ("content of " + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
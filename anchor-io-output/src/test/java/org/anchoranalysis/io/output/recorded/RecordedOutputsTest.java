@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.io.output.recorded;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link RecordedOutputs} when outputs are added from several threads.
+ *
+ * @author Owen Feehan
+ */
+class RecordedOutputsTest {
+
+    private static final int NUMBER_THREADS = 8;
+
+    /** Outputs are visible whether or not the adding thread merged its buffer. */
+    @Test
+    void testMergedAndUnmerged() throws InterruptedException {
+        RecordedOutputs recorded = new RecordedOutputs();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < NUMBER_THREADS; i++) {
+            int index = i;
+            threads.add(
+                    new Thread(
+                            () -> {
+                                recorded.add("shared", true);
+                                recorded.add("enabled" + index, true);
+                                recorded.add("disabled" + index, false);
+                                if (index % 2 == 0) {
+                                    recorded.mergeThreadBuffer();
+                                }
+                            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(NUMBER_THREADS + 1, recorded.numberEnabled());
+        assertEquals(NUMBER_THREADS, recorded.numberDisabled());
+        assertTrue(recorded.isRecordedAsEnabled("enabled1"));
+        assertFalse(recorded.isRecordedAsEnabled("disabled1"));
+    }
+
+    /** Names are summarized alphabetically, regardless of the order they were added. */
+    @Test
+    void testSummarizeOrder() {
+        RecordedOutputs recorded = new RecordedOutputs();
+        recorded.add("c", true);
+        recorded.add("a", true);
+        recorded.mergeThreadBuffer();
+        recorded.add("b", true);
+        assertEquals("a, b, c", recorded.summarizeEnabled());
+    }
+
+    /** Names added after an unmerged buffer was queried, are included in later queries. */
+    @Test
+    void testAddAfterQuery() {
+        RecordedOutputs recorded = new RecordedOutputs();
+        recorded.add("a", true);
+        assertEquals(1, recorded.numberEnabled());
+        assertTrue(recorded.isRecordedAsEnabled("a"));
+
+        recorded.add("b", true);
+        recorded.add("a", false);
+        assertEquals(2, recorded.numberEnabled());
+        assertEquals(1, recorded.numberDisabled());
+        assertTrue(recorded.isRecordedAsEnabled("a"));
+
+        recorded.mergeThreadBuffer();
+        assertEquals("a, b", recorded.summarizeEnabled());
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * anchor-io-output
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.io.output.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.anchoranalysis.core.log.error.ErrorReporterIntoString;
+import org.anchoranalysis.io.output.error.OutputWriteFailedException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PendingWrites} with an {@link AsynchronousWriteQueue}.
+ *
+ * @author Owen Feehan
+ */
+class PendingWritesTest {
+
+    private static final int NUMBER_WRITES = 10;
+
+    private static final String FAILURE_MESSAGE = "A deliberate failure";
+
+    /** A bound on how long writes may take, so that a deadlock fails rather than hangs. */
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Writes should all complete, in the order they were submitted, even when the capacity of the
+     * queue is less than the number of writes.
+     *
+     * @throws OutputWriteFailedException if a write cannot be submitted.
+     */
+    @Test
+    void testOrderAndCompletion() throws OutputWriteFailedException {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        StringBuilder errors = new StringBuilder();
+
+        PendingWrites writes = new PendingWrites(new AsynchronousWriteQueue(2, 3));
+        for (int index = 0; index < NUMBER_WRITES; index++) {
+            int indexToWrite = index;
+            writes.submit(() -> written.add(indexToWrite));
+        }
+        assertTrue(writes.awaitCompletion(new ErrorReporterIntoString(errors)));
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), written);
+        assertEquals(0, errors.length());
+    }
+
+    /**
+     * Writes submitted while executing another write (as by a generator that itself writes outputs)
+     * should complete, even when every permit of the queue is held by the outer writes.
+     */
+    @Test
+    void testNestedWrites() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        StringBuilder errors = new StringBuilder();
+
+        PendingWrites writes = new PendingWrites(new AsynchronousWriteQueue(1, 1));
+        assertTimeoutPreemptively(
+                TIMEOUT,
+                () -> {
+                    for (int index = 0; index < NUMBER_WRITES; index++) {
+                        int indexToWrite = index;
+                        writes.submit(
+                                () -> {
+                                    written.add("outer" + indexToWrite);
+                                    writes.submit(() -> written.add("inner" + indexToWrite));
+                                });
+                    }
+                    assertTrue(writes.awaitCompletion(new ErrorReporterIntoString(errors)));
+                });
+
+        List<String> expected = new ArrayList<>();
+        for (int index = 0; index < NUMBER_WRITES; index++) {
+            expected.add("outer" + index);
+            expected.add("inner" + index);
+        }
+        assertEquals(expected, written);
+        assertEquals(0, errors.length());
+    }
+
+    /**
+     * A failed write is reported when awaiting completion, without preventing subsequent writes.
+     *
+     * @throws OutputWriteFailedException if a write cannot be submitted.
+     */
+    @Test
+    void testFailureReported() throws OutputWriteFailedException {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        StringBuilder errors = new StringBuilder();
+
+        PendingWrites writes = new PendingWrites(new AsynchronousWriteQueue(1, 2));
+        writes.submit(
+                () -> {
+                    throw new OutputWriteFailedException(FAILURE_MESSAGE);
+                });
+        writes.submit(() -> written.add(1));
+        assertFalse(writes.awaitCompletion(new ErrorReporterIntoString(errors)));
+
+        assertEquals(Arrays.asList(1), written);
+        assertTrue(errors.toString().contains(FAILURE_MESSAGE));
+    }
+}
@@ -26,17 +26,24 @@
 
 package org.anchoranalysis.mpp.io.input;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.anchoranalysis.bean.define.Define;
 import org.anchoranalysis.bean.initializable.property.BeanInitializer;
+import org.anchoranalysis.core.cache.DiskLRUCache;
 import org.anchoranalysis.core.exception.CreateException;
 import org.anchoranalysis.core.exception.OperationFailedException;
 import org.anchoranalysis.core.identifier.provider.store.SharedObjects;
+import org.anchoranalysis.core.log.Logger;
 import org.anchoranalysis.core.value.Dictionary;
 import org.anchoranalysis.experiment.io.InitializationContext;
 import org.anchoranalysis.image.bean.nonbean.init.ImageInitialization;
+import org.anchoranalysis.image.bean.nonbean.init.cache.ProviderCache;
+import org.anchoranalysis.io.input.InputFromManager;
 import org.anchoranalysis.mpp.bean.MarksBean;
 import org.anchoranalysis.mpp.init.MarksInitialization;
 
@@ -47,6 +54,9 @@ public class MarksInitializationFactory {
     /**
      * Creates a new {@link MarksInitialization} instance.
      *
+     * <p>If {@code context} has a provider-cache, and {@code input} is associated with files, the
+     * entities created by providers are cached, keyed by the content of these files.
+     *
      * @param input optional {@link ExportSharedObjects} to copy shared objects from
      * @param context the initialization context
      * @param define optional {@link Define} for initializing properties
@@ -63,6 +73,13 @@ public class MarksInitializationFactory {
         ImageInitialization image =
                 new ImageInitialization(sharedObjects, context.getSuggestedSize());
 
+        if (context.getProviderCache().isPresent()
+                && input.isPresent()
+                && input.get() instanceof InputFromManager inputCast) {
+            assignProviderCache(
+                    image, context.getProviderCache().get(), inputCast, context.getLogger());
+        }
+
         if (input.isPresent()) {
             try {
                 input.get().copyTo(sharedObjects, context.getLogger());
@@ -115,4 +132,31 @@ public class MarksInitializationFactory {
         }
         return marks;
     }
+
+    /**
+     * Caches the entities created by providers in {@code image}, keyed by the content of the files
+     * associated with {@code input}, and by the suggested size of {@code image}.
+     *
+     * <p>Nothing is cached if {@code input} is not associated with any file, or if the files cannot
+     * be read, in which case a warning is recorded.
+     */
+    private static void assignProviderCache(
+            ImageInitialization image, DiskLRUCache cache, InputFromManager input, Logger logger) {
+        List<Path> paths = input.allAssociatedPaths();
+        if (paths.isEmpty()) {
+            // Without files, there is no content to distinguish one input from another
+            return;
+        }
+        // The suggested size alters what some providers create from the same files
+        String parameters = "suggestedSize=" + image.getSuggestedSize();
+        try {
+            image.assignProviderCache(
+                    new ProviderCache(cache, ProviderCache.digestFiles(paths, parameters)));
+        } catch (IOException e) {
+            logger.errorReporter()
+                    .recordWarningFormatted(
+                            "Cannot cache the entities created by providers for %s: %s",
+                            input.identifier(), e.getMessage());
+        }
+    }
 }
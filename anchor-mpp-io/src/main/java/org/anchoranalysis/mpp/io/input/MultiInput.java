@@ -142,6 +142,11 @@ public class MultiInput implements ProvidesStackInput, ExportSharedObjects {
         return stack.pathForBinding();
     }
 
+    @Override
+    public long prefetch(Logger logger) {
+        return stack.prefetch(logger);
+    }
+
     @Override
     public void close(ErrorReporter errorReporter) {
         stack.close(errorReporter);
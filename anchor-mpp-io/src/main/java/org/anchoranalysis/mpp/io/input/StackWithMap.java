@@ -80,6 +80,16 @@ public class StackWithMap implements MultiInputSubMap<TimeSeries> {
         map.add(name, op);
     }
 
+    /**
+     * Reads, in advance, the main input object.
+     *
+     * @param logger a logger for any non-fatal errors.
+     * @return an estimate of the number of bytes occupied by the content read in advance.
+     */
+    public long prefetch(Logger logger) {
+        return mainInputObject.prefetch(logger);
+    }
+
     /**
      * Closes resources and cleans up.
      *
@@ -67,9 +67,10 @@ public final class BoundingBox implements Serializable, Comparable<BoundingBox>
      *
      * <p>This the maximum valid point in all dimensions for the bounding-box.
      *
-     * <p>It is calculated lazily when first needed by {@link #calculateCornerMaxInclusive()}.
+     * <p>It is calculated lazily when first needed by {@link #calculateCornerMaxInclusive()}, and
+     * so is excluded from equality, as it is derived from {@code cornerMin} and {@code extent}.
      */
-    private Point3i cornerMaxInclusive;
+    @EqualsAndHashCode.Exclude private Point3i cornerMaxInclusive;
 
     /**
      * The top-right corner of the bounding box (exclusive).
@@ -0,0 +1,130 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.spatial.box;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
+
+/**
+ * An index of items, each with an associated bounding-box in three dimensions, that can be
+ * efficiently queried spatially.
+ *
+ * <p>It resides alongside {@link BoundingBox} so that each implementation may depend upon it,
+ * without depending upon the others.
+ *
+ * @see org.anchoranalysis.spatial.rtree.BoundingBoxRTree
+ * @see org.anchoranalysis.spatial.index.SpatialGridIndex
+ * @param <T> object-type stored in structure (the payload).
+ * @author Owen Feehan
+ */
+public interface BoundingBoxIndex<T> {
+
+    /**
+     * Adds a bounding-box with a corresponding payload.
+     *
+     * <p>Note that the payload must not be unique, and multiple identical elements can exist with
+     * the same bounding-box and payload.
+     *
+     * @param box the box to add.
+     * @param payload the payload associated with the bounding-box.
+     */
+    void add(BoundingBox box, T payload);
+
+    /**
+     * Which objects contain a particular point?
+     *
+     * @param point the point.
+     * @return payloads for all objects that contain {@code point}.
+     */
+    default Set<T> contains(ReadableTuple3i point) {
+        return containsStream(point).collect(Collectors.toSet());
+    }
+
+    /**
+     * Like {@link #contains} but returns a {@link Stream} instead of a {@link Set}.
+     *
+     * @param point the point.
+     * @return payloads for all objects that contain {@code point}.
+     */
+    Stream<T> containsStream(ReadableTuple3i point);
+
+    /**
+     * Which bounding-boxes intersect with another specific bounding box?
+     *
+     * @param toIntersectWith the box that must be intersected with.
+     * @return payloads for all bounding-boxes that intersect with {@code toIntersectWith}.
+     */
+    default Set<T> intersectsWith(BoundingBox toIntersectWith) {
+        return intersectsWithStream(toIntersectWith).collect(Collectors.toSet());
+    }
+
+    /**
+     * Like {@link #intersectsWith(BoundingBox)} but returns a {@link Stream} instead of a {@link
+     * Set}.
+     *
+     * @param toIntersectWith the box that must be intersected with.
+     * @return payloads for all bounding-boxes that intersect with {@code toIntersectWith}.
+     */
+    Stream<T> intersectsWithStream(BoundingBox toIntersectWith);
+
+    /**
+     * Removes a particular item from the index, identified by its bounding-box and payload.
+     *
+     * <p>If no entry can be found matching exactly the {@code box} and {@code payload}, no change
+     * happens to the index. No error is reported.
+     *
+     * <p>If multiple entries exist that match exactly the {@code box} and {@code payload}, then all
+     * entries are removed.
+     *
+     * @param box the bounding-box.
+     * @param payload the payload.
+     */
+    void remove(BoundingBox box, T payload);
+
+    /**
+     * <i>All</i> elements contained within the index, as a {@link Set}.
+     *
+     * @return a newly created {@link Set} of all the elements, reusing the existing element
+     *     objects.
+     */
+    Set<T> asSet();
+
+    /**
+     * The total number of items stored in the index.
+     *
+     * @return the total number of items.
+     */
+    int size();
+
+    /**
+     * Returns true if and only if the index is empty of entries.
+     *
+     * @return is the index empty.
+     */
+    boolean isEmpty();
+}
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.spatial.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.BoundingBoxIndex;
+import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
+
+/**
+ * Creates a {@link BoundingBoxIndex}, selecting a {@link SpatialGridIndex} or a {@link
+ * BoundingBoxRTree} from the number of boxes and the distribution of their sizes.
+ *
+ * <p>The thresholds for this selection were measured with {@code BoundingBoxIndexBenchmark}, which
+ * creates an index and queries every box, for randomly positioned boxes covering about a quarter
+ * of the image. When boxes were similarly-sized, the grid was between 1.5 (16 boxes) and 5 times
+ * (4096 boxes) faster than the r-tree. As a fifth of the boxes were enlarged, the grid remained
+ * faster until the 90th percentile extent was 8 times the median extent, but was slower when it
+ * was 12 times, and much slower thereafter.
+ *
+ * @author Owen Feehan
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class BoundingBoxIndexFactory {
+
+    /**
+     * The minimum number of elements, for a {@link SpatialGridIndex} to be selected.
+     *
+     * <p>This is the fewest elements that were benchmarked.
+     */
+    private static final int MIN_NUMBER_ELEMENTS_GRID = 16;
+
+    /**
+     * The maximum ratio, in any dimension, between the 90th percentile extent and the median
+     * extent, for a {@link SpatialGridIndex} to be selected.
+     */
+    private static final double MAX_RATIO_PERCENTILE_TO_MEDIAN = 8.0;
+
+    /**
+     * Creates an index populated with elements, each with an associated bounding-box.
+     *
+     * @param <T> object-type stored in the index (the payload).
+     * @param elements the elements to add, each becoming a payload in the index.
+     * @param boxFor derives the bounding-box for each element.
+     * @return a newly created index, containing all {@code elements}.
+     */
+    public static <T> BoundingBoxIndex<T> create(
+            Collection<T> elements, Function<T, BoundingBox> boxFor) {
+        if (elements.size() >= MIN_NUMBER_ELEMENTS_GRID
+                && isSimilarlySized(elements.stream().map(boxFor).toList())) {
+            return new SpatialGridIndex<>(elements, boxFor);
+        } else {
+            return new BoundingBoxRTree<>(elements, boxFor);
+        }
+    }
+
+    /** Whether the boxes are of similar size, in every dimension. */
+    private static boolean isSimilarlySized(List<BoundingBox> boxes) {
+        for (int dimension = 0; dimension < 3; dimension++) {
+            int[] extents = new int[boxes.size()];
+            for (int i = 0; i < extents.length; i++) {
+                extents[i] = boxes.get(i).extent().valueByDimension(dimension);
+            }
+            Arrays.sort(extents);
+
+            int median = extents[extents.length / 2];
+            int percentile90 = extents[(extents.length * 9) / 10];
+            if (percentile90 > median * MAX_RATIO_PERCENTILE_TO_MEDIAN) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
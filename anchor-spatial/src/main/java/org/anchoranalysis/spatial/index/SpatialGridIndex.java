@@ -0,0 +1,385 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.spatial.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.BoundingBoxIndex;
+import org.anchoranalysis.spatial.point.ReadableTuple3i;
+import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
+
+/**
+ * Indexes bounding-boxes by binning them into the cells of a uniform three-dimensional grid.
+ *
+ * <p>Each cell stores the (integer) identifiers of all boxes that overlap it, in a primitive array.
+ *
+ * <p>The size of a cell in each dimension is the median extent of the boxes the index is created
+ * with, so that each box typically overlaps only a handful of cells. This makes it more efficient
+ * than a {@link BoundingBoxRTree} when boxes are dense and similarly-sized, but much less efficient
+ * when boxes vary greatly in size.
+ *
+ * <p>Any box may be subsequently added, including outside the region covered by the grid, but
+ * query performance degrades if added boxes differ greatly in size or position from those the
+ * index was created with.
+ *
+ * <p>Queries may occur concurrently, but not concurrently with {@link #add} or {@link #remove}.
+ *
+ * @param <T> object-type stored in structure (the payload).
+ * @author Owen Feehan
+ */
+public class SpatialGridIndex<T> implements BoundingBoxIndex<T> {
+
+    /** The number of dimensions of the grid. */
+    private static final int NUMBER_DIMENSIONS = 3;
+
+    /**
+     * The maximum number of cells in the grid, as a multiple of the number of elements it is
+     * created with.
+     *
+     * <p>This avoids excessive memory usage, when boxes are small but sparsely distributed.
+     */
+    private static final int MAX_CELLS_PER_ELEMENT = 8;
+
+    /** The initial capacity of a cell's bucket, when it is first used. */
+    private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+    /** The payload for each identifier, or null, if the identifier has been removed. */
+    private final List<T> payloads = new ArrayList<>();
+
+    /** The bounding-box for each identifier, or null, if the identifier has been removed. */
+    private final List<BoundingBox> boxes = new ArrayList<>();
+
+    /** Identifiers that have been removed, and may be reused by {@link #add}. */
+    private final Deque<Integer> freeIdentifiers = new ArrayDeque<>();
+
+    /** The minimum corner of the grid, in each dimension. */
+    private final int[] origin;
+
+    /** The size of a cell, in each dimension. */
+    private final int[] cellSize;
+
+    /** The number of cells, in each dimension. */
+    private final int[] numberCells;
+
+    /** Identifiers of the boxes overlapping each cell, indexed by a cell's offset. */
+    private final int[][] buckets;
+
+    /** The number of identifiers stored in the corresponding bucket. */
+    private final int[] bucketSizes;
+
+    /** The number of elements currently in the index. */
+    private int size = 0;
+
+    /**
+     * Creates an index populated with elements, each with an associated bounding-box.
+     *
+     * <p>The grid covers the union of all boxes, with the size of a cell derived from the median
+     * extent of the boxes.
+     *
+     * @param elements the elements to add, each becoming a payload in the index.
+     * @param boxFor derives the bounding-box for each element.
+     */
+    public SpatialGridIndex(Collection<T> elements, Function<T, BoundingBox> boxFor) {
+        List<BoundingBox> boxesToAdd = elements.stream().map(boxFor).toList();
+
+        this.origin = new int[NUMBER_DIMENSIONS];
+        this.cellSize = new int[NUMBER_DIMENSIONS];
+        this.numberCells = new int[NUMBER_DIMENSIONS];
+        int[] range = new int[NUMBER_DIMENSIONS];
+        for (int dimension = 0; dimension < NUMBER_DIMENSIONS; dimension++) {
+            range[dimension] = deriveGridForDimension(boxesToAdd, dimension);
+        }
+        limitNumberCells(range, (long) MAX_CELLS_PER_ELEMENT * Math.max(elements.size(), 1));
+
+        int totalCells = numberCells[0] * numberCells[1] * numberCells[2];
+        this.buckets = new int[totalCells][];
+        this.bucketSizes = new int[totalCells];
+
+        int index = 0;
+        for (T element : elements) {
+            add(boxesToAdd.get(index++), element);
+        }
+    }
+
+    @Override
+    public void add(BoundingBox box, T payload) {
+        int identifier;
+        if (freeIdentifiers.isEmpty()) {
+            identifier = payloads.size();
+            payloads.add(payload);
+            boxes.add(box);
+        } else {
+            identifier = freeIdentifiers.pop();
+            payloads.set(identifier, payload);
+            boxes.set(identifier, box);
+        }
+        size++;
+
+        int[] min = cellMin(box);
+        int[] max = cellMax(box);
+        for (int z = min[2]; z <= max[2]; z++) {
+            for (int y = min[1]; y <= max[1]; y++) {
+                for (int x = min[0]; x <= max[0]; x++) {
+                    addToBucket(offset(x, y, z), identifier);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Stream<T> containsStream(ReadableTuple3i point) {
+        int offset = offset(cellFor(point.x(), 0), cellFor(point.y(), 1), cellFor(point.z(), 2));
+        int[] bucket = buckets[offset];
+        if (bucket == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(bucket, 0, bucketSizes[offset])
+                .filter(identifier -> boxes.get(identifier).contains().point(point))
+                .mapToObj(payloads::get);
+    }
+
+    @Override
+    public Stream<T> intersectsWithStream(BoundingBox toIntersectWith) {
+        int[] min = cellMin(toIntersectWith);
+        int[] max = cellMax(toIntersectWith);
+
+        List<T> out = new ArrayList<>();
+        for (int z = min[2]; z <= max[2]; z++) {
+            for (int y = min[1]; y <= max[1]; y++) {
+                for (int x = min[0]; x <= max[0]; x++) {
+                    addIntersecting(toIntersectWith, min, new int[] {x, y, z}, out);
+                }
+            }
+        }
+        return out.stream();
+    }
+
+    @Override
+    public void remove(BoundingBox box, T payload) {
+        int[] min = cellMin(box);
+        int offset = offset(min[0], min[1], min[2]);
+        int[] bucket = buckets[offset];
+        if (bucket == null) {
+            return;
+        }
+
+        // As every matching box overlaps the cell of its minimum corner, it suffices to search
+        // there.
+        Set<Integer> matching = new HashSet<>();
+        for (int i = 0; i < bucketSizes[offset]; i++) {
+            int identifier = bucket[i];
+            if (box.equals(boxes.get(identifier)) && payload.equals(payloads.get(identifier))) {
+                matching.add(identifier);
+            }
+        }
+
+        if (!matching.isEmpty()) {
+            int[] max = cellMax(box);
+            for (int z = min[2]; z <= max[2]; z++) {
+                for (int y = min[1]; y <= max[1]; y++) {
+                    for (int x = min[0]; x <= max[0]; x++) {
+                        removeFromBucket(offset(x, y, z), matching);
+                    }
+                }
+            }
+            for (int identifier : matching) {
+                payloads.set(identifier, null);
+                boxes.set(identifier, null);
+                freeIdentifiers.push(identifier);
+            }
+            size -= matching.size();
+        }
+    }
+
+    @Override
+    public Set<T> asSet() {
+        Set<T> out = new HashSet<>();
+        for (T payload : payloads) {
+            if (payload != null) {
+                out.add(payload);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds elements in a particular cell that intersect with a box.
+     *
+     * <p>As a box may overlap several cells, each box is only reported in the cell that is the
+     * minimum corner of the overlap between the box's cells and the query's cells, to avoid
+     * duplicates.
+     */
+    private void addIntersecting(
+            BoundingBox toIntersectWith, int[] queryMin, int[] cell, List<T> out) {
+        int offset = offset(cell[0], cell[1], cell[2]);
+        int[] bucket = buckets[offset];
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucketSizes[offset]; i++) {
+            BoundingBox box = boxes.get(bucket[i]);
+            if (isReferenceCell(box, queryMin, cell)
+                    && box.intersection().existsWith(toIntersectWith)) {
+                out.add(payloads.get(bucket[i]));
+            }
+        }
+    }
+
+    /**
+     * Whether {@code cell} is where the overlap between the cells of {@code box} and the cells of a
+     * query begins.
+     */
+    private boolean isReferenceCell(BoundingBox box, int[] queryMin, int[] cell) {
+        int[] boxMin = cellMin(box);
+        for (int dimension = 0; dimension < NUMBER_DIMENSIONS; dimension++) {
+            if (Math.max(boxMin[dimension], queryMin[dimension]) != cell[dimension]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculates the origin, cell-size and number of cells for a particular dimension.
+     *
+     * @return the range of values covered by the boxes in this dimension.
+     */
+    private int deriveGridForDimension(List<BoundingBox> boxesToAdd, int dimension) {
+        if (boxesToAdd.isEmpty()) {
+            origin[dimension] = 0;
+            cellSize[dimension] = 1;
+            numberCells[dimension] = 1;
+            return 1;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int[] extents = new int[boxesToAdd.size()];
+        for (int i = 0; i < extents.length; i++) {
+            BoundingBox box = boxesToAdd.get(i);
+            min = Math.min(min, box.cornerMin().valueByDimension(dimension));
+            max = Math.max(max, box.calculateCornerMaxInclusive().valueByDimension(dimension));
+            extents[i] = box.extent().valueByDimension(dimension);
+        }
+        Arrays.sort(extents);
+
+        origin[dimension] = min;
+        cellSize[dimension] = Math.max(extents[extents.length / 2], 1);
+        int range = max - min + 1;
+        numberCells[dimension] = numberCellsFor(range, cellSize[dimension]);
+        return range;
+    }
+
+    /** Enlarges the cells uniformly, until the total number of cells is at most {@code limit}. */
+    private void limitNumberCells(int[] range, long limit) {
+        while (((long) numberCells[0]) * numberCells[1] * numberCells[2] > limit) {
+            for (int dimension = 0; dimension < NUMBER_DIMENSIONS; dimension++) {
+                if (numberCells[dimension] > 1) {
+                    cellSize[dimension] *= 2;
+                    numberCells[dimension] = numberCellsFor(range[dimension], cellSize[dimension]);
+                }
+            }
+        }
+    }
+
+    /** The minimum cell (inclusive) overlapped by a box, in each dimension. */
+    private int[] cellMin(BoundingBox box) {
+        ReadableTuple3i corner = box.cornerMin();
+        return new int[] {cellFor(corner.x(), 0), cellFor(corner.y(), 1), cellFor(corner.z(), 2)};
+    }
+
+    /** The maximum cell (inclusive) overlapped by a box, in each dimension. */
+    private int[] cellMax(BoundingBox box) {
+        ReadableTuple3i corner = box.calculateCornerMaxInclusive();
+        return new int[] {cellFor(corner.x(), 0), cellFor(corner.y(), 1), cellFor(corner.z(), 2)};
+    }
+
+    /**
+     * The index of the cell containing a value in a particular dimension.
+     *
+     * <p>Values outside the grid are clamped to the nearest cell, which preserves the correctness
+     * of queries, as the mapping from value to cell remains monotonic.
+     */
+    private int cellFor(int value, int dimension) {
+        int cell = Math.floorDiv(value - origin[dimension], cellSize[dimension]);
+        return Math.min(Math.max(cell, 0), numberCells[dimension] - 1);
+    }
+
+    /** The number of cells needed to cover {@code range} with cells of size {@code cellSize}. */
+    private static int numberCellsFor(int range, int cellSize) {
+        return ((range - 1) / cellSize) + 1;
+    }
+
+    /** The offset of a cell in {@code buckets}. */
+    private int offset(int x, int y, int z) {
+        return (((z * numberCells[1]) + y) * numberCells[0]) + x;
+    }
+
+    /** Adds an identifier to a bucket, creating or growing the bucket as needed. */
+    private void addToBucket(int offset, int identifier) {
+        int[] bucket = buckets[offset];
+        if (bucket == null) {
+            bucket = new int[INITIAL_BUCKET_CAPACITY];
+            buckets[offset] = bucket;
+        } else if (bucketSizes[offset] == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+            buckets[offset] = bucket;
+        }
+        bucket[bucketSizes[offset]++] = identifier;
+    }
+
+    /** Removes any identifiers in {@code toRemove} from a bucket, without preserving order. */
+    private void removeFromBucket(int offset, Set<Integer> toRemove) {
+        int[] bucket = buckets[offset];
+        int i = 0;
+        while (i < bucketSizes[offset]) {
+            if (toRemove.contains(bucket[i])) {
+                bucket[i] = bucket[--bucketSizes[offset]];
+            } else {
+                i++;
+            }
+        }
+    }
+}
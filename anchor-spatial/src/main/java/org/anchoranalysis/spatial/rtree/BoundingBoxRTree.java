@@ -28,10 +28,13 @@ package org.anchoranalysis.spatial.rtree;
 
 import com.github.davidmoten.rtreemulti.geometry.Point;
 import com.github.davidmoten.rtreemulti.geometry.Rectangle;
+import java.util.Collection;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.BoundingBoxIndex;
 import org.anchoranalysis.spatial.point.ReadableTuple3i;
 
 /**
@@ -44,7 +47,7 @@ import org.anchoranalysis.spatial.point.ReadableTuple3i;
  * @param <T> object-type stored in structure (the payload).
  * @author Owen Feehan
  */
-public class BoundingBoxRTree<T> extends RTree<T> {
+public class BoundingBoxRTree<T> extends RTree<T> implements BoundingBoxIndex<T> {
 
     /** The number of spatial dimensions that the bounding boxes are expected to support. */
     private static final int NUMBER_DIMENSIONS = 3;
@@ -63,12 +66,29 @@ public class BoundingBoxRTree<T> extends RTree<T> {
         super(NUMBER_DIMENSIONS, maxNumberEntries);
     }
 
+    /**
+     * Creates an R-Tree populated in bulk with elements, each with an associated bounding-box.
+     *
+     * <p>This is much more efficient than adding each element successively with {@link #add}.
+     *
+     * @param elements the elements to add, each becoming a payload in the tree.
+     * @param boxFor derives the bounding-box for each element.
+     */
+    public BoundingBoxRTree(Collection<T> elements, Function<T, BoundingBox> boxFor) {
+        super(
+                NUMBER_DIMENSIONS,
+                elements,
+                element -> asRectangle(boxFor.apply(element)),
+                Function.identity());
+    }
+
     /**
      * Which objects contain a particular point?
      *
      * @param point the point
      * @return payloads for all objects that contain {@code point}.
      */
+    @Override
     public Set<T> contains(ReadableTuple3i point) {
         return containsStream(point).collect(Collectors.toSet());
     }
@@ -79,6 +99,7 @@ public class BoundingBoxRTree<T> extends RTree<T> {
      * @param point the point
      * @return payloads for all objects that contain {@code point}.
      */
+    @Override
     public Stream<T> containsStream(ReadableTuple3i point) {
         Point pointToSearch = Point.create(point.x(), point.y(), point.z());
         return super.containsStream(pointToSearch);
@@ -93,6 +114,7 @@ public class BoundingBoxRTree<T> extends RTree<T> {
      * @param box the box to add
      * @param payload the payload associated with the bounding-box
      */
+    @Override
     public void add(BoundingBox box, T payload) {
         super.add(asRectangle(box), payload);
     }
@@ -103,6 +125,7 @@ public class BoundingBoxRTree<T> extends RTree<T> {
      * @param toIntersectWith the box that must be intersected with
      * @return payloads for all bounding-boxes that intersect with {@code toIntersectWith}.
      */
+    @Override
     public Set<T> intersectsWith(BoundingBox toIntersectWith) {
         return intersectsWithStream(toIntersectWith).collect(Collectors.toSet());
     }
@@ -114,6 +137,7 @@ public class BoundingBoxRTree<T> extends RTree<T> {
      * @param toIntersectWith the box that must be intersected with
      * @return payloads for all bounding-boxes that intersect with {@code toIntersectWith}.
      */
+    @Override
     public Stream<T> intersectsWithStream(BoundingBox toIntersectWith) {
         return super.intersectsWithStream(asRectangle(toIntersectWith));
     }
@@ -133,6 +157,7 @@ public class BoundingBoxRTree<T> extends RTree<T> {
      * @param box the bounding-box
      * @param payload the payload
      */
+    @Override
     public void remove(BoundingBox box, T payload) {
         super.remove(asRectangle(box), payload);
     }
@@ -29,7 +29,11 @@ import com.github.davidmoten.rtreemulti.Entry;
 import com.github.davidmoten.rtreemulti.geometry.Geometry;
 import com.github.davidmoten.rtreemulti.geometry.Point;
 import com.github.davidmoten.rtreemulti.geometry.Rectangle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -37,6 +41,13 @@ import java.util.stream.StreamSupport;
 /**
  * Bases class for implementations of R-Trees that store objects with associated geometry.
  *
+ * <p>The tree may either be populated incrementally, via {@link #add} and {@link #remove}, or in
+ * bulk when constructed, via Sort-Tile-Recursive (STR) packing.
+ *
+ * <p>Bulk-loading is preferred when all elements are known in advance, as it occurs in
+ * approximately a single pass, and produces a better-balanced tree, whereas incremental addition
+ * copies nodes of the underlying immutable tree on each operation.
+ *
  * @see <a href="https://en.wikipedia.org/wiki/R-tree">R-tree on Wikipedia</a>
  * @param <T> object-type stored in structure (the payload).
  * @author Owen Feehan
@@ -72,6 +83,33 @@ public abstract class RTree<T> {
                         .create();
     }
 
+    /**
+     * Creates an R-Tree populated in bulk with elements, using Sort-Tile-Recursive packing.
+     *
+     * @param <E> the type of elements from which entries are derived.
+     * @param numberDimensions the number of spatial dimensions that the bounding boxes are expected
+     *     to support.
+     * @param elements the elements to populate the tree with.
+     * @param rectangleFor derives a {@link Rectangle} for each element.
+     * @param payloadFor derives a payload for each element.
+     */
+    protected <E> RTree(
+            int numberDimensions,
+            Collection<E> elements,
+            Function<E, Rectangle> rectangleFor,
+            Function<E, T> payloadFor) {
+        // The list must be mutable, as it is sorted in place during packing.
+        List<Entry<T, Geometry>> entries =
+                elements.stream()
+                        .map(
+                                element ->
+                                        Entry.<T, Geometry>entry(
+                                                payloadFor.apply(element),
+                                                rectangleFor.apply(element)))
+                        .collect(Collectors.toCollection(ArrayList::new));
+        tree = com.github.davidmoten.rtreemulti.RTree.dimensions(numberDimensions).create(entries);
+    }
+
     /**
      * The total number of items stored in the tree.
      *
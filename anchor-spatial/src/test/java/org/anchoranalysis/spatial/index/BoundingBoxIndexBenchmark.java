@@ -0,0 +1,167 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.spatial.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.BoundingBoxIndex;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the execution-time of a {@link SpatialGridIndex} and a {@link BoundingBoxRTree}, to
+ * determine when {@link BoundingBoxIndexFactory} should select each.
+ *
+ * <p>The workload resembles that of detected nuclei: each box is created, and then queried for the
+ * boxes that intersect with it, with the boxes covering about a quarter of the image.
+ *
+ * <p>This is not run with the other tests, as its name does not end in {@code Test}. Instead, run
+ * it explicitly with {@code mvn test -Dtest=BoundingBoxIndexBenchmark}, which prints a table of
+ * timings.
+ *
+ * @author Owen Feehan
+ */
+class BoundingBoxIndexBenchmark {
+
+    /** The numbers of boxes to compare. */
+    private static final int[] NUMBER_BOXES = {16, 32, 64, 128, 256, 512, 1024, 4096, 16384};
+
+    /**
+     * How much larger a fifth of the boxes are than the remainder, so that the 90th percentile
+     * extent is this multiple of the median extent.
+     */
+    private static final double[] SPREAD = {1.0, 2.0, 4.0, 6.0, 8.0, 12.0, 16.0};
+
+    /** The number of boxes, for which the {@link #SPREAD} is varied. */
+    private static final int NUMBER_BOXES_FOR_SPREAD = 4096;
+
+    /** The approximate width and height of a typical box. */
+    private static final int TYPICAL_EXTENT = 12;
+
+    /** The minimum total number of boxes that are indexed, for each timing. */
+    private static final int TARGET_BOXES_PER_TIMING = 100_000;
+
+    /** The number of timings, from which the median is reported. */
+    private static final int NUMBER_REPEATS = 5;
+
+    @Test
+    void benchmark() {
+        // Warm-up, so that both indices are compiled before timing.
+        for (int numberBoxes : NUMBER_BOXES) {
+            time(numberBoxes, 1.0);
+        }
+
+        System.out.printf(
+                "%8s %6s %12s %12s %8s%n", "boxes", "spread", "grid (us)", "rtree (us)", "ratio");
+        for (int numberBoxes : NUMBER_BOXES) {
+            print(numberBoxes, 1.0);
+        }
+        for (double spread : SPREAD) {
+            print(NUMBER_BOXES_FOR_SPREAD, spread);
+        }
+    }
+
+    /** Prints the median time, per index-creation, for each type of index. */
+    private static void print(int numberBoxes, double spread) {
+        double[] times = time(numberBoxes, spread);
+        System.out.printf(
+                "%8d %6.1f %12.1f %12.1f %8.2f%n",
+                numberBoxes, spread, times[0], times[1], times[1] / times[0]);
+    }
+
+    /** The median time in microseconds to create and query a grid, and an r-tree, in that order. */
+    private static double[] time(int numberBoxes, double spread) {
+        List<BoundingBox> boxes = createBoxes(numberBoxes, spread, new Random(numberBoxes));
+        List<Integer> payloads = IntStream.range(0, numberBoxes).boxed().toList();
+        int iterations = Math.max(1, TARGET_BOXES_PER_TIMING / numberBoxes);
+
+        double[] grid = new double[NUMBER_REPEATS];
+        double[] tree = new double[NUMBER_REPEATS];
+        for (int repeat = 0; repeat < NUMBER_REPEATS; repeat++) {
+            grid[repeat] =
+                    timeIterations(
+                            iterations, boxes, () -> new SpatialGridIndex<>(payloads, boxes::get));
+            tree[repeat] =
+                    timeIterations(
+                            iterations, boxes, () -> new BoundingBoxRTree<>(payloads, boxes::get));
+        }
+        return new double[] {median(grid), median(tree)};
+    }
+
+    /** The mean time in microseconds, to create an index and query every box. */
+    private static double timeIterations(
+            int iterations,
+            List<BoundingBox> boxes,
+            Supplier<BoundingBoxIndex<Integer>> createIndex) {
+        long start = System.nanoTime();
+        long found = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            BoundingBoxIndex<Integer> index = createIndex.get();
+            for (BoundingBox box : boxes) {
+                found += index.intersectsWithStream(box).count();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found < boxes.size()) {
+            throw new IllegalStateException("Every box should intersect at least with itself");
+        }
+        return elapsed / (iterations * 1000.0);
+    }
+
+    /**
+     * Creates randomly positioned boxes, about a quarter of whose area overlaps with other boxes.
+     */
+    private static List<BoundingBox> createBoxes(int numberBoxes, double spread, Random random) {
+        int width = (int) Math.sqrt(numberBoxes * TYPICAL_EXTENT * TYPICAL_EXTENT * 4.0);
+        Function<Integer, Integer> extentFor =
+                index -> {
+                    int extent = TYPICAL_EXTENT - 2 + random.nextInt(5);
+                    return index % 5 == 0 ? (int) (extent * spread) : extent;
+                };
+        List<BoundingBox> boxes = new ArrayList<>(numberBoxes);
+        for (int index = 0; index < numberBoxes; index++) {
+            Extent extent = new Extent(extentFor.apply(index), extentFor.apply(index), 1);
+            Point3i corner = new Point3i(random.nextInt(width), random.nextInt(width), 0);
+            boxes.add(BoundingBox.createReuse(corner, extent));
+        }
+        return boxes;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,82 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+
+package org.anchoranalysis.spatial.index;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link BoundingBoxIndexFactory}.
+ *
+ * @author Owen Feehan
+ */
+class BoundingBoxIndexFactoryTest {
+
+    /** A grid is created for many similarly-sized boxes. */
+    @Test
+    void testSimilarlySized() {
+        assertInstanceOf(SpatialGridIndex.class, create(1000, 1));
+    }
+
+    /** An r-tree is created when too few boxes exist. */
+    @Test
+    void testFewBoxes() {
+        assertInstanceOf(BoundingBoxRTree.class, create(10, 1));
+    }
+
+    /** An r-tree is created when a fifth of the boxes are much larger than the others. */
+    @Test
+    void testDissimilarlySized() {
+        assertInstanceOf(BoundingBoxRTree.class, create(1000, 16));
+    }
+
+    /**
+     * Creates an index for boxes with an extent of 5, except every fifth box, which has an extent
+     * multiplied by {@code spread}.
+     */
+    private static Object create(int numberBoxes, int spread) {
+        List<BoundingBox> boxes =
+                IntStream.range(0, numberBoxes)
+                        .mapToObj(
+                                index -> {
+                                    int extent = index % 5 == 0 ? 5 * spread : 5;
+                                    return BoundingBox.createReuse(
+                                            new Point3i(index * 10, 0, 0),
+                                            new Extent(extent, extent, 1));
+                                })
+                        .toList();
+        List<Integer> payloads = IntStream.range(0, numberBoxes).boxed().toList();
+        return BoundingBoxIndexFactory.create(payloads, boxes::get);
+    }
+}
@@ -0,0 +1,139 @@
+/*-
+ * #%L
+ * anchor-spatial
+ * %%
+ * Copyright (C) 2010 - 2022 Owen Feehan, ETH Zurich, University of Zurich, Hoffmann-La Roche
+ * %%
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ * #L%
+ */
+package org.anchoranalysis.spatial.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.anchoranalysis.spatial.box.BoundingBox;
+import org.anchoranalysis.spatial.box.Extent;
+import org.anchoranalysis.spatial.point.Point3i;
+import org.anchoranalysis.spatial.rtree.BoundingBoxRTree;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link SpatialGridIndex} by comparing its queries to those of a {@link BoundingBoxRTree}.
+ *
+ * @author Owen Feehan
+ */
+class SpatialGridIndexTest {
+
+    /** The number of boxes to randomly create. */
+    private static final int NUMBER_BOXES = 500;
+
+    /** The number of queries to perform of each type. */
+    private static final int NUMBER_QUERIES = 200;
+
+    /** The boxes, indexed by their payload. */
+    private List<BoundingBox> boxes;
+
+    /** The index under test. */
+    private SpatialGridIndex<Integer> grid;
+
+    /** The reference index whose results are deemed correct. */
+    private BoundingBoxRTree<Integer> tree;
+
+    private Random random = new Random(42);
+
+    @BeforeEach
+    void initialize() {
+        boxes = IntStream.range(0, NUMBER_BOXES).mapToObj(index -> randomBox()).toList();
+        List<Integer> payloads = IntStream.range(0, NUMBER_BOXES).boxed().toList();
+        grid = new SpatialGridIndex<>(payloads, boxes::get);
+        tree = new BoundingBoxRTree<>(payloads, boxes::get);
+    }
+
+    @Test
+    void intersectsWith() {
+        assertSameQueries();
+    }
+
+    @Test
+    void contains() {
+        for (int i = 0; i < NUMBER_QUERIES; i++) {
+            Point3i point = randomPoint();
+            assertEquals(tree.contains(point), grid.contains(point));
+        }
+    }
+
+    @Test
+    void addAndRemove() {
+        for (int index = 0; index < NUMBER_BOXES; index += 3) {
+            grid.remove(boxes.get(index), index);
+            tree.remove(boxes.get(index), index);
+        }
+
+        // Includes a box outside the region that the grid was created with.
+        BoundingBox outside =
+                BoundingBox.createReuse(new Point3i(500, 500, 0), new Extent(4, 4, 1));
+        grid.add(outside, NUMBER_BOXES);
+        tree.add(outside, NUMBER_BOXES);
+
+        assertEquals(tree.size(), grid.size());
+        assertEquals(tree.asSet(), grid.asSet());
+        assertEquals(tree.intersectsWith(outside), grid.intersectsWith(outside));
+        assertSameQueries();
+    }
+
+    /** Removed boxes are no longer reported, and the same boxes can subsequently be added again. */
+    @Test
+    void removeAllAndAddAgain() {
+        for (int index = 0; index < NUMBER_BOXES; index++) {
+            grid.remove(boxes.get(index), index);
+        }
+        assertTrue(grid.isEmpty());
+        assertTrue(grid.asSet().isEmpty());
+
+        for (int index = 0; index < NUMBER_BOXES; index++) {
+            grid.add(boxes.get(index), index);
+        }
+        assertEquals(tree.asSet(), grid.asSet());
+        assertSameQueries();
+    }
+
+    /** Asserts that random intersection queries produce the same result as the reference. */
+    private void assertSameQueries() {
+        for (int i = 0; i < NUMBER_QUERIES; i++) {
+            BoundingBox query = randomBox();
+            assertEquals(tree.intersectsWith(query), grid.intersectsWith(query));
+        }
+    }
+
+    /** A randomly positioned box of similar size to others. */
+    private BoundingBox randomBox() {
+        Extent extent = new Extent(5 + random.nextInt(10), 5 + random.nextInt(10), 1);
+        return BoundingBox.createReuse(randomPoint(), extent);
+    }
+
+    /** A random point in two dimensions. */
+    private Point3i randomPoint() {
+        return new Point3i(random.nextInt(200), random.nextInt(200), 0);
+    }
+}
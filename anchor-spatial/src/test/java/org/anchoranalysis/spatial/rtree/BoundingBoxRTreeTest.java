@@ -116,6 +116,21 @@ class BoundingBoxRTreeTest {
         checker.assertSize(1);
     }
 
+    /** A tree populated in bulk, should produce identical queries, and remain mutable. */
+    @Test
+    void bulkLoad() {
+        List<BoundingBox> boxes = Arrays.asList(BOX1, BOX2, BOX3);
+        tree = new BoundingBoxRTree<>(Arrays.asList(1, 2, 3), index -> boxes.get(index - 1));
+        checker = new RTreeChecker(tree);
+
+        checker.assertSize(3);
+        intersectsWith();
+        contains();
+
+        tree.add(BOX_ADDITIONAL, 4);
+        assertContainsSize(BOX3, Arrays.asList(2, 3, 4), 4);
+    }
+
     /** Assert that particular payloads are expected to intersect with a box. */
     private void assertIntersectsWith(BoundingBox box, List<Integer> expectedIdentifiers) {
         RTreeChecker.assertUnordered(expectedIdentifiers, tree.intersectsWith(box));
@@ -93,6 +93,22 @@ class IntervalRTreeTest {
         checker.assertSize(2);
     }
 
+    /** A tree populated in bulk, should produce identical queries. */
+    @Test
+    void bulkLoad() {
+        double[][] intervals = {{1.0, 3.0}, {2.0, 5.0}, {5.0, 8.0}};
+        tree =
+                new IntervalRTree<>(
+                        Arrays.asList(1, 2, 3),
+                        index -> intervals[index - 1][0],
+                        index -> intervals[index - 1][1]);
+        checker = new RTreeChecker(tree);
+
+        checker.assertSize(3);
+        intersectsWith();
+        contains();
+    }
+
     /**
      * Asserts that the tree contains particular identifiers at {@code point}, and the total size of
      * the r-tree is as expected.
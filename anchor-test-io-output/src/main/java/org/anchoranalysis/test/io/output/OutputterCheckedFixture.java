@@ -91,6 +91,7 @@ public class OutputterCheckedFixture {
                     new OutputWriteContext(outputManager.getOutputWriteSettings()),
                     new PathPrefixerContext(),
                     Optional.empty(),
+                    false,
                     Optional.empty());
         } catch (PathPrefixerException e) {
             throw new BindFailedException(e);